@@ -0,0 +1,289 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchRequest;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 클래스 이름 : AiAnalyzeBatcher
+ * 기능 : analyze 요청을 마이크로 배치로 묶어 보낸다. 여러 윈도우/owner의 피처 벡터를 최대 max-delay-ms 동안,
+ *        또는 max-items개가 모일 때까지 모아 batch URL로 한 번에 보내고, 응답 results를 순서대로 각 요청에 돌려준다.
+ *
+ * - 모인 요청이 1건뿐이면 기존 analyze URL로 단건 전송한다.
+ * - 서버가 batch를 지원하지 않으면(404/405/415/422/501) 해당 배치를 단건으로 다시 보내고,
+ *   unsupported-recheck-ms 동안은 batch 없이 단건으로만 보낸다. 응답 개수가 맞지 않을 때도 단건으로 다시 보낸다.
+ * - 타임아웃 등 그 밖의 실패는 배치에 담긴 요청 모두 실패로 돌려준다. (같은 서버에 단건으로 다시 몰리지 않게)
+ * - 우선순위 스케줄러(ai.scheduler)를 쓰면 동시에 들어오는 요청이 스케줄러의 max-in-flight를 넘지 않으므로
+ *   max-items도 그 값으로 줄여 쓴다. (더 큰 배치는 채워지지 않고 max-delay-ms만 기다리게 됨)
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiAnalyzeBatcher {
+
+    @Value("${ai.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.analyze.url:http://localhost:8000/api/analyze}")
+    private String analyzeUrl;
+
+    @Value("${ai.batch.url:${ai.analyze.url:http://localhost:8000/api/analyze}/batch}")
+    private String batchUrl;
+
+    @Value("${ai.batch.max-items:16}")
+    private int maxItems;
+
+    @Value("${ai.scheduler.enabled:true}")
+    private boolean schedulerEnabled;
+
+    @Value("${ai.scheduler.max-in-flight:16}")
+    private int schedulerMaxInFlight;
+
+    @Value("${ai.batch.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${ai.batch.unsupported-recheck-ms:300000}")
+    private long unsupportedRecheckMs;
+
+    private final AiAsyncHttpClient asyncClient;
+
+    private ScheduledExecutorService flushTimer;
+
+    // 모으는 중인 배치 (this로 보호)
+    private List<Item> pending = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+
+    // batch 미지원 판정 후 다시 시도할 시각 (0이면 지원)
+    private volatile long batchRecheckAtMs;
+
+    // 통계 (this로 보호)
+    private long items;
+    private long batches;
+    private long batchedItems;
+    private long singleCalls;
+    private long fallbackItems;
+    private long failedItems;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 배치 마감 타이머 스레드를 만든다. max-items는 스케줄러의 동시 요청 한도 이하로 맞춘다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        maxItems = Math.max(1, maxItems);
+        if (enabled && schedulerEnabled && maxItems > schedulerMaxInFlight) {
+            log.warn("[AiAnalyzeBatcher] max-items({})가 scheduler max-in-flight({})보다 큼 -> {}로 제한",
+                    maxItems, schedulerMaxInFlight, Math.max(1, schedulerMaxInFlight));
+            maxItems = Math.max(1, schedulerMaxInFlight);
+        }
+        if (enabled) {
+            flushTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "AiBatch-Flush");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        log.info("[AiAnalyzeBatcher] init: enabled={} batchUrl={} maxItems={} maxDelayMs={} unsupportedRecheckMs={}",
+                enabled, batchUrl, maxItems, maxDelayMs, unsupportedRecheckMs);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 모으는 중인 배치를 바로 보내고 타이머 스레드를 종료한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (flushTimer == null) return;
+        flushDue();
+        flushTimer.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : isEnabled
+     * 기능 : 마이크로 배치 사용 여부를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - 사용하면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 함수 이름 : analyze
+     * 기능 : 피처 벡터 1건을 현재 배치에 넣는다. 배치가 max-items에 도달하면 바로 보내고,
+     *        첫 건이면 max-delay-ms 뒤에 마감되도록 타이머를 건다.
+     * 매개변수 : payload - 윈도우 집계된 피처 벡터
+     * 반환값 : CompletableFuture<AiResponse> - 이 요청에 해당하는 AI 서버 응답
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public CompletableFuture<AiResponse> analyze(AiPayload payload) {
+        Item item = new Item(payload, new CompletableFuture<>());
+        List<Item> full = null;
+        synchronized (this) {
+            items++;
+            pending.add(item);
+            if (pending.size() >= maxItems) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                pendingFlush = flushTimer.schedule(this::flushDue, Math.max(0L, maxDelayMs), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) send(full);
+        return item.result();
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 배치 요청 수, 평균 배치 크기, 단건/폴백 수, 서버 batch 지원 여부를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiBatchStatsResponse - 배치 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized AiBatchStatsResponse getStats() {
+        long recheckAt = batchRecheckAtMs;
+        return AiBatchStatsResponse.builder()
+                .enabled(enabled)
+                .batchUrl(batchUrl)
+                .maxItems(maxItems)
+                .maxDelayMs(maxDelayMs)
+                .items(items)
+                .batches(batches)
+                .batchedItems(batchedItems)
+                .avgBatchSize(batches > 0 ? (double) batchedItems / batches : 0.0)
+                .singleCalls(singleCalls)
+                .fallbackItems(fallbackItems)
+                .failedItems(failedItems)
+                .batchSupported(recheckAt == 0L || System.currentTimeMillis() >= recheckAt)
+                .batchRecheckAtMs(recheckAt)
+                .build();
+    }
+
+    private void flushDue() {
+        List<Item> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    /** this 잠금 안에서 호출: 모은 배치를 꺼내고 마감 타이머를 취소한다 */
+    private List<Item> takePending() {
+        List<Item> batch = pending;
+        pending = new ArrayList<>(Math.min(maxItems, 64));
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Item> batch) {
+        long recheckAt = batchRecheckAtMs;
+        boolean batchAllowed = recheckAt == 0L || System.currentTimeMillis() >= recheckAt;
+        if (batch.size() == 1 || !batchAllowed) {
+            synchronized (this) {
+                singleCalls += batch.size();
+            }
+            sendSingles(batch);
+            return;
+        }
+
+        synchronized (this) {
+            batches++;
+            batchedItems += batch.size();
+        }
+        List<AiPayload> payloads = new ArrayList<>(batch.size());
+        for (Item it : batch) payloads.add(it.payload());
+        asyncClient.postJson(AiHttpClient.Endpoint.ANALYZE, batchUrl,
+                        AiBatchRequest.builder().items(payloads).build(), AiBatchResponse.class)
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        List<AiResponse> results = (response != null) ? response.getResults() : null;
+                        if (results != null && results.size() == batch.size()) {
+                            if (recheckAt != 0L) {
+                                batchRecheckAtMs = 0L;
+                                log.info("[AiAnalyzeBatcher] batch 지원 확인, batch 전송 재개: {}", batchUrl);
+                            }
+                            for (int i = 0; i < batch.size(); i++) batch.get(i).result().complete(results.get(i));
+                            return;
+                        }
+                        log.warn("[AiAnalyzeBatcher] batch 응답 개수 불일치(요청 {}건, 응답 {}건), 단건으로 재전송",
+                                batch.size(), (results != null) ? results.size() : null);
+                        fallback(batch);
+                        return;
+                    }
+
+                    Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                    if (isUnsupported(cause)) {
+                        batchRecheckAtMs = System.currentTimeMillis() + Math.max(1L, unsupportedRecheckMs);
+                        log.warn("[AiAnalyzeBatcher] AI 서버가 batch를 지원하지 않음({}), {}ms 동안 단건으로 전송",
+                                cause.getMessage(), unsupportedRecheckMs);
+                        fallback(batch);
+                        return;
+                    }
+                    synchronized (this) {
+                        failedItems += batch.size();
+                    }
+                    for (Item it : batch) it.result().completeExceptionally(cause);
+                });
+    }
+
+    private void fallback(List<Item> batch) {
+        synchronized (this) {
+            fallbackItems += batch.size();
+        }
+        sendSingles(batch);
+    }
+
+    private void sendSingles(List<Item> batch) {
+        for (Item it : batch) {
+            asyncClient.postJson(AiHttpClient.Endpoint.ANALYZE, analyzeUrl, it.payload(), AiResponse.class)
+                    .whenComplete((response, error) -> {
+                        if (error != null) it.result().completeExceptionally(error);
+                        else it.result().complete(response);
+                    });
+        }
+    }
+
+    private static boolean isUnsupported(Throwable cause) {
+        if (!(cause instanceof AiAsyncHttpClient.HttpStatusException e)) return false;
+        int status = e.getStatusCode();
+        return status == 404 || status == 405 || status == 415 || status == 422 || status == 501;
+    }
+
+    /** 배치에 담긴 요청 1건과 호출자에게 돌려준 결과 */
+    private record Item(AiPayload payload, CompletableFuture<AiResponse> result) {}
+}
@@ -0,0 +1,321 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiSchedulerStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 클래스 이름 : AiAnalyzeScheduler
+ * 기능 : analyze 요청을 AI 서버로 보내기 전에 로컬 위험도 순으로 줄 세운다.
+ *        동시 요청이 max-in-flight에 도달하면 새 요청은 대기열에 들어가고, 자리가 나면 위험도가 가장 높은 요청부터 보낸다.
+ *
+ * - 순위: LocalFallbackClassifier.score(encrypt-like, 랜덤 확장자, rename/삭제 폭주, 엔트로피 증가) → 변경 파일 수 → 도착 순서
+ * - 대기 중인 요청과 피처가 완전히 같은 요청은 새로 줄 서지 않고 그 응답을 같이 받는다. (합침)
+ * - 대기열이 max-queued를 넘으면 가장 낮은 순위의 요청을 RejectedExecutionException으로 밀어낸다.
+ *   (AiService가 로컬 대체 판정을 내고, 재시도 큐가 나중에 AI 판정으로 바꾼다)
+ * - 등급(SAFE/WARNING/DANGER)별 대기 시간은 Micrometer Timer(ai.scheduler.queue.wait)와 /ai/scheduler/stats로 본다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiAnalyzeScheduler {
+
+    private static final List<String> SEVERITIES = List.of("DANGER", "WARNING", "SAFE");
+
+    /** 위험도 높은 순 → 변경 파일 많은 순 → 먼저 온 순 */
+    private static final Comparator<Pending> PRIORITY = Comparator
+            .comparingDouble((Pending p) -> -p.score)
+            .thenComparingInt(p -> -p.changedFiles)
+            .thenComparingLong(p -> p.seq);
+
+    @Value("${ai.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.scheduler.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${ai.scheduler.max-queued:256}")
+    private int maxQueued;
+
+    private final LocalFallbackClassifier classifier;
+    private final MeterRegistry meterRegistry;
+
+    private ExecutorService dispatcher;
+
+    // 대기열 상태 (this로 보호)
+    private final TreeSet<Pending> waiting = new TreeSet<>(PRIORITY);
+    private final Map<Features, Pending> waitingByFeatures = new HashMap<>();
+    private int inFlight;
+    private long seq;
+
+    private final Map<String, SeverityCounter> counters = new LinkedHashMap<>();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 등급별 대기 시간 Timer와 대기 요청 시작용 스레드를 만든다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        maxInFlight = Math.max(1, maxInFlight);
+        maxQueued = Math.max(1, maxQueued);
+        for (String severity : SEVERITIES) {
+            counters.put(severity, new SeverityCounter(Timer.builder("ai.scheduler.queue.wait")
+                    .description("analyze 요청이 AI 서버로 나가기 전 위험도 대기열에서 기다린 시간")
+                    .tag("severity", severity)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)));
+        }
+        // 완료 콜백 스레드에서 다음 요청을 바로 시작하면 즉시 실패가 이어질 때 재귀가 깊어지므로 별도 스레드에서 시작한다
+        dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "AiScheduler-Dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("[AiAnalyzeScheduler] init: enabled={} maxInFlight={} maxQueued={}", enabled, maxInFlight, maxQueued);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 대기 중인 요청을 실패 처리하고 스레드를 종료한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        List<Pending> dropped;
+        synchronized (this) {
+            dropped = new ArrayList<>(waiting);
+            waiting.clear();
+            waitingByFeatures.clear();
+        }
+        for (Pending p : dropped) p.result.completeExceptionally(new RejectedExecutionException("AI 스케줄러 종료"));
+        if (dispatcher != null) dispatcher.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : submit
+     * 기능 : analyze 요청 1건을 위험도 순위에 따라 보낸다. 자리가 있으면 바로 보내고, 없으면 대기열에서 순서를 기다린다.
+     * 매개변수 : payload - 윈도우 피처 벡터, call - 실제로 AI 서버에 보내는 동작 (배치기 또는 비동기 클라이언트)
+     * 반환값 : CompletableFuture<AiResponse> - AI 서버 응답. 대기열에서 밀려나거나 거절되면 RejectedExecutionException으로 실패한다.
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public CompletableFuture<AiResponse> submit(AiPayload payload, Supplier<CompletableFuture<AiResponse>> call) {
+        if (!enabled || payload == null) return call.get();
+
+        double score = LocalFallbackClassifier.score(payload);
+        String severity = classifier.severityOf(score);
+        SeverityCounter counter = counters.get(severity);
+        Features key = Features.of(payload);
+
+        Pending pending;
+        Pending evicted = null;
+        synchronized (this) {
+            counter.submitted++;
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                counter.started++;
+                pending = null;
+            } else {
+                Pending same = waitingByFeatures.get(key);
+                if (same != null) {
+                    counter.coalesced++;
+                    return same.result.thenApply(r -> r);
+                }
+                pending = new Pending(seq++, score, payload.getChangedFilesCount(), severity, key, call, System.nanoTime());
+                if (waiting.size() >= maxQueued) {
+                    Pending lowest = waiting.last();
+                    if (PRIORITY.compare(pending, lowest) >= 0) {
+                        counter.dropped++;
+                        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                                "AI 스케줄러 대기열 초과: severity=" + severity + " maxQueued=" + maxQueued));
+                    }
+                    waiting.pollLast();
+                    waitingByFeatures.remove(lowest.key, lowest);
+                    counters.get(lowest.severity).dropped++;
+                    evicted = lowest;
+                }
+                waiting.add(pending);
+                waitingByFeatures.put(key, pending);
+            }
+        }
+
+        if (evicted != null) {
+            evicted.result.completeExceptionally(new RejectedExecutionException(
+                    "위험도가 더 높은 요청에 밀려 대기열에서 제외: severity=" + evicted.severity));
+        }
+        if (pending == null) {
+            counter.queueWait.record(0L, TimeUnit.NANOSECONDS);
+            return run(call);
+        }
+        return pending.result;
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 동시 요청 수, 대기열 길이와 등급별 제출/시작/합침/폐기 건수, 대기 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiSchedulerStatsResponse - 스케줄러 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiSchedulerStatsResponse getStats() {
+        List<AiSchedulerStatsResponse.SeverityStats> severities = new ArrayList<>();
+        int currentInFlight;
+        int currentQueued;
+        synchronized (this) {
+            currentInFlight = inFlight;
+            currentQueued = waiting.size();
+            Map<String, Integer> queuedBySeverity = new HashMap<>();
+            for (Pending p : waiting) queuedBySeverity.merge(p.severity, 1, Integer::sum);
+            for (Map.Entry<String, SeverityCounter> e : counters.entrySet()) {
+                SeverityCounter c = e.getValue();
+                severities.add(AiSchedulerStatsResponse.SeverityStats.builder()
+                        .severity(e.getKey())
+                        .submitted(c.submitted)
+                        .started(c.started)
+                        .coalesced(c.coalesced)
+                        .dropped(c.dropped)
+                        .queued(queuedBySeverity.getOrDefault(e.getKey(), 0))
+                        .meanQueueWaitMs(c.queueWait.count() > 0 ? c.queueWait.mean(TimeUnit.MILLISECONDS) : 0.0)
+                        .p99QueueWaitMs(percentile(c.queueWait, 0.99))
+                        .maxQueueWaitMs(c.queueWait.max(TimeUnit.MILLISECONDS))
+                        .build());
+            }
+        }
+        return AiSchedulerStatsResponse.builder()
+                .enabled(enabled)
+                .maxInFlight(maxInFlight)
+                .maxQueued(maxQueued)
+                .inFlight(currentInFlight)
+                .queued(currentQueued)
+                .severities(severities)
+                .build();
+    }
+
+    /** 요청을 보내고, 끝나면 자리를 다음 요청에 넘긴다 */
+    private CompletableFuture<AiResponse> run(Supplier<CompletableFuture<AiResponse>> call) {
+        CompletableFuture<AiResponse> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((r, e) -> release());
+        return future;
+    }
+
+    /** 자리 1개 반납: 대기 중인 요청이 있으면 가장 높은 순위부터 시작하고, 없으면 동시 요청 수를 줄인다 */
+    private void release() {
+        Pending next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            waitingByFeatures.remove(next.key, next);
+            counters.get(next.severity).started++;
+        }
+        Pending started = next;
+        try {
+            dispatcher.execute(() -> start(started));
+        } catch (RejectedExecutionException e) {
+            started.result.completeExceptionally(e);
+            release();
+        }
+    }
+
+    private void start(Pending p) {
+        counters.get(p.severity).queueWait.record(System.nanoTime() - p.enqueuedNanos, TimeUnit.NANOSECONDS);
+        run(p.call).whenComplete((r, e) -> {
+            if (e != null) p.result.completeExceptionally(e);
+            else p.result.complete(r);
+        });
+    }
+
+    private static double percentile(Timer timer, double p) {
+        if (timer.count() == 0) return 0.0;
+        for (var v : timer.takeSnapshot().percentileValues()) {
+            if (Math.abs(v.percentile() - p) < 1e-9) return v.value(TimeUnit.MILLISECONDS);
+        }
+        return 0.0;
+    }
+
+    /** 대기 중인 요청 1건 */
+    private static final class Pending {
+        final long seq;
+        final double score;
+        final int changedFiles;
+        final String severity;
+        final Features key;
+        final Supplier<CompletableFuture<AiResponse>> call;
+        final long enqueuedNanos;
+        final CompletableFuture<AiResponse> result = new CompletableFuture<>();
+
+        Pending(long seq, double score, int changedFiles, String severity, Features key,
+                Supplier<CompletableFuture<AiResponse>> call, long enqueuedNanos) {
+            this.seq = seq;
+            this.score = score;
+            this.changedFiles = changedFiles;
+            this.severity = severity;
+            this.key = key;
+            this.call = call;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /** 등급별 건수 (스케줄러 락으로 보호) + 대기 시간 Timer */
+    private static final class SeverityCounter {
+        final Timer queueWait;
+        long submitted;
+        long started;
+        long coalesced;
+        long dropped;
+
+        SeverityCounter(Timer queueWait) {
+            this.queueWait = queueWait;
+        }
+    }
+
+    /** 합침 판단용 피처 값 (양자화하지 않음: 응답이 완전히 같아야 하는 요청만 합친다) */
+    private record Features(int read, int write, int delete, int rename, int encryptLike,
+                            int changed, int randomExt, double entropy, double size) {
+        static Features of(AiPayload p) {
+            return new Features(p.getFileReadCount(), p.getFileWriteCount(), p.getFileDeleteCount(),
+                    p.getFileRenameCount(), p.getFileEncryptLikeCount(), p.getChangedFilesCount(),
+                    p.getRandomExtensionFlag(), p.getEntropyDiffMean(), p.getFileSizeDiffMean());
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiAsyncStatsResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 클래스 이름 : AiAsyncHttpClient
+ * 기능 : AI 서버 비동기 호출 클라이언트 (JDK HttpClient, CompletableFuture).
+ *        호출 스레드는 요청을 보내 놓고 바로 돌아가므로, 여러 윈도우의 분석이 스레드 수와 무관하게 겹쳐서 진행된다.
+ *
+ * - 엔드포인트(analyze / family / shadow)마다 동시에 보낼 수 있는 요청 수(max-in-flight)를 제한하고,
+ *   넘치는 요청은 max-queued까지 FIFO로 대기시킨다. 대기열도 가득 차면 즉시 실패(RejectedExecutionException)한다.
+ * - total deadline(ai.http.total-deadline-ms)을 넘긴 요청은 취소한다. (대기열에서 기다린 시간은 포함하지 않음)
+ * - 지연 시간은 Micrometer Timer(ai.http.client.async.requests), 대기 시간은 ai.http.client.async.queue.wait로 발행한다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiAsyncHttpClient {
+
+    static final String TIMER_NAME = "ai.http.client.async.requests";
+
+    @Value("${ai.http.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.http.total-deadline-ms:8000}")
+    private long totalDeadlineMs;
+
+    @Value("${ai.async.analyze.max-in-flight:16}")
+    private int analyzeMaxInFlight;
+
+    @Value("${ai.async.family.max-in-flight:4}")
+    private int familyMaxInFlight;
+
+    @Value("${ai.async.shadow.max-in-flight:2}")
+    private int shadowMaxInFlight;
+
+    @Value("${ai.async.max-queued:512}")
+    private int maxQueued;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<AiHttpClient.Endpoint, Lane> lanes = new EnumMap<>(AiHttpClient.Endpoint.class);
+    private ExecutorService ioExecutor;
+    private HttpClient httpClient;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : JDK HttpClient와 엔드포인트별 동시 요청 제한(lane)을 만든다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        ioExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "AiAsync-Http-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(Math.max(1L, connectTimeoutMs)))
+                .executor(ioExecutor)
+                .build();
+        lanes.put(AiHttpClient.Endpoint.ANALYZE, new Lane(AiHttpClient.Endpoint.ANALYZE, analyzeMaxInFlight));
+        lanes.put(AiHttpClient.Endpoint.FAMILY, new Lane(AiHttpClient.Endpoint.FAMILY, familyMaxInFlight));
+        lanes.put(AiHttpClient.Endpoint.SHADOW, new Lane(AiHttpClient.Endpoint.SHADOW, shadowMaxInFlight));
+        log.info("[AiAsyncHttpClient] init: maxInFlight(analyze={}, family={}, shadow={}) maxQueued={} totalDeadlineMs={}",
+                analyzeMaxInFlight, familyMaxInFlight, shadowMaxInFlight, maxQueued, totalDeadlineMs);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 대기 중인 요청을 실패 처리하고 I/O 스레드를 종료한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        for (Lane lane : lanes.values()) {
+            int dropped = lane.drain();
+            if (dropped > 0) log.warn("[AiAsyncHttpClient] 종료: endpoint={} 대기 요청 {}건 취소", lane.endpoint, dropped);
+        }
+        ioExecutor.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : postJson
+     * 기능 : JSON POST 요청을 비동기로 보낸다. 동시 요청 수가 한도에 도달했으면 대기열에서 순서를 기다린다.
+     * 매개변수 : endpoint - 호출 대상(동시 요청 제한/지표 구분), url - 요청 URL, body - 요청 본문, responseType - 응답 타입
+     * 반환값 : CompletableFuture<T> - 응답 본문. 대기열 초과는 RejectedExecutionException, deadline 초과는 TimeoutException,
+     *          응답 대기 초과는 HttpTimeoutException, 2xx가 아닌 응답은 HttpStatusException으로 실패한다.
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public <T> CompletableFuture<T> postJson(AiHttpClient.Endpoint endpoint, String url, Object body, Class<T> responseType) {
+        Lane lane = lanes.get(endpoint);
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(Math.max(1L, totalDeadlineMs)))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long enqueuedNanos = System.nanoTime();
+        Runnable start = () -> send(lane, request, responseType, result, enqueuedNanos);
+        if (!lane.offer(new Pending(start, result))) {
+            lane.timer("REJECTED").record(0L, TimeUnit.NANOSECONDS);
+            result.completeExceptionally(new RejectedExecutionException(
+                    "AI 비동기 요청 대기열 초과: endpoint=" + endpoint + " maxInFlight=" + lane.maxInFlight + " maxQueued=" + maxQueued));
+        }
+        return result;
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 엔드포인트별 동시 요청 수, 대기열 길이, 거절 수, 대기 시간, 결과별 건수와 지연 시간 분위수를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiAsyncStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiAsyncStatsResponse> getStats() {
+        List<AiAsyncStatsResponse> out = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            Map<String, Long> byOutcome = new TreeMap<>();
+            for (Map.Entry<String, Timer> e : lane.timers.entrySet()) {
+                if (e.getValue().count() > 0) byOutcome.put(e.getKey(), e.getValue().count());
+            }
+            Timer success = lane.timers.get("SUCCESS");
+            int inFlight;
+            int queued;
+            long submitted;
+            synchronized (lane) {
+                inFlight = lane.inFlight;
+                queued = lane.waiting.size();
+                submitted = lane.submitted;
+            }
+            out.add(AiAsyncStatsResponse.builder()
+                    .endpoint(lane.endpoint.name())
+                    .maxInFlight(lane.maxInFlight)
+                    .maxQueued(maxQueued)
+                    .inFlight(inFlight)
+                    .queued(queued)
+                    .submitted(submitted)
+                    .byOutcome(byOutcome)
+                    .meanQueueWaitMs(lane.queueWait.count() > 0 ? lane.queueWait.mean(TimeUnit.MILLISECONDS) : 0.0)
+                    .maxQueueWaitMs(lane.queueWait.max(TimeUnit.MILLISECONDS))
+                    .successP50Ms(percentile(success, 0.5))
+                    .successP90Ms(percentile(success, 0.9))
+                    .successP99Ms(percentile(success, 0.99))
+                    .build());
+        }
+        return out;
+    }
+
+    private <T> void send(Lane lane, HttpRequest request, Class<T> responseType,
+                          CompletableFuture<T> result, long enqueuedNanos) {
+        long startNanos = System.nanoTime();
+        lane.queueWait.record(startNanos - enqueuedNanos, TimeUnit.NANOSECONDS);
+
+        CompletableFuture<HttpResponse<byte[]>> exchange;
+        try {
+            exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            lane.finish();
+            lane.timer("ERROR").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            result.completeExceptionally(e);
+            return;
+        }
+        // HttpRequest.timeout은 응답 헤더까지만 제한하므로, 본문까지 포함한 전체 시간은 별도로 제한하고 넘기면 교환을 취소한다
+        exchange.copy().orTimeout(Math.max(1L, totalDeadlineMs), TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            lane.finish();
+            String outcome = "ERROR";
+            T body = null;
+            Throwable failure = null;
+            if (error != null) {
+                failure = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                if (failure instanceof TimeoutException) {
+                    exchange.cancel(true);
+                    outcome = "DEADLINE";
+                } else if (failure instanceof HttpTimeoutException) {
+                    outcome = "TIMEOUT";
+                }
+            } else if (response.statusCode() / 100 != 2) {
+                failure = new HttpStatusException(response.statusCode(), request.uri());
+            } else {
+                try {
+                    body = (response.body().length == 0) ? null : objectMapper.readValue(response.body(), responseType);
+                    outcome = "SUCCESS";
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            // 지표를 먼저 기록해야 결과를 받은 호출자가 통계를 조회할 때 이번 호출이 포함된다
+            lane.timer(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (failure != null) result.completeExceptionally(failure);
+            else result.complete(body);
+        });
+    }
+
+    private static double percentile(Timer timer, double p) {
+        if (timer == null || timer.count() == 0) return 0.0;
+        for (var v : timer.takeSnapshot().percentileValues()) {
+            if (Math.abs(v.percentile() - p) < 1e-9) return v.value(TimeUnit.MILLISECONDS);
+        }
+        return 0.0;
+    }
+
+    /** AI 서버가 2xx가 아닌 상태 코드로 응답했을 때의 예외 */
+    public static final class HttpStatusException extends IOException {
+        private final int statusCode;
+
+        HttpStatusException(int statusCode, URI uri) {
+            super("AI 서버 응답 HTTP " + statusCode + ": " + uri);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    /** 대기열에 있는 요청 1건: 시작 동작과 호출자에게 돌려준 결과 */
+    private record Pending(Runnable start, CompletableFuture<?> result) {}
+
+    /** 엔드포인트 1개의 동시 요청 제한 + FIFO 대기열 + 지표 */
+    private final class Lane {
+        final AiHttpClient.Endpoint endpoint;
+        final int maxInFlight;
+        final ArrayDeque<Pending> waiting = new ArrayDeque<>();
+        final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        final Timer queueWait;
+        int inFlight;
+        long submitted;
+
+        Lane(AiHttpClient.Endpoint endpoint, int maxInFlight) {
+            this.endpoint = endpoint;
+            this.maxInFlight = Math.max(1, maxInFlight);
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            this.queueWait = Timer.builder("ai.http.client.async.queue.wait")
+                    .description("AI 비동기 요청이 동시 요청 한도 때문에 대기열에서 기다린 시간")
+                    .tag("endpoint", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            Gauge.builder("ai.http.client.async.in.flight", this, l -> l.snapshot(true))
+                    .tag("endpoint", tag).register(meterRegistry);
+            Gauge.builder("ai.http.client.async.queued", this, l -> l.snapshot(false))
+                    .tag("endpoint", tag).register(meterRegistry);
+        }
+
+        /** 한도 안이면 바로 시작하고, 아니면 대기열에 넣는다. 대기열도 가득 찼으면 false */
+        boolean offer(Pending pending) {
+            synchronized (this) {
+                submitted++;
+                if (inFlight >= maxInFlight) {
+                    if (waiting.size() >= maxQueued) return false;
+                    waiting.addLast(pending);
+                    return true;
+                }
+                inFlight++;
+            }
+            pending.start().run();
+            return true;
+        }
+
+        /** 요청 1건이 끝나면 대기 중인 다음 요청에 자리를 넘긴다 (완료 스레드의 재귀를 피하려고 I/O 스레드에서 시작) */
+        void finish() {
+            Pending next;
+            synchronized (this) {
+                next = waiting.pollFirst();
+                if (next == null) inFlight--;
+            }
+            if (next != null) {
+                try {
+                    ioExecutor.execute(next.start());
+                } catch (RejectedExecutionException e) {
+                    next.result().completeExceptionally(e);
+                    finish();
+                }
+            }
+        }
+
+        int drain() {
+            List<Pending> dropped;
+            synchronized (this) {
+                dropped = new ArrayList<>(waiting);
+                waiting.clear();
+            }
+            for (Pending p : dropped) p.result().completeExceptionally(new RejectedExecutionException("AI 비동기 클라이언트 종료"));
+            return dropped.size();
+        }
+
+        synchronized double snapshot(boolean inFlightCount) {
+            return inFlightCount ? inFlight : waiting.size();
+        }
+
+        Timer timer(String outcome) {
+            return timers.computeIfAbsent(outcome, o -> Timer.builder(TIMER_NAME)
+                    .description("AI 서버 비동기 HTTP 호출 지연 시간 (전송 시작 ~ 응답 본문 변환)")
+                    .tag("endpoint", endpoint.name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", o)
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBreakerStatsResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiCircuitBreaker
+ * 기능 : AI 서버(analyze) 호출 앞단의 서킷 브레이커.
+ *
+ * - CLOSED: 정상 호출. 연속 실패가 failure-threshold에 도달하면 OPEN
+ * - OPEN: open-ms 동안 호출하지 않고 즉시 거절한다 (호출자는 로컬 대체 판정을 쓴다)
+ * - HALF_OPEN: open-ms가 지나면 probe 요청 half-open-max-probes건만 보낸다.
+ *   성공하면 CLOSED, 실패하면 다시 OPEN (open 시간은 실패할 때마다 두 배, 최대 max-open-ms)
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${ai.breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${ai.breaker.open-ms:10000}")
+    private long openMs;
+
+    @Value("${ai.breaker.max-open-ms:120000}")
+    private long maxOpenMs;
+
+    @Value("${ai.breaker.half-open-max-probes:1}")
+    private int halfOpenMaxProbes;
+
+    private final MeterRegistry meterRegistry;
+
+    // 상태 (this로 보호)
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMs;
+    private long currentOpenMs;
+    private int probesInFlight;
+    private long stateSinceMs = System.currentTimeMillis();
+    private String lastFailure;
+
+    // 통계 (this로 보호)
+    private long opened;
+    private long shortCircuited;
+    private long probes;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 설정값을 정리하고 상태 Gauge(ai.breaker.state, 0=CLOSED 1=HALF_OPEN 2=OPEN)를 등록한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        failureThreshold = Math.max(1, failureThreshold);
+        halfOpenMaxProbes = Math.max(1, halfOpenMaxProbes);
+        openMs = Math.max(1L, openMs);
+        maxOpenMs = Math.max(openMs, maxOpenMs);
+        currentOpenMs = openMs;
+        Gauge.builder("ai.breaker.state", this, b -> switch (b.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("endpoint", "analyze")
+                .register(meterRegistry);
+        log.info("[AiCircuitBreaker] init: enabled={} failureThreshold={} openMs={} maxOpenMs={} halfOpenMaxProbes={}",
+                enabled, failureThreshold, openMs, maxOpenMs, halfOpenMaxProbes);
+    }
+
+    /**
+     * 함수 이름 : tryAcquire
+     * 기능 : 지금 AI 서버를 호출해도 되는지 확인한다. OPEN 시간이 지났으면 HALF_OPEN으로 바꾸고 probe 자리를 준다.
+     *        true를 받은 호출자는 결과에 따라 onSuccess / onFailure / onIgnored 중 하나를 반드시 호출해야 한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - 호출 가능하면 true, 차단 중이면 false
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized boolean tryAcquire() {
+        if (!enabled) return true;
+        if (state == State.CLOSED) return true;
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            if (now < openUntilMs) {
+                shortCircuited++;
+                return false;
+            }
+            transition(State.HALF_OPEN, now);
+            probesInFlight = 0;
+        }
+        if (probesInFlight < halfOpenMaxProbes) {
+            probesInFlight++;
+            probes++;
+            return true;
+        }
+        shortCircuited++;
+        return false;
+    }
+
+    /**
+     * 함수 이름 : onSuccess
+     * 기능 : 호출 성공을 기록한다. HALF_OPEN이면 CLOSED로 돌아가고 open 시간을 초기값으로 되돌린다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized void onSuccess() {
+        if (!enabled) return;
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            currentOpenMs = openMs;
+            transition(State.CLOSED, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 함수 이름 : onFailure
+     * 기능 : 서버 장애로 보이는 호출 실패(연결 실패, 타임아웃, 5xx)를 기록한다.
+     *        CLOSED에서 연속 실패가 임계에 도달하거나 HALF_OPEN probe가 실패하면 OPEN으로 바꾼다.
+     * 매개변수 : reason - 실패 사유 (통계용)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized void onFailure(String reason) {
+        if (!enabled) return;
+        consecutiveFailures++;
+        lastFailure = reason;
+        long now = System.currentTimeMillis();
+        if (state == State.HALF_OPEN) {
+            currentOpenMs = Math.min(maxOpenMs, currentOpenMs * 2);
+            open(now);
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            currentOpenMs = openMs;
+            open(now);
+        }
+    }
+
+    /**
+     * 함수 이름 : onIgnored
+     * 기능 : 서버 상태와 무관하게 끝난 호출(로컬 대기열 초과 등)의 probe 자리를 돌려준다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+    }
+
+    /**
+     * 함수 이름 : getState
+     * 기능 : 현재 상태를 반환한다. OPEN 시간이 지났어도 다음 호출 전까지는 OPEN으로 보인다.
+     * 매개변수 : 없음
+     * 반환값 : State - CLOSED / OPEN / HALF_OPEN
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 브레이커 상태, 연속 실패 수, 차단/probe 횟수와 로컬 대체 판정 라벨별 건수를 반환한다.
+     * 매개변수 : fallbackLabels - 로컬 대체 판정 라벨별 건수
+     * 반환값 : AiBreakerStatsResponse - 브레이커 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized AiBreakerStatsResponse getStats(Map<String, Long> fallbackLabels) {
+        return AiBreakerStatsResponse.builder()
+                .enabled(enabled)
+                .state(state.name())
+                .stateSinceMs(stateSinceMs)
+                .consecutiveFailures(consecutiveFailures)
+                .failureThreshold(failureThreshold)
+                .currentOpenMs(currentOpenMs)
+                .openUntilMs(state == State.OPEN ? openUntilMs : 0L)
+                .opened(opened)
+                .shortCircuited(shortCircuited)
+                .probes(probes)
+                .lastFailure(lastFailure)
+                .fallbackLabels(fallbackLabels)
+                .build();
+    }
+
+    private void open(long now) {
+        openUntilMs = now + currentOpenMs;
+        opened++;
+        transition(State.OPEN, now);
+        log.warn("[AiCircuitBreaker] AI 서버 차단(OPEN): {}ms 동안 로컬 판정 사용, 연속 실패={}, 마지막 실패={}",
+                currentOpenMs, consecutiveFailures, lastFailure);
+    }
+
+    private void transition(State next, long now) {
+        if (state == next) return;
+        if (next != State.OPEN) log.info("[AiCircuitBreaker] 상태 변경: {} -> {}", state, next);
+        state = next;
+        stateSinceMs = now;
+    }
+}
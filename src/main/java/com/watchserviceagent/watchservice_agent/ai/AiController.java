@@ -1,11 +1,23 @@
 package com.watchserviceagent.watchservice_agent.ai;
 
 import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiAsyncStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBreakerStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiFamilyCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiHttpStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiModelStatsResponse;
 import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiSchedulerStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowRecordResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiWarmupStatsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import com.watchserviceagent.watchservice_agent.ai.dto.FamilyPredictResponse;
+import java.util.List;
 import java.util.Map;
 
 
@@ -80,6 +92,162 @@ public class AiController {
     }
 
 
+    /**
+     * 함수 이름 : cacheStats
+     * 기능 : 분석 결과 캐시의 hit/miss 비율과 크기를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiCacheStatsResponse - 캐시 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/cache/stats")
+    public AiCacheStatsResponse cacheStats() {
+        return aiService.getCacheStats();
+    }
+
+    /**
+     * 함수 이름 : familyCacheStats
+     * 기능 : 패밀리 분류 결과 캐시의 hit/miss 비율, 같은 요청 합침 수, 크기를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiFamilyCacheStatsResponse - 캐시 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/family/cache/stats")
+    public AiFamilyCacheStatsResponse familyCacheStats() {
+        return aiService.getFamilyCacheStats();
+    }
+
+    /**
+     * 함수 이름 : httpStats
+     * 기능 : AI 서버 엔드포인트별 호출 지연 시간 분위수와 커넥션 풀 사용량을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiHttpStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/http/stats")
+    public List<AiHttpStatsResponse> httpStats() {
+        return aiService.getHttpStats();
+    }
+
+    /**
+     * 함수 이름 : asyncStats
+     * 기능 : AI 서버 엔드포인트별 비동기 호출의 동시 요청 수, 대기열 길이, 대기 시간, 지연 시간 분위수를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiAsyncStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/async/stats")
+    public List<AiAsyncStatsResponse> asyncStats() {
+        return aiService.getAsyncStats();
+    }
+
+    /**
+     * 함수 이름 : batchStats
+     * 기능 : analyze 마이크로 배치의 배치 수, 평균 배치 크기, 단건 폴백 수, 서버 batch 지원 여부를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiBatchStatsResponse - 배치 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/batch/stats")
+    public AiBatchStatsResponse batchStats() {
+        return aiService.getBatchStats();
+    }
+
+    /**
+     * 함수 이름 : breakerStats
+     * 기능 : AI 서버 서킷 브레이커 상태(CLOSED/OPEN/HALF_OPEN), 차단/probe 횟수, 로컬 대체 판정 건수를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiBreakerStatsResponse - 브레이커 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/breaker/stats")
+    public AiBreakerStatsResponse breakerStats() {
+        return aiService.getBreakerStats();
+    }
+
+    /**
+     * 함수 이름 : schedulerStats
+     * 기능 : 위험도 우선 analyze 스케줄러의 동시 요청/대기열 상태와 등급(SAFE/WARNING/DANGER)별 대기 시간, 합침/폐기 건수를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiSchedulerStatsResponse - 스케줄러 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/scheduler/stats")
+    public AiSchedulerStatsResponse schedulerStats() {
+        return aiService.getSchedulerStats();
+    }
+
+    /**
+     * 함수 이름 : shadowStats
+     * 기능 : 섀도 평가(새 모델 비교)의 표본 수, 라벨 일치율, 불일치 유형, 기본/섀도 지연 시간을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiShadowStatsResponse - 섀도 평가 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/shadow/stats")
+    public AiShadowStatsResponse shadowStats() {
+        return aiService.getShadowStats();
+    }
+
+    /**
+     * 함수 이름 : shadowDisagreements
+     * 기능 : 기본 판정과 섀도 판정이 다르게 나온 최근 기록(피처 벡터 포함)을 조회한다.
+     * 매개변수 : limit - 최대 개수
+     * 반환값 : List<AiShadowRecordResponse> - 최신순 불일치 목록
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/shadow/disagreements")
+    public List<AiShadowRecordResponse> shadowDisagreements(@RequestParam(defaultValue = "50") int limit) {
+        return aiService.getShadowDisagreements(limit);
+    }
+
+    /**
+     * 함수 이름 : warmupStats
+     * 기능 : 시작 시 AI 연결 데우기의 상태(WARMING/WARM/GAVE_UP/SKIPPED), 시도 횟수, 첫 응답 지연 시간을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiWarmupStatsResponse - 데우기 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/warmup/stats")
+    public AiWarmupStatsResponse warmupStats() {
+        return aiService.getWarmupStats();
+    }
+
+    /**
+     * 함수 이름 : modelStats
+     * 기능 : 내장 추론 엔진의 모드(OFF/FALLBACK/PRIMARY), 로드된 모델 정보, 판정 횟수와 평균 판정 시간을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : AiModelStatsResponse - 내장 모델 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/model/stats")
+    public AiModelStatsResponse modelStats() {
+        return aiService.getModelStats();
+    }
+
+    /**
+     * 함수 이름 : reloadModel
+     * 기능 : 모델 파일(ai.local-model.path)을 다시 읽는다. 새로 내보낸 모델을 재시작 없이 적용할 때 사용한다.
+     * 매개변수 : 없음
+     * 반환값 : AiModelStatsResponse - 다시 읽은 뒤의 내장 모델 통계 (실패 시 loadError 포함)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostMapping("/model/reload")
+    public AiModelStatsResponse reloadModel() {
+        log.info("[AiController] /ai/model/reload 요청 수신");
+        return aiService.reloadModel();
+    }
 
     /**
      * 함수 이름 : ping
@@ -0,0 +1,333 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiHttpStatsResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 클래스 이름 : AiHttpClient
+ * 기능 : AI 서버 호출 전용 HTTP 클라이언트. 엔드포인트(analyze / family)마다 keep-alive 커넥션 풀을 따로 두어
+ *        한쪽이 느려져도 다른 쪽 호출이 풀을 기다리지 않게 한다.
+ *
+ * - 단계별 제한: 풀 대기(lease), 연결(connect), 응답 대기(read) 타임아웃
+ * - 전체 제한(total deadline): 요청 시작부터 응답 본문을 다 읽을 때까지의 시간. 넘기면 요청을 취소(abort)한다.
+ *   (느리게 조금씩 응답하는 서버는 read 타임아웃만으로는 끊기지 않는다)
+ * - 지연 시간은 Micrometer Timer(ai.http.client.requests, endpoint/outcome 태그, 히스토그램)로 발행하고,
+ *   풀 사용량은 Gauge(ai.http.client.pool.*)로 발행한다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiHttpClient {
+
+    /** 호출 대상 엔드포인트 (풀/지표 구분). SHADOW는 섀도 평가 전용으로 비동기 클라이언트에만 있다 */
+    public enum Endpoint { ANALYZE, FAMILY, SHADOW }
+
+    static final String TIMER_NAME = "ai.http.client.requests";
+
+    @Value("${ai.http.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${ai.http.lease-timeout-ms:1000}")
+    private long leaseTimeoutMs;
+
+    @Value("${ai.http.total-deadline-ms:8000}")
+    private long totalDeadlineMs;
+
+    @Value("${ai.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${ai.http.analyze.max-connections:8}")
+    private int analyzeMaxConnections;
+
+    @Value("${ai.http.family.max-connections:4}")
+    private int familyMaxConnections;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Endpoint, Pool> pools = new EnumMap<>(Endpoint.class);
+    private final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+    private ScheduledExecutorService deadlineTimer;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 엔드포인트별 커넥션 풀/RestTemplate과 total deadline 타이머 스레드를 만든다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AiHttp-Deadline");
+            t.setDaemon(true);
+            return t;
+        });
+        pools.put(Endpoint.ANALYZE, new Pool(Endpoint.ANALYZE, analyzeMaxConnections));
+        pools.put(Endpoint.FAMILY, new Pool(Endpoint.FAMILY, familyMaxConnections));
+        log.info("[AiHttpClient] init: connectTimeoutMs={} readTimeoutMs={} leaseTimeoutMs={} totalDeadlineMs={} keepAliveMs={} maxConnections(analyze={}, family={})",
+                connectTimeoutMs, readTimeoutMs, leaseTimeoutMs, totalDeadlineMs, keepAliveMs,
+                analyzeMaxConnections, familyMaxConnections);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 커넥션 풀과 타이머 스레드를 닫는다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        for (Pool pool : pools.values()) {
+            try {
+                pool.httpClient.close();
+            } catch (IOException e) {
+                log.warn("[AiHttpClient] 커넥션 풀 종료 실패: endpoint={}", pool.endpoint, e);
+            }
+        }
+        deadlineTimer.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : postJson
+     * 기능 : 엔드포인트 전용 풀로 JSON POST 요청을 보내고 응답 본문을 변환한다. total deadline을 넘기면 요청을 취소한다.
+     * 매개변수 : endpoint - 호출 대상(풀/지표 구분), url - 요청 URL, body - 요청 본문, responseType - 응답 타입
+     * 반환값 : T - 응답 본문
+     * 예외 : RestClientException - 연결/타임아웃/HTTP 오류 (deadline 초과는 ResourceAccessException)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public <T> T postJson(Endpoint endpoint, String url, Object body, Class<T> responseType) {
+        Pool pool = pools.get(endpoint);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Call call = new Call();
+        currentCall.set(call);
+        String outcome = "ERROR";
+        try {
+            T result = pool.restTemplate.postForObject(url, new HttpEntity<>(body, headers), responseType);
+            outcome = "SUCCESS";
+            return result;
+        } catch (RestClientException e) {
+            // 취소는 응답 대기 중이면 I/O 오류로, 본문 변환 중이면 변환 오류로 올라온다
+            if (call.expired) {
+                outcome = "DEADLINE";
+                throw new ResourceAccessException("AI 호출 total deadline(" + totalDeadlineMs + "ms) 초과: " + url,
+                        e.getCause() instanceof IOException io ? io : new IOException(e));
+            }
+            if (e instanceof ResourceAccessException && isTimeout(e)) outcome = "TIMEOUT";
+            throw e;
+        } finally {
+            call.disarm();
+            currentCall.remove();
+            pool.timer(outcome).record(System.nanoTime() - call.startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 엔드포인트별 호출 수, 지연 시간 분위수, 결과별 건수, 커넥션 풀 사용량을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiHttpStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiHttpStatsResponse> getStats() {
+        List<AiHttpStatsResponse> out = new ArrayList<>();
+        for (Pool pool : pools.values()) {
+            Map<String, Long> byOutcome = new TreeMap<>();
+            long count = 0;
+            double totalMs = 0;
+            double maxMs = 0;
+            for (Map.Entry<String, Timer> e : pool.timers.entrySet()) {
+                Timer t = e.getValue();
+                if (t.count() == 0) continue;
+                byOutcome.put(e.getKey(), t.count());
+                count += t.count();
+                totalMs += t.totalTime(TimeUnit.MILLISECONDS);
+                maxMs = Math.max(maxMs, t.max(TimeUnit.MILLISECONDS));
+            }
+            Timer success = pool.timers.get("SUCCESS");
+            PoolStats ps = pool.connectionManager.getTotalStats();
+            out.add(AiHttpStatsResponse.builder()
+                    .endpoint(pool.endpoint.name())
+                    .requests(count)
+                    .byOutcome(byOutcome)
+                    .meanMs(count > 0 ? totalMs / count : 0.0)
+                    .maxMs(maxMs)
+                    .successP50Ms(percentile(success, 0.5))
+                    .successP90Ms(percentile(success, 0.9))
+                    .successP99Ms(percentile(success, 0.99))
+                    .leased(ps.getLeased())
+                    .available(ps.getAvailable())
+                    .pending(ps.getPending())
+                    .maxConnections(ps.getMax())
+                    .build());
+        }
+        return out;
+    }
+
+    private static double percentile(Timer timer, double p) {
+        if (timer == null || timer.count() == 0) return 0.0;
+        for (var v : timer.takeSnapshot().percentileValues()) {
+            if (Math.abs(v.percentile() - p) < 1e-9) return v.value(TimeUnit.MILLISECONDS);
+        }
+        return 0.0;
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable c = e; c != null; c = c.getCause()) {
+            if (c instanceof SocketTimeoutException || c instanceof InterruptedIOException) return true;
+            String name = c.getClass().getSimpleName();
+            if (name.endsWith("TimeoutException")) return true;   // ConnectTimeoutException, ConnectionRequestTimeoutException
+        }
+        return false;
+    }
+
+    /** 진행 중인 호출 1건의 total deadline 상태 */
+    private final class Call {
+        final long startNanos = System.nanoTime();
+        final long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(1L, totalDeadlineMs));
+        volatile boolean expired;
+        ScheduledFuture<?> timer;
+
+        void arm(Cancellable request) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                expired = true;
+                request.cancel();
+                return;
+            }
+            timer = deadlineTimer.schedule(() -> {
+                expired = true;
+                request.cancel();
+            }, remaining, TimeUnit.NANOSECONDS);
+        }
+
+        void disarm() {
+            if (timer != null) timer.cancel(false);
+        }
+    }
+
+    /** 엔드포인트 1개의 커넥션 풀 + RestTemplate + 지표 */
+    private final class Pool {
+        final Endpoint endpoint;
+        final PoolingHttpClientConnectionManager connectionManager;
+        final CloseableHttpClient httpClient;
+        final RestTemplate restTemplate;
+        final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+        Pool(Endpoint endpoint, int maxConnections) {
+            this.endpoint = endpoint;
+            int max = Math.max(1, maxConnections);
+            this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(max)
+                    .setMaxConnPerRoute(max)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                            .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                            .setTimeToLive(TimeValue.ofMilliseconds(Math.max(keepAliveMs, 1000L) * 4))
+                            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                            .build())
+                    .build();
+            this.httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                            .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                            .build())
+                    // 서버가 Keep-Alive 힌트를 주지 않아도 유휴 연결을 keepAliveMs 동안 재사용
+                    .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                    .evictExpiredConnections()
+                    .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                    .disableAutomaticRetries()
+                    .build();
+            this.restTemplate = new RestTemplate(new DeadlineRequestFactory(httpClient));
+
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("ai.http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                    .tag("endpoint", tag).register(meterRegistry);
+            Gauge.builder("ai.http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                    .tag("endpoint", tag).register(meterRegistry);
+            Gauge.builder("ai.http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                    .tag("endpoint", tag).register(meterRegistry);
+        }
+
+        Timer timer(String outcome) {
+            return timers.computeIfAbsent(outcome, o -> Timer.builder(TIMER_NAME)
+                    .description("AI 서버 HTTP 호출 지연 시간 (풀 대기 + 연결 + 응답)")
+                    .tag("endpoint", endpoint.name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", o)
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /** 요청 객체가 만들어질 때 현재 호출의 total deadline 타이머를 건다 */
+    private final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+        DeadlineRequestFactory(CloseableHttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+            ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+            Call call = currentCall.get();
+            if (call != null && request instanceof Cancellable cancellable) call.arm(cancellable);
+            return request;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiResultCache
+ * 기능 : AiPayload 9개 피처를 양자화한 키로 AI 분석 결과를 캐시한다. (LRU + TTL, 최대 항목 수 제한)
+ *        같은(또는 양자화 단위 안에서 거의 같은) 피처 패턴은 AI 서버로 다시 보내지 않는다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AiResultCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final int countStep;
+    private final double entropyStep;
+    private final double sizeStep;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long expirations;
+    private long evictions;
+
+    AiResultCache(int maxEntries, long ttlMs, int countStep, double entropyStep, double sizeStep) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttlMs;
+        this.countStep = Math.max(1, countStep);
+        this.entropyStep = entropyStep;
+        this.sizeStep = sizeStep;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > AiResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 함수 이름 : get
+     * 기능 : 양자화된 피처 키로 캐시된 결과를 조회한다. TTL이 지난 항목은 제거하고 miss로 처리한다.
+     * 매개변수 : payload - 피처 벡터, nowMs - 현재 시각
+     * 반환값 : AiResult - 캐시된 결과, 없으면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized AiResult get(AiPayload payload, long nowMs) {
+        Key key = keyOf(payload);
+        Entry e = entries.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (nowMs >= e.expiresAtMs) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.result;
+    }
+
+    /**
+     * 함수 이름 : put
+     * 기능 : 분석 결과를 캐시에 저장한다. 최대 항목 수를 넘으면 가장 오래 사용되지 않은 항목을 버린다.
+     * 매개변수 : payload - 피처 벡터, result - 분석 결과, nowMs - 현재 시각
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized void put(AiPayload payload, AiResult result, long nowMs) {
+        entries.put(keyOf(payload), new Entry(result, nowMs + ttlMs));
+    }
+
+    /**
+     * 함수 이름 : stats
+     * 기능 : 캐시 크기와 hit/miss 통계를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiCacheStatsResponse - 캐시 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized AiCacheStatsResponse stats() {
+        long lookups = hits + misses;
+        return AiCacheStatsResponse.builder()
+                .enabled(true)
+                .size(entries.size())
+                .maxEntries(maxEntries)
+                .ttlMs(ttlMs)
+                .hits(hits)
+                .misses(misses)
+                .hitRatio(lookups > 0 ? (double) hits / lookups : 0.0)
+                .expirations(expirations)
+                .evictions(evictions)
+                .countStep(countStep)
+                .entropyStep(entropyStep)
+                .sizeStep(sizeStep)
+                .build();
+    }
+
+    private Key keyOf(AiPayload p) {
+        return new Key(
+                p.getFileReadCount() / countStep,
+                p.getFileWriteCount() / countStep,
+                p.getFileDeleteCount() / countStep,
+                p.getFileRenameCount() / countStep,
+                p.getFileEncryptLikeCount() / countStep,
+                p.getChangedFilesCount() / countStep,
+                p.getRandomExtensionFlag(),
+                quantize(p.getEntropyDiffMean(), entropyStep),
+                quantize(p.getFileSizeDiffMean(), sizeStep)
+        );
+    }
+
+    private static long quantize(double v, double step) {
+        if (step <= 0) return Double.doubleToLongBits(v); // 양자화 없음(정확히 같은 값만)
+        return Math.round(v / step);
+    }
+
+    private record Key(int read, int write, int delete, int rename, int encryptLike,
+                       int changed, int randomExt, long entropyBucket, long sizeBucket) {}
+
+    private record Entry(AiResult result, long expiresAtMs) {}
+}
@@ -1,20 +1,35 @@
 package com.watchserviceagent.watchservice_agent.ai;
 
 import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiAsyncStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBreakerStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiFamilyCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiHttpStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiModelStatsResponse;
 import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
 import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiSchedulerStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowRecordResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiWarmupStatsResponse;
 import com.watchserviceagent.watchservice_agent.ai.dto.FamilyPredictRequest;
 import com.watchserviceagent.watchservice_agent.ai.dto.FamilyPredictResponse;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 클래스 이름 : AiService
@@ -27,7 +42,16 @@ import java.util.Map;
 @Slf4j
 public class AiService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final AiHttpClient httpClient;
+    private final AiAsyncHttpClient asyncClient;
+    private final AiAnalyzeBatcher batcher;
+    private final AiCircuitBreaker breaker;
+    private final LocalFallbackClassifier fallbackClassifier;
+    private final LocalModelEngine localModel;
+    private final AiAnalyzeScheduler scheduler;
+    private final AiShadowEvaluator shadow;
+    private final AiShadowRepository shadowRepository;
+    private final AiWarmup warmup;
 
     @Value("${ai.analyze.url:http://localhost:8000/api/analyze}")
     private String analyzeUrl;
@@ -35,51 +59,461 @@ public class AiService {
     @Value("${ai.family.url:http://localhost:8001/predict}")
     private String familyUrl;
 
+    // ===== 분석 결과 캐시 (양자화된 피처 키, LRU + TTL) =====
+    @Value("${ai.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${ai.cache.max-entries:1024}")
+    private int cacheMaxEntries;
+
+    @Value("${ai.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    @Value("${ai.cache.count-step:1}")
+    private int cacheCountStep;
+
+    @Value("${ai.cache.entropy-step:0.01}")
+    private double cacheEntropyStep;
+
+    @Value("${ai.cache.size-step:256}")
+    private double cacheSizeStep;
+
+    private AiResultCache resultCache;
+
+    // ===== 패밀리 분류 결과 캐시 ((features, topk) 키, LRU + TTL, 같은 요청 합치기) =====
+    @Value("${ai.family-cache.enabled:true}")
+    private boolean familyCacheEnabled;
+
+    @Value("${ai.family-cache.max-entries:512}")
+    private int familyCacheMaxEntries;
+
+    @Value("${ai.family-cache.ttl-ms:300000}")
+    private long familyCacheTtlMs;
+
+    private FamilyResultCache familyCache;
+
+    @PostConstruct
+    public void init() {
+        if (cacheEnabled) {
+            resultCache = new AiResultCache(cacheMaxEntries, cacheTtlMs,
+                    cacheCountStep, cacheEntropyStep, cacheSizeStep);
+        }
+        log.info("[AiService] 분석 결과 캐시 enabled={}, maxEntries={}, ttlMs={}, countStep={}, entropyStep={}, sizeStep={}",
+                cacheEnabled, cacheMaxEntries, cacheTtlMs, cacheCountStep, cacheEntropyStep, cacheSizeStep);
+        if (familyCacheEnabled) {
+            familyCache = new FamilyResultCache(familyCacheMaxEntries, familyCacheTtlMs);
+        }
+        log.info("[AiService] 패밀리 분류 캐시 enabled={}, maxEntries={}, ttlMs={}",
+                familyCacheEnabled, familyCacheMaxEntries, familyCacheTtlMs);
+    }
+
     /**
      * 함수 이름 : requestAnalysis
      * 기능 : AI 서버에 행위 분석 요청을 보내고 결과를 반환한다. 랜섬웨어 감지 시 경고 로그를 출력한다.
+     *        양자화된 피처가 같은 요청의 결과가 캐시에 있으면 AI 서버를 호출하지 않는다. (AI 서버 응답만 캐시)
+     *        서킷 브레이커가 열려 있거나 호출이 실패하면 로컬 대체 분류기로 판정한다. (source=FALLBACK)
+     *        내장 모델이 PRIMARY 모드로 로드되어 있으면 AI 서버를 호출하지 않고 내장 모델로 판정한다.
      * 매개변수 : payload - 윈도우 집계된 피처 벡터
      * 반환값 : AiResult - AI 분석 결과 (라벨, 점수, topFamily, 랜섬웨어 여부 포함)
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
     public AiResult requestAnalysis(AiPayload payload) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        if (localModel.isPrimary()) return localModel.classify(payload);
+
+        if (resultCache != null && payload != null) {
+            AiResult cached = resultCache.get(payload, System.currentTimeMillis());
+            if (cached != null) {
+                log.debug("[AiService] analyze 캐시 hit: label={}, score={}, payload={}",
+                        cached.getLabel(), cached.getScore(), payload);
+                return cached;
+            }
+        }
+
+        if (!breaker.tryAcquire()) return fallback(payload, "AI 서버 차단 중(circuit open)", true);
+
+        long t0 = System.nanoTime();
+        AiResult result = requestAnalysisRemote(payload);
+        cacheRemote(payload, result);
+        offerShadow(payload, result, System.nanoTime() - t0);
+        return result;
+    }
+
+    /**
+     * 함수 이름 : requestAnalysisAsync
+     * 기능 : requestAnalysis의 비동기 버전. 캐시 hit이면 완료된 future를 바로 반환하고, 아니면 비동기 클라이언트로 요청한다.
+     *        마이크로 배치를 켜면(ai.batch.enabled) 다른 윈도우의 요청과 묶어서 보낸다.
+     *        동시 요청 한도/대기열은 AiAsyncHttpClient가 관리한다. 서킷 브레이커가 열려 있거나 호출이 실패하면
+     *        (대기열 초과 포함) 로컬 대체 분류기 결과로 완료된다. 내장 모델이 PRIMARY면 바로 판정하여 완료된 future를 반환한다.
+     *        AI 서버가 밀려 있으면 AiAnalyzeScheduler가 로컬 위험도가 높은 윈도우부터 보낸다.
+     *        AI 서버 판정 중 일부는 섀도 평가(ai.shadow.*)에도 넘기지만 그 결과를 기다리지 않는다.
+     * 매개변수 : payload - 윈도우 집계된 피처 벡터
+     * 반환값 : CompletableFuture<AiResult> - 분석 결과 (예외로 완료되지 않음)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public CompletableFuture<AiResult> requestAnalysisAsync(AiPayload payload) {
+        if (localModel.isPrimary()) return CompletableFuture.completedFuture(localModel.classify(payload));
+
+        if (resultCache != null && payload != null) {
+            AiResult cached = resultCache.get(payload, System.currentTimeMillis());
+            if (cached != null) {
+                log.debug("[AiService] analyze 캐시 hit: label={}, score={}, payload={}",
+                        cached.getLabel(), cached.getScore(), payload);
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(fallback(payload, "AI 서버 차단 중(circuit open)", true));
+        }
+
+        log.debug("[AiService] analyze 비동기 요청: url={}, payload={}", analyzeUrl, payload);
+        long t0 = System.nanoTime();
+        CompletableFuture<AiResponse> call = scheduler.submit(payload, () -> batcher.isEnabled()
+                ? batcher.analyze(payload)
+                : asyncClient.postJson(AiHttpClient.Endpoint.ANALYZE, analyzeUrl, payload, AiResponse.class));
+        return call
+                .thenApply(response -> {
+                    breaker.onSuccess();
+                    log.debug("[AiService] analyze 응답: {}", response);
+                    AiResult result = toAnalysisResult(response);
+                    cacheRemote(payload, result);
+                    offerShadow(payload, result, System.nanoTime() - t0);
+                    return result;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    boolean retryable = true;
+                    if (cause instanceof RejectedExecutionException) {
+                        breaker.onIgnored();
+                    } else if (cause instanceof AiAsyncHttpClient.HttpStatusException se && se.getStatusCode() / 100 == 4) {
+                        breaker.onSuccess();     // 서버는 살아 있고 요청이 거절된 경우
+                        retryable = false;       // 다시 보내도 같은 응답
+                    } else {
+                        breaker.onFailure(cause.toString());
+                    }
+                    log.error("[AiService] AI 서버 비동기 호출 실패: {}", cause.toString());
+                    return fallback(payload, "AI 서버 호출 실패: " + cause.getMessage(), retryable);
+                });
+    }
+
+    /**
+     * 함수 이름 : getAsyncStats
+     * 기능 : AI 서버 엔드포인트별 비동기 호출의 동시 요청 수, 대기열 길이, 지연 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiAsyncStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiAsyncStatsResponse> getAsyncStats() {
+        return asyncClient.getStats();
+    }
+
+    /**
+     * 함수 이름 : getBatchStats
+     * 기능 : analyze 마이크로 배치의 배치 수, 평균 배치 크기, 단건 폴백 수를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiBatchStatsResponse - 배치 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiBatchStatsResponse getBatchStats() {
+        return batcher.getStats();
+    }
+
+    /**
+     * 함수 이름 : getShadowStats
+     * 기능 : 섀도 평가의 표본 수, 라벨 일치율, 기본/섀도 지연 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiShadowStatsResponse - 섀도 평가 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiShadowStatsResponse getShadowStats() {
+        return shadow.getStats();
+    }
+
+    /**
+     * 함수 이름 : getShadowDisagreements
+     * 기능 : 기본 판정과 섀도 판정의 라벨이 달랐던 최근 기록을 반환한다.
+     * 매개변수 : limit - 최대 개수
+     * 반환값 : List<AiShadowRecordResponse> - 최신순 불일치 목록
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiShadowRecordResponse> getShadowDisagreements(int limit) {
+        return shadowRepository.findRecentDisagreements(Math.max(1, Math.min(limit, 1000)));
+    }
+
+    /**
+     * 함수 이름 : getWarmupStats
+     * 기능 : 시작 시 AI 연결 데우기의 상태와 합성 요청 지연 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiWarmupStatsResponse - 데우기 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiWarmupStatsResponse getWarmupStats() {
+        return warmup.getStats();
+    }
+
+    /**
+     * 함수 이름 : getSchedulerStats
+     * 기능 : 위험도 우선 analyze 스케줄러의 대기열 상태와 등급별 대기 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiSchedulerStatsResponse - 스케줄러 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiSchedulerStatsResponse getSchedulerStats() {
+        return scheduler.getStats();
+    }
+
+    /**
+     * 함수 이름 : getModelStats
+     * 기능 : 내장 추론 엔진의 모드, 모델 정보, 판정 횟수와 평균 판정 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiModelStatsResponse - 내장 모델 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiModelStatsResponse getModelStats() {
+        return localModel.getStats();
+    }
+
+    /**
+     * 함수 이름 : reloadModel
+     * 기능 : 모델 파일을 다시 읽는다. 실패하면 기존 모델을 유지한다.
+     * 매개변수 : 없음
+     * 반환값 : AiModelStatsResponse - 다시 읽은 뒤의 내장 모델 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiModelStatsResponse reloadModel() {
+        localModel.reload();
+        return localModel.getStats();
+    }
+
+    /**
+     * 함수 이름 : getBreakerStats
+     * 기능 : AI 서버 서킷 브레이커 상태와 로컬 대체 판정 라벨별 건수를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiBreakerStatsResponse - 브레이커 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiBreakerStatsResponse getBreakerStats() {
+        return breaker.getStats(fallbackClassifier.getLabelCounts());
+    }
+
+    /**
+     * 함수 이름 : getCacheStats
+     * 기능 : 분석 결과 캐시의 크기와 hit/miss 통계를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiCacheStatsResponse - 캐시 통계 (비활성화 시 enabled=false)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiCacheStatsResponse getCacheStats() {
+        if (resultCache == null) {
+            return AiCacheStatsResponse.builder().enabled(false).build();
+        }
+        return resultCache.stats();
+    }
+
+    /**
+     * 함수 이름 : getFamilyCacheStats
+     * 기능 : 패밀리 분류 결과 캐시의 크기와 hit/miss/합침 통계를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiFamilyCacheStatsResponse - 캐시 통계 (비활성화 시 enabled=false)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiFamilyCacheStatsResponse getFamilyCacheStats() {
+        if (familyCache == null) {
+            return AiFamilyCacheStatsResponse.builder().enabled(false).build();
+        }
+        return familyCache.stats();
+    }
 
-            HttpEntity<AiPayload> entity = new HttpEntity<>(payload, headers);
+    /**
+     * 함수 이름 : getHttpStats
+     * 기능 : AI 서버 엔드포인트별 HTTP 호출 지연 시간과 커넥션 풀 사용량을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<AiHttpStatsResponse> - 엔드포인트별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiHttpStatsResponse> getHttpStats() {
+        return httpClient.getStats();
+    }
 
+    /**
+     * 함수 이름 : requestAnalysisRemote
+     * 기능 : 캐시를 거치지 않고 AI 서버에 행위 분석 요청을 보낸다.
+     * 매개변수 : payload - 윈도우 집계된 피처 벡터
+     * 반환값 : AiResult - AI 분석 결과 (호출 실패 시 UNKNOWN)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private AiResult requestAnalysisRemote(AiPayload payload) {
+        try {
             log.debug("[AiService] analyze 요청: url={}, payload={}", analyzeUrl, payload);
 
-            AiResponse response = restTemplate.postForObject(
+            AiResponse response = httpClient.postJson(
+                    AiHttpClient.Endpoint.ANALYZE,
                     analyzeUrl,
-                    entity,
+                    payload,
                     AiResponse.class
             );
 
+            breaker.onSuccess();
             log.debug("[AiService] analyze 응답: {}", response);
-            
-            AiResult result = AiResult.fromResponse(response);
-            
-            // 랜섬웨어 감지 시 경고 로그
-            if (result.getIsRansomware() != null && result.getIsRansomware()) {
-                log.warn("[AiService] ⚠️ 랜섬웨어 감지! topFamily={}, score={}, label={}", 
-                        result.getTopFamily(), result.getScore(), result.getLabel());
-            } else {
-                log.info("[AiService] AI 분석 완료. topFamily={}, isRansomware={}, score={}, label={}", 
-                        result.getTopFamily(), result.getIsRansomware(), result.getScore(), result.getLabel());
-            }
-            
-            return result;
+            return toAnalysisResult(response);
 
+        } catch (HttpClientErrorException e) {
+            breaker.onSuccess();     // 서버는 살아 있고 요청이 거절된 경우
+            log.error("[AiService] AI 서버 호출 실패", e);
+            return fallback(payload, "AI 서버 호출 실패: " + e.getMessage(), false);
         } catch (RestClientException e) {
+            breaker.onFailure(e.toString());
             log.error("[AiService] AI 서버 호출 실패", e);
-            return AiResult.error("AI 서버 호출 실패: " + e.getMessage());
+            return fallback(payload, "AI 서버 호출 실패: " + e.getMessage(), true);
         } catch (Exception e) {
+            breaker.onFailure(e.toString());
             log.error("[AiService] 예기치 못한 예외", e);
-            return AiResult.error("AI 호출 중 예외: " + e.getMessage());
+            return fallback(payload, "AI 호출 중 예외: " + e.getMessage(), true);
+        }
+    }
+
+    /**
+     * 함수 이름 : retryAnalysis
+     * 기능 : 판정에 실패했던 윈도우를 AI 서버에 다시 보낸다. 재시도 큐 전용이므로 캐시와 로컬 대체 판정을 거치지 않는다.
+     *        서킷 브레이커가 열려 있으면 보내지 않는다. (서버가 회복된 뒤 half-open probe로 다시 열린다)
+     * 매개변수 : payload - 윈도우 피처 벡터
+     * 반환값 : AiResult - AI 서버 판정(source=REMOTE), 보냈지만 실패하면 remoteFailed인 UNKNOWN, 차단 중이라 보내지 않았으면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiResult retryAnalysis(AiPayload payload) {
+        if (!breaker.tryAcquire()) return null;
+        try {
+            AiResponse response = httpClient.postJson(
+                    AiHttpClient.Endpoint.ANALYZE,
+                    analyzeUrl,
+                    payload,
+                    AiResponse.class
+            );
+            breaker.onSuccess();
+            AiResult result = toAnalysisResult(response);
+            cacheRemote(payload, result);
+            return result;
+        } catch (HttpClientErrorException e) {
+            breaker.onSuccess();
+            log.warn("[AiService] 재시도 요청 거절: {}", e.getMessage());
+            return AiResult.error("AI 서버 요청 거절: " + e.getMessage()).toBuilder().remoteFailed(true).build();
+        } catch (Exception e) {
+            breaker.onFailure(e.toString());
+            log.debug("[AiService] 재시도 실패: {}", e.toString());
+            return AiResult.error("AI 서버 호출 실패: " + e.getMessage()).toBuilder().remoteFailed(true).build();
+        }
+    }
+
+    /**
+     * 함수 이름 : analyzeForReplay
+     * 기능 : 이벤트 재생용 판정. 실시간 경로와 상태를 나누지 않도록 분석 결과 캐시, 서킷 브레이커, 섀도 평가를 거치지 않고
+     *        AI 서버를 직접 호출한다. 며칠치 재생이 라이브 캐시를 밀어내거나 브레이커를 열지 않게 하기 위함이다.
+     *        호출이 실패하면 로컬 대체 판정을 remoteFailed로 표시하여 반환하므로 호출자는 AI 판정과 구분할 수 있다.
+     * 매개변수 : payload - 윈도우 피처 벡터
+     * 반환값 : AiResult - AI 서버 판정(source=REMOTE), 내장 모델 PRIMARY면 내장 모델 판정, 실패 시 remoteFailed인 로컬 대체 판정(또는 UNKNOWN)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiResult analyzeForReplay(AiPayload payload) {
+        if (localModel.isPrimary()) return localModel.classify(payload);
+        try {
+            AiResponse response = httpClient.postJson(
+                    AiHttpClient.Endpoint.ANALYZE,
+                    analyzeUrl,
+                    payload,
+                    AiResponse.class
+            );
+            return AiResult.fromResponse(response);
+        } catch (Exception e) {
+            // 서버가 내려가 있으면 윈도우마다 실패하므로 fallback()과 달리 건별 info 로그를 남기지 않는다
+            log.debug("[AiService] 재생 판정 실패: {}", e.toString());
+            String reason = "AI 서버 호출 실패(재생): " + e.getMessage();
+            AiResult local;
+            if (payload == null) local = AiResult.error(reason);
+            else if (localModel.isLoaded()) local = localModel.classify(payload);
+            else if (fallbackClassifier.isEnabled()) local = fallbackClassifier.classify(payload, reason);
+            else local = AiResult.error(reason);
+            return local.toBuilder().remoteFailed(true).build();
+        }
+    }
+
+    /**
+     * 함수 이름 : fallback
+     * 기능 : AI 서버 결과를 쓸 수 없을 때 로컬에서 판정한다. 내장 모델이 로드되어 있으면 내장 모델, 아니면 휴리스틱 대체 분류기를 쓰고,
+     *        둘 다 없으면 기존처럼 UNKNOWN을 반환한다.
+     *        서버 장애/차단으로 판정을 받지 못한 경우(retryable)는 remoteFailed로 표시하여 재시도 큐가 나중에 다시 라벨링하게 한다.
+     * 매개변수 : payload - 윈도우 피처 벡터, reason - 사유, retryable - 나중에 다시 보내면 판정을 받을 수 있는 실패인지 (4xx 거절은 false)
+     * 반환값 : AiResult - 로컬 판정(source=LOCAL_MODEL/FALLBACK) 또는 UNKNOWN
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private AiResult fallback(AiPayload payload, String reason, boolean retryable) {
+        if (payload == null) return AiResult.error(reason);
+        AiResult result;
+        if (localModel.isLoaded()) {
+            result = localModel.classify(payload);
+        } else if (fallbackClassifier.isEnabled()) {
+            result = fallbackClassifier.classify(payload, reason);
+        } else {
+            result = AiResult.error(reason);
         }
+        log.info("[AiService] 로컬 대체 판정: label={}, score={}, reason={}", result.getLabel(), result.getScore(), reason);
+        return retryable ? result.toBuilder().remoteFailed(true).build() : result;
+    }
+
+    /** AI 서버가 판정한 결과만 섀도 평가 표본 후보로 넘긴다. 섀도 평가는 비동기이므로 기다리지 않는다 */
+    private void offerShadow(AiPayload payload, AiResult result, long latencyNanos) {
+        if (!AiResult.SOURCE_REMOTE.equals(result.getSource())) return;
+        try {
+            shadow.offer(payload, result, latencyNanos);
+        } catch (Exception e) {
+            log.warn("[AiService] 섀도 평가 제출 실패: {}", e.toString());
+        }
+    }
+
+    /** AI 서버가 판정한 결과만 캐시한다. 캐시에서 꺼낸 결과는 source=CACHE로 보인다 */
+    private void cacheRemote(AiPayload payload, AiResult result) {
+        if (resultCache == null || payload == null) return;
+        if (!AiResult.SOURCE_REMOTE.equals(result.getSource())) return;
+        resultCache.put(payload, result.toBuilder().source(AiResult.SOURCE_CACHE).build(), System.currentTimeMillis());
+    }
+
+    /**
+     * 함수 이름 : toAnalysisResult
+     * 기능 : analyze 응답을 AiResult로 변환하고 판정 결과를 로그로 남긴다. 랜섬웨어 감지 시 경고 로그를 출력한다.
+     * 매개변수 : response - AI 서버 응답
+     * 반환값 : AiResult - 변환된 결과
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private AiResult toAnalysisResult(AiResponse response) {
+        AiResult result = AiResult.fromResponse(response);
+
+        // 랜섬웨어 감지 시 경고 로그
+        if (result.getIsRansomware() != null && result.getIsRansomware()) {
+            log.warn("[AiService] ⚠️ 랜섬웨어 감지! topFamily={}, score={}, label={}",
+                    result.getTopFamily(), result.getScore(), result.getLabel());
+        } else {
+            log.info("[AiService] AI 분석 완료. topFamily={}, isRansomware={}, score={}, label={}",
+                    result.getTopFamily(), result.getIsRansomware(), result.getScore(), result.getLabel());
+        }
+        return result;
     }
 
     /**
@@ -106,66 +540,79 @@ public class AiService {
         return requestFamilyPredictInternal(features, topk);
     }
 
+    /**
+     * 함수 이름 : requestFamilyPredictAsync
+     * 기능 : requestFamilyPredict의 비동기 버전. 동시 요청 한도/대기열은 AiAsyncHttpClient가 관리한다.
+     *        동기 버전과 같은 캐시를 쓰므로 캐시 hit이면 바로 완료되고, 같은 요청이 진행 중이면(동기/비동기 모두) 그 응답을 같이 받는다.
+     * 매개변수 : features - 피처 객체 (AiPayload 또는 Map), topk - 상위 k개 결과 반환 개수
+     * 반환값 : CompletableFuture<FamilyPredictResponse> - 후처리된 패밀리 분류 결과 (실패 시 message에 사유, 예외로 완료되지 않음)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public CompletableFuture<FamilyPredictResponse> requestFamilyPredictAsync(Object features, int topk) {
+        String key = familyCache != null ? FamilyResultCache.keyOf(features, topk) : null;
+        if (key == null) {
+            return callFamilyPredictAsync(features, topk);
+        }
+        return familyCache.getAsync(key, () -> callFamilyPredictAsync(features, topk));
+    }
+
+    private CompletableFuture<FamilyPredictResponse> callFamilyPredictAsync(Object features, int topk) {
+        FamilyPredictRequest body = FamilyPredictRequest.builder()
+                .features(features)
+                .topk(topk)
+                .build();
+        log.debug("[AiService] family 비동기 요청: url={}, body={}", familyUrl, body);
+        return asyncClient.postJson(AiHttpClient.Endpoint.FAMILY, familyUrl, body, FamilyPredictResponse.class)
+                .thenApply(raw -> {
+                    log.debug("[AiService] family 응답: {}", raw);
+                    return toFamilyResponse(raw);
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    log.error("[AiService] Family 서버 비동기 호출 실패: {}", cause.toString());
+                    return FamilyPredictResponse.builder()
+                            .topk(Collections.emptyList())
+                            .message("Family 서버 호출 실패: " + cause.getMessage())
+                            .build();
+                });
+    }
+
     /**
      * 함수 이름 : requestFamilyPredictInternal
      * 기능 : AI 서버에 패밀리 분류 요청을 보내고, 결과를 후처리하여 카테고리와 랜섬웨어 여부를 판정한다.
+     *        같은 (features, topk)의 결과가 캐시에 있으면 AI 서버를 호출하지 않고, 진행 중인 같은 요청이 있으면 그 응답을 같이 받는다.
      * 매개변수 : features - 피처 객체 (AiPayload 또는 Map), topk - 상위 k개 결과 반환 개수
      * 반환값 : FamilyPredictResponse - 후처리된 패밀리 분류 결과
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
     private FamilyPredictResponse requestFamilyPredictInternal(Object features, int topk) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        String key = familyCache != null ? FamilyResultCache.keyOf(features, topk) : null;
+        if (key == null) {
+            return callFamilyPredict(features, topk);
+        }
+        return familyCache.get(key, () -> callFamilyPredict(features, topk));
+    }
 
+    private FamilyPredictResponse callFamilyPredict(Object features, int topk) {
+        try {
             FamilyPredictRequest body = FamilyPredictRequest.builder()
                     .features(features)
                     .topk(topk)
                     .build();
 
-            HttpEntity<FamilyPredictRequest> entity = new HttpEntity<>(body, headers);
-
             log.debug("[AiService] family 요청: url={}, body={}", familyUrl, body);
 
-            FamilyPredictResponse raw = restTemplate.postForObject(
+            FamilyPredictResponse raw = httpClient.postJson(
+                    AiHttpClient.Endpoint.FAMILY,
                     familyUrl,
-                    entity,
+                    body,
                     FamilyPredictResponse.class
             );
 
             log.debug("[AiService] family 응답: {}", raw);
-
-            // === 후처리: top-1 family 기준으로 카테고리/랜섬웨어 여부 판정 ===
-            String topFamily = null;
-            Double topProb = null;
-            if (raw != null && raw.getTopk() != null && !raw.getTopk().isEmpty()) {
-                FamilyPredictResponse.Item top1 = raw.getTopk().get(0);
-                topFamily = top1.getFamily();
-                topProb = top1.getProb();
-            }
-
-            String category = classifyFamilyCategory(topFamily);
-            boolean isRansomware = "RANSOMWARE".equals(category);
-            String verdict;
-            if (topFamily == null || topFamily.isBlank()) {
-                verdict = "분류 불가";
-            } else if ("BENIGN".equals(category)) {
-                verdict = "정상";
-            } else if (isRansomware) {
-                verdict = "랜섬웨어";
-            } else {
-                verdict = "악성(기타)";
-            }
-
-            return FamilyPredictResponse.builder()
-                    .topk(raw != null ? raw.getTopk() : Collections.emptyList())
-                    .message(raw != null ? raw.getMessage() : null)
-                    .topFamily(topFamily)
-                    .category(category)
-                    .ransomware(isRansomware)
-                    .verdict(verdict)
-                    .build();
+            return toFamilyResponse(raw);
 
         } catch (RestClientException e) {
             log.error("[AiService] Family 서버 호출 실패", e);
@@ -182,6 +629,51 @@ public class AiService {
         }
     }
 
+    /**
+     * 함수 이름 : toFamilyResponse
+     * 기능 : family 응답을 후처리하여 top-1 패밀리 기준으로 카테고리와 랜섬웨어 여부를 판정한다.
+     * 매개변수 : raw - AI 서버 응답 (null 가능)
+     * 반환값 : FamilyPredictResponse - 후처리된 패밀리 분류 결과
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private FamilyPredictResponse toFamilyResponse(FamilyPredictResponse raw) {
+        // === 후처리: top-1 family 기준으로 카테고리/랜섬웨어 여부 판정 ===
+        String topFamily = null;
+        Double topProb = null;
+        if (raw != null && raw.getTopk() != null && !raw.getTopk().isEmpty()) {
+            FamilyPredictResponse.Item top1 = raw.getTopk().get(0);
+            topFamily = top1.getFamily();
+            topProb = top1.getProb();
+        }
+
+        String category = classifyFamilyCategory(topFamily);
+        boolean isRansomware = "RANSOMWARE".equals(category);
+        String verdict;
+        if (topFamily == null || topFamily.isBlank()) {
+            verdict = "분류 불가";
+        } else if ("BENIGN".equals(category)) {
+            verdict = "정상";
+        } else if (isRansomware) {
+            verdict = "랜섬웨어";
+        } else {
+            verdict = "악성(기타)";
+        }
+
+        return FamilyPredictResponse.builder()
+                .topk(raw != null ? raw.getTopk() : Collections.emptyList())
+                .message(raw != null ? raw.getMessage() : null)
+                .topFamily(topFamily)
+                .category(category)
+                .ransomware(isRansomware)
+                .verdict(verdict)
+                .build();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+    }
+
     /**
      * 함수 이름 : classifyFamilyCategory
      * 기능 : 랜섬웨어 패밀리 이름을 기반으로 상위 카테고리를 판정한다.
@@ -0,0 +1,284 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowRecordResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 클래스 이름 : AiShadowEvaluator
+ * 기능 : 새 모델을 배포 전에 실제 트래픽으로 비교하는 섀도 평가. AI 서버 판정(REMOTE) 중 sample-rate 비율을 골라
+ *        섀도 대상(별도 엔드포인트 또는 내보낸 모델 파일)에도 판정을 맡기고, 라벨 일치 여부와 지연 시간을 ai_shadow 테이블에 남긴다.
+ *
+ * - 기본 경로는 섀도를 절대 기다리지 않는다. offer는 표본 추첨과 비동기 제출만 하고 바로 돌아간다.
+ * - 섀도 동시 평가가 max-in-flight에 도달했거나 기록 대기열이 가득 차면 그 표본은 건너뛴다. (skippedBusy)
+ * - 섀도 HTTP 호출은 비동기 클라이언트의 SHADOW 전용 레인을 쓰므로 analyze 동시 요청 한도를 차지하지 않는다.
+ * - 비교와 DB 기록은 전용 스레드 1개에서 한다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiShadowEvaluator {
+
+    public enum Kind { REMOTE, LOCAL_MODEL }
+
+    @Value("${ai.shadow.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.shadow.kind:REMOTE}")
+    private Kind kind;
+
+    @Value("${ai.shadow.url:http://localhost:8002/api/analyze}")
+    private String url;
+
+    @Value("${ai.shadow.model-path:model/shadow-model.json}")
+    private String modelPath;
+
+    @Value("${ai.shadow.sample-rate:0.05}")
+    private double sampleRate;
+
+    @Value("${ai.shadow.max-in-flight:2}")
+    private int maxInFlight;
+
+    @Value("${ai.shadow.max-pending-writes:1024}")
+    private int maxPendingWrites;
+
+    private final AiAsyncHttpClient asyncClient;
+    private final AiShadowRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private LocalModelEngine.Model model;
+    private String loadError;
+    private ThreadPoolExecutor worker;
+    private Timer shadowLatency;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder skippedBusy = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder agreed = new LongAdder();
+    private final LongAdder disagreed = new LongAdder();
+    private final LongAdder primaryNanos = new LongAdder();
+    private final Map<String, LongAdder> disagreementsByPair = new ConcurrentHashMap<>();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 섀도 모델(LOCAL_MODEL)을 읽고 비교/기록 스레드를 만든다. 모델을 읽지 못하면 섀도 평가를 하지 않는다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("[AiShadowEvaluator] 비활성화");
+            return;
+        }
+        if (kind == Kind.LOCAL_MODEL) {
+            try {
+                model = LocalModelEngine.load(objectMapper, Paths.get(modelPath));
+            } catch (Exception e) {
+                loadError = e.toString();
+                log.warn("[AiShadowEvaluator] 섀도 모델 로드 실패(path={}) -> 섀도 평가 안 함: {}", modelPath, e.toString());
+            }
+        }
+        shadowLatency = Timer.builder("ai.shadow.latency")
+                .description("섀도 판정 지연 시간 (섀도 엔드포인트 호출 또는 섀도 모델 판정)")
+                .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPendingWrites)),
+                r -> {
+                    Thread t = new Thread(r, "AiShadow-Worker");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("[AiShadowEvaluator] init: kind={} target={} sampleRate={} maxInFlight={}",
+                kind, target(), sampleRate, maxInFlight);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 비교/기록 스레드를 종료한다. 남은 표본은 버린다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (worker != null) worker.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : offer
+     * 기능 : AI 서버 판정 1건을 표본으로 뽑으면 섀도 판정을 비동기로 시작한다. 호출자는 기다리지 않는다.
+     * 매개변수 : payload - 피처 벡터, primary - 기본 경로 판정(REMOTE), primaryLatencyNanos - 기본 경로 지연 시간
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void offer(AiPayload payload, AiResult primary, long primaryLatencyNanos) {
+        if (!enabled || payload == null || primary == null) return;
+        if (kind == Kind.LOCAL_MODEL && model == null) return;
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) return;
+        sampled.increment();
+        if (inFlight.incrementAndGet() > Math.max(1, maxInFlight)) {
+            inFlight.decrementAndGet();
+            skippedBusy.increment();
+            return;
+        }
+
+        try {
+            if (kind == Kind.REMOTE) {
+                long t0 = System.nanoTime();
+                asyncClient.postJson(AiHttpClient.Endpoint.SHADOW, url, payload, AiResponse.class)
+                        .whenComplete((response, e) -> {
+                            long shadowNanos = System.nanoTime() - t0;
+                            inFlight.decrementAndGet();
+                            if (e != null) {
+                                failed.increment();
+                                log.debug("[AiShadowEvaluator] 섀도 호출 실패: {}", e.toString());
+                                return;
+                            }
+                            AiResult shadow = AiResult.fromResponse(response);
+                            submit(() -> compare(payload, primary, primaryLatencyNanos, shadow, shadowNanos));
+                        });
+            } else {
+                submit(() -> {
+                    long t0 = System.nanoTime();
+                    AiResult shadow;
+                    try {
+                        shadow = model.classify(payload);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    compare(payload, primary, primaryLatencyNanos, shadow, System.nanoTime() - t0);
+                });
+            }
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            failed.increment();
+            log.debug("[AiShadowEvaluator] 섀도 평가 시작 실패: {}", e.toString());
+        }
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 표본/건너뜀/실패 수, 라벨 일치율, 불일치 유형별 건수, 기본/섀도 지연 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiShadowStatsResponse - 섀도 평가 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiShadowStatsResponse getStats() {
+        long agree = agreed.sum();
+        long disagree = disagreed.sum();
+        long compared = agree + disagree;
+        Map<String, Long> pairs = new TreeMap<>();
+        disagreementsByPair.forEach((k, v) -> pairs.put(k, v.sum()));
+        return AiShadowStatsResponse.builder()
+                .enabled(enabled)
+                .kind(kind.name())
+                .target(target())
+                .sampleRate(sampleRate)
+                .loadError(loadError)
+                .sampled(sampled.sum())
+                .skippedBusy(skippedBusy.sum())
+                .failed(failed.sum())
+                .compared(compared)
+                .agreed(agree)
+                .disagreed(disagree)
+                .agreementRate(compared > 0 ? (double) agree / compared : 0.0)
+                .disagreementsByPair(pairs)
+                .primaryMeanLatencyMs(compared > 0 ? primaryNanos.sum() / 1e6 / compared : 0.0)
+                .shadowMeanLatencyMs(shadowLatency != null && shadowLatency.count() > 0 ? shadowLatency.mean(TimeUnit.MILLISECONDS) : 0.0)
+                .shadowP99LatencyMs(percentile(shadowLatency, 0.99))
+                .build();
+    }
+
+    /** 비교/기록 스레드에 넘긴다. 기록 대기열이 가득 차면 표본을 버린다 */
+    private void submit(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (kind == Kind.LOCAL_MODEL) inFlight.decrementAndGet();
+            skippedBusy.increment();
+        }
+    }
+
+    private void compare(AiPayload payload, AiResult primary, long primaryLatencyNanos, AiResult shadow, long shadowNanos) {
+        shadowLatency.record(shadowNanos, TimeUnit.NANOSECONDS);
+        primaryNanos.add(primaryLatencyNanos);
+        boolean agree = Objects.equals(primary.getLabel(), shadow.getLabel());
+        if (agree) {
+            agreed.increment();
+        } else {
+            disagreed.increment();
+            disagreementsByPair.computeIfAbsent(primary.getLabel() + "->" + shadow.getLabel(), k -> new LongAdder()).increment();
+            log.info("[AiShadowEvaluator] 판정 불일치: primary={}({}) shadow={}({}) payload={}",
+                    primary.getLabel(), primary.getTopFamily(), shadow.getLabel(), shadow.getTopFamily(), payload);
+        }
+        try {
+            repository.insert(AiShadowRecordResponse.builder()
+                    .createdAtMs(System.currentTimeMillis())
+                    .shadowKind(kind.name())
+                    .agree(agree)
+                    .primaryLabel(primary.getLabel())
+                    .primaryFamily(primary.getTopFamily())
+                    .primaryScore(primary.getScore())
+                    .primaryLatencyMs(primaryLatencyNanos / 1e6)
+                    .shadowLabel(shadow.getLabel())
+                    .shadowFamily(shadow.getTopFamily())
+                    .shadowScore(shadow.getScore())
+                    .shadowLatencyMs(shadowNanos / 1e6)
+                    .payload(agree ? null : objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (Exception e) {
+            log.warn("[AiShadowEvaluator] 섀도 평가 기록 실패: {}", e.toString());
+        }
+    }
+
+    private String target() {
+        return (kind == Kind.REMOTE) ? url : modelPath;
+    }
+
+    private static double percentile(Timer timer, double p) {
+        if (timer == null || timer.count() == 0) return 0.0;
+        for (var v : timer.takeSnapshot().percentileValues()) {
+            if (Math.abs(v.percentile() - p) < 1e-9) return v.value(TimeUnit.MILLISECONDS);
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiShadowRecordResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AiShadowRepository
+ * 기능 : 섀도 평가 결과(기본 판정 vs 섀도 판정, 지연 시간)를 SQLite(ai_shadow)에 저장하고 불일치 건을 조회한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class AiShadowRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 섀도 평가 테이블을 생성한다. 애플리케이션 시작 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    public void init() {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS ai_shadow (
+                    id                  INTEGER PRIMARY KEY AUTOINCREMENT,
+                    created_at          INTEGER NOT NULL,
+                    shadow_kind         TEXT NOT NULL,
+                    agree               INTEGER NOT NULL,
+                    primary_label       TEXT,
+                    primary_family      TEXT,
+                    primary_score       REAL,
+                    primary_latency_ms  REAL,
+                    shadow_label        TEXT,
+                    shadow_family       TEXT,
+                    shadow_score        REAL,
+                    shadow_latency_ms   REAL,
+                    payload             TEXT
+                );
+                """;
+        jdbcTemplate.execute(sql);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ai_shadow_agree_created ON ai_shadow (agree, created_at)");
+        log.info("[AiShadowRepository] ai_shadow 테이블 초기화 완료");
+    }
+
+    /**
+     * 함수 이름 : insert
+     * 기능 : 섀도 평가 1건을 저장한다.
+     * 매개변수 : r - 평가 결과 (id 무시)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void insert(AiShadowRecordResponse r) {
+        String sql = """
+                INSERT INTO ai_shadow (
+                    created_at, shadow_kind, agree,
+                    primary_label, primary_family, primary_score, primary_latency_ms,
+                    shadow_label, shadow_family, shadow_score, shadow_latency_ms, payload
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        jdbcTemplate.update(sql,
+                r.getCreatedAtMs(), r.getShadowKind(), r.isAgree() ? 1 : 0,
+                r.getPrimaryLabel(), r.getPrimaryFamily(), r.getPrimaryScore(), r.getPrimaryLatencyMs(),
+                r.getShadowLabel(), r.getShadowFamily(), r.getShadowScore(), r.getShadowLatencyMs(), r.getPayload());
+    }
+
+    /**
+     * 함수 이름 : findRecentDisagreements
+     * 기능 : 라벨이 다르게 나온 최근 섀도 평가를 조회한다.
+     * 매개변수 : limit - 최대 개수
+     * 반환값 : List<AiShadowRecordResponse> - 최신순 불일치 목록
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<AiShadowRecordResponse> findRecentDisagreements(int limit) {
+        String sql = """
+                SELECT id, created_at, shadow_kind, agree,
+                       primary_label, primary_family, primary_score, primary_latency_ms,
+                       shadow_label, shadow_family, shadow_score, shadow_latency_ms, payload
+                FROM ai_shadow
+                WHERE agree = 0
+                ORDER BY created_at DESC, id DESC
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, new Object[]{limit}, (rs, rowNum) -> AiShadowRecordResponse.builder()
+                .id(rs.getLong("id"))
+                .createdAtMs(rs.getLong("created_at"))
+                .shadowKind(rs.getString("shadow_kind"))
+                .agree(rs.getInt("agree") != 0)
+                .primaryLabel(rs.getString("primary_label"))
+                .primaryFamily(rs.getString("primary_family"))
+                .primaryScore(rs.getObject("primary_score") != null ? rs.getDouble("primary_score") : null)
+                .primaryLatencyMs(rs.getObject("primary_latency_ms") != null ? rs.getDouble("primary_latency_ms") : null)
+                .shadowLabel(rs.getString("shadow_label"))
+                .shadowFamily(rs.getString("shadow_family"))
+                .shadowScore(rs.getObject("shadow_score") != null ? rs.getDouble("shadow_score") : null)
+                .shadowLatencyMs(rs.getObject("shadow_latency_ms") != null ? rs.getDouble("shadow_latency_ms") : null)
+                .payload(rs.getString("payload"))
+                .build());
+    }
+}
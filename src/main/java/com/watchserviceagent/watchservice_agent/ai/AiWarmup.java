@@ -0,0 +1,240 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiWarmupStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 클래스 이름 : AiWarmup
+ * 기능 : 시작 직후 AI 서버 analyze 경로를 미리 데운다. 합성(모두 0인) 피처 벡터를 동기 풀에 connections개 동시에,
+ *        비동기 클라이언트로 1개 보내 DNS 조회, TCP 연결, keep-alive 커넥션 생성, 서버 쪽 모델 로드를 첫 실제 윈도우 전에 끝낸다.
+ *
+ * - 상태: WARMING → WARM (응답 1개 이상 성공) / GAVE_UP (give-up-ms 동안 실패) / SKIPPED (비활성화, 내장 모델 PRIMARY)
+ * - 실패하면 retry-ms부터 두 배씩(최대 10초) 늘려 다시 시도한다. 서킷 브레이커와 결과 캐시에는 반영하지 않는다.
+ * - ready()는 데우기가 끝나거나 시작 후 hold-max-ms가 지나면 완료된다. 윈도우 flush 파이프라인이 AI 요청 전에 이를 기다린다.
+ * - actuator readiness(AiWarmupHealthIndicator)는 WARMING 동안 OUT_OF_SERVICE로 보인다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiWarmup {
+
+    public enum State { WARMING, WARM, GAVE_UP, SKIPPED }
+
+    private static final long MAX_RETRY_MS = 10_000L;
+
+    @Value("${ai.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.analyze.url:http://localhost:8000/api/analyze}")
+    private String analyzeUrl;
+
+    @Value("${ai.warmup.connections:4}")
+    private int connections;
+
+    @Value("${ai.warmup.hold-max-ms:3000}")
+    private long holdMaxMs;
+
+    @Value("${ai.warmup.give-up-ms:60000}")
+    private long giveUpMs;
+
+    @Value("${ai.warmup.retry-ms:1000}")
+    private long retryMs;
+
+    private final AiHttpClient httpClient;
+    private final AiAsyncHttpClient asyncClient;
+    private final LocalModelEngine localModel;
+
+    private final CompletableFuture<Void> warmed = new CompletableFuture<>();
+    private CompletableFuture<Void> ready;
+    private ExecutorService executor;
+
+    // 상태 (this로 보호)
+    private State state = State.WARMING;
+    private long startedAtMs;
+    private Long finishedAtMs;
+    private int attempts;
+    private int warmedConnections;
+    private Double firstCallMs;
+    private Double lastCallMs;
+    private String lastError;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 데우기 스레드를 시작한다. 비활성화되었거나 AI 서버를 쓰지 않으면(내장 모델 PRIMARY) 바로 SKIPPED로 끝낸다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        startedAtMs = System.currentTimeMillis();
+        ready = warmed.copy().completeOnTimeout(null, Math.max(0L, holdMaxMs), TimeUnit.MILLISECONDS);
+        if (!enabled || localModel.isPrimary()) {
+            finish(State.SKIPPED);
+            log.info("[AiWarmup] 생략 (enabled={}, localModelPrimary={})", enabled, localModel.isPrimary());
+            return;
+        }
+        int n = Math.max(1, connections);
+        executor = Executors.newFixedThreadPool(n + 1, r -> {
+            Thread t = new Thread(r, "Ai-Warmup");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(this::run);
+        log.info("[AiWarmup] 시작: url={} connections={} holdMaxMs={} giveUpMs={}", analyzeUrl, n, holdMaxMs, giveUpMs);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 데우기 스레드를 멈춘다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /**
+     * 함수 이름 : ready
+     * 기능 : AI 요청을 보내도 되는 시점을 알려준다. 데우기가 끝나거나(WARM/GAVE_UP/SKIPPED) 시작 후 hold-max-ms가 지나면 완료된다.
+     * 매개변수 : 없음
+     * 반환값 : CompletableFuture<Void> - 완료되면 요청을 보낸다 (예외로 완료되지 않음)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    /**
+     * 함수 이름 : getState
+     * 기능 : 현재 데우기 상태를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : State - WARMING / WARM / GAVE_UP / SKIPPED
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 데우기 상태, 시도 횟수, 데운 커넥션 수, 첫/마지막 합성 요청 지연 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiWarmupStatsResponse - 데우기 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized AiWarmupStatsResponse getStats() {
+        return AiWarmupStatsResponse.builder()
+                .state(state.name())
+                .startedAtMs(startedAtMs)
+                .finishedAtMs(finishedAtMs)
+                .attempts(attempts)
+                .warmedConnections(warmedConnections)
+                .firstCallMs(firstCallMs)
+                .lastCallMs(lastCallMs)
+                .lastError(lastError)
+                .holdMaxMs(holdMaxMs)
+                .build();
+    }
+
+    /** 응답을 받을 때까지(또는 give-up-ms까지) 합성 요청을 반복한다 */
+    private void run() {
+        long backoff = Math.max(100L, retryMs);
+        while (!Thread.currentThread().isInterrupted()) {
+            int ok = attempt();
+            if (ok > 0) {
+                finish(State.WARM);
+                log.info("[AiWarmup] 완료: connections={} firstCallMs={} lastCallMs={}", ok, firstCallMs, lastCallMs);
+                return;
+            }
+            if (System.currentTimeMillis() - startedAtMs >= giveUpMs) {
+                finish(State.GAVE_UP);
+                log.warn("[AiWarmup] {}ms 동안 AI 서버 응답 없음 -> 데우기 중단: {}", giveUpMs, lastError);
+                return;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(MAX_RETRY_MS, backoff * 2);
+        }
+    }
+
+    /** 동기 풀에 connections개, 비동기 클라이언트에 1개를 동시에 보낸다. 성공한 동기 요청 수를 반환한다 */
+    private int attempt() {
+        AiPayload synthetic = AiPayload.builder().build();
+        int n = Math.max(1, connections);
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> call(() ->
+                    httpClient.postJson(AiHttpClient.Endpoint.ANALYZE, analyzeUrl, synthetic, AiResponse.class)), executor));
+        }
+        CompletableFuture<Boolean> async = asyncClient
+                .postJson(AiHttpClient.Endpoint.ANALYZE, analyzeUrl, synthetic, AiResponse.class)
+                .handle((r, e) -> e == null);
+
+        int ok = 0;
+        for (CompletableFuture<Boolean> c : calls) {
+            if (c.join()) ok++;
+        }
+        async.join();
+        synchronized (this) {
+            attempts++;
+            warmedConnections = ok;
+        }
+        return ok;
+    }
+
+    private boolean call(Runnable request) {
+        long t0 = System.nanoTime();
+        try {
+            request.run();
+            double ms = (System.nanoTime() - t0) / 1e6;
+            synchronized (this) {
+                if (firstCallMs == null) firstCallMs = ms;
+                lastCallMs = ms;
+            }
+            return true;
+        } catch (Exception e) {
+            synchronized (this) {
+                lastError = e.toString();
+            }
+            return false;
+        }
+    }
+
+    private void finish(State finalState) {
+        synchronized (this) {
+            state = finalState;
+            finishedAtMs = System.currentTimeMillis();
+        }
+        warmed.complete(null);
+        if (executor != null) executor.shutdown();
+    }
+}
@@ -0,0 +1,27 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 클래스 이름 : AiWarmupHealthIndicator
+ * 기능 : AI 연결 데우기 상태를 actuator health(aiWarmup)로 노출한다. readiness 그룹에 포함되어
+ *        데우는 동안은 OUT_OF_SERVICE, 끝나면 UP이 된다. give-up 후에는 로컬 대체 판정으로 동작할 수 있으므로 UP으로 두고 상태만 표시한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component("aiWarmup")
+@RequiredArgsConstructor
+public class AiWarmupHealthIndicator implements HealthIndicator {
+
+    private final AiWarmup warmup;
+
+    @Override
+    public Health health() {
+        AiWarmup.State state = warmup.getState();
+        Health.Builder builder = state == AiWarmup.State.WARMING ? Health.outOfService() : Health.up();
+        return builder.withDetail("state", state.name()).build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiFamilyCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.FamilyPredictResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 클래스 이름 : FamilyResultCache
+ * 기능 : (features, topk)를 키로 패밀리 분류 결과를 캐시하고, 같은 키의 동시 요청은 family 서버에 한 번만 보낸다.
+ *        (LRU + TTL, 최대 항목 수 제한 / single-flight)
+ *
+ * - 키: features를 키 이름순 JSON으로 직렬화한 문자열 + topk (Map 순서가 달라도 같은 키)
+ * - 캐시에는 topk가 비어 있지 않은 응답만 넣는다. 호출 실패 응답은 대기 중이던 요청에만 나눠 주고 캐시하지 않는다.
+ * - 응답 객체는 요청 사이에 공유되므로 호출자는 수정하지 않는다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class FamilyResultCache {
+
+    private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<FamilyPredictResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // 통계 (this로 보호)
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long expirations;
+    private long evictions;
+
+    FamilyResultCache(int maxEntries, long ttlMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > FamilyResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 함수 이름 : keyOf
+     * 기능 : (features, topk) 캐시 키를 만든다.
+     * 매개변수 : features - 피처 객체 (AiPayload 또는 Map), topk - 상위 k개
+     * 반환값 : String - 캐시 키, 직렬화할 수 없으면 null (캐시/합치기 없이 바로 호출)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static String keyOf(Object features, int topk) {
+        try {
+            return topk + "|" + KEY_MAPPER.writeValueAsString(features);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 함수 이름 : get
+     * 기능 : 캐시된 결과를 반환하고, 없으면 같은 키로 진행 중인 호출의 결과를 기다리거나 직접 loader를 호출한다.
+     * 매개변수 : key - keyOf로 만든 키, loader - family 서버 호출 (호출한 스레드에서 실행)
+     * 반환값 : FamilyPredictResponse - 패밀리 분류 결과
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    FamilyPredictResponse get(String key, Supplier<FamilyPredictResponse> loader) {
+        FamilyPredictResponse cached = lookup(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<FamilyPredictResponse> mine = new CompletableFuture<>();
+        CompletableFuture<FamilyPredictResponse> leader = join(key, mine);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            FamilyPredictResponse res = loader.get();
+            store(key, res);
+            mine.complete(res);
+            return res;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 함수 이름 : getAsync
+     * 기능 : get의 비동기 버전. 캐시된 결과는 완료된 future로, 같은 키로 진행 중인 호출(동기/비동기 모두)이 있으면 그 결과를 돌려준다.
+     * 매개변수 : key - keyOf로 만든 키, loader - family 서버 비동기 호출 (리더 요청 1개만 실행)
+     * 반환값 : CompletableFuture<FamilyPredictResponse> - 패밀리 분류 결과 (요청마다 별도 future)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    CompletableFuture<FamilyPredictResponse> getAsync(String key, Supplier<CompletableFuture<FamilyPredictResponse>> loader) {
+        FamilyPredictResponse cached = lookup(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        CompletableFuture<FamilyPredictResponse> mine = new CompletableFuture<>();
+        CompletableFuture<FamilyPredictResponse> leader = join(key, mine);
+        if (leader != null) return leader.copy();
+
+        CompletableFuture<FamilyPredictResponse> call;
+        try {
+            call = loader.get();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            inFlight.remove(key, mine);
+            return mine.copy();
+        }
+        call.whenComplete((res, err) -> {
+            if (err == null) {
+                store(key, res);
+                mine.complete(res);
+            } else {
+                mine.completeExceptionally(err);
+            }
+            inFlight.remove(key, mine);
+        });
+        return mine.copy();
+    }
+
+    /** 만료되지 않은 캐시 결과를 반환한다 (없으면 null) */
+    private synchronized FamilyPredictResponse lookup(String key) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (System.currentTimeMillis() < e.expiresAtMs) {
+            hits++;
+            return e.response;
+        }
+        entries.remove(key);
+        expirations++;
+        return null;
+    }
+
+    /**
+     * mine을 key의 진행 중 호출로 등록한다. 이미 진행 중인 호출이 있으면 그 future를 반환하고,
+     * 등록 사이에 앞선 호출이 끝나 캐시에 넣었으면 mine을 그 결과로 완료하고 반환한다. 호출자가 리더면 null.
+     */
+    private CompletableFuture<FamilyPredictResponse> join(String key, CompletableFuture<FamilyPredictResponse> mine) {
+        CompletableFuture<FamilyPredictResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            synchronized (this) {
+                coalesced++;
+            }
+            return leader;
+        }
+        synchronized (this) {
+            // 캐시 조회와 putIfAbsent 사이에 앞선 호출이 끝나 캐시에 넣었을 수 있음
+            Entry e = entries.get(key);
+            if (e != null && System.currentTimeMillis() < e.expiresAtMs) {
+                hits++;
+                mine.complete(e.response);
+                inFlight.remove(key, mine);
+                return mine;
+            }
+            misses++;
+        }
+        return null;
+    }
+
+    /** topk가 비어 있지 않은 응답만 캐시에 넣는다 */
+    private void store(String key, FamilyPredictResponse res) {
+        if (res != null && res.getTopk() != null && !res.getTopk().isEmpty()) {
+            synchronized (this) {
+                entries.put(key, new Entry(res, System.currentTimeMillis() + ttlMs));
+            }
+        }
+    }
+
+    /**
+     * 함수 이름 : stats
+     * 기능 : 캐시 크기와 hit/miss/합침 통계를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiFamilyCacheStatsResponse - 캐시 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized AiFamilyCacheStatsResponse stats() {
+        long lookups = hits + misses + coalesced;
+        return AiFamilyCacheStatsResponse.builder()
+                .enabled(true)
+                .size(entries.size())
+                .maxEntries(maxEntries)
+                .ttlMs(ttlMs)
+                .hits(hits)
+                .misses(misses)
+                .coalesced(coalesced)
+                .hitRatio(lookups > 0 ? (double) (hits + coalesced) / lookups : 0.0)
+                .expirations(expirations)
+                .evictions(evictions)
+                .inFlight(inFlight.size())
+                .build();
+    }
+
+    private record Entry(FamilyPredictResponse response, long expiresAtMs) {}
+}
@@ -0,0 +1,158 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클래스 이름 : LocalFallbackClassifier
+ * 기능 : AI 서버를 쓸 수 없을 때(차단 상태, 호출 실패) 9개 피처만으로 SAFE / WARNING / DANGER를 판정하는 로컬 분류기.
+ *        랜섬웨어의 전형적인 신호(encrypt-like 쓰기, 랜덤 확장자, rename 폭주, 엔트로피 급증)를 점수로 합산한다.
+ *        AI만큼 정밀하지는 않지만, 장애 동안 보호 수준이 0(UNKNOWN)으로 떨어지는 것을 막는 것이 목적이다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@Slf4j
+public class LocalFallbackClassifier {
+
+    @Value("${ai.fallback.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.fallback.warning-score:0.40}")
+    private double warningScore;
+
+    @Value("${ai.fallback.danger-score:0.70}")
+    private double dangerScore;
+
+    private final AtomicLong safe = new AtomicLong();
+    private final AtomicLong warning = new AtomicLong();
+    private final AtomicLong danger = new AtomicLong();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 설정값을 로그로 남긴다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        log.info("[LocalFallbackClassifier] init: enabled={} warningScore={} dangerScore={}", enabled, warningScore, dangerScore);
+    }
+
+    /**
+     * 함수 이름 : isEnabled
+     * 기능 : 로컬 대체 판정 사용 여부를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - 사용하면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 함수 이름 : classify
+     * 기능 : 피처 벡터로 위험도(0~1)를 계산하여 라벨을 정한다. 결과의 source는 FALLBACK이다.
+     * 매개변수 : payload - 윈도우 피처 벡터, reason - AI 대신 로컬 판정을 쓰는 이유 (detail에 남김)
+     * 반환값 : AiResult - 로컬 판정 결과
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiResult classify(AiPayload payload, String reason) {
+        double score = score(payload);
+        String label;
+        if (score >= dangerScore) {
+            label = "DANGER";
+            danger.incrementAndGet();
+        } else if (score >= warningScore) {
+            label = "WARNING";
+            warning.incrementAndGet();
+        } else {
+            label = "SAFE";
+            safe.incrementAndGet();
+        }
+        return AiResult.builder()
+                .label(label)
+                .score(score)
+                .detail("local_fallback score=" + String.format("%.3f", score) + " (" + reason + ")")
+                .topFamily("SAFE".equals(label) ? "Benign" : null)
+                .isRansomware("DANGER".equals(label))
+                .source(AiResult.SOURCE_FALLBACK)
+                .build();
+    }
+
+    /**
+     * 함수 이름 : severityOf
+     * 기능 : 위험도(score)를 classify와 같은 임계값으로 SAFE / WARNING / DANGER 등급으로 바꾼다. 건수는 세지 않는다.
+     * 매개변수 : score - 0~1 위험도
+     * 반환값 : String - 등급
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public String severityOf(double score) {
+        if (score >= dangerScore) return "DANGER";
+        if (score >= warningScore) return "WARNING";
+        return "SAFE";
+    }
+
+    /**
+     * 함수 이름 : getLabelCounts
+     * 기능 : 로컬 대체 판정 라벨별 건수를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : Map<String, Long> - 라벨 -> 건수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public Map<String, Long> getLabelCounts() {
+        Map<String, Long> out = new TreeMap<>();
+        out.put("SAFE", safe.get());
+        out.put("WARNING", warning.get());
+        out.put("DANGER", danger.get());
+        return out;
+    }
+
+    /**
+     * 신호별 점수를 더해 0~1로 자른다.
+     * - encrypt-like 쓰기: 1건이면 WARNING 근처, 변경 파일 대비 비율이 높거나 3건 이상이면 DANGER 쪽
+     * - 랜덤 확장자 / rename 폭주: 일괄 이름 변경 패턴
+     * - 엔트로피 평균 증가: 내용이 무작위(암호문)에 가까워짐
+     * - 대량 삭제: 원본 삭제 후 암호문만 남기는 패턴
+     */
+    static double score(AiPayload p) {
+        if (p == null) return 0.0;
+        int changed = Math.max(1, p.getChangedFilesCount());
+        double s = 0.0;
+
+        int enc = p.getFileEncryptLikeCount();
+        if (enc > 0) {
+            s += 0.40 + 0.35 * Math.min(1.0, (double) enc / changed);
+            if (enc >= 3) s += 0.15;
+        }
+        if (p.getRandomExtensionFlag() != 0) s += 0.30;
+
+        int renames = p.getFileRenameCount();
+        if (renames >= 20) s += 0.25;
+        else if (renames >= 5) s += 0.15;
+
+        double entropy = p.getEntropyDiffMean();
+        if (entropy >= 0.5) s += 0.30;
+        else if (entropy >= 0.2) s += 0.15;
+
+        int deletes = p.getFileDeleteCount();
+        if (deletes >= 50) s += 0.20;
+        else if (deletes >= 10) s += 0.10;
+
+        return Math.min(1.0, s);
+    }
+}
@@ -0,0 +1,494 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiModelStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 클래스 이름 : LocalModelEngine
+ * 기능 : AI 서버에서 내보낸 모델(JSON 파일)을 읽어 프로세스 안에서 AiPayload를 판정하는 내장 추론 엔진.
+ *
+ * - 지원 모델: 트리 앙상블(gradient boosting, 트리별 클래스 margin 합산)과 선형 모델(클래스별 가중치 + bias)
+ * - 출력: 클래스가 2개이고 출력이 1개면 sigmoid, 아니면 softmax. 최상위 클래스와 확률을
+ *   AiResult.fromPrediction에 넘기므로 라벨/위험도 규칙은 AI 서버 응답과 같다. (정상 클래스 이름은 "Benign")
+ * - 로딩 시 모든 노드를 평탄한 배열로 바꾸고, 판정 시에는 스레드별 scratch 배열만 쓰므로 할당이 없다.
+ * - mode: OFF(로드 안 함) / FALLBACK(AI 서버 장애 시 휴리스틱 대신 사용) / PRIMARY(AI 서버를 호출하지 않고 항상 사용)
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocalModelEngine {
+
+    public enum Mode { OFF, FALLBACK, PRIMARY }
+
+    /** AiPayload 피처 순서 (모델 파일의 features가 없으면 이 순서로 본다) */
+    static final List<String> FEATURES = List.of(
+            "file_read_count", "file_write_count", "file_delete_count", "file_rename_count",
+            "file_encrypt_like_count", "changed_files_count", "random_extension_flag",
+            "entropy_diff_mean", "file_size_diff_mean");
+
+    @Value("${ai.local-model.mode:OFF}")
+    private Mode mode;
+
+    @Value("${ai.local-model.path:model/analyze-model.json}")
+    private String pathValue;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Model model;
+    private volatile String loadError;
+    private volatile Long loadedAtMs;
+
+    private final LongAdder predictions = new LongAdder();
+    private final LongAdder predictNanos = new LongAdder();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : mode가 OFF가 아니면 모델 파일을 읽는다. 읽지 못하면 경고만 남기고 AI 서버 호출로 동작한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        if (mode == Mode.OFF) {
+            log.info("[LocalModelEngine] 비활성화");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * 함수 이름 : reload
+     * 기능 : 모델 파일을 다시 읽어 교체한다. 실패하면 기존 모델을 유지한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - 새 모델을 읽었으면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized boolean reload() {
+        if (mode == Mode.OFF) return false;
+        Path path = Paths.get(pathValue);
+        try {
+            Model loaded = load(objectMapper, path);
+            model = loaded;
+            loadError = null;
+            loadedAtMs = System.currentTimeMillis();
+            log.info("[LocalModelEngine] 모델 로드: path={} mode={} type={} classes={} trees={} nodes={}",
+                    path.toAbsolutePath(), mode, loaded.type, Arrays.toString(loaded.classes), loaded.treeCount(), loaded.nodeCount());
+            return true;
+        } catch (Exception e) {
+            loadError = e.toString();
+            log.warn("[LocalModelEngine] 모델 로드 실패(path={}), {}: {}",
+                    path.toAbsolutePath(), (model != null) ? "기존 모델 유지" : "AI 서버 호출로 동작", e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * 함수 이름 : isLoaded
+     * 기능 : 사용할 수 있는 모델이 있는지 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - 모델이 로드되어 있으면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public boolean isLoaded() {
+        return mode != Mode.OFF && model != null;
+    }
+
+    /**
+     * 함수 이름 : isPrimary
+     * 기능 : AI 서버 대신 모든 analyze를 내장 모델로 판정하는지 반환한다. (PRIMARY이고 모델이 로드된 경우)
+     * 매개변수 : 없음
+     * 반환값 : boolean - 내장 모델로만 판정하면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public boolean isPrimary() {
+        return mode == Mode.PRIMARY && model != null;
+    }
+
+    /**
+     * 함수 이름 : classify
+     * 기능 : 피처 벡터를 내장 모델로 판정한다. 결과의 source는 LOCAL_MODEL이다.
+     * 매개변수 : payload - 윈도우 피처 벡터
+     * 반환값 : AiResult - 판정 결과 (모델이 없으면 UNKNOWN)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiResult classify(AiPayload payload) {
+        Model m = model;
+        if (m == null || payload == null) return AiResult.error("내장 모델 없음");
+        long t0 = System.nanoTime();
+        AiResult result = m.classify(payload);
+        predictNanos.add(System.nanoTime() - t0);
+        predictions.increment();
+        return result;
+    }
+
+    /**
+     * 함수 이름 : load
+     * 기능 : 모델 파일을 읽어 판정 가능한 모델로 만든다. 섀도 평가처럼 이 엔진과 별도로 모델을 쓰는 곳에서도 사용한다.
+     * 매개변수 : objectMapper - JSON 파서, path - 모델 파일 경로
+     * 반환값 : Model - 로드된 모델
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static Model load(ObjectMapper objectMapper, Path path) throws IOException {
+        return Model.parse(objectMapper.readTree(Files.readAllBytes(path)));
+    }
+
+    /**
+     * 함수 이름 : riskScore
+     * 기능 : 악성 클래스 확률의 합(1 - Benign 확률)만 계산한다. 객체를 만들지 않는다.
+     * 매개변수 : payload - 윈도우 피처 벡터
+     * 반환값 : double - 0~1 위험도, 모델이 없으면 NaN
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public double riskScore(AiPayload payload) {
+        Model m = model;
+        if (m == null || payload == null) return Double.NaN;
+        double[] scratch = m.scratch.get();
+        m.predict(payload, scratch);
+        return (m.benignIndex < 0) ? 1.0 : 1.0 - scratch[Model.FEATURE_COUNT + m.benignIndex];
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 모드, 로드 상태, 모델 크기, 판정 횟수와 평균 판정 시간을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : AiModelStatsResponse - 내장 모델 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public AiModelStatsResponse getStats() {
+        Model m = model;
+        long n = predictions.sum();
+        return AiModelStatsResponse.builder()
+                .mode(mode.name())
+                .path(pathValue)
+                .loaded(m != null)
+                .loadedAtMs(loadedAtMs)
+                .loadError(loadError)
+                .type((m != null) ? m.type : null)
+                .classes((m != null) ? List.of(m.classes) : List.of())
+                .trees((m != null) ? m.treeCount() : 0)
+                .nodes((m != null) ? m.nodeCount() : 0)
+                .predictions(n)
+                .avgPredictNanos((n > 0) ? (double) predictNanos.sum() / n : 0.0)
+                .build();
+    }
+
+    /**
+     * 로드된 모델. 모든 배열은 로드 후 바뀌지 않는다.
+     *
+     * 파일 형식 (JSON):
+     *   type        : "tree_ensemble" | "linear"
+     *   classes     : 클래스 이름 목록 (정상은 "Benign"), 예) ["Benign","LockBit","Conti"]
+     *   features    : (선택) 모델 입력 순서의 피처 이름, AiPayload JSON 이름과 같음
+     *   base_score  : (선택) 출력별 초기 margin
+     *   outputs     : (선택) 출력 수. 없으면 weights 행 수, 클래스 2개면 1, 나머지는 클래스 수
+     *   trees       : [{"class":0, "nodes":[{"f":4,"t":0.5,"l":1,"r":2},{"v":-0.3},{"v":0.8}]}]
+     *                 f=피처 인덱스, t=임계값 (x < t 이면 l, 아니면 r), v=잎 값. class가 없으면 트리 순서 % 출력 수
+     *   weights     : 출력별 가중치 [[w0..w8], ...], bias: 출력별 bias (linear)
+     * 출력 수가 1이고 클래스가 2개면 sigmoid(margin)을 두 번째 클래스 확률로 본다.
+     */
+    static final class Model {
+        static final int FEATURE_COUNT = 9;
+
+        final String type;
+        final String[] classes;
+        // 클래스별 로그용 설명 (판정마다 문자열을 만들지 않도록 로딩 시 한 번 만든다. 확률은 score로 알 수 있다)
+        final String[] classDetail;
+        final int benignIndex;
+        final int outputs;
+        final double[] baseScore;
+
+        // tree_ensemble: 전체 트리의 노드를 전위(DFS) 순서로 평탄화하여 왼쪽 자식은 항상 바로 다음 노드다.
+        // nodeLink[2n] = 피처 인덱스 (잎이면 -1), nodeLink[2n+1] = 오른쪽 자식, nodeValue[n] = 임계값 또는 잎 값
+        final int[] treeRoot;
+        final int[] treeOutput;
+        final int[] nodeLink;
+        final double[] nodeValue;
+
+        // linear: outputs x FEATURE_COUNT
+        final double[] weights;
+
+        // [0, 9): 피처 값, [9, 9 + max(outputs, classes)): margin -> 확률
+        final ThreadLocal<double[]> scratch;
+
+        private Model(String type, String[] classes, int outputs, double[] baseScore,
+                      int[] treeRoot, int[] treeOutput, int[] nodeLink, double[] nodeValue, double[] weights) {
+            this.type = type;
+            this.classes = classes;
+            this.classDetail = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                classDetail[i] = "local_model top_family=" + classes[i];
+            }
+            this.benignIndex = Arrays.asList(classes).indexOf("Benign");
+            this.outputs = outputs;
+            this.baseScore = baseScore;
+            this.treeRoot = treeRoot;
+            this.treeOutput = treeOutput;
+            this.nodeLink = nodeLink;
+            this.nodeValue = nodeValue;
+            this.weights = weights;
+            int width = FEATURE_COUNT + Math.max(outputs, classes.length);
+            this.scratch = ThreadLocal.withInitial(() -> new double[width]);
+        }
+
+        int treeCount() {
+            return (treeRoot != null) ? treeRoot.length : 0;
+        }
+
+        int nodeCount() {
+            return (nodeValue != null) ? nodeValue.length : 0;
+        }
+
+        /**
+         * 피처 벡터를 판정하여 AiResult로 바꾼다 (source=LOCAL_MODEL).
+         * 할당은 반환하는 AiResult(+ score)뿐이다. 위험도만 필요하면 할당이 없는 riskScore 경로를 쓴다.
+         */
+        AiResult classify(AiPayload payload) {
+            double[] s = scratch.get();
+            int top = predict(payload, s);
+            double prob = s[FEATURE_COUNT + top];
+            return AiResult.fromPrediction(classes[top], prob, top != benignIndex, classDetail[top], AiResult.SOURCE_LOCAL_MODEL);
+        }
+
+        /** scratch[9 + c]에 클래스별 확률을 채우고 최상위 클래스 인덱스를 반환한다 */
+        int predict(AiPayload p, double[] s) {
+            s[0] = p.getFileReadCount();
+            s[1] = p.getFileWriteCount();
+            s[2] = p.getFileDeleteCount();
+            s[3] = p.getFileRenameCount();
+            s[4] = p.getFileEncryptLikeCount();
+            s[5] = p.getChangedFilesCount();
+            s[6] = p.getRandomExtensionFlag();
+            s[7] = p.getEntropyDiffMean();
+            s[8] = p.getFileSizeDiffMean();
+
+            final int o = FEATURE_COUNT;
+            System.arraycopy(baseScore, 0, s, o, outputs);
+            if (treeRoot != null) {
+                for (int t = 0; t < treeRoot.length; t++) {
+                    int n = treeRoot[t];
+                    int f;
+                    while ((f = nodeLink[2 * n]) >= 0) {
+                        n = (s[f] < nodeValue[n]) ? n + 1 : nodeLink[2 * n + 1];
+                    }
+                    s[o + treeOutput[t]] += nodeValue[n];
+                }
+            } else {
+                for (int k = 0; k < outputs; k++) {
+                    double m = s[o + k];
+                    int base = k * FEATURE_COUNT;
+                    for (int i = 0; i < FEATURE_COUNT; i++) m += weights[base + i] * s[i];
+                    s[o + k] = m;
+                }
+            }
+
+            if (outputs == 1) {
+                double p1 = 1.0 / (1.0 + Math.exp(-s[o]));
+                s[o] = 1.0 - p1;
+                s[o + 1] = p1;
+                return (p1 > 0.5) ? 1 : 0;
+            }
+            int top = 0;
+            double max = s[o];
+            for (int k = 1; k < outputs; k++) {
+                if (s[o + k] > max) {
+                    max = s[o + k];
+                    top = k;
+                }
+            }
+            double sum = 0.0;
+            for (int k = 0; k < outputs; k++) {
+                double e = Math.exp(s[o + k] - max);
+                s[o + k] = e;
+                sum += e;
+            }
+            for (int k = 0; k < outputs; k++) s[o + k] /= sum;
+            return top;
+        }
+
+        /** 모델 파일을 읽어 평탄한 배열로 바꾼다. 피처 순서는 여기서 AiPayload 순서로 맞춘다 */
+        static Model parse(JsonNode root) {
+            String type = text(root, "type");
+            JsonNode classesNode = root.path("classes");
+            if (!classesNode.isArray() || classesNode.size() < 2) {
+                throw new IllegalArgumentException("classes는 2개 이상이어야 함");
+            }
+            String[] classes = new String[classesNode.size()];
+            for (int i = 0; i < classes.length; i++) classes[i] = classesNode.get(i).asText();
+
+            int[] featureMap = new int[FEATURE_COUNT];
+            JsonNode featuresNode = root.path("features");
+            if (featuresNode.isMissingNode()) {
+                for (int i = 0; i < FEATURE_COUNT; i++) featureMap[i] = i;
+            } else {
+                if (featuresNode.size() != FEATURE_COUNT) {
+                    throw new IllegalArgumentException("features는 " + FEATURE_COUNT + "개여야 함: " + featuresNode);
+                }
+                for (int i = 0; i < FEATURE_COUNT; i++) {
+                    int idx = FEATURES.indexOf(featuresNode.get(i).asText());
+                    if (idx < 0) throw new IllegalArgumentException("알 수 없는 피처: " + featuresNode.get(i).asText());
+                    featureMap[i] = idx;
+                }
+            }
+
+            return switch (type) {
+                case "tree_ensemble" -> parseTrees(root, classes, featureMap);
+                case "linear" -> parseLinear(root, classes, featureMap);
+                default -> throw new IllegalArgumentException("지원하지 않는 모델 type: " + type);
+            };
+        }
+
+        private static Model parseTrees(JsonNode root, String[] classes, int[] featureMap) {
+            JsonNode trees = root.path("trees");
+            if (!trees.isArray() || trees.isEmpty()) throw new IllegalArgumentException("trees가 비어 있음");
+            int outputs = outputs(root, classes);
+
+            int total = 0;
+            for (JsonNode tree : trees) total += tree.path("nodes").size();
+            int[] treeRoot = new int[trees.size()];
+            int[] treeOutput = new int[trees.size()];
+            int[] link = new int[2 * total];
+            double[] value = new double[total];
+
+            int next = 0;
+            for (int t = 0; t < trees.size(); t++) {
+                JsonNode tree = trees.get(t);
+                JsonNode nodes = tree.path("nodes");
+                int size = nodes.size();
+                if (size == 0) throw new IllegalArgumentException("트리 " + t + "에 노드가 없음");
+                int out = tree.has("class") ? tree.get("class").asInt() : t % outputs;
+                if (out < 0 || out >= outputs) throw new IllegalArgumentException("트리 " + t + "의 class 범위 오류: " + out);
+                treeRoot[t] = next;
+                treeOutput[t] = out;
+                next = layout(t, nodes, featureMap, link, value, next);
+            }
+            return new Model("tree_ensemble", classes, outputs, baseScore(root, outputs),
+                    treeRoot, treeOutput, Arrays.copyOf(link, 2 * next), Arrays.copyOf(value, next), null);
+        }
+
+        /**
+         * 트리 하나를 루트부터 전위 순서로 배치한다. 파일의 노드 번호는 트리 안에서의 인덱스다.
+         * 같은 노드에 두 번 도달하면(순환/공유) 판정이 끝나지 않거나 중복되므로 거부한다. 도달하지 않는 노드는 버린다.
+         */
+        private static int layout(int tree, JsonNode nodes, int[] featureMap, int[] link, double[] value, int next) {
+            int size = nodes.size();
+            boolean[] visited = new boolean[size];
+            int[] stack = new int[size];          // 파일 노드 번호
+            int[] parent = new int[size];         // 오른쪽 자식이면 그 부모의 배치 위치, 아니면 -1
+            int sp = 0;
+            stack[sp] = 0;
+            parent[sp++] = -1;
+            while (sp > 0) {
+                int i = stack[--sp];
+                int fromRight = parent[sp];
+                if (visited[i]) throw new IllegalArgumentException("트리 " + tree + "에 순환/공유 노드가 있음: " + i);
+                visited[i] = true;
+                int g = next++;
+                if (fromRight >= 0) link[2 * fromRight + 1] = g;
+
+                JsonNode n = nodes.get(i);
+                if (n.has("v")) {
+                    link[2 * g] = -1;
+                    value[g] = n.get("v").asDouble();
+                    continue;
+                }
+                int f = n.path("f").asInt(-1);
+                int l = n.path("l").asInt(-1);
+                int r = n.path("r").asInt(-1);
+                if (f < 0 || f >= FEATURE_COUNT) throw new IllegalArgumentException("트리 " + tree + " 노드 " + i + "의 피처 범위 오류: " + f);
+                if (l < 0 || l >= size || r < 0 || r >= size) {
+                    throw new IllegalArgumentException("트리 " + tree + " 노드 " + i + "의 자식 범위 오류: " + l + "," + r);
+                }
+                if (sp + 2 > size) throw new IllegalArgumentException("트리 " + tree + "에 순환/공유 노드가 있음: " + i);
+                link[2 * g] = featureMap[f];      // 모델 입력 순서 -> AiPayload 피처 순서
+                value[g] = n.path("t").asDouble();
+                // 오른쪽을 먼저 넣어 왼쪽이 바로 다음 위치(g + 1)에 배치되게 한다
+                stack[sp] = r;
+                parent[sp++] = g;
+                stack[sp] = l;
+                parent[sp++] = -1;
+            }
+            return next;
+        }
+
+        private static Model parseLinear(JsonNode root, String[] classes, int[] featureMap) {
+            JsonNode w = root.path("weights");
+            int outputs = outputs(root, classes);
+            if (!w.isArray() || w.size() != outputs) throw new IllegalArgumentException("weights는 출력 " + outputs + "개여야 함");
+            double[] weights = new double[outputs * FEATURE_COUNT];
+            for (int k = 0; k < outputs; k++) {
+                JsonNode row = w.get(k);
+                if (row.size() != FEATURE_COUNT) throw new IllegalArgumentException("weights[" + k + "]는 " + FEATURE_COUNT + "개여야 함");
+                for (int i = 0; i < FEATURE_COUNT; i++) weights[k * FEATURE_COUNT + featureMap[i]] = row.get(i).asDouble();
+            }
+            double[] base = baseScore(root, outputs);
+            JsonNode bias = root.path("bias");
+            if (bias.isArray()) {
+                if (bias.size() != outputs) throw new IllegalArgumentException("bias는 출력 " + outputs + "개여야 함");
+                for (int k = 0; k < outputs; k++) base[k] += bias.get(k).asDouble();
+            } else if (bias.isNumber()) {
+                base[0] += bias.asDouble();
+            }
+            return new Model("linear", classes, outputs, base,
+                    null, null, null, null, weights);
+        }
+
+        /** 출력 수: outputs 값, 없으면 weights 행 수, 그것도 없으면 클래스 2개는 1(sigmoid), 나머지는 클래스 수 */
+        private static int outputs(JsonNode root, String[] classes) {
+            int outputs = root.path("outputs").asInt(0);
+            if (outputs == 0) {
+                if (root.path("weights").isArray()) outputs = root.path("weights").size();
+                else outputs = (classes.length == 2) ? 1 : classes.length;
+            }
+            if (outputs != classes.length && !(outputs == 1 && classes.length == 2)) {
+                throw new IllegalArgumentException("출력 수(" + outputs + ")와 classes 수(" + classes.length + ")가 맞지 않음");
+            }
+            return outputs;
+        }
+
+        private static double[] baseScore(JsonNode root, int outputs) {
+            double[] base = new double[outputs];
+            JsonNode b = root.path("base_score");
+            if (b.isArray()) {
+                if (b.size() != outputs) throw new IllegalArgumentException("base_score는 출력 " + outputs + "개여야 함");
+                for (int k = 0; k < outputs; k++) base[k] = b.get(k).asDouble();
+            } else if (b.isNumber()) {
+                Arrays.fill(base, b.asDouble());
+            }
+            return base;
+        }
+
+        private static String text(JsonNode root, String field) {
+            JsonNode n = root.path(field);
+            if (!n.isTextual()) throw new IllegalArgumentException(field + "가 없음");
+            return n.asText();
+        }
+    }
+}
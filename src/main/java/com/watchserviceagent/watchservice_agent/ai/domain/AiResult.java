@@ -12,7 +12,7 @@ import lombok.ToString;
  * 작성자 : 시스템
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @ToString
 public class AiResult {
 
@@ -21,6 +21,16 @@ public class AiResult {
     private String detail;       // 로그용
     private String topFamily;    // Benign / LockBit ...
     private Boolean isRansomware;
+    private String source;       // 판정 출처 (SOURCE_*), 호출 실패(UNKNOWN)는 null
+    private boolean remoteFailed;   // AI 서버 판정을 받지 못해 로컬/UNKNOWN으로 대신한 결과 (재시도 후 다시 라벨링 대상)
+
+    // 판정 출처
+    public static final String SOURCE_REMOTE = "REMOTE";        // AI 서버 응답
+    public static final String SOURCE_CACHE = "CACHE";          // 분석 결과 캐시
+    public static final String SOURCE_PRESCREEN = "PRESCREEN";  // 로컬 pre-screen (조용한 윈도우)
+    public static final String SOURCE_FALLBACK = "FALLBACK";    // AI 서버 장애/차단 시 로컬 분류기
+    public static final String SOURCE_LOCAL_MODEL = "LOCAL_MODEL";  // 내장 추론 엔진 (내보낸 모델 파일)
+    public static final String SOURCE_RULE = "RULE";            // 로컬 탐지 규칙 (알림 전용)
 
     /**
      * 함수 이름 : fromResponse
@@ -35,10 +45,19 @@ public class AiResult {
             return error("AI 응답 없음(null)");
         }
 
-        String topFamily = response.getTopFamily();
-        Double topProb = response.getTopProb();
-        boolean isRansomware = response.isRansomware();
+        String detailStr = buildDetail(response.getTopFamily(), response.getTopProb(), response.getMessage(), response.getDetail());
+        return fromPrediction(response.getTopFamily(), response.getTopProb(), response.isRansomware(), detailStr, SOURCE_REMOTE);
+    }
 
+    /**
+     * 함수 이름 : fromPrediction
+     * 기능 : 최상위 패밀리와 그 확률로 라벨과 위험도를 결정한다. AI 서버 응답과 내장 추론 엔진이 같은 규칙을 쓴다.
+     * 매개변수 : topFamily - 최상위 패밀리, topProb - 그 확률, isRansomware - 랜섬웨어 여부, detail - 로그용 설명, source - 판정 출처
+     * 반환값 : AiResult - 변환된 도메인 객체
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public static AiResult fromPrediction(String topFamily, Double topProb, boolean isRansomware, String detail, String source) {
         // ✅ Benign이면 무조건 SAFE (AI가 DANGER로 줘도 덮어씀)
         String label;
         Double riskScore = null;
@@ -58,14 +77,13 @@ public class AiResult {
             }
         }
 
-        String detailStr = buildDetail(topFamily, topProb, response.getMessage(), response.getDetail());
-
         return AiResult.builder()
                 .label(label)
                 .score(riskScore)
-                .detail(detailStr)
+                .detail(detail)
                 .topFamily(topFamily)
                 .isRansomware(isRansomware)
+                .source(source)
                 .build();
     }
 
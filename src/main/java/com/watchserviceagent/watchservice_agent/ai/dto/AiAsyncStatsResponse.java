@@ -0,0 +1,31 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiAsyncStatsResponse
+ * 기능 : AI 서버 엔드포인트 1개의 비동기 호출 동시 요청 수, 대기열, 대기 시간, 결과별 건수, 지연 시간 분위수를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiAsyncStatsResponse {
+    private final String endpoint;               // ANALYZE / FAMILY
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final int inFlight;                  // 지금 전송 중인 요청
+    private final int queued;                    // 한도 때문에 대기 중인 요청
+    private final long submitted;
+    private final Map<String, Long> byOutcome;   // SUCCESS / TIMEOUT / DEADLINE / ERROR / REJECTED -> 건수
+    private final double meanQueueWaitMs;
+    private final double maxQueueWaitMs;         // 최근 구간 최댓값 (Micrometer 감쇠 구간)
+    private final double successP50Ms;           // 성공 호출 지연 시간 분위수 (대기열 시간 제외, 최근 구간)
+    private final double successP90Ms;
+    private final double successP99Ms;
+}
@@ -0,0 +1,26 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AiBatchRequest
+ * 기능 : 여러 윈도우의 피처 벡터를 한 번에 보내는 batch analyze 요청 DTO.
+ *
+ * { "items": [ {AiPayload}, {AiPayload}, ... ] }
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiBatchRequest {
+
+    @JsonProperty("items")
+    private List<AiPayload> items;
+}
@@ -0,0 +1,24 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AiBatchResponse
+ * 기능 : batch analyze 응답 DTO. results는 요청 items와 같은 순서, 같은 개수여야 한다.
+ *
+ * { "results": [ {AiResponse}, {AiResponse}, ... ] }
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@NoArgsConstructor
+@ToString
+public class AiBatchResponse {
+
+    private List<AiResponse> results;
+}
@@ -0,0 +1,31 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : AiBatchStatsResponse
+ * 기능 : analyze 마이크로 배치의 요청 수, 배치 크기, 단건 폴백 수, 서버 batch 지원 여부를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiBatchStatsResponse {
+    private final boolean enabled;
+    private final String batchUrl;
+    private final int maxItems;
+    private final long maxDelayMs;
+
+    private final long items;                  // 배치기에 들어온 analyze 요청 수
+    private final long batches;                // batch URL로 보낸 요청 수
+    private final long batchedItems;           // batch 요청에 담겨 나간 항목 수
+    private final double avgBatchSize;
+    private final long singleCalls;            // 혼자 모여서 단건으로 보낸 수
+    private final long fallbackItems;          // batch 미지원/응답 불일치로 단건 재전송한 항목 수
+    private final long failedItems;            // batch 요청 실패로 실패 처리한 항목 수
+    private final boolean batchSupported;      // false면 recheck 시각까지 단건으로만 보냄
+    private final long batchRecheckAtMs;       // 0이면 해당 없음
+}
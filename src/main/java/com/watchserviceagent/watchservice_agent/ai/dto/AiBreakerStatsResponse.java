@@ -0,0 +1,31 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiBreakerStatsResponse
+ * 기능 : AI 서버 서킷 브레이커 상태와 차단/probe 횟수, 로컬 대체 판정 라벨별 건수를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiBreakerStatsResponse {
+    private final boolean enabled;
+    private final String state;                   // CLOSED / OPEN / HALF_OPEN
+    private final long stateSinceMs;
+    private final int consecutiveFailures;
+    private final int failureThreshold;
+    private final long currentOpenMs;             // 다음(또는 현재) OPEN 유지 시간
+    private final long openUntilMs;               // OPEN이 아니면 0
+    private final long opened;                    // OPEN으로 바뀐 횟수
+    private final long shortCircuited;            // 차단되어 호출하지 않은 요청 수
+    private final long probes;                    // HALF_OPEN에서 보낸 probe 수
+    private final String lastFailure;
+    private final Map<String, Long> fallbackLabels;   // 로컬 대체 판정 SAFE / WARNING / DANGER -> 건수
+}
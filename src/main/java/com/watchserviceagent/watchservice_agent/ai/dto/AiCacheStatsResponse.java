@@ -0,0 +1,31 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : AiCacheStatsResponse
+ * 기능 : AI 분석 결과 캐시의 크기, hit/miss 비율, 양자화 설정을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiCacheStatsResponse {
+    private final boolean enabled;
+    private final int size;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long hits;
+    private final long misses;
+    private final double hitRatio;
+    private final long expirations;
+    private final long evictions;
+
+    // 양자화 단위
+    private final int countStep;
+    private final double entropyStep;
+    private final double sizeStep;
+}
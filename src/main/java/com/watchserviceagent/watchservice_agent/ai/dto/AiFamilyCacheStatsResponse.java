@@ -0,0 +1,28 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : AiFamilyCacheStatsResponse
+ * 기능 : 패밀리 분류 결과 캐시의 크기, hit/miss 비율, 진행 중인 같은 요청에 합쳐진 수를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiFamilyCacheStatsResponse {
+    private final boolean enabled;
+    private final int size;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long hits;
+    private final long misses;                       // 실제로 family 서버를 호출한 수
+    private final long coalesced;                    // 진행 중인 같은 (features, topk) 요청의 응답을 같이 받은 수
+    private final double hitRatio;                   // (hits + coalesced) / 전체 요청
+    private final long expirations;
+    private final long evictions;
+    private final int inFlight;                      // 지금 family 서버 응답을 기다리는 서로 다른 요청 수
+}
@@ -0,0 +1,33 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiHttpStatsResponse
+ * 기능 : AI 서버 엔드포인트 1개의 HTTP 호출 수, 지연 시간 분위수, 결과별 건수, 커넥션 풀 사용량을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiHttpStatsResponse {
+    private final String endpoint;               // ANALYZE / FAMILY
+    private final long requests;
+    private final Map<String, Long> byOutcome;   // SUCCESS / TIMEOUT / DEADLINE / ERROR -> 건수
+    private final double meanMs;
+    private final double maxMs;                  // 최근 구간 최댓값 (Micrometer 감쇠 구간)
+    private final double successP50Ms;           // 성공 호출 지연 시간 분위수 (최근 구간)
+    private final double successP90Ms;
+    private final double successP99Ms;
+
+    // 커넥션 풀
+    private final int leased;                    // 사용 중
+    private final int available;                 // 유휴(keep-alive)
+    private final int pending;                   // 연결을 기다리는 요청
+    private final int maxConnections;
+}
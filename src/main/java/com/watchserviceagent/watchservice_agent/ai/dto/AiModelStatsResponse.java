@@ -0,0 +1,30 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AiModelStatsResponse
+ * 기능 : 내장 추론 엔진의 모드, 로드된 모델 정보, 판정 횟수와 평균 판정 시간을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiModelStatsResponse {
+    private final String mode;                    // OFF / FALLBACK / PRIMARY
+    private final String path;
+    private final boolean loaded;
+    private final Long loadedAtMs;
+    private final String loadError;               // 마지막 로드 실패 사유 (성공하면 null)
+    private final String type;                    // tree_ensemble / linear
+    private final List<String> classes;
+    private final int trees;
+    private final int nodes;
+    private final long predictions;
+    private final double avgPredictNanos;
+}
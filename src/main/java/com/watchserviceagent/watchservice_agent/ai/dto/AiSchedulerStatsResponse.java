@@ -0,0 +1,40 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AiSchedulerStatsResponse
+ * 기능 : 위험도 우선 analyze 스케줄러의 동시 요청/대기열 상태와 등급별 대기 시간, 합침/폐기 건수를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiSchedulerStatsResponse {
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final int inFlight;
+    private final int queued;
+    private final List<SeverityStats> severities;     // DANGER / WARNING / SAFE 순
+
+    @Getter
+    @Builder
+    @ToString
+    public static class SeverityStats {
+        private final String severity;                // 로컬 위험도 등급 (LocalFallbackClassifier 임계값 기준)
+        private final long submitted;
+        private final long started;                   // AI 서버로 보낸 수 (대기 없이 보낸 수 포함)
+        private final long coalesced;                 // 대기 중인 같은 피처 요청에 합쳐진 수
+        private final long dropped;                   // 대기열이 가득 차 밀려나거나 거절된 수 (로컬 대체 판정 후 재시도 큐로)
+        private final int queued;
+        private final double meanQueueWaitMs;
+        private final double p99QueueWaitMs;
+        private final double maxQueueWaitMs;
+    }
+}
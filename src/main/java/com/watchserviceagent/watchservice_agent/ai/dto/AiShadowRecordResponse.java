@@ -0,0 +1,30 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : AiShadowRecordResponse
+ * 기능 : 섀도 평가 1건(기본 판정과 섀도 판정, 각각의 지연 시간)을 담는 DTO. ai_shadow 테이블 행과 같다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiShadowRecordResponse {
+    private final Long id;
+    private final long createdAtMs;
+    private final String shadowKind;          // REMOTE (섀도 엔드포인트) / LOCAL_MODEL (섀도 내장 모델)
+    private final boolean agree;              // 라벨(SAFE/WARNING/DANGER)이 같은지
+    private final String primaryLabel;
+    private final String primaryFamily;
+    private final Double primaryScore;
+    private final Double primaryLatencyMs;    // 기본 경로 요청 ~ 응답 (스케줄러 대기 포함)
+    private final String shadowLabel;
+    private final String shadowFamily;
+    private final Double shadowScore;
+    private final Double shadowLatencyMs;
+    private final String payload;             // 불일치 건만 피처 벡터(JSON)를 남긴다
+}
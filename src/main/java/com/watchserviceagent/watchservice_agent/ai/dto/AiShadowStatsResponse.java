@@ -0,0 +1,37 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AiShadowStatsResponse
+ * 기능 : 섀도 평가의 표본/건너뜀/실패 수, 라벨 일치율, 기본 판정 대비 섀도 판정 지연 시간을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiShadowStatsResponse {
+    private final boolean enabled;
+    private final String kind;                       // REMOTE / LOCAL_MODEL
+    private final String target;                     // 섀도 URL 또는 모델 파일 경로
+    private final double sampleRate;
+    private final String loadError;                  // 섀도 모델 로드 실패 사유 (LOCAL_MODEL)
+
+    private final long sampled;                      // 표본으로 뽑힌 판정 수
+    private final long skippedBusy;                  // 섀도 동시 평가 한도에 걸려 건너뛴 수 (기본 경로는 기다리지 않음)
+    private final long failed;                       // 섀도 호출 실패 수
+    private final long compared;                     // 비교 완료 수
+    private final long agreed;
+    private final long disagreed;
+    private final double agreementRate;
+    private final Map<String, Long> disagreementsByPair;   // "기본라벨->섀도라벨" -> 건수
+
+    private final double primaryMeanLatencyMs;
+    private final double shadowMeanLatencyMs;
+    private final double shadowP99LatencyMs;
+}
@@ -0,0 +1,26 @@
+package com.watchserviceagent.watchservice_agent.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : AiWarmupStatsResponse
+ * 기능 : 시작 시 AI 연결 데우기의 상태, 시도 횟수, 데운 커넥션 수, 합성 요청 지연 시간을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class AiWarmupStatsResponse {
+    private final String state;                      // WARMING / WARM / GAVE_UP / SKIPPED
+    private final long startedAtMs;
+    private final Long finishedAtMs;                 // 아직 데우는 중이면 null
+    private final int attempts;                      // 합성 요청 묶음을 보낸 횟수
+    private final int warmedConnections;             // 마지막 시도에서 응답을 받은 동기 풀 요청 수
+    private final Double firstCallMs;                // 첫 성공 응답 지연 (DNS/연결/서버 모델 로드 포함)
+    private final Double lastCallMs;
+    private final String lastError;
+    private final long holdMaxMs;                    // 윈도우 flush가 데우기를 기다리는 최대 시간
+}
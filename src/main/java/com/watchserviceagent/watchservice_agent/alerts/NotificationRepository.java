@@ -3,6 +3,7 @@ package com.watchserviceagent.watchservice_agent.alerts;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.watchserviceagent.watchservice_agent.alerts.domain.Notification;
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,9 +56,29 @@ public class NotificationRepository {
                 );
                 """;
         jdbcTemplate.execute(sql);
+        tryAddColumn("window_ms", "INTEGER");
+        tryAddColumn("hot_directories", "TEXT");
+        tryAddColumn("ai_source", "TEXT");
         log.info("[NotificationRepository] notification 테이블 초기화 완료");
     }
 
+    /**
+     * 함수 이름 : tryAddColumn
+     * 기능 : 기존 테이블에 컬럼을 추가하려고 시도한다. 이미 존재하면 무시한다.
+     * 매개변수 : column - 컬럼 이름, type - 컬럼 타입
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private void tryAddColumn(String column, String type) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE notification ADD COLUMN " + column + " " + type);
+            log.info("[NotificationRepository] 컬럼 추가: {}", column);
+        } catch (Exception ignore) {
+            // 이미 존재하는 경우 등은 무시
+        }
+    }
+
     /**
      * 함수 이름 : insertNotification
      * 기능 : 알림 엔티티를 데이터베이스에 삽입한다.
@@ -78,12 +99,18 @@ public class NotificationRepository {
                     top_family,
                     ai_detail,
                     affected_files_count,
-                    affected_paths
-                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    affected_paths,
+                    window_ms,
+                    hot_directories,
+                    ai_source
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 """;
 
         try {
             String affectedPathsJson = objectMapper.writeValueAsString(notification.getAffectedPaths());
+            String hotDirectoriesJson = (notification.getHotDirectories() != null)
+                    ? objectMapper.writeValueAsString(notification.getHotDirectories())
+                    : null;
 
             jdbcTemplate.update(
                     sql,
@@ -96,7 +123,10 @@ public class NotificationRepository {
                     notification.getTopFamily(),
                     notification.getAiDetail(),
                     notification.getAffectedFilesCount(),
-                    affectedPathsJson
+                    affectedPathsJson,
+                    notification.getWindowMs(),
+                    hotDirectoriesJson,
+                    notification.getAiSource()
             );
         } catch (Exception e) {
             log.error("[NotificationRepository] insertNotification 실패", e);
@@ -117,7 +147,7 @@ public class NotificationRepository {
                 SELECT
                     id, owner_key, window_start, window_end, created_at,
                     ai_label, ai_score, top_family, ai_detail,
-                    affected_files_count, affected_paths
+                    affected_files_count, affected_paths, window_ms, hot_directories, ai_source
                 FROM notification
                 WHERE owner_key = ? AND id = ?
                 LIMIT 1
@@ -174,7 +204,7 @@ public class NotificationRepository {
                 SELECT
                     id, owner_key, window_start, window_end, created_at,
                     ai_label, ai_score, top_family, ai_detail,
-                    affected_files_count, affected_paths
+                    affected_files_count, affected_paths, window_ms, hot_directories, ai_source
                 FROM notification
                 """ + sp.whereClause + " " + orderBy + " LIMIT ? OFFSET ?";
 
@@ -199,18 +229,31 @@ public class NotificationRepository {
                     log.warn("[NotificationRepository] affectedPaths JSON 파싱 실패: {}", affectedPathsJson, e);
                 }
 
+                String hotDirectoriesJson = rs.getString("hot_directories");
+                List<HotDirectoryResponse> hotDirectories = Collections.emptyList();
+                try {
+                    if (hotDirectoriesJson != null && !hotDirectoriesJson.isBlank()) {
+                        hotDirectories = objectMapper.readValue(hotDirectoriesJson, new TypeReference<List<HotDirectoryResponse>>() {});
+                    }
+                } catch (Exception e) {
+                    log.warn("[NotificationRepository] hotDirectories JSON 파싱 실패: {}", hotDirectoriesJson, e);
+                }
+
                 return Notification.builder()
                         .id(rs.getLong("id"))
                         .ownerKey(rs.getString("owner_key"))
                         .windowStart(Instant.ofEpochMilli(rs.getLong("window_start")))
                         .windowEnd(Instant.ofEpochMilli(rs.getLong("window_end")))
+                        .windowMs(rs.getObject("window_ms") != null ? rs.getLong("window_ms") : null)
                         .createdAt(Instant.ofEpochMilli(rs.getLong("created_at")))
                         .aiLabel(rs.getString("ai_label"))
                         .aiScore(rs.getObject("ai_score") != null ? rs.getDouble("ai_score") : null)
                         .topFamily(rs.getString("top_family"))
                         .aiDetail(rs.getString("ai_detail"))
+                        .aiSource(rs.getString("ai_source"))
                         .affectedFilesCount(rs.getInt("affected_files_count"))
                         .affectedPaths(affectedPaths)
+                        .hotDirectories(hotDirectories)
                         .build();
             }
         };
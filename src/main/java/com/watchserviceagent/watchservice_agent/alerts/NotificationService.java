@@ -117,13 +117,16 @@ public class NotificationService {
                 .id(notification.getId())
                 .windowStart(DATE_TIME_FORMATTER.format(notification.getWindowStart()))
                 .windowEnd(DATE_TIME_FORMATTER.format(notification.getWindowEnd()))
+                .windowMs(notification.getWindowMs())
                 .createdAt(DATE_TIME_FORMATTER.format(notification.getCreatedAt()))
                 .aiLabel(notification.getAiLabel())
                 .aiScore(notification.getAiScore())
                 .topFamily(notification.getTopFamily())
                 .aiDetail(notification.getAiDetail())
+                .aiSource(notification.getAiSource())
                 .affectedFilesCount(notification.getAffectedFilesCount())
                 .affectedPaths(notification.getAffectedPaths())
+                .hotDirectories(notification.getHotDirectories())
                 .build();
     }
 
@@ -1,5 +1,6 @@
 package com.watchserviceagent.watchservice_agent.alerts.domain;
 
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
@@ -22,6 +23,7 @@ public class Notification {
     private final String ownerKey;
     private final Instant windowStart;
     private final Instant windowEnd;
+    private final Long windowMs;         // 윈도우 길이(ms), 멀티 스케일 윈도우 구분용 (이전 데이터는 null)
     private final Instant createdAt;
 
     // AI 분석 결과
@@ -29,9 +31,13 @@ public class Notification {
     private final Double aiScore;        // 위험도 (0~1)
     private final String topFamily;      // Benign / LockBit / ...
     private final String aiDetail;       // 상세 메시지
+    private final String aiSource;       // REMOTE / CACHE / PRESCREEN / FALLBACK / RULE (이전 데이터는 null)
 
     // 영향 받은 파일 정보
     private final int affectedFilesCount;
     private final List<String> affectedPaths;  // 전체 경로 리스트
+
+    // 윈도우가 닫힌 시점의 활동량 상위 디렉터리 (이전 데이터는 빈 목록)
+    private final List<HotDirectoryResponse> hotDirectories;
 }
 
@@ -1,5 +1,6 @@
 package com.watchserviceagent.watchservice_agent.alerts.dto;
 
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
@@ -21,6 +22,7 @@ public class NotificationResponse {
 
     private final String windowStart;    // 문자열로 포맷팅
     private final String windowEnd;      // 문자열로 포맷팅
+    private final Long windowMs;         // 윈도우 길이(ms)
     private final String createdAt;      // 문자열로 포맷팅
 
     // AI 분석 결과
@@ -28,9 +30,11 @@ public class NotificationResponse {
     private final Double aiScore;        // 위험도 (0~1)
     private final String topFamily;      // Benign / LockBit / ...
     private final String aiDetail;       // 상세 메시지
+    private final String aiSource;       // 판정 출처: REMOTE / CACHE / PRESCREEN / FALLBACK / RULE
 
     // 영향 받은 파일 정보
     private final int affectedFilesCount;
     private final List<String> affectedPaths;  // 전체 경로 리스트
+    private final List<HotDirectoryResponse> hotDirectories;  // 활동량 상위 디렉터리
 }
 
@@ -0,0 +1,89 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import java.io.IOException;
+
+/**
+ * 클래스 이름 : AdaptiveWindowLength
+ * 기능 : 이벤트 유입률을 지수 감쇠 카운터(EWMA)로 추정하고, 윈도우당 목표 이벤트 수에 맞춰 윈도우 길이를 정한다.
+ *        길이 = clamp(targetEvents / rate, minMs, maxMs)
+ *        - 폭주(예: 수천 개 파일 암호화) 시에는 짧아져서 payload 크기와 알림 지연이 제한된다.
+ *        - 조용할 때는 길어져서 AI 호출 수가 줄어든다.
+ *        감쇠 카운터 c는 이벤트마다 c = c × 2^(-Δt / halfLife) + 1 로 갱신하며, 정상 상태에서 c ≈ rate × halfLife / ln2 이다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class AdaptiveWindowLength {
+
+    private static final double LN2 = Math.log(2.0);
+
+    private final int targetEvents;
+    private final long minMs;
+    private final long maxMs;
+    private final double halfLifeMs;
+
+    private double decayedCount;
+    private long lastEventMs = Long.MIN_VALUE;
+
+    AdaptiveWindowLength(int targetEvents, long minMs, long maxMs, long halfLifeMs) {
+        this.targetEvents = Math.max(1, targetEvents);
+        this.minMs = Math.max(1L, minMs);
+        this.maxMs = Math.max(this.minMs, maxMs);
+        this.halfLifeMs = Math.max(1L, halfLifeMs);
+    }
+
+    /**
+     * 함수 이름 : onEvent
+     * 기능 : 이벤트 1건을 유입률 추정에 반영한다. 시각이 역행한 이벤트는 경과 시간 0으로 취급한다.
+     * 매개변수 : eventTimeMs - 이벤트 시각(ms)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void onEvent(long eventTimeMs) {
+        if (lastEventMs != Long.MIN_VALUE && eventTimeMs > lastEventMs) {
+            decayedCount *= Math.pow(2.0, -(eventTimeMs - lastEventMs) / halfLifeMs);
+        }
+        if (eventTimeMs > lastEventMs) lastEventMs = eventTimeMs;
+        decayedCount += 1.0;
+    }
+
+    /** 체크포인트: 감쇠 카운터와 마지막 이벤트 시각 */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeDouble(decayedCount);
+        out.writeLong(lastEventMs);
+    }
+
+    void readFrom(CheckpointInput in) throws IOException {
+        decayedCount = in.readDouble();
+        lastEventMs = in.readLong();
+    }
+
+    /**
+     * 함수 이름 : ratePerSecond
+     * 기능 : 마지막 이벤트 시점 기준 추정 유입률을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : double - 초당 이벤트 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    double ratePerSecond() {
+        return decayedCount * LN2 / halfLifeMs * 1000.0;
+    }
+
+    /**
+     * 함수 이름 : lengthMs
+     * 기능 : 현재 유입률에서 목표 이벤트 수가 모이는 시간을 [minMs, maxMs]로 제한해 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : long - 윈도우 길이(ms)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    long lengthMs() {
+        double perMs = decayedCount * LN2 / halfLifeMs;
+        if (perMs <= 0) return maxMs;
+        double ms = targetEvents / perMs;
+        if (ms <= minMs) return minMs;
+        if (ms >= maxMs) return maxMs;
+        return (long) ms;
+    }
+}
@@ -0,0 +1,245 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.analytics.dto.CheckpointStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 클래스 이름 : AggregatorCheckpoint
+ * 기능 : EventWindowAggregator의 집계 상태를 주기적으로 로컬 파일에 저장하고, 시작 시 복원한다.
+ *        이벤트 목록이 아니라 카운터/스케치/고유 경로 집합만 저장하므로 크기가 작고, 크래시/재시작 후에도
+ *        열린 윈도우와 touch 세션, 핫 디렉터리 추정치가 이어진다.
+ *
+ * - 집계 락은 메모리 버퍼로 직렬화하는 동안만 잡고, 파일 쓰기는 락 밖에서 한다.
+ * - 임시 파일에 쓴 뒤 원자적으로 교체하므로 쓰는 도중 죽어도 이전 체크포인트가 남는다.
+ * - 파일 형식: magic, version, 저장 시각, 본문 길이, 본문, CRC32. 검증에 실패하거나 max-age보다 오래되면 복원하지 않는다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AggregatorCheckpoint {
+
+    private static final int MAGIC = 0x57534350;   // "WSCP"
+    private static final int VERSION = 6;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+
+    @Value("${watchservice.analytics.checkpoint.enabled:false}")
+    private boolean enabled;
+
+    @Value("${watchservice.analytics.checkpoint.path:checkpoint/aggregator.ckpt}")
+    private String pathValue;
+
+    @Value("${watchservice.analytics.checkpoint.interval-ms:10000}")
+    private long intervalMs;
+
+    // 이보다 오래된 체크포인트는 복원하지 않는다 (윈도우/세션이 의미를 잃음)
+    @Value("${watchservice.analytics.checkpoint.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    private final EventWindowAggregator aggregator;
+
+    private Path path;
+    private ScheduledExecutorService scheduler;
+
+    // 통계 (checkpoint 스레드에서만 갱신, 조회는 동기화)
+    private boolean restored;
+    private long written;
+    private long failed;
+    private Long lastSavedAtMs;
+    private long lastBytes;
+    private long lastLockHoldNanos;
+    private long lastWriteNanos;
+    private long maxLockHoldNanos;
+    private long savedVersion = -1;
+    private long skipped;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 체크포인트 파일이 있으면 집계 상태를 복원하고, 주기 저장 스레드를 시작한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        path = Paths.get(pathValue);
+        if (!enabled) {
+            log.info("[AggregatorCheckpoint] 비활성화");
+            return;
+        }
+        restore();
+
+        long period = Math.max(1000L, intervalMs);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Aggregator-Checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpoint, period, period, TimeUnit.MILLISECONDS);
+        log.info("[AggregatorCheckpoint] init: path={} intervalMs={} maxAgeMs={}", path.toAbsolutePath(), period, maxAgeMs);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 주기 저장을 멈추고 마지막 체크포인트를 저장한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    /**
+     * 함수 이름 : checkpoint
+     * 기능 : 집계 상태를 직렬화하여 체크포인트 파일을 원자적으로 교체한다. 마지막 저장 이후 변경이 없으면 건너뛰고, 실패해도 예외를 던지지 않는다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized void checkpoint() {
+        long version = aggregator.getStateVersion();
+        if (version == savedVersion) {
+            skipped++;               // 마지막 저장 이후 이벤트가 없으면 다시 쓰지 않는다
+            return;
+        }
+        try {
+            CheckpointOutput out = new CheckpointOutput();
+            long t0 = System.nanoTime();
+            aggregator.writeCheckpoint(out);
+            long t1 = System.nanoTime();
+
+            byte[] body = out.toByteArray();
+            long savedAtMs = System.currentTimeMillis();
+            writeAtomically(encode(body, savedAtMs));
+            long t2 = System.nanoTime();
+
+            written++;
+            savedVersion = version;
+            lastSavedAtMs = savedAtMs;
+            lastBytes = HEADER_BYTES + body.length + 8L;
+            lastLockHoldNanos = t1 - t0;
+            lastWriteNanos = t2 - t1;
+            maxLockHoldNanos = Math.max(maxLockHoldNanos, lastLockHoldNanos);
+            log.debug("[AggregatorCheckpoint] 저장: bytes={} lockHoldMs={} writeMs={}",
+                    lastBytes, lastLockHoldNanos / 1e6, lastWriteNanos / 1e6);
+        } catch (Exception e) {
+            failed++;
+            log.warn("[AggregatorCheckpoint] 저장 실패: {}", e.toString());
+        }
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 체크포인트 저장/복원 현황과 마지막 저장 비용을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : CheckpointStatsResponse - 체크포인트 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized CheckpointStatsResponse getStats() {
+        return CheckpointStatsResponse.builder()
+                .enabled(enabled)
+                .path(path != null ? path.toAbsolutePath().toString() : pathValue)
+                .restored(restored)
+                .written(written)
+                .failed(failed)
+                .skipped(skipped)
+                .lastSavedAtMs(lastSavedAtMs)
+                .lastBytes(lastBytes)
+                .lastLockHoldMs(lastLockHoldNanos / 1e6)
+                .lastWriteMs(lastWriteNanos / 1e6)
+                .maxLockHoldMs(maxLockHoldNanos / 1e6)
+                .build();
+    }
+
+    private synchronized void restore() {
+        if (!Files.exists(path)) return;
+        try {
+            byte[] file = Files.readAllBytes(path);
+            ByteBuffer buf = ByteBuffer.wrap(file);
+            if (file.length < HEADER_BYTES + 8 || buf.getInt() != MAGIC) {
+                log.warn("[AggregatorCheckpoint] 체크포인트 형식 아님 -> 복원 생략: {}", path);
+                return;
+            }
+            int version = buf.getInt();
+            long savedAtMs = buf.getLong();
+            int bodyLength = buf.getInt();
+            if (version != VERSION || bodyLength < 0 || bodyLength != file.length - HEADER_BYTES - 8) {
+                log.warn("[AggregatorCheckpoint] 버전/길이 불일치 -> 복원 생략: version={} bodyLength={}", version, bodyLength);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(file, 0, HEADER_BYTES + bodyLength);
+            if (crc.getValue() != ByteBuffer.wrap(file, HEADER_BYTES + bodyLength, 8).getLong()) {
+                log.warn("[AggregatorCheckpoint] CRC 불일치 -> 복원 생략: {}", path);
+                return;
+            }
+            long ageMs = System.currentTimeMillis() - savedAtMs;
+            if (ageMs > maxAgeMs) {
+                log.info("[AggregatorCheckpoint] 체크포인트가 오래됨({}ms > {}ms) -> 복원 생략", ageMs, maxAgeMs);
+                return;
+            }
+
+            long t0 = System.nanoTime();
+            aggregator.restoreCheckpoint(new CheckpointInput(file, HEADER_BYTES, bodyLength));
+            restored = true;
+            savedVersion = aggregator.getStateVersion();
+            log.info("[AggregatorCheckpoint] 복원 완료: bytes={} ageMs={} restoreMs={}",
+                    file.length, ageMs, (System.nanoTime() - t0) / 1e6);
+        } catch (Exception e) {
+            log.warn("[AggregatorCheckpoint] 복원 실패 -> 빈 상태로 시작: {}", e.toString());
+        }
+    }
+
+    private static byte[] encode(byte[] body, long savedAtMs) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + body.length + 8);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(savedAtMs).putInt(body.length).put(body);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, HEADER_BYTES + body.length);
+        buf.putLong(crc.getValue());
+        return buf.array();
+    }
+
+    private void writeAtomically(byte[] bytes) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            fos.write(bytes);
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
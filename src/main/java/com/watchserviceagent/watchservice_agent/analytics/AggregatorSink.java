@@ -0,0 +1,22 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+/**
+ * 클래스 이름 : AggregatorSink
+ * 기능 : EventWindowAggregator의 출력(이벤트 로그 저장, 닫힌 윈도우 처리)을 받는 곳.
+ *        실시간 감시에서는 LogService와 WindowFlushPipeline으로 보내고, 이벤트 재생에서는 저장 없이 결과만 집계한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+interface AggregatorSink {
+
+    /**
+     * 윈도우 집계 전 이벤트 1건 (실시간: 로그 저장).
+     * eventTimeMs는 집계기가 윈도우 배정에 쓴 시각, windowId는 이벤트가 속한 기본 윈도우 ID (집계 대상이 아니면 null)
+     */
+    void onEvent(FileAnalysisResult result, long eventTimeMs, Long windowId);
+
+    /** 닫힌 윈도우 1개 (실시간: AI 분석/라벨/알림 파이프라인) */
+    void onWindow(ClosedWindow window);
+}
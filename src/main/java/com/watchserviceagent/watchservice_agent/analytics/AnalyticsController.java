@@ -0,0 +1,80 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.analytics.dto.CheckpointStatsResponse;
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
+import com.watchserviceagent.watchservice_agent.analytics.dto.PreScreenStatsResponse;
+import com.watchserviceagent.watchservice_agent.analytics.dto.RetryQueueStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : AnalyticsController
+ * 기능 : 윈도우 집계/분석 파이프라인의 실시간 상태와 통계를 조회하는 REST API 엔드포인트를 제공한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final QuietWindowPreScreen preScreen;
+    private final HotDirectoryTracker hotDirectoryTracker;
+    private final AggregatorCheckpoint aggregatorCheckpoint;
+    private final WindowRetryQueue retryQueue;
+
+    /**
+     * 함수 이름 : getPreScreenStats
+     * 기능 : 로컬 pre-screen으로 건너뛴/전달한 윈도우 수와 audit 일치율을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : PreScreenStatsResponse - pre-screen 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/prescreen/stats")
+    public PreScreenStatsResponse getPreScreenStats() {
+        return preScreen.getStats();
+    }
+
+    /**
+     * 함수 이름 : getHotDirectories
+     * 기능 : 최근 쓰기/rename/삭제 활동량이 많은 상위 디렉터리를 실시간으로 조회한다. (감쇠된 초당 활동량 기준)
+     * 매개변수 : limit - 최대 개수
+     * 반환값 : List<HotDirectoryResponse> - 활동량 내림차순 디렉터리 목록
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/hot-directories")
+    public List<HotDirectoryResponse> getHotDirectories(@RequestParam(defaultValue = "10") int limit) {
+        return hotDirectoryTracker.top(limit, System.currentTimeMillis());
+    }
+
+    /**
+     * 함수 이름 : getCheckpointStats
+     * 기능 : 집계 상태 체크포인트의 저장/복원 현황과 마지막 저장 비용을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : CheckpointStatsResponse - 체크포인트 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/checkpoint/stats")
+    public CheckpointStatsResponse getCheckpointStats() {
+        return aggregatorCheckpoint.getStats();
+    }
+
+    /**
+     * 함수 이름 : getRetryStats
+     * 기능 : AI 판정 실패 윈도우 재시도 큐의 대기 건수와 재시도/재라벨링/폐기 현황을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : RetryQueueStatsResponse - 재시도 큐 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/retry/stats")
+    public RetryQueueStatsResponse getRetryStats() {
+        return retryQueue.getStats();
+    }
+}
@@ -0,0 +1,86 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 클래스 이름 : CheckpointInput
+ * 기능 : CheckpointOutput으로 직렬화한 체크포인트를 읽는 스트림. 문자열 사전을 함께 복원하므로
+ *        여러 곳에서 참조하던 같은 경로는 복원 후에도 문자열 객체 하나를 공유한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class CheckpointInput extends DataInputStream {
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    CheckpointInput(byte[] bytes, int offset, int length) {
+        super(new ByteArrayInputStream(bytes, offset, length));
+    }
+
+    String readString() throws IOException {
+        int id = readInt();
+        if (id == CheckpointOutput.NULL_STRING) return null;
+        if (id == CheckpointOutput.NEW_STRING) {
+            byte[] b = new byte[readInt()];
+            readFully(b);
+            String s = new String(b, StandardCharsets.UTF_8);
+            dictionary.add(s);
+            return s;
+        }
+        if (id < 0 || id >= dictionary.size()) throw new IOException("invalid string reference: " + id);
+        return dictionary.get(id);
+    }
+
+    void readStringsInto(Collection<String> target) throws IOException {
+        int n = readInt();
+        for (int i = 0; i < n; i++) target.add(readString());
+    }
+
+    Long readNullableLong() throws IOException {
+        return readBoolean() ? readLong() : null;
+    }
+
+    Instant readInstant() throws IOException {
+        Long ms = readNullableLong();
+        return (ms != null) ? Instant.ofEpochMilli(ms) : null;
+    }
+
+    /** writeCounts로 쓴 값을 같은 길이의 배열에 더한다. 길이가 다르면(레이아웃 변경) 예외 */
+    long readCountsInto(int[] counts) throws IOException {
+        int length = readInt();
+        if (length != counts.length) throw new IOException("sketch layout mismatch: " + length + " != " + counts.length);
+        int nonZero = readInt();
+        long total = 0;
+        for (int k = 0; k < nonZero; k++) {
+            int i = readInt();
+            int c = readInt();
+            counts[i] += c;
+            total += c;
+        }
+        return total;
+    }
+
+    AiPayload readPayload() throws IOException {
+        if (!readBoolean()) return null;
+        return AiPayload.builder()
+                .fileReadCount(readInt())
+                .fileWriteCount(readInt())
+                .fileDeleteCount(readInt())
+                .fileRenameCount(readInt())
+                .fileEncryptLikeCount(readInt())
+                .changedFilesCount(readInt())
+                .randomExtensionFlag(readInt())
+                .entropyDiffMean(readDouble())
+                .fileSizeDiffMean(readDouble())
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : CheckpointOutput
+ * 기능 : 집계 상태 체크포인트를 메모리 버퍼에 직렬화하는 스트림.
+ *        같은 경로 문자열이 여러 스케일/세션 테이블에 반복되므로 문자열은 처음 한 번만 쓰고 이후에는 번호로 참조한다.
+ *        버퍼는 동기화하지 않는다. (집계 락 안에서 한 스레드만 쓴다)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class CheckpointOutput extends DataOutputStream {
+
+    static final int NULL_STRING = -1;
+    static final int NEW_STRING = -2;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    CheckpointOutput() {
+        super(new Buffer());
+    }
+
+    /** 직렬화된 바이트 */
+    byte[] toByteArray() {
+        Buffer b = (Buffer) out;
+        return Arrays.copyOf(b.bytes, b.length);
+    }
+
+    /** 문자열: null은 -1, 처음 나온 문자열은 -2 + 길이 + UTF-8, 이후에는 사전 번호 */
+    void writeString(String s) throws IOException {
+        if (s == null) {
+            writeInt(NULL_STRING);
+            return;
+        }
+        Integer id = dictionary.get(s);
+        if (id != null) {
+            writeInt(id);
+            return;
+        }
+        dictionary.put(s, dictionary.size());
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(NEW_STRING);
+        writeInt(b.length);
+        write(b);
+    }
+
+    void writeStrings(Collection<String> values) throws IOException {
+        writeInt(values.size());
+        for (String v : values) writeString(v);
+    }
+
+    void writeNullableLong(Long v) throws IOException {
+        writeBoolean(v != null);
+        if (v != null) writeLong(v);
+    }
+
+    void writeInstant(Instant t) throws IOException {
+        writeNullableLong((t != null) ? t.toEpochMilli() : null);
+    }
+
+    /** 0이 아닌 버킷만 (위치, 카운트)로 쓴다 */
+    void writeCounts(int[] counts) throws IOException {
+        int nonZero = 0;
+        for (int c : counts) if (c != 0) nonZero++;
+        writeInt(counts.length);
+        writeInt(nonZero);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                writeInt(i);
+                writeInt(counts[i]);
+            }
+        }
+    }
+
+    void writePayload(AiPayload p) throws IOException {
+        writeBoolean(p != null);
+        if (p == null) return;
+        writeInt(p.getFileReadCount());
+        writeInt(p.getFileWriteCount());
+        writeInt(p.getFileDeleteCount());
+        writeInt(p.getFileRenameCount());
+        writeInt(p.getFileEncryptLikeCount());
+        writeInt(p.getChangedFilesCount());
+        writeInt(p.getRandomExtensionFlag());
+        writeDouble(p.getEntropyDiffMean());
+        writeDouble(p.getFileSizeDiffMean());
+    }
+
+    /** 동기화 없는 가변 길이 바이트 버퍼 (ByteArrayOutputStream은 write마다 락을 잡는다) */
+    private static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[64 * 1024];
+        private int length;
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] src, int off, int len) {
+            ensure(len);
+            System.arraycopy(src, off, bytes, length, len);
+            length += len;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 클래스 이름 : ClosedWindow
+ * 기능 : 닫힌 윈도우 1개의 집계 결과. 집계 스레드에서 만들어 flush 파이프라인(AI 분석 → 로그 라벨/알림 저장)으로 넘긴다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString(exclude = {"affectedPaths", "hotDirectories"})
+class ClosedWindow {
+
+    private final String ownerKey;          // 알림 소유자 (윈도우 첫 이벤트 기준)
+    private final Instant windowStart;
+    private final Instant windowEnd;
+    private final long windowMs;            // 윈도우 길이(스케일)
+    private final boolean labelLogs;        // 기본 윈도우만 로그에 AI 라벨을 부착한다
+    private final boolean hop;              // hopping 윈도우 (겹치는 hop끼리는 판정이 바뀔 때만 알림)
+    private final boolean reuseVerdict;     // 직전 hop과 피처가 거의 같음: AI를 다시 부르지 않고 직전 판정으로 라벨만 부착
+    private final long windowId;            // 로그 라벨 UPDATE 키 (이벤트 insert 시 같은 값을 붙임, 기본 윈도우만)
+    private final int eventCount;
+    private final AiPayload payload;
+    private final DeltaQuantiles entropyDiffQuantiles;   // pre-screen용 분포 요약 (AI payload에는 없음)
+    private final DeltaQuantiles sizeDiffQuantiles;
+    @Getter(AccessLevel.NONE)
+    private final Supplier<List<String>> affectedPaths;      // 알림을 저장할 때만 목록을 만든다 (hop마다 복사하지 않음)
+    private final List<HotDirectoryResponse> hotDirectories;   // 윈도우가 닫힌 시점의 활동량 상위 디렉터리
+
+    /** 알림에 저장할 고유 경로 목록. 부를 때마다 새로 만든다. */
+    List<String> getAffectedPaths() {
+        return (affectedPaths != null) ? affectedPaths.get() : List.of();
+    }
+}
@@ -0,0 +1,35 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+/**
+ * 클래스 이름 : DeltaQuantiles
+ * 기능 : 윈도우 1개의 변화량 분포 요약 (p50, p90, min, max). DeltaSketch에서 만든다.
+ *        평균만으로는 다수의 정상 편집 속에 섞인 소수의 암호화 파일이 묻히므로 상위 분위수/최댓값을 함께 본다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class DeltaQuantiles {
+
+    static final DeltaQuantiles EMPTY = new DeltaQuantiles(0.0, 0.0, 0.0, 0.0);
+
+    final double p50;
+    final double p90;
+    final double min;
+    final double max;
+
+    DeltaQuantiles(double p50, double p90, double min, double max) {
+        this.p50 = p50;
+        this.p90 = p90;
+        this.min = min;
+        this.max = max;
+    }
+
+    /** 부호와 무관한 최대 변화량 */
+    double maxAbs() {
+        return Math.max(Math.abs(min), Math.abs(max));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50=%.4g,p90=%.4g,max=%.4g", p50, p90, max);
+    }
+}
@@ -0,0 +1,168 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 클래스 이름 : DeltaSketch
+ * 기능 : 부호 있는 변화량(entropy diff, size diff)의 분포를 고정 크기 로그 버킷 히스토그램으로 유지하는 분위수 스케치.
+ *        |v|가 (min·γ^(k-1), min·γ^k] 인 값은 k번 버킷에 들어가며, 버킷 대표값의 상대 오차는 relativeAccuracy 이내다.
+ *        |v| < min 은 0 버킷, |v| > max 는 마지막 버킷으로 모은다. 메모리는 이벤트 수와 무관하게 일정하고,
+ *        버킷 카운트는 더하고 뺄 수 있으므로 hopping pane 합계(subtract-on-expire)에도 그대로 쓸 수 있다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class DeltaSketch {
+
+    /** entropy diff: 1e-4 ~ 8 bits/byte, 상대 오차 2% */
+    static final Layout ENTROPY = new Layout(1.0e-4, 8.0, 0.02);
+
+    /** size diff: 1 byte ~ 4 TiB, 상대 오차 2% */
+    static final Layout SIZE = new Layout(1.0, 4.0 * 1024 * 1024 * 1024 * 1024, 0.02);
+
+    private final Layout layout;
+    private final int[] counts;      // [음수 큰 값 .. 음수 작은 값, 0, 양수 작은 값 .. 양수 큰 값]
+    private long count;
+    // 0이 아닐 수 있는 버킷 범위 [lo, hi] (비어 있으면 lo > hi). 조회/병합은 이 범위만 훑는다
+    private int lo;
+    private int hi;
+
+    DeltaSketch(Layout layout) {
+        this.layout = layout;
+        this.counts = new int[layout.positions()];
+        this.lo = counts.length;
+        this.hi = -1;
+    }
+
+    /**
+     * 함수 이름 : add
+     * 기능 : 값 1개를 해당 버킷에 더한다. NaN은 무시한다.
+     * 매개변수 : v - 변화량
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void add(double v) {
+        if (Double.isNaN(v)) return;
+        int p = layout.positionOf(v);
+        counts[p]++;
+        count++;
+        if (p < lo) lo = p;
+        if (p > hi) hi = p;
+    }
+
+    /** 다른 스케치(같은 Layout)의 카운트를 더한다 */
+    void addAll(DeltaSketch other) {
+        if (other.count == 0) return;
+        for (int i = other.lo; i <= other.hi; i++) counts[i] += other.counts[i];
+        count += other.count;
+        if (other.lo < lo) lo = other.lo;
+        if (other.hi > hi) hi = other.hi;
+    }
+
+    /** 다른 스케치(같은 Layout, 이 스케치에 이미 더해진 것)의 카운트를 뺀다 */
+    void subtract(DeltaSketch other) {
+        if (other.count == 0) return;
+        for (int i = other.lo; i <= other.hi; i++) counts[i] -= other.counts[i];
+        count -= other.count;
+        if (count == 0) clear();      // 범위는 비었을 때만 줄인다 (그 전에는 넓게 유지해도 결과는 같다)
+    }
+
+    void clear() {
+        if (lo <= hi) Arrays.fill(counts, lo, hi + 1, 0);
+        count = 0;
+        lo = counts.length;
+        hi = -1;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /** 체크포인트: 0이 아닌 버킷만 기록 */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeCounts(counts);
+    }
+
+    /** 체크포인트 복원: 기록된 버킷 카운트를 더한다 */
+    void readFrom(CheckpointInput in) throws IOException {
+        count += in.readCountsInto(counts);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            if (i < lo) lo = i;
+            hi = i;
+        }
+    }
+
+    /**
+     * 함수 이름 : quantile
+     * 기능 : q 분위수의 근사값(버킷 대표값)을 반환한다.
+     * 매개변수 : q - 0~1
+     * 반환값 : double - 분위수 근사값 (비어 있으면 0)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    double quantile(double q) {
+        if (count == 0) return 0.0;
+        long rank = (long) Math.floor(Math.min(1.0, Math.max(0.0, q)) * (count - 1));
+        long seen = 0;
+        for (int i = lo; i <= hi; i++) {
+            seen += counts[i];
+            if (seen > rank) return layout.valueAt(i);
+        }
+        return layout.valueAt(hi);
+    }
+
+    /** 가장 작은 값(가장 작은 비어 있지 않은 버킷)의 대표값 */
+    double min() {
+        for (int i = lo; i <= hi; i++) if (counts[i] != 0) return layout.valueAt(i);
+        return 0.0;
+    }
+
+    /** 가장 큰 값(가장 큰 비어 있지 않은 버킷)의 대표값 */
+    double max() {
+        for (int i = hi; i >= lo; i--) if (counts[i] != 0) return layout.valueAt(i);
+        return 0.0;
+    }
+
+    /** p50/p90/min/max 요약 */
+    DeltaQuantiles summarize() {
+        if (count == 0) return DeltaQuantiles.EMPTY;
+        return new DeltaQuantiles(quantile(0.5), quantile(0.9), min(), max());
+    }
+
+    /** 버킷 경계 정의 (스케치끼리 공유) */
+    static final class Layout {
+        private final double minMagnitude;
+        private final double logGamma;
+        private final double representativeFactor;
+        private final int bucketsPerSign;
+
+        Layout(double minMagnitude, double maxMagnitude, double relativeAccuracy) {
+            double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+            this.minMagnitude = minMagnitude;
+            this.logGamma = Math.log(gamma);
+            this.representativeFactor = 2.0 / (1.0 + gamma);
+            this.bucketsPerSign = (int) Math.ceil(Math.log(maxMagnitude / minMagnitude) / logGamma) + 1;
+        }
+
+        int positions() {
+            return bucketsPerSign * 2 + 1;
+        }
+
+        int positionOf(double v) {
+            double a = Math.abs(v);
+            if (a < minMagnitude) return bucketsPerSign;
+            int k = (int) Math.ceil(Math.log(a / minMagnitude) / logGamma);
+            if (k >= bucketsPerSign) k = bucketsPerSign - 1;
+            return (v > 0) ? bucketsPerSign + 1 + k : bucketsPerSign - 1 - k;
+        }
+
+        double valueAt(int position) {
+            if (position == bucketsPerSign) return 0.0;
+            int k = (position > bucketsPerSign) ? position - bucketsPerSign - 1 : bucketsPerSign - 1 - position;
+            double magnitude = minMagnitude * Math.exp(k * logGamma) * representativeFactor;
+            return (position > bucketsPerSign) ? magnitude : -magnitude;
+        }
+    }
+}
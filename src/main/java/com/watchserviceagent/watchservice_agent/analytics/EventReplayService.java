@@ -0,0 +1,257 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.AiService;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.analytics.dto.ReplayRequest;
+import com.watchserviceagent.watchservice_agent.analytics.dto.ReplayResponse;
+import com.watchserviceagent.watchservice_agent.analytics.dto.TraceExportResponse;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.rules.RuleAlert;
+import com.watchserviceagent.watchservice_agent.storage.LogService;
+import com.watchserviceagent.watchservice_agent.trace.TraceReader;
+import com.watchserviceagent.watchservice_agent.trace.TraceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 클래스 이름 : EventReplayService
+ * 기능 : 기록된 FileAnalysisResult 스트림(로그 테이블 또는 트레이스 파일)을 집계 파이프라인에 가상 시계로 최대한 빠르게 다시 흘려보낸다.
+ *        실시간 집계기와 같은 설정(일부 재정의 가능)으로 fork한 독립 집계기를 쓰므로 로그/알림 저장이나 실시간 상태에 영향이 없다.
+ *        REMOTE 모드의 AI 호출도 재생 전용 경로(AiService.analyzeForReplay)로 보내 실시간 캐시/서킷 브레이커/섀도 평가를 건드리지 않는다.
+ *        며칠치 기록으로 처리량을 측정하거나 윈도우/pre-screen 설정을 바꿔 가며 결과를 비교하는 데 사용한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventReplayService {
+
+    // 트레이스 파일을 읽고 쓰는 디렉터리 (요청에는 이 안의 파일 이름만 받는다)
+    @Value("${watchservice.replay.trace-dir:trace}")
+    private String traceDir;
+
+    private final EventWindowAggregator aggregator;
+    private final QuietWindowPreScreen preScreen;
+    private final AiService aiService;
+    private final LogService logService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 함수 이름 : replay
+     * 기능 : 요청한 소스의 이벤트를 fork한 집계기로 재생하고, 닫힌 윈도우를 aiMode에 따라 판정하여 결과를 요약한다.
+     *        NONE은 피처 집계만, PRESCREEN은 로컬 pre-screen까지(AI 호출 없음), REMOTE는 pre-screen을 통과한 윈도우를 AI 서버로 보낸다.
+ *        AI 서버 판정을 받지 못한 윈도우의 로컬 대체 판정은 labels에 넣지 않고 aiFailures와 출처별 라벨로만 센다.
+     *        동시에 하나의 재생만 허용한다.
+     * 매개변수 : req - 재생 요청
+     * 반환값 : ReplayResponse - 재생 결과
+     * 예외 : IOException - 트레이스 파일을 읽지 못할 때, IllegalArgumentException - 요청 값이 잘못됐을 때, IllegalStateException - 이미 재생 중일 때
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public ReplayResponse replay(ReplayRequest req) throws IOException {
+        String source = upperOr(req.getSource(), "LOG");
+        String aiMode = upperOr(req.getAiMode(), "PRESCREEN");
+        if (!source.equals("LOG") && !source.equals("TRACE")) throw new IllegalArgumentException("source는 LOG 또는 TRACE: " + source);
+        if (!aiMode.equals("NONE") && !aiMode.equals("PRESCREEN") && !aiMode.equals("REMOTE")) {
+            throw new IllegalArgumentException("aiMode는 NONE, PRESCREEN, REMOTE 중 하나: " + aiMode);
+        }
+        if (!running.compareAndSet(false, true)) throw new IllegalStateException("이미 이벤트 재생이 진행 중입니다.");
+        try {
+            return run(req, source, aiMode);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 함수 이름 : exportTrace
+     * 기능 : 현재 세션의 구간 내 watcher 이벤트 로그를 트레이스 파일로 내보낸다. (재생 시 DB 조회 없이 빠르게 읽기 위함)
+     * 매개변수 : traceFile - 트레이스 디렉터리 안의 파일 이름, fromMs / toMs - 구간(포함, null이면 제한 없음)
+     * 반환값 : TraceExportResponse - 내보낸 이벤트 수와 크기
+     * 예외 : IOException - 파일 쓰기 실패 시
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public TraceExportResponse exportTrace(String traceFile, Long fromMs, Long toMs) throws IOException {
+        Path path = resolveTrace(traceFile);
+        long t0 = System.nanoTime();
+        TraceWriter writer = new TraceWriter(path);
+        try (writer) {
+            logService.streamWatcherEvents(fromMs, toMs, r -> {
+                try {
+                    writer.write(r);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("[EventReplayService] 트레이스 내보내기: file={} events={} bytes={} elapsedMs={}",
+                path, writer.getEvents(), writer.getBytes(), elapsedMs);
+        return TraceExportResponse.builder()
+                .traceFile(traceFile)
+                .events(writer.getEvents())
+                .bytes(writer.getBytes())
+                .bytesPerEvent(writer.getEvents() > 0 ? (double) writer.getBytes() / writer.getEvents() : 0.0)
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    private ReplayResponse run(ReplayRequest req, String source, String aiMode) throws IOException {
+        ReplaySink sink = new ReplaySink(aiMode);
+        long[] virtualNow = {Long.MIN_VALUE};
+        EventWindowAggregator replayer = aggregator.fork(sink, sink::onRuleAlert, () -> virtualNow[0],
+                req.getWindowMs(), req.getHopping(), req.getAdaptive());
+        long limit = (req.getLimit() != null && req.getLimit() > 0) ? req.getLimit() : Long.MAX_VALUE;
+
+        long[] events = {0};
+        long[] firstMs = {Long.MAX_VALUE};
+        long t0 = System.nanoTime();
+        Consumer<FileAnalysisResult> feed = r -> {
+            if (events[0] >= limit) return;
+            if (r.getEventTime() != null) {
+                long ms = r.getEventTime().toEpochMilli();
+                if (ms > virtualNow[0]) virtualNow[0] = ms;
+                if (ms < firstMs[0]) firstMs[0] = ms;
+            }
+            replayer.onFileAnalysisResult(r);
+            events[0]++;
+        };
+
+        if (source.equals("TRACE")) {
+            Path trace = resolveTrace(req.getTraceFile());
+            if (Files.isDirectory(trace)) {
+                TraceReader.readAll(TraceReader.listSegments(trace), feed, limit);     // 상시 기록기 세그먼트 디렉터리
+            } else {
+                TraceReader reader = TraceReader.open(trace);
+                for (FileAnalysisResult r = reader.next(); r != null && events[0] < limit; r = reader.next()) feed.accept(r);
+            }
+        } else {
+            logService.streamWatcherEvents(req.getFromMs(), req.getToMs(), feed);
+        }
+        replayer.flushIfNeeded();
+        long elapsedNs = System.nanoTime() - t0;
+
+        boolean any = events[0] > 0 && virtualNow[0] != Long.MIN_VALUE;
+        long spanMs = any ? virtualNow[0] - firstMs[0] : 0L;
+        double elapsedSec = elapsedNs / 1e9;
+        ReplayResponse response = ReplayResponse.builder()
+                .source(source)
+                .aiMode(aiMode)
+                .events(events[0])
+                .windows(sink.windows)
+                .windowsByScale(sink.windowsByScale)
+                .labels(sink.labels)
+                .labelsBySource(sink.labelsBySource)
+                .aiCalls(sink.aiCalls)
+                .aiFailures(sink.aiFailures)
+                .maxWindowEvents(sink.maxWindowEvents)
+                .firstEventMs(any ? firstMs[0] : null)
+                .lastEventMs(any ? virtualNow[0] : null)
+                .firstAlertMs(sink.firstAlertMs)
+                .ruleAlerts(sink.ruleAlerts)
+                .firstRuleAlertMs(sink.firstRuleAlertMs)
+                .virtualSpanMs(spanMs)
+                .elapsedMs(elapsedNs / 1_000_000)
+                .eventsPerSecond(elapsedSec > 0 ? events[0] / elapsedSec : 0.0)
+                .speedup(elapsedSec > 0 ? spanMs / 1000.0 / elapsedSec : 0.0)
+                .hotDirectories(any ? replayer.getHotDirectories().top(10, virtualNow[0]) : List.of())
+                .build();
+        log.info("[EventReplayService] 재생 완료: {}", response);
+        return response;
+    }
+
+    private Path resolveTrace(String traceFile) {
+        if (traceFile == null || traceFile.isBlank()) throw new IllegalArgumentException("traceFile이 필요합니다.");
+        Path dir = Paths.get(traceDir).toAbsolutePath().normalize();
+        Path path = dir.resolve(traceFile.trim()).normalize();
+        if (!path.startsWith(dir) || path.equals(dir)) {
+            throw new IllegalArgumentException("트레이스 디렉터리 밖의 경로는 사용할 수 없습니다: " + traceFile);
+        }
+        return path;
+    }
+
+    private static String upperOr(String v, String def) {
+        return (v == null || v.isBlank()) ? def : v.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** 재생 출력: 이벤트 로그는 저장하지 않고, 닫힌 윈도우는 aiMode에 따라 판정만 하여 집계한다 */
+    private final class ReplaySink implements AggregatorSink {
+        private final String aiMode;
+        private long windows;
+        private long aiCalls;
+        private long aiFailures;
+        private int maxWindowEvents;
+        private Long firstAlertMs;
+        private Long firstRuleAlertMs;
+        private final Map<Long, Long> windowsByScale = new TreeMap<>();
+        private final Map<String, Long> labels = new TreeMap<>();
+        private final Map<String, Map<String, Long>> labelsBySource = new TreeMap<>();
+        private final Map<String, Long> ruleAlerts = new TreeMap<>();
+
+        private ReplaySink(String aiMode) {
+            this.aiMode = aiMode;
+        }
+
+        @Override
+        public void onEvent(FileAnalysisResult result, long eventTimeMs, Long windowId) {
+            // 재생에서는 로그를 다시 저장하지 않는다
+        }
+
+        @Override
+        public void onWindow(ClosedWindow window) {
+            windows++;
+            windowsByScale.merge(window.getWindowMs(), 1L, Long::sum);
+            maxWindowEvents = Math.max(maxWindowEvents, window.getEventCount());
+            if (aiMode.equals("NONE")) return;
+
+            AiResult result = preScreen.evaluate(window.getPayload(),
+                    window.getEntropyDiffQuantiles(), window.getSizeDiffQuantiles());
+            String label;
+            String source;
+            if (result != null) {
+                label = result.getLabel();
+                source = result.getSource();
+            } else if (aiMode.equals("PRESCREEN")) {
+                label = "FORWARDED";
+                source = "FORWARDED";
+            } else {
+                aiCalls++;
+                result = aiService.analyzeForReplay(window.getPayload());
+                label = result.getLabel();
+                source = result.getSource();
+            }
+            labelsBySource.computeIfAbsent(source == null ? "UNKNOWN" : source, k -> new TreeMap<>())
+                    .merge(String.valueOf(label), 1L, Long::sum);
+            if (result != null && result.isRemoteFailed()) {
+                aiFailures++;                               // 로컬 대체 판정은 AI 판정으로 세지 않는다
+                return;
+            }
+            labels.merge(String.valueOf(label), 1L, Long::sum);
+            if (firstAlertMs == null && ("WARNING".equals(label) || "DANGER".equals(label)) && window.getWindowEnd() != null) {
+                firstAlertMs = window.getWindowEnd().toEpochMilli();
+            }
+        }
+
+        /** 로컬 규칙 발동은 DB에 저장하지 않고 규칙별로 센다 */
+        private void onRuleAlert(RuleAlert alert) {
+            ruleAlerts.merge(alert.rule(), 1L, Long::sum);
+            if (firstRuleAlertMs == null) firstRuleAlertMs = alert.lastEventMs();
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.watchserviceagent.watchservice_agent.analytics;
 
-import com.watchserviceagent.watchservice_agent.ai.AiService;
-import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
 import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
-import com.watchserviceagent.watchservice_agent.alerts.NotificationService;
-import com.watchserviceagent.watchservice_agent.alerts.domain.Notification;
 import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
 import com.watchserviceagent.watchservice_agent.common.util.SessionIdManager;
+import com.watchserviceagent.watchservice_agent.rules.LocalRuleEngine;
+import com.watchserviceagent.watchservice_agent.rules.RuleAlert;
 import com.watchserviceagent.watchservice_agent.storage.LogService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -14,14 +12,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 /**
  * 클래스 이름 : EventWindowAggregator
  * 기능 : 여러 FileAnalysisResult를 시간 윈도우(기본 3초)로 묶어서 AI 서버에 보낼 피처(AiPayload)를 집계한다.
  *        CREATE/MODIFY/DELETE 이벤트만 윈도우 집계에 포함하고, SCAN 등은 로그만 저장한다.
+ *        기본 윈도우 외에 보조 스케일(예: 1초, 30초, 5분)을 동시에 유지하며, 이벤트 판정은 1번만 하고 모든 스케일에 누적한다.
+ *        적응형 모드에서는 이벤트 유입률에 따라 기본 윈도우 길이를 [min, max] 범위에서 조절한다.
+ *        hopping 모드에서는 기본 윈도우를 hop 간격으로 겹쳐서 평가하여 경계에 걸친 공격이 두 윈도우로 쪼개지지 않게 한다.
  * 작성 날짜 : 2025/12/17
  * 작성자 : 시스템
  */
@@ -63,6 +66,46 @@ public class EventWindowAggregator {
 
     private Set<String> randomExtWhitelist = new HashSet<>();
 
+    // hopping 윈도우 모드: 기본 윈도우를 길이 window-ms, 간격 hop-ms로 겹쳐서 평가한다
+    @Value("${watchservice.analytics.hopping.enabled:false}")
+    private boolean hoppingEnabled;
+
+    @Value("${watchservice.analytics.hopping.hop-ms:1000}")
+    private long hopMs;
+
+    // 적응형 윈도우 길이: clamp(target-events / 유입률, min-window-ms, max-window-ms) (tumbling 기본 윈도우에만 적용)
+    @Value("${watchservice.analytics.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${watchservice.analytics.adaptive.target-events:300}")
+    private int adaptiveTargetEvents;
+
+    @Value("${watchservice.analytics.adaptive.min-window-ms:1000}")
+    private long adaptiveMinWindowMs;
+
+    @Value("${watchservice.analytics.adaptive.max-window-ms:30000}")
+    private long adaptiveMaxWindowMs;
+
+    @Value("${watchservice.analytics.adaptive.rate-half-life-ms:5000}")
+    private long adaptiveRateHalfLifeMs;
+
+    // 보조 윈도우 스케일(ms, csv). 기본 window-ms와 같은 값은 무시한다. 빈 값이면 기본 윈도우만 사용
+    @Value("${watchservice.analytics.multi-scale.window-ms:}")
+    private String extraWindowMsCsv;
+
+    // 보조 스케일과 hop 윈도우는 마지막으로 보낸 피처 대비 아래 기준 이상 달라졌을 때만 AI에 보낸다
+    @Value("${watchservice.analytics.multi-scale.min-count-delta:2}")
+    private int scaleMinCountDelta;
+
+    @Value("${watchservice.analytics.multi-scale.min-change-ratio:0.25}")
+    private double scaleMinChangeRatio;
+
+    @Value("${watchservice.analytics.multi-scale.min-entropy-delta:0.05}")
+    private double scaleMinEntropyDelta;
+
+    @Value("${watchservice.analytics.multi-scale.min-size-delta:4096}")
+    private double scaleMinSizeDelta;
+
     /**
      * 함수 이름 : init
      * 기능 : 애플리케이션 시작 시 확장자 화이트리스트를 초기화한다.
@@ -73,11 +116,52 @@ public class EventWindowAggregator {
      */
     @PostConstruct
     void init() {
+        if (sink == null) sink = new LiveSink(logService, flushPipeline);
         randomExtWhitelist.clear();
         for (String s : String.valueOf(randomExtWhitelistCsv).split(",")) {
             String v = s.trim().toLowerCase(Locale.ROOT);
             if (!v.isBlank()) randomExtWhitelist.add(v);
         }
+        touchSessions = new TouchSessionTable(touchSessionTimeoutMs);
+        // 재시작 전 DB에 남은 윈도우 ID와 겹치지 않도록 시작 시각 기반으로 발급 (윈도우는 1ms에 1000개 이상 열리지 않음)
+        nextWindowId = Math.max(nextWindowId, System.currentTimeMillis() * 1000L);
+
+        scales.clear();
+        hoppingWindow = null;
+        primaryScale = null;
+        adaptiveLength = null;
+        if (hoppingEnabled) {
+            hoppingWindow = new HoppingWindow(windowMs, hopMs);
+            if (hoppingWindow.getWindowMs() != windowMs) {
+                log.warn("[EventWindowAggregator] window-ms({})가 hop-ms({})의 배수가 아님 -> hopping 윈도우 길이 {}ms 사용",
+                        windowMs, hopMs, hoppingWindow.getWindowMs());
+            }
+            if (adaptiveEnabled) log.warn("[EventWindowAggregator] hopping 모드에서는 적응형 윈도우 길이를 사용하지 않음");
+        } else {
+            primaryScale = new WindowScale(windowMs, true);
+            scales.add(primaryScale);
+            if (adaptiveEnabled) {
+                adaptiveLength = new AdaptiveWindowLength(adaptiveTargetEvents,
+                        adaptiveMinWindowMs, adaptiveMaxWindowMs, adaptiveRateHalfLifeMs);
+                log.info("[EventWindowAggregator] adaptive window: targetEvents={} min={}ms max={}ms rateHalfLife={}ms",
+                        adaptiveTargetEvents, adaptiveMinWindowMs, adaptiveMaxWindowMs, adaptiveRateHalfLifeMs);
+            }
+        }
+        TreeSet<Long> extra = new TreeSet<>();
+        for (String s : String.valueOf(extraWindowMsCsv).split(",")) {
+            String v = s.trim();
+            if (v.isBlank()) continue;
+            try {
+                long ms = Long.parseLong(v);
+                if (ms > 0 && ms != windowMs) extra.add(ms);
+            } catch (NumberFormatException e) {
+                log.warn("[EventWindowAggregator] 잘못된 multi-scale window-ms 값 무시: {}", v);
+            }
+        }
+        for (long ms : extra) scales.add(new WindowScale(ms, false));
+
+        log.info("[EventWindowAggregator] window scales: primary={}ms ({}) extra={}", windowMs,
+                hoppingWindow != null ? "hopping, hop=" + hoppingWindow.getHopMs() + "ms" : "tumbling", extra);
         log.info("[EventWindowAggregator] init config: windowMs={} touchTimeoutMs={} renameMaxGapMs={} encryptEntropyDiffThreshold={} encryptMinSizeBytes={} randomExtMinCount={} randomExtMinLength={} whitelistSize={}",
                 windowMs, touchSessionTimeoutMs, renameMaxGapMs,
                 encryptEntropyDiffThreshold, encryptMinSizeBytes,
@@ -87,37 +171,44 @@ public class EventWindowAggregator {
     // =========================
     // Deps
     // =========================
-    private final AiService aiService;
     private final LogService logService;
-    private final NotificationService notificationService;
     private final SessionIdManager sessionIdManager;
+    private final WindowFlushPipeline flushPipeline;
+    private final HotDirectoryTracker hotDirectories;
+    private final LocalRuleEngine ruleEngine;
 
     // =========================
     // State
     // =========================
-    private Long currentWindowStartMs = null;
-    private final List<FileAnalysisResult> currentEvents = new ArrayList<>();
-
-    // "touch"(접근) 세션 관리: ownerKey|path -> lastTouchMs
-    private final Map<String, Long> lastTouchTimeByFile = new HashMap<>();
-
-    private static class WindowStats {
-        int fileTouchCount;          // "읽기"가 아니라 "최근에 접근/변경으로 감지된 파일 수(세션 기준)"
-        int fileWriteCount;          // 내용 변경(크기/엔트로피 변화) 기반
-        int fileDeleteCount;
-        int fileRenameCount;
-        int fileEncryptLikeCount;
-        int changedFilesCount;
-        double entropyDiffMean;
-        double sizeDiffMean;
-
-        int randomExtensionCount;    // 윈도우 내 suspicious ext (unique file 기준)
-        int randomExtensionFlag;     // randomExtMinCount 이상이면 1
-    }
+    // 첫 번째가 기본 윈도우, 나머지는 보조 스케일 (길이 오름차순). hopping 모드에서는 보조 스케일만 들어 있다
+    private final List<WindowScale> scales = new ArrayList<>();
+
+    // hopping 모드의 기본 윈도우 (비활성화 시 null)
+    private HoppingWindow hoppingWindow;
+
+    // tumbling 기본 윈도우와 적응형 길이 추정기 (적응형 비활성화 시 adaptiveLength = null)
+    private WindowScale primaryScale;
+    private AdaptiveWindowLength adaptiveLength;
+
+    // "touch"(접근) 세션 관리: ownerKey -> path -> 세션 시작 ms (timeout 지나면 시간 버킷 단위로 만료)
+    private TouchSessionTable touchSessions;
+
+    // 출력과 시계: 실시간 감시에서는 로그 저장/flush 파이프라인과 시스템 시계, 이벤트 재생에서는 재생용 sink와 가상 시계
+    private AggregatorSink sink;
+    private LongSupplier clock = System::currentTimeMillis;
+    private boolean logWindows = true;     // 재생 중에는 윈도우마다 INFO 로그를 남기지 않는다
+
+    // 집계 상태가 바뀔 때마다 증가 (체크포인트가 변경 없는 주기를 건너뛰는 데 사용)
+    private volatile long stateVersion;
+
+    // 기본 윈도우(hopping 모드는 pane) ID 발급기: 이벤트 로그 insert 시 붙이고 flush 시 이 ID로 라벨을 부착한다
+    private long nextWindowId;
 
     /**
      * 함수 이름 : onFileAnalysisResult
-     * 기능 : 파일 분석 결과를 받아서 현재 윈도우에 추가한다. 윈도우 시간이 지나면 자동으로 flush하여 AI 분석을 수행한다.
+     * 기능 : 파일 분석 결과를 받아서 모든 스케일의 현재 윈도우 피처에 증분 반영한다. 스케일별로 윈도우 시간이 지나면 flush하여 AI 분석을 수행한다.
+     *        이벤트 로그는 속한 기본 윈도우 ID와 함께 즉시 저장하고, AI 라벨은 기본 윈도우 flush 시 그 ID로 부착한다.
+     *        이벤트 시각은 여기서 한 번만 정해 로그(collected_at)와 윈도우 배정에 같은 값을 쓴다.
      * 매개변수 : result - 파일 분석 결과
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
@@ -125,58 +216,238 @@ public class EventWindowAggregator {
      */
     public synchronized void onFileAnalysisResult(FileAnalysisResult result) {
         String type = normalizeType(result.getEventType());
+        long eventTimeMs = (result.getEventTime() != null)
+                ? result.getEventTime().toEpochMilli()
+                : clock.getAsLong();
 
         // ✅ SCAN 등 비표준 이벤트는 윈도우 집계에서 제외(오탐 방지)
         if (!"CREATE".equals(type) && !"MODIFY".equals(type) && !"DELETE".equals(type)) {
             log.debug("[EventWindowAggregator] Non-watcher eventType={} -> save log only. path={}", type, result.getPath());
-            logService.saveAsync(result);
+            sink.onEvent(result, eventTimeMs, null);
             return;
         }
 
-        long eventTimeMs = (result.getEventTime() != null)
-                ? result.getEventTime().toEpochMilli()
-                : System.currentTimeMillis();
+        // 유입률이 바뀌면 열린 윈도우 길이도 바로 바뀐다 (폭주 시 긴 윈도우가 즉시 닫힘)
+        if (adaptiveLength != null) {
+            adaptiveLength.onEvent(eventTimeMs);
+            primaryScale.resize(adaptiveLength.lengthMs());
+        }
+        if (hoppingWindow != null) {
+            for (HoppingWindow.Snapshot snap : hoppingWindow.advance(eventTimeMs, renameMaxGapMs, randomExtMinCount, renameSink(eventTimeMs))) {
+                flushHop(snap);
+            }
+        }
+        for (WindowScale scale : scales) {
+            if (scale.isDue(eventTimeMs)) flushWindow(scale);
+        }
 
-        if (currentWindowStartMs == null) {
-            currentWindowStartMs = eventTimeMs;
-        } else if (eventTimeMs - currentWindowStartMs >= windowMs) {
-            flushWindow();
-            currentWindowStartMs = eventTimeMs;
+        // 라벨 없이 윈도우 ID만 붙여 먼저 저장 (flush 시 같은 ID로 AI 라벨 UPDATE)
+        long windowId = (hoppingWindow != null)
+                ? hoppingWindow.windowId(eventTimeMs, this::issueWindowId)
+                : primaryScale.open(eventTimeMs).windowId(this::issueWindowId);
+        sink.onEvent(result, eventTimeMs, windowId);
+        accumulate(result, type, eventTimeMs);
+        stateVersion++;
+    }
+
+    /**
+     * 함수 이름 : accumulate
+     * 기능 : 이벤트 1건에 대해 touch/write/encrypt-like/의심 확장자 여부를 한 번만 판정하고 모든 스케일의 윈도우 누적기에 반영한다.
+     * 매개변수 : r - 파일 분석 결과, eventType - 정규화된 이벤트 타입, eventTimeMs - 이벤트 시각(ms)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private void accumulate(FileAnalysisResult r, String eventType, long eventTimeMs) {
+        Long sizeDiffObj = r.getSizeDiff();
+        Double entropyDiffObj = r.getEntropyDiff();
+        boolean hasSizePair = sizeDiffObj != null;
+        boolean hasEntropyPair = entropyDiffObj != null;
+        long sizeDiff = hasSizePair ? sizeDiffObj : 0L;
+        double entropyDiff = hasEntropyPair ? entropyDiffObj : 0.0;
+
+        // ---------------------------------------
+        // MODIFY: touch/write 추정
+        // ---------------------------------------
+        boolean newTouch = false;
+        boolean contentChanged = false;
+        if ("MODIFY".equals(eventType)) {
+            newTouch = touchSessions.touch(r.getOwnerKey(), r.getPath(), eventTimeMs);
+
+            // "내용 변경" 기준 (너무 민감하지 않도록 eps 사용)
+            contentChanged = (hasSizePair && sizeDiff != 0L)
+                    || (hasEntropyPair && Math.abs(entropyDiff) > eps);
         }
 
-        currentEvents.add(result);
+        // ---------------------------------------
+        // random extension (윈도우 내 "여러개"면 플래그)
+        // ---------------------------------------
+        boolean suspiciousExt = isSuspiciousExt(r.getExtBefore()) || isSuspiciousExt(r.getExtAfter());
+
+        // ---------------------------------------
+        // encrypt-like 판정 강화
+        //  - 엔트로피 증가 + (크기변화 or 확장자변화)
+        //  - 최소 크기 조건(작은 파일 엔트로피 튐 방지)
+        // ---------------------------------------
+        boolean extChanged = (r.getExtBefore() != null && r.getExtAfter() != null
+                && !r.getExtBefore().equalsIgnoreCase(r.getExtAfter()));
+
+        boolean sizeChanged = (hasSizePair && sizeDiff != 0L);
+
+        Long sizeBefore = r.getSizeBefore();
+        Long sizeAfter = r.getSizeAfter();
+        long approxSize = (sizeAfter != null) ? sizeAfter : (sizeBefore != null ? sizeBefore : 0L);
+        boolean bigEnough = approxSize >= encryptMinSizeBytes;
+
+        boolean entropyUp = (hasEntropyPair && entropyDiff >= encryptEntropyDiffThreshold);
+
+        boolean encryptLike = bigEnough && entropyUp && (sizeChanged || extChanged);
+
+        // 디렉터리별 활동량 (이벤트당 1회, rename은 윈도우 flush 시 매칭 결과로 기록)
+        String dir = RenameIndex.getParentDir(r.getPath());
+        if ("DELETE".equals(eventType)) {
+            hotDirectories.record(dir, HotDirectoryTracker.Kind.DELETE, eventTimeMs);
+        } else if ("CREATE".equals(eventType) || contentChanged) {
+            hotDirectories.record(dir, HotDirectoryTracker.Kind.WRITE, eventTimeMs);
+        }
+
+        // 로컬 탐지 규칙은 윈도우를 기다리지 않고 이벤트마다 평가한다
+        ruleEngine.onEvent(r, eventType, dir, eventTimeMs, contentChanged, encryptLike, suspiciousExt);
+
+        if (hoppingWindow != null) {
+            hoppingWindow.add(r, eventType, eventTimeMs, newTouch, contentChanged, encryptLike, suspiciousExt);
+        }
+        for (WindowScale scale : scales) {
+            scale.open(eventTimeMs).add(r, eventType, eventTimeMs, newTouch, contentChanged, encryptLike, suspiciousExt);
+        }
     }
 
     /**
      * 함수 이름 : flushIfNeeded
-     * 기능 : 현재 윈도우에 남아있는 이벤트가 있으면 강제로 flush하여 AI 분석을 수행한다.
+     * 기능 : 각 스케일의 현재 윈도우에 남아있는 이벤트가 있으면 강제로 flush하여 AI 분석을 수행한다.
      * 매개변수 : 없음
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
     public synchronized void flushIfNeeded() {
-        if (!currentEvents.isEmpty()) {
-            flushWindow();
-            currentWindowStartMs = null;
+        if (hoppingWindow != null) {
+            HoppingWindow.Snapshot last = hoppingWindow.drain(renameMaxGapMs, randomExtMinCount, renameSink(clock.getAsLong()));
+            if (last != null) flushHop(last);
+        }
+        for (WindowScale scale : scales) {
+            if (scale.hasEvents()) flushWindow(scale);
         }
+        stateVersion++;
+    }
+
+    /** 집계 상태 변경 번호 (락 없이 읽는다) */
+    long getStateVersion() {
+        return stateVersion;
     }
 
     /**
      * 함수 이름 : flushWindow
-     * 기능 : 현재 윈도우의 이벤트들을 집계하여 AI 서버에 전송하고, 결과를 로그에 저장한다.
-     * 매개변수 : 없음
+     * 기능 : 스케일의 현재 윈도우를 닫고 누적 피처로 AiPayload를 만들어 flush 파이프라인에 제출한다. AI 서버 응답을 기다리지 않는다.
+     *        보조 스케일은 피처가 마지막 제출 대비 의미 있게 달라졌을 때만 제출하고, 로그 라벨은 부착하지 않는다.
+     * 매개변수 : scale - 닫을 윈도우 스케일
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private void flushWindow(WindowScale scale) {
+        WindowAccumulator window = scale.close();
+        if (window == null || window.isEmpty()) return;
+
+        // rename 디렉터리 집계는 기본 윈도우에서만 (스케일마다 중복 집계하지 않음)
+        Consumer<String> onRenameDir = scale.isPrimary() ? renameSink(window.getMaxEventMs()) : null;
+        WindowStats stats = window.toStats(renameMaxGapMs, randomExtMinCount, onRenameDir);
+        AiPayload payload = toPayload(stats);
+
+        if (!scale.shouldSubmit(payload, scaleMinCountDelta, scaleMinChangeRatio, scaleMinEntropyDelta, scaleMinSizeDelta)) {
+            log.debug("[EventWindowAggregator] scale={}ms 피처 변화 미미 -> AI 생략 (events={}, suppressed={})",
+                    scale.getWindowMs(), window.getEventCount(), scale.getSuppressedCount());
+            return;
+        }
+
+        Instant windowStart = Instant.ofEpochMilli(window.getStartMs());
+        Instant windowEnd = window.getLastEventTime();
+        if (windowEnd == null) windowEnd = windowStart;
+
+        String ownerKey = window.getFirstOwnerKey();
+        if (ownerKey == null) ownerKey = sessionIdManager.getSessionId();
+        List<String> affectedPaths = window.getAffectedPaths();   // 누산기는 다음 윈도우에 재사용되므로 지금 복사한다
+
+        submit(ClosedWindow.builder()
+                .ownerKey(ownerKey)
+                .windowStart(windowStart)
+                .windowEnd(windowEnd)
+                .windowMs(scale.getWindowMs())
+                .labelLogs(scale.isPrimary())
+                .windowId(window.getWindowId())
+                .eventCount(window.getEventCount())
+                .payload(payload)
+                .entropyDiffQuantiles(stats.entropyDiffQuantiles)
+                .sizeDiffQuantiles(stats.sizeDiffQuantiles)
+                .affectedPaths(() -> affectedPaths)
+                .hotDirectories(hotDirectories.topForNotification())
+                .build(), stats);
+    }
+
+    /**
+     * 함수 이름 : flushHop
+     * 기능 : hopping 윈도우의 hop 경계 1개 시점 스냅샷을 flush 파이프라인에 제출한다.
+     *        윈도우끼리 겹치므로 로그 라벨은 가장 최근 pane의 이벤트에만 부착한다. (각 이벤트는 처음 평가된 윈도우의 라벨을 받는다)
+     *        피처가 마지막으로 AI에 보낸 hop과 거의 같으면 AI 호출 없이 직전 판정을 다시 쓰도록 표시한다.
+     * 매개변수 : snap - hop 경계 시점의 윈도우 스냅샷
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
-    private void flushWindow() {
-        if (currentEvents.isEmpty()) return;
+    private void flushHop(HoppingWindow.Snapshot snap) {
+        Instant windowStart = Instant.ofEpochMilli(snap.minEventMs);
+        Instant windowEnd = (snap.lastEventTime != null) ? snap.lastEventTime : Instant.ofEpochMilli(snap.maxEventMs);
 
-        WindowStats stats = computeWindowStats(currentEvents, lastTouchTimeByFile);
+        String ownerKey = snap.firstOwnerKey;
+        if (ownerKey == null) ownerKey = sessionIdManager.getSessionId();
+
+        AiPayload payload = toPayload(snap.stats);
+        boolean reuseVerdict = !hoppingWindow.shouldSubmit(payload,
+                scaleMinCountDelta, scaleMinChangeRatio, scaleMinEntropyDelta, scaleMinSizeDelta);
+        if (reuseVerdict) {
+            log.debug("[EventWindowAggregator] hop 피처 변화 미미 -> 직전 판정 재사용 (events={}, suppressed={})",
+                    snap.eventCount, hoppingWindow.getSuppressedCount());
+        }
+
+        submit(ClosedWindow.builder()
+                .ownerKey(ownerKey)
+                .windowStart(windowStart)
+                .windowEnd(windowEnd)
+                .windowMs(hoppingWindow.getWindowMs())
+                .labelLogs(true)
+                .hop(true)
+                .reuseVerdict(reuseVerdict)
+                .windowId(snap.newestPaneWindowId)
+                .eventCount(snap.eventCount)
+                .payload(payload)
+                .entropyDiffQuantiles(snap.stats.entropyDiffQuantiles)
+                .sizeDiffQuantiles(snap.stats.sizeDiffQuantiles)
+                .affectedPaths(snap::affectedPaths)
+                .hotDirectories(hotDirectories.topForNotification())
+                .build(), snap.stats);
+    }
 
+    /**
+     * 함수 이름 : toPayload
+     * 기능 : 윈도우 피처로 AI 서버에 보낼 9개 피처 AiPayload를 만든다.
+     * 매개변수 : stats - 윈도우 피처
+     * 반환값 : AiPayload - 피처 벡터
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private AiPayload toPayload(WindowStats stats) {
         // ✅ 9개 피처만 포함하는 AiPayload 빌드
-        AiPayload payload = AiPayload.builder()
+        return AiPayload.builder()
                 .fileReadCount(stats.fileTouchCount)
                 .fileWriteCount(stats.fileWriteCount)
                 .fileDeleteCount(stats.fileDeleteCount)
@@ -187,14 +458,22 @@ public class EventWindowAggregator {
                 .entropyDiffMean(stats.entropyDiffMean)
                 .fileSizeDiffMean(stats.sizeDiffMean)
                 .build();
+    }
 
-        Instant windowStart = Instant.ofEpochMilli(currentWindowStartMs);
-        Instant windowEnd = currentEvents.get(currentEvents.size() - 1).getEventTime();
-        if (windowEnd == null) windowEnd = windowStart;
-
-        log.info(
-                "[EventWindowAggregator] windowStart={} windowEnd={} | touch={}, write={}, delete={}, rename={}, encryptLike={}, changedFiles={}, entropyDiffMean={}, sizeDiffMean={}, randomExtCount={}, randomExtFlag={}",
-                windowStart, windowEnd,
+    /**
+     * 함수 이름 : submit
+     * 기능 : 닫힌 윈도우의 피처를 로그로 남기고 flush 파이프라인에 제출한다.
+     * 매개변수 : closed - 닫힌 윈도우, stats - 윈도우 피처 (로그 출력용)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private void submit(ClosedWindow closed, WindowStats stats) {
+        if (logWindows) log.info(
+                "[EventWindowAggregator] scale={}ms windowStart={} windowEnd={} events={} touchSessions={} | touch={}, write={}, delete={}, rename={}, encryptLike={}, changedFiles={}, entropyDiffMean={}, sizeDiffMean={}, entropyDiff[{}], sizeDiff[{}], randomExtCount={}, randomExtFlag={}",
+                closed.getWindowMs(), closed.getWindowStart(), closed.getWindowEnd(),
+                closed.getEventCount(),
+                touchSessions.size(),
                 stats.fileTouchCount,
                 stats.fileWriteCount,
                 stats.fileDeleteCount,
@@ -203,285 +482,147 @@ public class EventWindowAggregator {
                 stats.changedFilesCount,
                 stats.entropyDiffMean,
                 stats.sizeDiffMean,
+                stats.entropyDiffQuantiles,
+                stats.sizeDiffQuantiles,
                 stats.randomExtensionCount,
                 stats.randomExtensionFlag
         );
 
-        AiResult aiResult = aiService.requestAnalysis(payload);
-        
-        // 랜섬웨어 감지 시 경고 로그
-        if (aiResult.getIsRansomware() != null && aiResult.getIsRansomware()) {
-            log.warn(
-                    "[EventWindowAggregator] ⚠️ 랜섬웨어 감지! topFamily={}, score={}, label={}, detail={}",
-                    aiResult.getTopFamily(), aiResult.getScore(), aiResult.getLabel(), aiResult.getDetail()
-            );
-        } else {
-            log.info(
-                    "[EventWindowAggregator] AI 분석 완료. topFamily={}, isRansomware={}, score={}, label={}",
-                    aiResult.getTopFamily(), aiResult.getIsRansomware(), aiResult.getScore(), aiResult.getLabel()
-            );
-        }
-
-        // ✅ 같은 윈도우 이벤트들에 AI 결과를 부착해서 저장
-        for (FileAnalysisResult r : currentEvents) {
-            FileAnalysisResult enriched = r.withAiResult(aiResult);
-            logService.saveAsync(enriched);
-        }
-
-        // ✅ 윈도우 단위 알림 저장: affectedPaths 수집
-        List<String> affectedPaths = currentEvents.stream()
-                .map(FileAnalysisResult::getPath)
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
-
-        String ownerKey = currentEvents.isEmpty() ? sessionIdManager.getSessionId() : currentEvents.get(0).getOwnerKey();
-        if (ownerKey == null) ownerKey = sessionIdManager.getSessionId();
-
-        Instant createdAt = Instant.now();
-
-        Notification notification = Notification.builder()
-                .ownerKey(ownerKey)
-                .windowStart(windowStart)
-                .windowEnd(windowEnd)
-                .createdAt(createdAt)
-                .aiLabel(aiResult.getLabel())
-                .aiScore(aiResult.getScore())
-                .topFamily(aiResult.getTopFamily())
-                .aiDetail(aiResult.getDetail())
-                .affectedFilesCount(affectedPaths.size())
-                .affectedPaths(affectedPaths)
-                .build();
-
-        try {
-            notificationService.saveNotification(notification);
-            log.debug("[EventWindowAggregator] 알림 저장 완료: affectedFilesCount={}", affectedPaths.size());
-        } catch (Exception e) {
-            log.error("[EventWindowAggregator] 알림 저장 실패", e);
-        }
-
-        currentEvents.clear();
+        // ✅ AI 분석 / 로그 라벨 부착 / 알림 저장은 flush 파이프라인에서 비동기로 처리
+        sink.onWindow(closed);
     }
 
-    private WindowStats computeWindowStats(List<FileAnalysisResult> events, Map<String, Long> sessionState) {
-        WindowStats stats = new WindowStats();
-
-        int touchCount = 0;
-        int writeCount = 0;
-        int deleteCount = 0;
-        int encryptLikeCount = 0;
-
-        Set<String> changedFileSet = new HashSet<>();
-        Set<String> suspiciousExtFileSet = new HashSet<>();
-
-        double entropyDiffSum = 0.0;
-        double sizeDiffSum = 0.0;
-        int entropyDiffCount = 0;
-        int sizeDiffCount = 0;
-
-        for (FileAnalysisResult r : events) {
-            String eventType = normalizeType(r.getEventType());
-            String path = r.getPath();
-            String ownerKey = r.getOwnerKey();
-
-            if (path != null) changedFileSet.add(path);
-
-            Long sizeBefore = r.getSizeBefore();
-            Long sizeAfter = r.getSizeAfter();
-            Double entropyBefore = r.getEntropyBefore();
-            Double entropyAfter = r.getEntropyAfter();
-
-            long sizeDiff = 0L;
-            boolean hasSizePair = (sizeBefore != null && sizeAfter != null);
-            if (hasSizePair) {
-                sizeDiff = sizeAfter - sizeBefore;
-                sizeDiffSum += sizeDiff;
-                sizeDiffCount++;
-            }
-
-            double entropyDiff = 0.0;
-            boolean hasEntropyPair = (entropyBefore != null && entropyAfter != null);
-            if (hasEntropyPair) {
-                entropyDiff = entropyAfter - entropyBefore;
-                entropyDiffSum += entropyDiff;
-                entropyDiffCount++;
-            }
-
-            // ---------------------------------------
-            // MODIFY: touch/write 추정
-            // ---------------------------------------
-            if ("MODIFY".equals(eventType)) {
-                long ts = (r.getEventTime() != null)
-                        ? r.getEventTime().toEpochMilli()
-                        : System.currentTimeMillis();
-
-                String key = safe(ownerKey) + "|" + safe(path);
-
-                Long lastTouch = sessionState.get(key);
-                boolean isNewTouch = (lastTouch == null) || (ts - lastTouch > touchSessionTimeoutMs);
-                if (isNewTouch) {
-                    touchCount++;
-                    sessionState.put(key, ts);
-                }
-
-                // "내용 변경" 기준 (너무 민감하지 않도록 eps 사용)
-                boolean contentChanged = (hasSizePair && sizeDiff != 0L)
-                        || (hasEntropyPair && Math.abs(entropyDiff) > eps);
-
-                if (contentChanged) {
-                    writeCount++;
-                }
-            }
-
-            if ("DELETE".equals(eventType)) {
-                deleteCount++;
-            }
-
-            // ---------------------------------------
-            // random extension (윈도우 내 "여러개"면 플래그)
-            // ---------------------------------------
-            if (path != null) {
-                if (isSuspiciousExt(r.getExtBefore()) || isSuspiciousExt(r.getExtAfter())) {
-                    suspiciousExtFileSet.add(path);
-                }
-            }
+    /**
+     * 함수 이름 : fork
+     * 기능 : 같은 설정(일부 재정의 가능)으로 독립된 집계기를 만든다. 상태와 핫 디렉터리 추적기는 새로 만들고,
+     *        출력은 주어진 sink로, 시각은 주어진 시계로 처리하므로 실시간 감시 상태/DB에 영향을 주지 않는다. (이벤트 재생용)
+     * 매개변수 : sink - 출력 대상, ruleAlerts - 로컬 규칙 발동 알림을 받을 콜백, clock - 시계,
+     *           windowMsOverride / hoppingOverride / adaptiveOverride - 설정 재정의 (null이면 현재 설정)
+     * 반환값 : EventWindowAggregator - 초기화된 새 집계기
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    EventWindowAggregator fork(AggregatorSink sink, Consumer<RuleAlert> ruleAlerts, LongSupplier clock,
+                               Long windowMsOverride, Boolean hoppingOverride, Boolean adaptiveOverride) {
+        EventWindowAggregator f = new EventWindowAggregator(logService, sessionIdManager, flushPipeline,
+                hotDirectories.fork(), ruleEngine.fork(ruleAlerts));
+        f.windowMs = (windowMsOverride != null) ? windowMsOverride : windowMs;
+        f.touchSessionTimeoutMs = touchSessionTimeoutMs;
+        f.renameMaxGapMs = renameMaxGapMs;
+        f.encryptEntropyDiffThreshold = encryptEntropyDiffThreshold;
+        f.encryptMinSizeBytes = encryptMinSizeBytes;
+        f.eps = eps;
+        f.randomExtMinCount = randomExtMinCount;
+        f.randomExtMinLength = randomExtMinLength;
+        f.randomExtWhitelistCsv = randomExtWhitelistCsv;
+        f.hoppingEnabled = (hoppingOverride != null) ? hoppingOverride : hoppingEnabled;
+        f.hopMs = hopMs;
+        f.adaptiveEnabled = (adaptiveOverride != null) ? adaptiveOverride : adaptiveEnabled;
+        f.adaptiveTargetEvents = adaptiveTargetEvents;
+        f.adaptiveMinWindowMs = adaptiveMinWindowMs;
+        f.adaptiveMaxWindowMs = adaptiveMaxWindowMs;
+        f.adaptiveRateHalfLifeMs = adaptiveRateHalfLifeMs;
+        f.extraWindowMsCsv = extraWindowMsCsv;
+        f.scaleMinCountDelta = scaleMinCountDelta;
+        f.scaleMinChangeRatio = scaleMinChangeRatio;
+        f.scaleMinEntropyDelta = scaleMinEntropyDelta;
+        f.scaleMinSizeDelta = scaleMinSizeDelta;
+        f.sink = sink;
+        f.clock = clock;
+        f.logWindows = false;
+        f.init();
+        return f;
+    }
 
-            // ---------------------------------------
-            // encrypt-like 판정 강화
-            //  - 엔트로피 증가 + (크기변화 or 확장자변화)
-            //  - 최소 크기 조건(작은 파일 엔트로피 튐 방지)
-            // ---------------------------------------
-            boolean extChanged = (r.getExtBefore() != null && r.getExtAfter() != null
-                    && !r.getExtBefore().equalsIgnoreCase(r.getExtAfter()));
+    /** fork된 집계기의 핫 디렉터리 추적기 (재생 결과 조회용) */
+    HotDirectoryTracker getHotDirectories() {
+        return hotDirectories;
+    }
 
-            boolean sizeChanged = (hasSizePair && sizeDiff != 0L);
+    /**
+     * 함수 이름 : writeCheckpoint
+     * 기능 : 집계 상태(touch 세션, 적응형 길이, hopping pane, 스케일별 열린 윈도우, 핫 디렉터리 sketch)를 체크포인트 스트림에 기록한다.
+     *        이벤트 처리와 같은 락 안에서 메모리 버퍼에만 쓰고, 디스크 쓰기는 호출자가 락 밖에서 한다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized void writeCheckpoint(CheckpointOutput out) throws IOException {
+        touchSessions.writeTo(out);
 
-            long approxSize = (sizeAfter != null) ? sizeAfter : (sizeBefore != null ? sizeBefore : 0L);
-            boolean bigEnough = approxSize >= encryptMinSizeBytes;
+        out.writeBoolean(adaptiveLength != null);
+        if (adaptiveLength != null) adaptiveLength.writeTo(out);
 
-            boolean entropyUp = (hasEntropyPair && entropyDiff >= encryptEntropyDiffThreshold);
+        out.writeBoolean(hoppingWindow != null);
+        if (hoppingWindow != null) hoppingWindow.writeTo(out);
 
-            if (bigEnough && entropyUp && (sizeChanged || extChanged)) {
-                encryptLikeCount++;
-            }
+        out.writeInt(scales.size());
+        for (WindowScale scale : scales) {
+            out.writeBoolean(scale.isPrimary());
+            out.writeLong(scale.getWindowMs());
+            scale.writeTo(out);
         }
 
-        // rename-like는 DELETE+CREATE를 점수 매칭으로 잡음 (미탐 줄이기)
-        int renameCount = detectRenameLikeCountByScore(events);
-
-        // rename은 DELETE로도 잡히고 CREATE로도 잡히는 경우가 많아서
-        // delete에서 빼고, write로 포함(변경 이벤트로 취급)
-        deleteCount = Math.max(0, deleteCount - renameCount);
-        writeCount += renameCount;
-
-        int changedFilesCount = changedFileSet.size() - renameCount;
-        if (changedFilesCount < 0) changedFilesCount = 0;
-
-        int suspiciousExtCount = suspiciousExtFileSet.size();
-        int randomExtFlag = (suspiciousExtCount >= Math.max(1, randomExtMinCount)) ? 1 : 0;
-
-        stats.fileTouchCount = touchCount;
-        stats.fileWriteCount = writeCount;
-        stats.fileDeleteCount = deleteCount;
-        stats.fileRenameCount = renameCount;
-        stats.fileEncryptLikeCount = encryptLikeCount;
-        stats.changedFilesCount = changedFilesCount;
-        stats.entropyDiffMean = (entropyDiffCount > 0) ? (entropyDiffSum / entropyDiffCount) : 0.0;
-        stats.sizeDiffMean = (sizeDiffCount > 0) ? (sizeDiffSum / sizeDiffCount) : 0.0;
-
-        stats.randomExtensionCount = suspiciousExtCount;
-        stats.randomExtensionFlag = randomExtFlag;
-
-        return stats;
+        hotDirectories.writeTo(out);
     }
 
     /**
-     * rename-like: DELETE와 CREATE를 "점수"로 매칭해서 미탐을 줄인다.
-     *
-     * 필수:
-     * - ownerKey 동일
-     * - parent dir 동일
-     * - 시간 gap <= renameMaxGapMs
-     *
-     * 점수:
-     * - size 동일이면 +2
-     * - ext 동일이면 +1
-     * - size가 둘 다 있고 "근사 동일(±1%)"이면 +1
-     * => score >= 3 이면 rename으로 간주
+     * 함수 이름 : restoreCheckpoint
+     * 기능 : writeCheckpoint로 기록한 상태를 복원한다. 기본 윈도우는 primary 표시로, 보조 스케일은 길이로 현재 설정과 맞추고
+     *        설정에 없는 스케일/모드의 상태는 버린다. 중간에 읽기가 실패하면 빈 상태로 되돌린 뒤 예외를 던진다.
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
      */
-    private int detectRenameLikeCountByScore(List<FileAnalysisResult> events) {
-        List<FileAnalysisResult> deletes = new ArrayList<>();
-        List<FileAnalysisResult> creates = new ArrayList<>();
-
-        for (FileAnalysisResult r : events) {
-            String t = normalizeType(r.getEventType());
-            if ("DELETE".equals(t)) deletes.add(r);
-            else if ("CREATE".equals(t)) creates.add(r);
-        }
-
-        if (deletes.isEmpty() || creates.isEmpty()) return 0;
-
-        int renameCount = 0;
-        boolean[] usedCreate = new boolean[creates.size()];
-
-        for (FileAnalysisResult del : deletes) {
-            String ownerKey = del.getOwnerKey();
-            String delPath = del.getPath();
-            if (delPath == null) continue;
-
-            Long delSize = del.getSizeBefore();
-            String delExt = del.getExtBefore();
-            String delParent = getParentDir(delPath);
-            long delMs = (del.getEventTime() != null) ? del.getEventTime().toEpochMilli() : 0L;
-
-            int bestIdx = -1;
-            int bestScore = -1;
-
-            for (int i = 0; i < creates.size(); i++) {
-                if (usedCreate[i]) continue;
-
-                FileAnalysisResult crt = creates.get(i);
-                if (!Objects.equals(ownerKey, crt.getOwnerKey())) continue;
-
-                String crtPath = crt.getPath();
-                if (crtPath == null) continue;
-
-                if (!Objects.equals(delParent, getParentDir(crtPath))) continue;
+    synchronized void restoreCheckpoint(CheckpointInput in) throws IOException {
+        try {
+            touchSessions.readFrom(in);
 
-                long crtMs = (crt.getEventTime() != null) ? crt.getEventTime().toEpochMilli() : 0L;
-                long gap = Math.abs(crtMs - delMs);
-                if (gap > renameMaxGapMs) continue;
+            if (in.readBoolean()) {
+                AdaptiveWindowLength saved = new AdaptiveWindowLength(adaptiveTargetEvents,
+                        adaptiveMinWindowMs, adaptiveMaxWindowMs, adaptiveRateHalfLifeMs);
+                saved.readFrom(in);
+                if (adaptiveLength != null) adaptiveLength = saved;
+            }
 
-                int score = 0;
+            if (in.readBoolean()) {
+                HoppingWindow saved = new HoppingWindow(windowMs, hopMs);
+                boolean compatible = saved.readFrom(in);
+                if (hoppingWindow != null && compatible) hoppingWindow = saved;
+            }
 
-                Long crtSize = crt.getSizeAfter();
-                if (delSize != null && crtSize != null) {
-                    if (delSize.equals(crtSize)) score += 2;
-                    else {
-                        // 근사 동일(±1%)
-                        long denom = Math.max(1L, delSize);
-                        double ratio = Math.abs(crtSize - delSize) / (double) denom;
-                        if (ratio <= 0.01) score += 1;
+            int scaleCount = in.readInt();
+            for (int i = 0; i < scaleCount; i++) {
+                boolean primary = in.readBoolean();
+                long savedMs = in.readLong();
+                WindowScale target = null;
+                for (WindowScale scale : scales) {
+                    if (primary ? scale.isPrimary() : (!scale.isPrimary() && scale.getWindowMs() == savedMs)) {
+                        target = scale;
+                        break;
                     }
                 }
-
-                String crtExt = crt.getExtAfter();
-                if (delExt != null && crtExt != null && delExt.equalsIgnoreCase(crtExt)) score += 1;
-
-                // score 3 이상이면 rename 후보
-                if (score >= 3 && score > bestScore) {
-                    bestScore = score;
-                    bestIdx = i;
-                }
+                WindowScale sink = (target != null) ? target : new WindowScale(savedMs, primary);
+                sink.readFrom(in);
             }
+            // 고정 길이 기본 윈도우는 저장 당시 길이가 아니라 현재 설정을 따른다
+            if (primaryScale != null && adaptiveLength == null) primaryScale.resize(windowMs);
 
-            if (bestIdx >= 0) {
-                usedCreate[bestIdx] = true;
-                renameCount++;
-            }
+            hotDirectories.readFrom(in);
+        } catch (IOException | RuntimeException e) {
+            init();
+            throw e;
         }
+    }
+
+    private long issueWindowId() {
+        return ++nextWindowId;
+    }
 
-        return renameCount;
+    private Consumer<String> renameSink(long timeMs) {
+        return dir -> hotDirectories.record(dir, HotDirectoryTracker.Kind.RENAME, timeMs);
     }
 
     private boolean isSuspiciousExt(String ext) {
@@ -498,21 +639,21 @@ public class EventWindowAggregator {
         return true;
     }
 
-    private String getParentDir(String path) {
-        if (path == null) return null;
-        int slash = path.lastIndexOf('/');
-        int backslash = path.lastIndexOf('\\');
-        int idx = Math.max(slash, backslash);
-        if (idx < 0) return "";
-        return path.substring(0, idx);
-    }
-
     private String normalizeType(String eventType) {
         if (eventType == null) return "UNKNOWN";
         return eventType.trim().toUpperCase(Locale.ROOT);
     }
 
-    private String safe(String s) {
-        return (s == null) ? "" : s;
+    /** 실시간 감시 출력: 이벤트는 로그 저장 큐로, 닫힌 윈도우는 flush 파이프라인으로 */
+    private record LiveSink(LogService logService, WindowFlushPipeline flushPipeline) implements AggregatorSink {
+        @Override
+        public void onEvent(FileAnalysisResult result, long eventTimeMs, Long windowId) {
+            logService.saveAsync(result, eventTimeMs, windowId);
+        }
+
+        @Override
+        public void onWindow(ClosedWindow window) {
+            flushPipeline.submit(window);
+        }
     }
 }
@@ -0,0 +1,552 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 클래스 이름 : HoppingWindow
+ * 기능 : 길이 W, 간격 H의 hopping 윈도우를 pane(길이 H) 링 버퍼로 유지한다.
+ *        pane마다 가산 가능한 카운터/합계만 두고, 윈도우 전체 값은 running total로 관리한다.
+ *        새 pane이 열리면 링에서 밀려나는 가장 오래된 pane의 값을 빼기만 하므로(subtract-on-expire)
+ *        hop마다 피처 계산은 윈도우 안 이벤트 수와 무관하게 O(1)이다.
+ *
+ * - entropy/size 변화량 분위수 스케치도 버킷 카운트를 pane별로 두고 같은 방식으로 더하고 뺀다.
+ * - 고유 경로 수(changedFilesCount)와 의심 확장자 파일 수는 경로별 "포함된 pane 수" 참조 카운트로 유지한다.
+ *   pane이 만료될 때 그 pane의 고유 경로만 감소시키므로 이벤트당 상수 비용이다.
+ * - 영향 경로 목록은 hop마다 만들지 않는다. 스냅샷은 닫힌 pane들의 경로 집합 참조만 들고 있고(만료된 pane은 집합을 새로 받으므로
+ *   스냅샷이 가진 집합은 다시 바뀌지 않는다), 알림을 실제로 저장할 때 한 번 합친다.
+ * - rename-like 매칭은 pane이 닫힐 때 pane 안에서만 수행한다. DELETE/CREATE가 pane 경계를 사이에 두고
+ *   갈라지면 rename으로 잡히지 않는다. (rename은 보통 수 ms 안에 이어지므로 hop 길이 대비 드물다)
+ * - 겹치는 윈도우는 대부분 같은 이벤트를 다시 보므로, 마지막으로 AI에 보낸 피처와 의미 있게 다를 때만 제출 대상으로 본다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class HoppingWindow {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long hopMs;
+    private final Pane[] ring;
+
+    private long newestPaneId = NONE;
+
+    // ===== running totals (살아있는 pane 합계) =====
+    private int eventCount;
+    private int touchCount;
+    private int writeCount;
+    private int deleteCount;
+    private int encryptLikeCount;
+    private int renameCount;         // 닫힌 pane의 rename 합계
+    private double entropyDiffSum;
+    private int entropyDiffCount;
+    private double sizeDiffSum;
+    private int sizeDiffCount;
+    private final DeltaSketch entropyDiffSketch = new DeltaSketch(DeltaSketch.ENTROPY);
+    private final DeltaSketch sizeDiffSketch = new DeltaSketch(DeltaSketch.SIZE);
+
+    // path -> 이 경로가 등장한 살아있는 pane 수
+    private final Map<String, int[]> pathRefs = new HashMap<>();
+    private final Map<String, int[]> suspiciousRefs = new HashMap<>();
+
+    // 마지막으로 AI에 보낸 hop 윈도우 피처 (비슷한 hop은 직전 판정을 다시 쓴다)
+    private AiPayload lastSubmitted;
+    private long submittedCount;
+    private long suppressedCount;
+
+    HoppingWindow(long windowMs, long hopMs) {
+        this.hopMs = Math.max(1L, hopMs);
+        int panes = (int) Math.max(1L, windowMs / this.hopMs);
+        this.ring = new Pane[panes];
+        for (int i = 0; i < panes; i++) ring[i] = new Pane();
+    }
+
+    /** 실제 윈도우 길이 (pane 수 × hop) */
+    long getWindowMs() {
+        return ring.length * hopMs;
+    }
+
+    long getHopMs() {
+        return hopMs;
+    }
+
+    /**
+     * 함수 이름 : advance
+     * 기능 : 이벤트 시각까지 hop 경계를 진행한다. 경계를 지날 때마다 가장 최근 pane을 닫고(rename 계산),
+     *        그 pane에 이벤트가 있었으면 그 시점의 윈도우 스냅샷을 만든 뒤 가장 오래된 pane을 만료시킨다.
+     *        윈도우가 완전히 비면 남은 빈 hop은 건너뛴다.
+     * 매개변수 : eventTimeMs - 이벤트 시각(ms), renameMaxGapMs - rename 매칭 허용 시간 차, randomExtMinCount - 랜덤 확장자 플래그 기준,
+     *           onRenameDir - 닫힌 pane에서 매칭된 rename의 상위 디렉터리를 받을 콜백 (없으면 null)
+     * 반환값 : List<Snapshot> - 이번 진행으로 평가할 윈도우 목록 (대부분 0~1개)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    List<Snapshot> advance(long eventTimeMs, long renameMaxGapMs, int randomExtMinCount, Consumer<String> onRenameDir) {
+        long paneId = Math.floorDiv(eventTimeMs, hopMs);
+        if (newestPaneId == NONE) {
+            newestPaneId = paneId;
+            return Collections.emptyList();
+        }
+
+        List<Snapshot> out = null;
+        while (paneId > newestPaneId) {
+            Pane newest = paneOf(newestPaneId);
+            seal(newest, renameMaxGapMs, onRenameDir);
+            if (newest.eventCount > 0) {
+                if (out == null) out = new ArrayList<>(1);
+                out.add(snapshot((newestPaneId + 1) * hopMs, randomExtMinCount));
+            }
+
+            newestPaneId++;
+            expire(paneOf(newestPaneId));   // 링에서 밀려나는 pane(newestPaneId - panes) 자리 재사용
+
+            if (eventCount == 0) {          // 남은 pane이 모두 비었으면 빈 hop은 한 번에 건너뛴다
+                newestPaneId = paneId;
+                break;
+            }
+        }
+        return (out == null) ? Collections.emptyList() : out;
+    }
+
+    /**
+     * 함수 이름 : add
+     * 기능 : 이벤트 1건을 가장 최근 pane과 running total에 반영한다. (advance 이후 호출)
+     *        시각이 역행한 이벤트도 가장 최근 pane에 넣는다.
+     * 매개변수 : r - 파일 분석 결과, eventType - 정규화된 이벤트 타입, eventTimeMs - 이벤트 시각(ms),
+     *           newTouch / contentChanged / encryptLike / suspiciousExt - 호출자가 판정한 값
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void add(FileAnalysisResult r, String eventType, long eventTimeMs,
+             boolean newTouch, boolean contentChanged, boolean encryptLike, boolean suspiciousExt) {
+        if (newestPaneId == NONE) newestPaneId = Math.floorDiv(eventTimeMs, hopMs);
+        Pane pane = paneOf(newestPaneId);
+
+        pane.eventCount++;
+        eventCount++;
+
+        String path = r.getPath();
+        if (path != null) {
+            if (pane.paths.add(path)) pathRefs.computeIfAbsent(path, k -> new int[1])[0]++;
+            if (suspiciousExt && pane.suspiciousPaths.add(path)) {
+                suspiciousRefs.computeIfAbsent(path, k -> new int[1])[0]++;
+            }
+        }
+
+        String owner = r.getOwnerKey();
+        if (pane.firstOwnerKey == null && pane.eventCount == 1) pane.firstOwnerKey = owner;
+
+        if (eventTimeMs < pane.minEventMs) pane.minEventMs = eventTimeMs;
+        if (eventTimeMs > pane.maxEventMs) pane.maxEventMs = eventTimeMs;
+        pane.lastEventTime = r.getEventTime();
+
+        Long sizeDiff = r.getSizeDiff();
+        if (sizeDiff != null) {
+            pane.sizeDiffSum += sizeDiff;
+            pane.sizeDiffCount++;
+            sizeDiffSum += sizeDiff;
+            sizeDiffCount++;
+            pane.sizeDiffSketch.add(sizeDiff);
+            sizeDiffSketch.add(sizeDiff);
+        }
+        Double entropyDiff = r.getEntropyDiff();
+        if (entropyDiff != null) {
+            pane.entropyDiffSum += entropyDiff;
+            pane.entropyDiffCount++;
+            entropyDiffSum += entropyDiff;
+            entropyDiffCount++;
+            pane.entropyDiffSketch.add(entropyDiff);
+            entropyDiffSketch.add(entropyDiff);
+        }
+
+        if ("MODIFY".equals(eventType)) {
+            if (newTouch) {
+                pane.touchCount++;
+                touchCount++;
+            }
+            if (contentChanged) {
+                pane.writeCount++;
+                writeCount++;
+            }
+        } else if ("DELETE".equals(eventType)) {
+            pane.deleteCount++;
+            deleteCount++;
+            pane.renameIndex.addDelete(owner, path, r.getSizeBefore(), r.getExtBefore(), timeOrZero(r));
+        } else if ("CREATE".equals(eventType)) {
+            pane.renameIndex.addCreate(owner, path, r.getSizeAfter(), r.getExtAfter(), timeOrZero(r));
+        }
+
+        if (encryptLike) {
+            pane.encryptLikeCount++;
+            encryptLikeCount++;
+        }
+    }
+
+    /**
+     * 함수 이름 : windowId
+     * 기능 : 이벤트가 들어갈 가장 최근 pane의 로그 라벨 키를 반환한다. 아직 없으면 ids에서 새로 받아 배정한다. (advance 이후 호출)
+     *        각 이벤트는 처음 평가되는 윈도우(자기 pane이 가장 최근 pane일 때)의 라벨을 받으므로 키는 pane 단위다.
+     * 매개변수 : eventTimeMs - 이벤트 시각(ms), ids - 윈도우 ID 발급기
+     * 반환값 : long - pane의 윈도우 ID
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    long windowId(long eventTimeMs, LongSupplier ids) {
+        if (newestPaneId == NONE) newestPaneId = Math.floorDiv(eventTimeMs, hopMs);
+        Pane pane = paneOf(newestPaneId);
+        if (pane.windowId == 0L) pane.windowId = ids.getAsLong();
+        return pane.windowId;
+    }
+
+    /**
+     * 함수 이름 : drain
+     * 기능 : 진행 중인 pane을 닫고(이벤트가 있으면 스냅샷 생성) 윈도우 전체를 비운다. 감시 종료 시 사용한다.
+     * 매개변수 : renameMaxGapMs - rename 매칭 허용 시간 차, randomExtMinCount - 랜덤 확장자 플래그 기준, onRenameDir - rename 디렉터리 콜백 (없으면 null)
+     * 반환값 : Snapshot - 마지막 윈도우 (최근 pane이 비어 있으면 null)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    Snapshot drain(long renameMaxGapMs, int randomExtMinCount, Consumer<String> onRenameDir) {
+        if (newestPaneId == NONE) return null;
+        Pane newest = paneOf(newestPaneId);
+        Snapshot last = null;
+        if (newest.eventCount > 0) {
+            seal(newest, renameMaxGapMs, onRenameDir);
+            last = snapshot((newestPaneId + 1) * hopMs, randomExtMinCount);
+        }
+        for (Pane p : ring) expire(p);
+        newestPaneId = NONE;
+        return last;
+    }
+
+    /**
+     * 함수 이름 : shouldSubmit
+     * 기능 : hop 스냅샷을 AI에 보낼지 결정한다. 마지막으로 보낸 피처와 비교해 의미 있게 달라졌을 때만 보낸다.
+     *        (변화 기준은 보조 스케일과 같음 - WindowScale.changedMaterially)
+     * 매개변수 : payload - 이번 hop 윈도우 피처, minCountDelta / minChangeRatio / minEntropyDelta / minSizeDelta - 변화 기준
+     * 반환값 : boolean - 보내야 하면 true (이 경우 비교 기준 피처를 갱신한다), false면 직전 hop의 판정을 다시 쓴다
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    boolean shouldSubmit(AiPayload payload, int minCountDelta, double minChangeRatio,
+                         double minEntropyDelta, double minSizeDelta) {
+        boolean submit = lastSubmitted == null
+                || WindowScale.changedMaterially(lastSubmitted, payload, minCountDelta, minChangeRatio, minEntropyDelta, minSizeDelta);
+        if (submit) {
+            lastSubmitted = payload;
+            submittedCount++;
+        } else {
+            suppressedCount++;
+        }
+        return submit;
+    }
+
+    long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /** 현재 윈도우(살아있는 pane 전체)에 포함된 이벤트 수 */
+    int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * 함수 이름 : writeTo
+     * 기능 : pane 구성(hop, pane 수), 제출 기준 피처와 살아있는 pane들을 오래된 순서로, 이어서 영향 경로 순서를 체크포인트에 기록한다.
+     *        참조 카운트는 복원 시 다시 센다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeLong(hopMs);
+        out.writeInt(ring.length);
+        out.writePayload(lastSubmitted);
+        out.writeLong(submittedCount);
+        out.writeLong(suppressedCount);
+        out.writeLong(newestPaneId);
+        if (newestPaneId == NONE) return;
+        // 부동소수 합계는 pane 합을 다시 더하면 끝자리가 달라지므로 running total을 그대로 저장한다
+        out.writeDouble(entropyDiffSum);
+        out.writeDouble(sizeDiffSum);
+        for (long id = newestPaneId - ring.length + 1; id <= newestPaneId; id++) {
+            paneOf(id).writeTo(out);
+        }
+    }
+
+    /**
+     * 함수 이름 : readFrom
+     * 기능 : writeTo로 기록한 pane들을 복원하고 경로 참조 카운트를 다시 계산한다.
+     *        hop 또는 pane 수가 현재 설정과 다르면 상태를 버리고 false를 반환한다. (입력은 끝까지 읽는다)
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : boolean - 복원했으면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    boolean readFrom(CheckpointInput in) throws IOException {
+        long savedHopMs = in.readLong();
+        int savedPanes = in.readInt();
+        AiPayload savedLastSubmitted = in.readPayload();
+        long savedSubmitted = in.readLong();
+        long savedSuppressed = in.readLong();
+        long savedNewest = in.readLong();
+        boolean compatible = savedHopMs == hopMs && savedPanes == ring.length;
+        if (compatible) {
+            lastSubmitted = savedLastSubmitted;
+            submittedCount = savedSubmitted;
+            suppressedCount = savedSuppressed;
+        }
+        if (savedNewest == NONE) return compatible;
+        double savedEntropyDiffSum = in.readDouble();
+        double savedSizeDiffSum = in.readDouble();
+
+        Pane[] saved = new Pane[savedPanes];
+        for (int i = 0; i < savedPanes; i++) saved[i] = Pane.readFrom(in);
+        if (!compatible) return false;
+
+        newestPaneId = savedNewest;
+        for (int i = 0; i < savedPanes; i++) {
+            long id = savedNewest - savedPanes + 1 + i;
+            Pane p = saved[i];
+            ring[(int) Math.floorMod(id, (long) ring.length)] = p;
+            eventCount += p.eventCount;
+            touchCount += p.touchCount;
+            writeCount += p.writeCount;
+            deleteCount += p.deleteCount;
+            encryptLikeCount += p.encryptLikeCount;
+            renameCount += p.renameCount;
+            entropyDiffCount += p.entropyDiffCount;
+            sizeDiffCount += p.sizeDiffCount;
+            entropyDiffSketch.addAll(p.entropyDiffSketch);
+            sizeDiffSketch.addAll(p.sizeDiffSketch);
+            for (String path : p.paths) pathRefs.computeIfAbsent(path, k -> new int[1])[0]++;
+            for (String path : p.suspiciousPaths) suspiciousRefs.computeIfAbsent(path, k -> new int[1])[0]++;
+        }
+        entropyDiffSum = savedEntropyDiffSum;
+        sizeDiffSum = savedSizeDiffSum;
+        return true;
+    }
+
+    private Pane paneOf(long paneId) {
+        return ring[(int) Math.floorMod(paneId, (long) ring.length)];
+    }
+
+    private void seal(Pane pane, long renameMaxGapMs, Consumer<String> onRenameDir) {
+        if (pane.sealed || pane.eventCount == 0) return;
+        pane.sealed = true;
+        if (pane.renameIndex != null && !pane.renameIndex.isEmpty()) {
+            pane.renameCount = pane.renameIndex.countRenames(renameMaxGapMs, onRenameDir);
+            renameCount += pane.renameCount;
+        }
+        pane.renameIndex = null;           // 닫힌 pane의 rename 후보는 더 필요 없다
+    }
+
+    private void expire(Pane pane) {
+        if (pane.eventCount == 0) {
+            pane.reset();
+            return;
+        }
+        eventCount -= pane.eventCount;
+        touchCount -= pane.touchCount;
+        writeCount -= pane.writeCount;
+        deleteCount -= pane.deleteCount;
+        encryptLikeCount -= pane.encryptLikeCount;
+        renameCount -= pane.renameCount;
+        entropyDiffSum -= pane.entropyDiffSum;
+        entropyDiffCount -= pane.entropyDiffCount;
+        sizeDiffSum -= pane.sizeDiffSum;
+        sizeDiffCount -= pane.sizeDiffCount;
+        entropyDiffSketch.subtract(pane.entropyDiffSketch);
+        sizeDiffSketch.subtract(pane.sizeDiffSketch);
+        for (String p : pane.paths) release(pathRefs, p);
+        for (String p : pane.suspiciousPaths) release(suspiciousRefs, p);
+
+        // 빼기를 반복한 부동소수 합계의 잔차 제거
+        if (entropyDiffCount == 0) entropyDiffSum = 0.0;
+        if (sizeDiffCount == 0) sizeDiffSum = 0.0;
+        pane.reset();
+    }
+
+    private static void release(Map<String, int[]> refs, String path) {
+        int[] c = refs.get(path);
+        if (c != null && --c[0] <= 0) refs.remove(path);
+    }
+
+    private Snapshot snapshot(long endBoundaryMs, int randomExtMinCount) {
+        WindowStats stats = new WindowStats();
+        stats.fileTouchCount = touchCount;
+        stats.fileWriteCount = writeCount + renameCount;
+        stats.fileDeleteCount = Math.max(0, deleteCount - renameCount);
+        stats.fileRenameCount = renameCount;
+        stats.fileEncryptLikeCount = encryptLikeCount;
+        stats.changedFilesCount = Math.max(0, pathRefs.size() - renameCount);
+        stats.entropyDiffMean = (entropyDiffCount > 0) ? (entropyDiffSum / entropyDiffCount) : 0.0;
+        stats.sizeDiffMean = (sizeDiffCount > 0) ? (sizeDiffSum / sizeDiffCount) : 0.0;
+        stats.entropyDiffQuantiles = entropyDiffSketch.summarize();
+        stats.sizeDiffQuantiles = sizeDiffSketch.summarize();
+        stats.randomExtensionCount = suspiciousRefs.size();
+        stats.randomExtensionFlag = (stats.randomExtensionCount >= Math.max(1, randomExtMinCount)) ? 1 : 0;
+
+        // pane 단위 메타데이터 (pane 수만큼만 순회)
+        Pane newest = paneOf(newestPaneId);
+        long minMs = Long.MAX_VALUE;
+        long maxMs = Long.MIN_VALUE;
+        String firstOwner = null;
+        List<Set<String>> panePaths = new ArrayList<>(ring.length);
+        for (long id = newestPaneId - ring.length + 1; id <= newestPaneId; id++) {
+            Pane p = paneOf(id);
+            if (p.eventCount == 0) continue;
+            if (firstOwner == null) firstOwner = p.firstOwnerKey;
+            if (!p.paths.isEmpty()) panePaths.add(p.paths);
+            minMs = Math.min(minMs, p.minEventMs);
+            maxMs = Math.max(maxMs, p.maxEventMs);
+        }
+
+        Snapshot s = new Snapshot();
+        s.stats = stats;
+        s.endBoundaryMs = endBoundaryMs;
+        s.eventCount = eventCount;
+        s.minEventMs = minMs;
+        s.maxEventMs = maxMs;
+        s.newestPaneWindowId = newest.windowId;
+        s.lastEventTime = newest.lastEventTime;
+        s.firstOwnerKey = firstOwner;
+        s.panePaths = panePaths;
+        return s;
+    }
+
+    private static long timeOrZero(FileAnalysisResult r) {
+        return (r.getEventTime() != null) ? r.getEventTime().toEpochMilli() : 0L;
+    }
+
+    /** hop 경계 1개 시점의 윈도우 평가 결과 */
+    static final class Snapshot {
+        WindowStats stats;
+        long endBoundaryMs;
+        int eventCount;
+        long minEventMs;
+        long maxEventMs;
+        long newestPaneWindowId;    // 로그 라벨 키: 최근 pane만 (각 이벤트는 처음 평가된 윈도우의 라벨을 받는다)
+        Instant lastEventTime;
+        String firstOwnerKey;
+        List<Set<String>> panePaths;   // 오래된 pane부터, 닫힌 pane의 경로 집합 (만료 후에도 바뀌지 않음)
+
+        /** 윈도우 안 고유 경로 (오래된 pane부터 처음 등장한 순서). 알림을 저장할 때만 부른다. */
+        List<String> affectedPaths() {
+            if (panePaths.size() == 1) return new ArrayList<>(panePaths.get(0));
+            Set<String> merged = new LinkedHashSet<>();
+            for (Set<String> paths : panePaths) merged.addAll(paths);
+            return new ArrayList<>(merged);
+        }
+    }
+
+    /** 길이 hop의 구간 1개 */
+    private static final class Pane {
+        long windowId;              // 로그 라벨 키 (0이면 미배정)
+        int eventCount;
+        int touchCount;
+        int writeCount;
+        int deleteCount;
+        int encryptLikeCount;
+        int renameCount;
+        double entropyDiffSum;
+        int entropyDiffCount;
+        double sizeDiffSum;
+        int sizeDiffCount;
+        final DeltaSketch entropyDiffSketch = new DeltaSketch(DeltaSketch.ENTROPY);
+        final DeltaSketch sizeDiffSketch = new DeltaSketch(DeltaSketch.SIZE);
+
+        long minEventMs = Long.MAX_VALUE;
+        long maxEventMs = Long.MIN_VALUE;
+        Instant lastEventTime;
+        String firstOwnerKey;
+        Set<String> paths = new LinkedHashSet<>();    // 도착 순서 유지 (스냅샷이 참조하므로 만료 시 새로 만든다)
+        Set<String> suspiciousPaths = new HashSet<>();
+        RenameIndex renameIndex = new RenameIndex();
+        boolean sealed;
+
+        void writeTo(CheckpointOutput out) throws IOException {
+            out.writeInt(eventCount);
+            if (eventCount == 0) return;
+            out.writeLong(windowId);
+            out.writeInt(touchCount);
+            out.writeInt(writeCount);
+            out.writeInt(deleteCount);
+            out.writeInt(encryptLikeCount);
+            out.writeInt(renameCount);
+            out.writeDouble(entropyDiffSum);
+            out.writeInt(entropyDiffCount);
+            out.writeDouble(sizeDiffSum);
+            out.writeInt(sizeDiffCount);
+            entropyDiffSketch.writeTo(out);
+            sizeDiffSketch.writeTo(out);
+            out.writeLong(minEventMs);
+            out.writeLong(maxEventMs);
+            out.writeInstant(lastEventTime);
+            out.writeString(firstOwnerKey);
+            out.writeStrings(paths);
+            out.writeStrings(suspiciousPaths);
+            out.writeBoolean(sealed);
+            if (!sealed) renameIndex.writeTo(out);
+        }
+
+        static Pane readFrom(CheckpointInput in) throws IOException {
+            Pane p = new Pane();
+            p.eventCount = in.readInt();
+            if (p.eventCount == 0) return p;
+            p.windowId = in.readLong();
+            p.touchCount = in.readInt();
+            p.writeCount = in.readInt();
+            p.deleteCount = in.readInt();
+            p.encryptLikeCount = in.readInt();
+            p.renameCount = in.readInt();
+            p.entropyDiffSum = in.readDouble();
+            p.entropyDiffCount = in.readInt();
+            p.sizeDiffSum = in.readDouble();
+            p.sizeDiffCount = in.readInt();
+            p.entropyDiffSketch.readFrom(in);
+            p.sizeDiffSketch.readFrom(in);
+            p.minEventMs = in.readLong();
+            p.maxEventMs = in.readLong();
+            p.lastEventTime = in.readInstant();
+            p.firstOwnerKey = in.readString();
+            in.readStringsInto(p.paths);
+            in.readStringsInto(p.suspiciousPaths);
+            p.sealed = in.readBoolean();
+            p.renameIndex = p.sealed ? null : RenameIndex.readFrom(in);
+            return p;
+        }
+
+        void reset() {
+            windowId = 0L;
+            eventCount = touchCount = writeCount = deleteCount = encryptLikeCount = renameCount = 0;
+            entropyDiffSum = sizeDiffSum = 0.0;
+            entropyDiffCount = sizeDiffCount = 0;
+            entropyDiffSketch.clear();
+            sizeDiffSketch.clear();
+            minEventMs = Long.MAX_VALUE;
+            maxEventMs = Long.MIN_VALUE;
+            lastEventTime = null;
+            firstOwnerKey = null;
+            // 닫힌 pane의 경로 집합은 스냅샷이 들고 있을 수 있으므로 비우지 않고 새로 만든다
+            if (!paths.isEmpty()) paths = new LinkedHashSet<>();
+            // 폭주 구간에서 커진 해시 테이블은 재사용하지 않는다
+            if (suspiciousPaths.size() > 256) suspiciousPaths = new HashSet<>();
+            else suspiciousPaths.clear();
+            if (renameIndex == null || !renameIndex.isEmpty()) renameIndex = new RenameIndex();
+            sealed = false;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 클래스 이름 : HotDirectoryTracker
+ * 기능 : 상위 디렉터리별 쓰기/rename/삭제 활동량을 고정 메모리로 추적하는 heavy-hitter 탐지기.
+ *        - 종류별 count-min sketch(depth × width)로 디렉터리 활동량을 추정한다.
+ *        - 추정 합계 기준 상위 K개 디렉터리는 인덱스 min-heap으로 유지한다.
+ *        - 오래된 활동은 반감기(half-life)로 감쇠한다. forward decay 방식이라 이벤트마다 전체를 줄이지 않고
+ *          새 이벤트의 가중치를 2^((t - landmark) / halfLife)로 키우며, 가중치가 너무 커지면 한 번에 재정규화한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@Slf4j
+public class HotDirectoryTracker {
+
+    enum Kind { WRITE, RENAME, DELETE }
+
+    private static final double LN2 = Math.log(2.0);
+    private static final double RENORMALIZE_EXPONENT = 40.0;  // 가중치 2^40 이상이면 재정규화
+
+    @Value("${watchservice.analytics.hot-dirs.top-k:20}")
+    private int topK;
+
+    @Value("${watchservice.analytics.hot-dirs.sketch-width:1024}")
+    private int width;
+
+    @Value("${watchservice.analytics.hot-dirs.sketch-depth:4}")
+    private int depth;
+
+    @Value("${watchservice.analytics.hot-dirs.half-life-ms:60000}")
+    private long halfLifeMs;
+
+    // 알림에 붙일 상위 디렉터리 수
+    @Value("${watchservice.analytics.hot-dirs.notification-limit:5}")
+    private int notificationLimit;
+
+    private double[][] sketch;       // [kind * depth + row][col]
+    private int mask;
+    private long landmarkMs = Long.MIN_VALUE;
+    private long lastEventMs = Long.MIN_VALUE;
+
+    // top-K min-heap (추정 합계 기준, landmark 단위)
+    private String[] heapDirs;
+    private double[] heapScores;
+    private int heapSize;
+    private final Map<String, Integer> heapIndex = new HashMap<>();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : sketch와 top-K heap을 할당한다. width는 2의 거듭제곱으로 올린다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        int w = 16;
+        while (w < width) w <<= 1;
+        depth = Math.max(1, depth);
+        topK = Math.max(1, topK);
+        halfLifeMs = Math.max(1L, halfLifeMs);
+        mask = w - 1;
+        sketch = new double[Kind.values().length * depth][w];
+        heapDirs = new String[topK];
+        heapScores = new double[topK];
+        log.info("[HotDirectoryTracker] init: topK={} sketch={}x{} halfLifeMs={} (~{} KB)",
+                topK, depth, w, halfLifeMs, (long) Kind.values().length * depth * w * 8 / 1024);
+    }
+
+    /**
+     * 함수 이름 : fork
+     * 기능 : 같은 설정의 빈 추적기를 만든다. (이벤트 재생용, 실시간 추정치에 영향 없음)
+     * 매개변수 : 없음
+     * 반환값 : HotDirectoryTracker - 초기화된 새 추적기
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    HotDirectoryTracker fork() {
+        HotDirectoryTracker f = new HotDirectoryTracker();
+        f.topK = topK;
+        f.width = width;
+        f.depth = depth;
+        f.halfLifeMs = halfLifeMs;
+        f.notificationLimit = notificationLimit;
+        f.init();
+        return f;
+    }
+
+    /**
+     * 함수 이름 : record
+     * 기능 : 디렉터리 활동 1건을 기록하고 top-K를 갱신한다.
+     * 매개변수 : directory - 상위 디렉터리 경로, kind - 활동 종류, eventTimeMs - 이벤트 시각(ms)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized void record(String directory, Kind kind, long eventTimeMs) {
+        if (directory == null) return;
+        if (landmarkMs == Long.MIN_VALUE) landmarkMs = eventTimeMs;
+        if (eventTimeMs > lastEventMs) lastEventMs = eventTimeMs;
+
+        double exponent = (Math.max(eventTimeMs, landmarkMs) - landmarkMs) / (double) halfLifeMs;
+        if (exponent > RENORMALIZE_EXPONENT) {
+            renormalize(eventTimeMs);
+            exponent = 0.0;
+        }
+        double weight = Math.pow(2.0, exponent);
+
+        int h1 = mix(directory.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        int base = kind.ordinal() * depth;
+        for (int row = 0; row < depth; row++) {
+            sketch[base + row][(h1 + row * h2) & mask] += weight;
+        }
+        offer(directory, estimateTotal(h1, h2));
+    }
+
+    /**
+     * 함수 이름 : top
+     * 기능 : 현재 시각 기준 감쇠된 활동량 상위 디렉터리를 반환한다.
+     * 매개변수 : limit - 최대 개수, nowMs - 기준 시각(ms) (마지막 이벤트보다 이르면 마지막 이벤트 시각 사용)
+     * 반환값 : List<HotDirectoryResponse> - 초당 활동량 내림차순
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized List<HotDirectoryResponse> top(int limit, long nowMs) {
+        if (heapSize == 0 || limit <= 0) return Collections.emptyList();
+        long at = Math.max(nowMs, lastEventMs);
+        // landmark 단위 카운트 → 기준 시각의 감쇠 카운트 → 초당 비율 (정상 상태에서 c ≈ rate × halfLife / ln2)
+        double toRate = Math.pow(2.0, -(at - landmarkMs) / (double) halfLifeMs) * LN2 / halfLifeMs * 1000.0;
+
+        List<HotDirectoryResponse> out = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            String dir = heapDirs[i];
+            int h1 = mix(dir.hashCode());
+            int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+            double w = estimate(Kind.WRITE, h1, h2) * toRate;
+            double r = estimate(Kind.RENAME, h1, h2) * toRate;
+            double d = estimate(Kind.DELETE, h1, h2) * toRate;
+            out.add(HotDirectoryResponse.builder()
+                    .directory(dir)
+                    .writeRate(w)
+                    .renameRate(r)
+                    .deleteRate(d)
+                    .totalRate(w + r + d)
+                    .build());
+        }
+        out.sort(Comparator.comparingDouble(HotDirectoryResponse::getTotalRate).reversed());
+        return (out.size() > limit) ? out.subList(0, limit) : out;
+    }
+
+    /**
+     * 함수 이름 : topForNotification
+     * 기능 : 윈도우 알림에 붙일 상위 디렉터리 목록을 마지막 이벤트 시각 기준으로 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<HotDirectoryResponse> - 최대 notification-limit개
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    List<HotDirectoryResponse> topForNotification() {
+        return top(notificationLimit, Long.MIN_VALUE);
+    }
+
+    /**
+     * 함수 이름 : writeTo
+     * 기능 : sketch 구성, landmark, 0이 아닌 sketch 칸, top-K heap을 체크포인트에 기록한다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized void writeTo(CheckpointOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(mask + 1);
+        out.writeLong(halfLifeMs);
+        out.writeLong(landmarkMs);
+        out.writeLong(lastEventMs);
+        for (double[] row : sketch) {
+            int nonZero = 0;
+            for (double v : row) if (v != 0.0) nonZero++;
+            out.writeInt(nonZero);
+            for (int col = 0; col < row.length; col++) {
+                if (row[col] != 0.0) {
+                    out.writeInt(col);
+                    out.writeDouble(row[col]);
+                }
+            }
+        }
+        out.writeInt(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            out.writeString(heapDirs[i]);
+            out.writeDouble(heapScores[i]);
+        }
+    }
+
+    /**
+     * 함수 이름 : readFrom
+     * 기능 : writeTo로 기록한 상태를 복원한다. sketch 크기나 반감기가 현재 설정과 다르면 입력만 소비하고 버린다.
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : boolean - 복원했으면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    synchronized boolean readFrom(CheckpointInput in) throws IOException {
+        int savedDepth = in.readInt();
+        int savedWidth = in.readInt();
+        long savedHalfLife = in.readLong();
+        boolean compatible = savedDepth == depth && savedWidth == mask + 1 && savedHalfLife == halfLifeMs;
+        long savedLandmark = in.readLong();
+        long savedLast = in.readLong();
+
+        for (int r = 0; r < Kind.values().length * savedDepth; r++) {
+            int nonZero = in.readInt();
+            for (int k = 0; k < nonZero; k++) {
+                int col = in.readInt();
+                double v = in.readDouble();
+                if (compatible) sketch[r][col] = v;
+            }
+        }
+        int savedHeap = in.readInt();
+        for (int i = 0; i < savedHeap; i++) {
+            String dir = in.readString();
+            double score = in.readDouble();
+            if (compatible) offer(dir, score);
+        }
+        if (compatible) {
+            landmarkMs = savedLandmark;
+            lastEventMs = savedLast;
+        }
+        return compatible;
+    }
+
+    private double estimateTotal(int h1, int h2) {
+        return estimate(Kind.WRITE, h1, h2) + estimate(Kind.RENAME, h1, h2) + estimate(Kind.DELETE, h1, h2);
+    }
+
+    private double estimate(Kind kind, int h1, int h2) {
+        int base = kind.ordinal() * depth;
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            double v = sketch[base + row][(h1 + row * h2) & mask];
+            if (v < min) min = v;
+        }
+        return min;
+    }
+
+    private void renormalize(long newLandmarkMs) {
+        double factor = Math.pow(2.0, -(newLandmarkMs - landmarkMs) / (double) halfLifeMs);
+        for (double[] row : sketch) {
+            for (int i = 0; i < row.length; i++) row[i] *= factor;
+        }
+        for (int i = 0; i < heapSize; i++) heapScores[i] *= factor;
+        landmarkMs = newLandmarkMs;
+    }
+
+    // ===== top-K 인덱스 min-heap =====
+
+    private void offer(String dir, double score) {
+        Integer idx = heapIndex.get(dir);
+        if (idx != null) {
+            // forward decay에서는 점수가 증가만 하므로 아래로만 내려간다
+            heapScores[idx] = score;
+            siftDown(idx);
+            return;
+        }
+        if (heapSize < heapDirs.length) {
+            heapDirs[heapSize] = dir;
+            heapScores[heapSize] = score;
+            heapIndex.put(dir, heapSize);
+            siftUp(heapSize++);
+            return;
+        }
+        if (score <= heapScores[0]) return;
+        heapIndex.remove(heapDirs[0]);
+        heapDirs[0] = dir;
+        heapScores[0] = score;
+        heapIndex.put(dir, 0);
+        siftDown(0);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapScores[parent] <= heapScores[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= heapSize) break;
+            int r = l + 1;
+            int smallest = (r < heapSize && heapScores[r] < heapScores[l]) ? r : l;
+            if (heapScores[i] <= heapScores[smallest]) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String d = heapDirs[a];
+        heapDirs[a] = heapDirs[b];
+        heapDirs[b] = d;
+        double s = heapScores[a];
+        heapScores[a] = heapScores[b];
+        heapScores[b] = s;
+        heapIndex.put(heapDirs[a], a);
+        heapIndex.put(heapDirs[b], b);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,189 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.analytics.dto.PreScreenStatsResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클래스 이름 : QuietWindowPreScreen
+ * 기능 : 닫힌 윈도우의 9개 피처가 모두 "조용한" 범위(삭제/rename/encrypt-like/랜덤 확장자 없음, 변경량 작음)이면
+ *        AI 서버를 호출하지 않고 로컬에서 SAFE로 판정한다.
+ *        건너뛴/전달한 윈도우 수를 집계하고, audit 모드에서는 건너뛴 윈도우 일부를 AI에도 보내 판정 일치 여부를 기록한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@Slf4j
+public class QuietWindowPreScreen {
+
+    @Value("${watchservice.analytics.prescreen.enabled:true}")
+    private boolean enabled;
+
+    @Value("${watchservice.analytics.prescreen.max-changed-files:3}")
+    private int maxChangedFiles;
+
+    // touch 세션 수(file_read_count)는 고유 변경 파일 수와 따로 센다 (같은 파일을 세션이 끊긴 뒤 다시 열면 2건)
+    @Value("${watchservice.analytics.prescreen.max-read-count:3}")
+    private int maxReadCount;
+
+    @Value("${watchservice.analytics.prescreen.max-write-count:3}")
+    private int maxWriteCount;
+
+    @Value("${watchservice.analytics.prescreen.max-delete-count:1}")
+    private int maxDeleteCount;
+
+    @Value("${watchservice.analytics.prescreen.max-abs-entropy-diff-mean:0.05}")
+    private double maxAbsEntropyDiffMean;
+
+    @Value("${watchservice.analytics.prescreen.max-abs-size-diff-mean:65536}")
+    private double maxAbsSizeDiffMean;
+
+    // 평균이 작아도 개별 파일 하나라도 크게 바뀌었으면 AI로 넘긴다 (분위수 스케치 최댓값 기준)
+    @Value("${watchservice.analytics.prescreen.max-abs-entropy-diff:0.30}")
+    private double maxAbsEntropyDiff;
+
+    @Value("${watchservice.analytics.prescreen.max-abs-size-diff:1048576}")
+    private double maxAbsSizeDiff;
+
+    // 0.0이면 audit 안 함, 1.0이면 건너뛴 윈도우 전부를 AI에도 보내 비교
+    @Value("${watchservice.analytics.prescreen.audit-sample-rate:0.0}")
+    private double auditSampleRate;
+
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong audited = new AtomicLong();
+    private final AtomicLong auditAgreed = new AtomicLong();
+    private final AtomicLong auditDisagreed = new AtomicLong();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 설정값을 로그로 남긴다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        log.info("[QuietWindowPreScreen] init config: enabled={} maxChangedFiles={} maxReadCount={} maxWriteCount={} maxDeleteCount={} maxAbsEntropyDiffMean={} maxAbsSizeDiffMean={} maxAbsEntropyDiff={} maxAbsSizeDiff={} auditSampleRate={}",
+                enabled, maxChangedFiles, maxReadCount, maxWriteCount, maxDeleteCount,
+                maxAbsEntropyDiffMean, maxAbsSizeDiffMean, maxAbsEntropyDiff, maxAbsSizeDiff, auditSampleRate);
+    }
+
+    /**
+     * 함수 이름 : screen
+     * 기능 : 윈도우 피처가 조용한 범위면 로컬 SAFE 결과를 반환하고, 아니면 null을 반환해 AI 분석으로 넘긴다.
+     *        평균뿐 아니라 변화량 분포의 최댓값도 기준 이내여야 조용한 윈도우로 본다.
+     * 매개변수 : payload - 윈도우 피처 벡터, entropyDiff / sizeDiff - 윈도우 변화량 분포 요약 (없으면 null)
+     * 반환값 : AiResult - 로컬 SAFE 판정 결과, AI 분석이 필요하면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    AiResult screen(AiPayload payload, DeltaQuantiles entropyDiff, DeltaQuantiles sizeDiff) {
+        AiResult local = evaluate(payload, entropyDiff, sizeDiff);
+        if (local == null) forwarded.incrementAndGet();
+        else skipped.incrementAndGet();
+        return local;
+    }
+
+    /**
+     * 함수 이름 : evaluate
+     * 기능 : screen과 같은 판정을 하되 통계는 갱신하지 않는다. (이벤트 재생용)
+     * 매개변수 : payload - 윈도우 피처 벡터, entropyDiff / sizeDiff - 윈도우 변화량 분포 요약 (없으면 null)
+     * 반환값 : AiResult - 로컬 SAFE 판정 결과, AI 분석이 필요하면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    AiResult evaluate(AiPayload payload, DeltaQuantiles entropyDiff, DeltaQuantiles sizeDiff) {
+        if (!enabled || !isQuiet(payload) || !isWithinSpread(entropyDiff, sizeDiff)) return null;
+        return AiResult.builder()
+                .label("SAFE")
+                .score(0.0)
+                .detail("local_prescreen=quiet_window")
+                .topFamily("Benign")
+                .isRansomware(false)
+                .source(AiResult.SOURCE_PRESCREEN)
+                .build();
+    }
+
+    /**
+     * 함수 이름 : shouldAudit
+     * 기능 : 로컬에서 건너뛴 윈도우를 audit 표본으로 AI에도 보낼지 결정한다.
+     * 매개변수 : 없음
+     * 반환값 : boolean - audit 대상이면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public boolean shouldAudit() {
+        return auditSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < auditSampleRate;
+    }
+
+    /**
+     * 함수 이름 : recordAudit
+     * 기능 : audit 표본에 대한 AI 판정과 로컬 판정을 비교해 일치/불일치를 기록한다. AI 호출 실패(UNKNOWN)는 집계하지 않는다.
+     * 매개변수 : payload - 윈도우 피처 벡터, local - 로컬 판정, remote - AI 판정
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void recordAudit(AiPayload payload, AiResult local, AiResult remote) {
+        if (remote == null || "UNKNOWN".equals(remote.getLabel())) return;
+        audited.incrementAndGet();
+        if (Objects.equals(local.getLabel(), remote.getLabel())) {
+            auditAgreed.incrementAndGet();
+        } else {
+            auditDisagreed.incrementAndGet();
+            log.warn("[QuietWindowPreScreen] audit 불일치: local={} remote={} (topFamily={}, score={}) payload={}",
+                    local.getLabel(), remote.getLabel(), remote.getTopFamily(), remote.getScore(), payload);
+        }
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 건너뛴/전달한 윈도우 수와 audit 결과를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : PreScreenStatsResponse - pre-screen 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public PreScreenStatsResponse getStats() {
+        long s = skipped.get();
+        long f = forwarded.get();
+        long total = s + f;
+        return PreScreenStatsResponse.builder()
+                .enabled(enabled)
+                .skipped(s)
+                .forwarded(f)
+                .skipRatio(total > 0 ? (double) s / total : 0.0)
+                .auditSampleRate(auditSampleRate)
+                .audited(audited.get())
+                .auditAgreed(auditAgreed.get())
+                .auditDisagreed(auditDisagreed.get())
+                .build();
+    }
+
+    private boolean isQuiet(AiPayload p) {
+        return p.getFileRenameCount() == 0
+                && p.getFileEncryptLikeCount() == 0
+                && p.getRandomExtensionFlag() == 0
+                && p.getFileDeleteCount() <= maxDeleteCount
+                && p.getFileWriteCount() <= maxWriteCount
+                && p.getChangedFilesCount() <= maxChangedFiles
+                && p.getFileReadCount() <= maxReadCount
+                && Math.abs(p.getEntropyDiffMean()) <= maxAbsEntropyDiffMean
+                && Math.abs(p.getFileSizeDiffMean()) <= maxAbsSizeDiffMean;
+    }
+
+    private boolean isWithinSpread(DeltaQuantiles entropyDiff, DeltaQuantiles sizeDiff) {
+        return (entropyDiff == null || entropyDiff.maxAbs() <= maxAbsEntropyDiff)
+                && (sizeDiff == null || sizeDiff.maxAbs() <= maxAbsSizeDiff);
+    }
+}
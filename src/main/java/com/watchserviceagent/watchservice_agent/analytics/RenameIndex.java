@@ -0,0 +1,211 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 클래스 이름 : RenameIndex
+ * 기능 : 윈도우 내 DELETE/CREATE 이벤트를 rename-like로 매칭하기 위한 해시 인덱스.
+ *        CREATE는 도착 시점에 (ownerKey, parent dir, size, ext) 버킷에 시간순으로 쌓고,
+ *        flush 시 DELETE마다 같은 버킷만 탐색하므로 D×C 전수 비교 없이 거의 선형으로 매칭한다.
+ *
+ * 점수 규칙(기존과 동일):
+ * - size 동일이면 +2, 근사 동일(±1%)이면 +1
+ * - ext 동일(대소문자 무시)이면 +1
+ * => score >= 3 이면 rename으로 간주
+ * 기준점 3은 "size 완전 동일 + ext 동일" 조합으로만 도달하므로 size 버킷은 정확한 크기 값이 된다.
+ * 같은 버킷 안에서는 가장 먼저 도착한 미사용 CREATE를 고르며, 이는 기존 전수 비교의 선택 결과와 같다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class RenameIndex {
+
+    private static final int RENAME_SCORE_THRESHOLD = 3;
+
+    private final List<Candidate> deletes = new ArrayList<>();
+    private final Map<Key, Bucket> createBuckets = new HashMap<>();
+
+    /**
+     * 함수 이름 : addDelete
+     * 기능 : DELETE 이벤트를 매칭 대상으로 등록한다. (도착 순서대로 매칭된다)
+     * 매개변수 : ownerKey - 소유자 키, path - 파일 경로, sizeBefore - 삭제 전 크기, extBefore - 삭제 전 확장자, timeMs - 이벤트 시각
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void addDelete(String ownerKey, String path, Long sizeBefore, String extBefore, long timeMs) {
+        if (path == null || sizeBefore == null || extBefore == null) return; // 점수 3에 도달할 수 없음
+        deletes.add(new Candidate(new Key(ownerKey, getParentDir(path), sizeBefore, foldCase(extBefore)), timeMs));
+    }
+
+    /**
+     * 함수 이름 : addCreate
+     * 기능 : CREATE 이벤트를 버킷 인덱스에 등록한다.
+     * 매개변수 : ownerKey - 소유자 키, path - 파일 경로, sizeAfter - 생성 후 크기, extAfter - 생성 후 확장자, timeMs - 이벤트 시각
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void addCreate(String ownerKey, String path, Long sizeAfter, String extAfter, long timeMs) {
+        if (path == null || sizeAfter == null || extAfter == null) return;
+        Key key = new Key(ownerKey, getParentDir(path), sizeAfter, foldCase(extAfter));
+        createBuckets.computeIfAbsent(key, k -> new Bucket()).add(timeMs);
+    }
+
+    /**
+     * 함수 이름 : countRenames
+     * 기능 : 등록된 DELETE를 도착 순서대로 같은 버킷의 CREATE와 매칭하여 rename-like 개수를 센다.
+     *        CREATE 하나는 최대 한 번만 사용된다. 호출할 때마다 사용 표시를 초기화하므로 여러 번 호출해도 같은 결과를 낸다.
+     * 매개변수 : renameMaxGapMs - DELETE/CREATE 간 허용 시간 차, onRenameDir - 매칭된 rename의 상위 디렉터리를 받을 콜백 (없으면 null)
+     * 반환값 : int - rename-like 개수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    int countRenames(long renameMaxGapMs, Consumer<String> onRenameDir) {
+        if (deletes.isEmpty() || createBuckets.isEmpty()) return 0;
+        for (Bucket b : createBuckets.values()) b.reset();
+
+        int renameCount = 0;
+        for (Candidate del : deletes) {
+            Bucket bucket = createBuckets.get(del.key);
+            if (bucket != null && bucket.claim(del.timeMs, renameMaxGapMs)) {
+                renameCount++;
+                if (onRenameDir != null) onRenameDir.accept(del.key.parentDir());
+            }
+        }
+        return renameCount;
+    }
+
+    boolean isEmpty() {
+        return deletes.isEmpty() && createBuckets.isEmpty();
+    }
+
+    /**
+     * 함수 이름 : writeTo
+     * 기능 : 등록된 DELETE 후보와 CREATE 버킷(시각 목록)을 체크포인트에 기록한다. 사용 표시는 매칭 때마다 초기화되므로 기록하지 않는다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeInt(deletes.size());
+        for (Candidate c : deletes) {
+            writeKey(out, c.key);
+            out.writeLong(c.timeMs);
+        }
+        out.writeInt(createBuckets.size());
+        for (Map.Entry<Key, Bucket> e : createBuckets.entrySet()) {
+            writeKey(out, e.getKey());
+            Bucket b = e.getValue();
+            out.writeInt(b.size);
+            for (int i = 0; i < b.size; i++) out.writeLong(b.times[i]);
+        }
+    }
+
+    /**
+     * 함수 이름 : readFrom
+     * 기능 : writeTo로 기록한 인덱스를 복원한다.
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : RenameIndex - 복원된 인덱스
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static RenameIndex readFrom(CheckpointInput in) throws IOException {
+        RenameIndex index = new RenameIndex();
+        int deleteCount = in.readInt();
+        for (int i = 0; i < deleteCount; i++) {
+            Key key = readKey(in);
+            index.deletes.add(new Candidate(key, in.readLong()));
+        }
+        int bucketCount = in.readInt();
+        for (int i = 0; i < bucketCount; i++) {
+            Key key = readKey(in);
+            Bucket b = new Bucket();
+            int n = in.readInt();
+            for (int k = 0; k < n; k++) b.add(in.readLong());
+            index.createBuckets.put(key, b);
+        }
+        return index;
+    }
+
+    private static void writeKey(CheckpointOutput out, Key key) throws IOException {
+        out.writeString(key.ownerKey());
+        out.writeString(key.parentDir());
+        out.writeLong(key.size());
+        out.writeString(key.ext());
+    }
+
+    private static Key readKey(CheckpointInput in) throws IOException {
+        return new Key(in.readString(), in.readString(), in.readLong(), in.readString());
+    }
+
+    static String getParentDir(String path) {
+        if (path == null) return null;
+        int slash = path.lastIndexOf('/');
+        int backslash = path.lastIndexOf('\\');
+        int idx = Math.max(slash, backslash);
+        if (idx < 0) return "";
+        return path.substring(0, idx);
+    }
+
+    /** String.equalsIgnoreCase와 같은 기준(문자 단위 upper→lower)으로 정규화한다. */
+    private static String foldCase(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (f != c && sb == null) {
+                sb = new StringBuilder(s.length());
+                sb.append(s, 0, i);
+            }
+            if (sb != null) sb.append(f);
+        }
+        return (sb == null) ? s : sb.toString();
+    }
+
+    private record Key(String ownerKey, String parentDir, long size, String ext) {}
+
+    private record Candidate(Key key, long timeMs) {}
+
+    /** 같은 키의 CREATE 시각 목록 (도착 순서) + 사용 표시 */
+    private static final class Bucket {
+        private long[] times = new long[4];
+        private boolean[] used = new boolean[4];
+        private int size;
+        private int head;            // 이 앞은 모두 사용됨
+        private boolean sorted = true;
+
+        void add(long timeMs) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                used = Arrays.copyOf(used, size * 2);
+            }
+            if (size > 0 && timeMs < times[size - 1]) sorted = false;
+            times[size++] = timeMs;
+        }
+
+        void reset() {
+            Arrays.fill(used, 0, size, false);
+            head = 0;
+        }
+
+        /** gap 이내의 가장 앞선 미사용 CREATE를 사용 처리한다. */
+        boolean claim(long deleteMs, long maxGapMs) {
+            while (head < size && used[head]) head++;
+            for (int i = head; i < size; i++) {
+                if (used[i]) continue;
+                long t = times[i];
+                if (Math.abs(t - deleteMs) <= maxGapMs) {
+                    used[i] = true;
+                    return true;
+                }
+                // 시간순으로 쌓였다면 이후 CREATE는 더 멀어지기만 한다
+                if (sorted && t > deleteMs + maxGapMs) break;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.analytics.dto.ReplayRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 클래스 이름 : ReplayController
+ * 기능 : 기록된 이벤트 재생과 트레이스 파일 내보내기 REST API 엔드포인트를 제공한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+@RestController
+@RequestMapping("/replay")
+@RequiredArgsConstructor
+@Slf4j
+public class ReplayController {
+
+    private final EventReplayService replayService;
+
+    /**
+     * 함수 이름 : replay
+     * 기능 : 로그 테이블 또는 트레이스 파일의 이벤트를 독립된 집계기로 재생하고 결과 요약을 반환한다.
+     * 매개변수 : request - 재생 요청 (source, traceFile, fromMs, toMs, limit, aiMode, 설정 재정의)
+     * 반환값 : ResponseEntity<?> - 성공 시 ReplayResponse, 실패 시 오류 메시지
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostMapping
+    public ResponseEntity<?> replay(@RequestBody ReplayRequest request) {
+        try {
+            return ResponseEntity.ok(replayService.replay(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("[Replay] 잘못된 요청: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("[Replay] " + e.getMessage());
+        } catch (Exception e) {
+            log.error("[ReplayController] 재생 실패", e);
+            return ResponseEntity.internalServerError().body("[Replay] 재생 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 함수 이름 : exportTrace
+     * 기능 : 현재 세션의 watcher 이벤트 로그를 트레이스 파일로 내보낸다.
+     * 매개변수 : traceFile - 트레이스 디렉터리 안의 파일 이름, fromMs / toMs - 구간(epoch ms, 선택)
+     * 반환값 : ResponseEntity<?> - 성공 시 TraceExportResponse, 실패 시 오류 메시지
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostMapping("/export")
+    public ResponseEntity<?> exportTrace(@RequestParam("traceFile") String traceFile,
+                                         @RequestParam(name = "fromMs", required = false) Long fromMs,
+                                         @RequestParam(name = "toMs", required = false) Long toMs) {
+        try {
+            return ResponseEntity.ok(replayService.exportTrace(traceFile, fromMs, toMs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("[Replay] 잘못된 요청: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("[ReplayController] 트레이스 내보내기 실패", e);
+            return ResponseEntity.internalServerError().body("[Replay] 트레이스 내보내기 실패: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : TouchSessionTable
+ * 기능 : 파일별 "touch" 세션 시작 시각을 보관하고, 세션 타임아웃이 지난 항목을 시간 버킷 단위로 만료시킨다.
+ *        ownerKey → (path → 세션 시작 ms) 2단 구조로 문자열 결합 키를 만들지 않으며, 값은 long 배열에 저장한다.
+ *        만료는 이벤트 처리 중에 오래된 버킷부터 조금씩 정리(amortized)하므로 메모리는 활성 파일 수에 비례한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class TouchSessionTable {
+
+    private static final int EXPIRY_BUCKETS_PER_TIMEOUT = 16;
+
+    private final long timeoutMs;
+    private final long bucketWidthMs;
+
+    private final Map<String, PathSlots> byOwner = new HashMap<>();
+    private final ArrayDeque<ExpiryBucket> expiryBuckets = new ArrayDeque<>();
+    private int size;
+
+    TouchSessionTable(long timeoutMs) {
+        this.timeoutMs = Math.max(0L, timeoutMs);
+        this.bucketWidthMs = Math.max(1L, this.timeoutMs / EXPIRY_BUCKETS_PER_TIMEOUT);
+    }
+
+    /**
+     * 함수 이름 : touch
+     * 기능 : 파일 접근을 기록하고 새 touch 세션인지 판정한다.
+     *        기존 세션이 없거나 세션 시작 후 timeout을 넘겼으면 새 세션으로 보고 시작 시각을 갱신한다.
+     * 매개변수 : ownerKey - 소유자 키, path - 파일 경로, nowMs - 이벤트 시각(ms)
+     * 반환값 : boolean - 새 touch 세션이면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    boolean touch(String ownerKey, String path, long nowMs) {
+        expire(nowMs);
+
+        String owner = (ownerKey == null) ? "" : ownerKey;
+        String p = (path == null) ? "" : path;
+
+        PathSlots slots = byOwner.get(owner);
+        if (slots == null) {
+            slots = new PathSlots(owner);
+            byOwner.put(owner, slots);
+        }
+
+        int idx = slots.indexOf(p);
+        if (idx >= 0) {
+            if (nowMs - slots.values[idx] <= timeoutMs) return false;
+            slots.values[idx] = nowMs;
+        } else {
+            slots.put(p, nowMs);
+            size++;
+        }
+        scheduleExpiry(slots, p, nowMs);
+        return true;
+    }
+
+    /**
+     * 함수 이름 : expire
+     * 기능 : 버킷의 모든 세션이 timeout을 넘긴 오래된 버킷부터 정리한다. 세션이 그 사이 갱신된 항목은 남겨둔다.
+     * 매개변수 : nowMs - 현재(이벤트) 시각
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void expire(long nowMs) {
+        long expiredBefore = nowMs - timeoutMs;
+        while (!expiryBuckets.isEmpty()) {
+            ExpiryBucket head = expiryBuckets.peekFirst();
+            // 버킷 끝(exclusive)이 now - timeout 이하일 때만 버킷 내 모든 항목이 now - start > timeout 을 만족한다
+            if ((head.id + 1) * bucketWidthMs > expiredBefore) break;
+            expiryBuckets.pollFirst();
+
+            for (int i = 0; i < head.paths.size(); i++) {
+                PathSlots slots = head.slots.get(i);
+                String p = head.paths.get(i);
+                int idx = slots.indexOf(p);
+                if (idx >= 0 && nowMs - slots.values[idx] > timeoutMs) {
+                    slots.removeAt(idx);
+                    size--;
+                    if (slots.count == 0) byOwner.remove(slots.ownerKey);
+                    else slots.shrinkIfSparse();
+                }
+            }
+        }
+    }
+
+    /** 현재 보관 중인 세션 수 */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 함수 이름 : writeTo
+     * 기능 : 살아있는 세션(ownerKey, path, 세션 시작 ms)을 체크포인트에 기록한다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeInt(byOwner.size());
+        for (PathSlots slots : byOwner.values()) {
+            out.writeString(slots.ownerKey);
+            out.writeInt(slots.count);
+            for (int i = 0; i < slots.keys.length; i++) {
+                if (slots.keys[i] == null) continue;
+                out.writeString(slots.keys[i]);
+                out.writeLong(slots.values[i]);
+            }
+        }
+    }
+
+    /**
+     * 함수 이름 : readFrom
+     * 기능 : writeTo로 기록한 세션을 복원한다. 만료 버킷 순서가 맞도록 세션 시작 시각 순으로 넣는다.
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void readFrom(CheckpointInput in) throws IOException {
+        List<Object[]> entries = new ArrayList<>();
+        int owners = in.readInt();
+        for (int o = 0; o < owners; o++) {
+            String owner = in.readString();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                entries.add(new Object[]{owner, in.readString(), in.readLong()});
+            }
+        }
+        entries.sort((a, b) -> Long.compare((Long) a[2], (Long) b[2]));
+        for (Object[] e : entries) {
+            String owner = (String) e[0];
+            String path = (String) e[1];
+            long startMs = (Long) e[2];
+            PathSlots slots = byOwner.computeIfAbsent(owner, PathSlots::new);
+            if (slots.indexOf(path) >= 0) continue;
+            slots.put(path, startMs);
+            size++;
+            scheduleExpiry(slots, path, startMs);
+        }
+    }
+
+    private void scheduleExpiry(PathSlots slots, String path, long startMs) {
+        long id = Math.floorDiv(startMs, bucketWidthMs);
+        ExpiryBucket tail = expiryBuckets.peekLast();
+        // 시각이 역행한 이벤트는 마지막 버킷에 넣는다 (만료가 조금 늦어질 뿐 판정에는 영향 없음)
+        if (tail == null || id > tail.id) {
+            tail = new ExpiryBucket(id);
+            expiryBuckets.addLast(tail);
+        }
+        tail.slots.add(slots);
+        tail.paths.add(path);
+    }
+
+    /** 같은 시간 구간에 시작된 세션 목록 */
+    private static final class ExpiryBucket {
+        final long id;
+        final List<PathSlots> slots = new ArrayList<>();
+        final List<String> paths = new ArrayList<>();
+
+        ExpiryBucket(long id) {
+            this.id = id;
+        }
+    }
+
+    /** ownerKey 1개에 대한 path → long 오픈 어드레싱 해시 테이블 (선형 탐사, 삭제 시 backward shift) */
+    private static final class PathSlots {
+        final String ownerKey;
+        String[] keys = new String[16];
+        long[] values = new long[16];
+        int count;
+
+        PathSlots(String ownerKey) {
+            this.ownerKey = ownerKey;
+        }
+
+        int indexOf(String key) {
+            int mask = keys.length - 1;
+            int i = mix(key.hashCode()) & mask;
+            while (true) {
+                String k = keys[i];
+                if (k == null) return -1;
+                if (k.equals(key)) return i;
+                i = (i + 1) & mask;
+            }
+        }
+
+        void put(String key, long value) {
+            if ((count + 1) * 2 > keys.length) resize(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = mix(key.hashCode()) & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = value;
+            count++;
+        }
+
+        void removeAt(int idx) {
+            int mask = keys.length - 1;
+            keys[idx] = null;
+            count--;
+            // 뒤따르는 클러스터를 당겨서 탐사 경로가 끊기지 않게 한다
+            int hole = idx;
+            int i = (idx + 1) & mask;
+            while (keys[i] != null) {
+                int home = mix(keys[i].hashCode()) & mask;
+                boolean movable = (hole <= i) ? (home <= hole || home > i) : (home <= hole && home > i);
+                if (movable) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    keys[i] = null;
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        void shrinkIfSparse() {
+            if (keys.length > 16 && count * 8 < keys.length) resize(keys.length / 2);
+        }
+
+        private void resize(int newCapacity) {
+            String[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new String[newCapacity];
+            values = new long[newCapacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 클래스 이름 : WindowAccumulator
+ * 기능 : 하나의 시간 윈도우에 대해 이벤트가 들어올 때마다 피처를 증분 갱신한다.
+ *        이벤트 목록을 보관하지 않고 카운터/합계/분위수 스케치/고유 경로 집합/rename 후보만 유지하므로 flush 시 재계산이 필요 없다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class WindowAccumulator {
+
+    private final long startMs;
+    private long windowId;           // 로그 라벨 키 (기본 윈도우만, 0이면 미배정)
+
+    private int eventCount;
+    private int touchCount;
+    private int writeCount;          // MODIFY 중 내용 변경
+    private int deleteCount;
+    private int encryptLikeCount;
+
+    private double entropyDiffSum;
+    private int entropyDiffCount;
+    private double sizeDiffSum;
+    private int sizeDiffCount;
+    private final DeltaSketch entropyDiffSketch = new DeltaSketch(DeltaSketch.ENTROPY);
+    private final DeltaSketch sizeDiffSketch = new DeltaSketch(DeltaSketch.SIZE);
+
+    private long minEventMs = Long.MAX_VALUE;
+    private long maxEventMs = Long.MIN_VALUE;
+    private Instant lastEventTime;
+    private String firstOwnerKey;
+
+    // 알림(affectedPaths)과 changedFilesCount 계산에 필요한 고유 경로 (도착 순서 유지)
+    private final Set<String> changedPaths = new LinkedHashSet<>();
+    private final Set<String> suspiciousExtPaths = new HashSet<>();
+
+    // rename-like 매칭용 인덱스 (DELETE/CREATE만, 최소 정보)
+    private RenameIndex renameIndex = new RenameIndex();
+
+    WindowAccumulator(long startMs) {
+        this.startMs = startMs;
+    }
+
+    /**
+     * 함수 이름 : add
+     * 기능 : 이벤트 1건을 윈도우 피처에 반영한다. 설정값에 의존하는 판정(touch/write/encrypt-like/suspicious ext)은 호출자가 계산해서 넘긴다.
+     * 매개변수 : r - 파일 분석 결과, eventType - 정규화된 이벤트 타입, eventTimeMs - 이벤트 시각(ms),
+     *           newTouch - 새 touch 세션 여부, contentChanged - 내용 변경 여부, encryptLike - encrypt-like 여부, suspiciousExt - 의심 확장자 여부
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void add(FileAnalysisResult r, String eventType, long eventTimeMs,
+             boolean newTouch, boolean contentChanged, boolean encryptLike, boolean suspiciousExt) {
+        eventCount++;
+
+        String path = r.getPath();
+        if (path != null) {
+            changedPaths.add(path);
+            if (suspiciousExt) suspiciousExtPaths.add(path);
+        }
+
+        if (firstOwnerKey == null && eventCount == 1) firstOwnerKey = r.getOwnerKey();
+
+        if (eventTimeMs < minEventMs) minEventMs = eventTimeMs;
+        if (eventTimeMs > maxEventMs) maxEventMs = eventTimeMs;
+        lastEventTime = r.getEventTime();
+
+        Long sizeDiff = r.getSizeDiff();
+        if (sizeDiff != null) {
+            sizeDiffSum += sizeDiff;
+            sizeDiffCount++;
+            sizeDiffSketch.add(sizeDiff);
+        }
+        Double entropyDiff = r.getEntropyDiff();
+        if (entropyDiff != null) {
+            entropyDiffSum += entropyDiff;
+            entropyDiffCount++;
+            entropyDiffSketch.add(entropyDiff);
+        }
+
+        if ("MODIFY".equals(eventType)) {
+            if (newTouch) touchCount++;
+            if (contentChanged) writeCount++;
+        } else if ("DELETE".equals(eventType)) {
+            deleteCount++;
+            renameIndex.addDelete(r.getOwnerKey(), path, r.getSizeBefore(), r.getExtBefore(), timeOrZero(r));
+        } else if ("CREATE".equals(eventType)) {
+            renameIndex.addCreate(r.getOwnerKey(), path, r.getSizeAfter(), r.getExtAfter(), timeOrZero(r));
+        }
+
+        if (encryptLike) encryptLikeCount++;
+    }
+
+    /**
+     * 함수 이름 : toStats
+     * 기능 : 누적된 카운터로 WindowStats를 만든다. rename 매칭 외에는 O(1)이다.
+     * 매개변수 : renameMaxGapMs - rename 매칭 허용 시간 차, randomExtMinCount - 랜덤 확장자 플래그 기준 개수,
+     *           onRenameDir - 매칭된 rename의 상위 디렉터리를 받을 콜백 (없으면 null)
+     * 반환값 : WindowStats - 윈도우 피처
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    WindowStats toStats(long renameMaxGapMs, int randomExtMinCount, Consumer<String> onRenameDir) {
+        WindowStats stats = new WindowStats();
+
+        // rename-like는 DELETE+CREATE를 점수 매칭으로 잡음 (미탐 줄이기)
+        int renameCount = renameIndex.countRenames(renameMaxGapMs, onRenameDir);
+
+        // rename은 DELETE로도 잡히고 CREATE로도 잡히는 경우가 많아서
+        // delete에서 빼고, write로 포함(변경 이벤트로 취급)
+        stats.fileTouchCount = touchCount;
+        stats.fileWriteCount = writeCount + renameCount;
+        stats.fileDeleteCount = Math.max(0, deleteCount - renameCount);
+        stats.fileRenameCount = renameCount;
+        stats.fileEncryptLikeCount = encryptLikeCount;
+        stats.changedFilesCount = Math.max(0, changedPaths.size() - renameCount);
+        stats.entropyDiffMean = (entropyDiffCount > 0) ? (entropyDiffSum / entropyDiffCount) : 0.0;
+        stats.sizeDiffMean = (sizeDiffCount > 0) ? (sizeDiffSum / sizeDiffCount) : 0.0;
+        stats.entropyDiffQuantiles = entropyDiffSketch.summarize();
+        stats.sizeDiffQuantiles = sizeDiffSketch.summarize();
+
+        stats.randomExtensionCount = suspiciousExtPaths.size();
+        stats.randomExtensionFlag = (stats.randomExtensionCount >= Math.max(1, randomExtMinCount)) ? 1 : 0;
+        return stats;
+    }
+
+    boolean isEmpty() {
+        return eventCount == 0;
+    }
+
+    /**
+     * 함수 이름 : windowId
+     * 기능 : 로그 라벨 키를 반환한다. 아직 없으면 ids에서 새로 받아 배정한다.
+     * 매개변수 : ids - 윈도우 ID 발급기
+     * 반환값 : long - 윈도우 ID
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    long windowId(LongSupplier ids) {
+        if (windowId == 0L) windowId = ids.getAsLong();
+        return windowId;
+    }
+
+    long getWindowId() {
+        return windowId;
+    }
+
+    int getEventCount() {
+        return eventCount;
+    }
+
+    long getStartMs() {
+        return startMs;
+    }
+
+    long getMinEventMs() {
+        return minEventMs;
+    }
+
+    long getMaxEventMs() {
+        return maxEventMs;
+    }
+
+    Instant getLastEventTime() {
+        return lastEventTime;
+    }
+
+    String getFirstOwnerKey() {
+        return firstOwnerKey;
+    }
+
+    /** 알림에 저장할 고유 경로 목록 (도착 순서) */
+    List<String> getAffectedPaths() {
+        return new ArrayList<>(changedPaths);
+    }
+
+    /**
+     * 함수 이름 : writeTo
+     * 기능 : 누적 카운터/합계/스케치/고유 경로/rename 후보를 체크포인트에 기록한다.
+     * 매개변수 : out - 출력 스트림
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeLong(startMs);
+        out.writeLong(windowId);
+        out.writeInt(eventCount);
+        out.writeInt(touchCount);
+        out.writeInt(writeCount);
+        out.writeInt(deleteCount);
+        out.writeInt(encryptLikeCount);
+        out.writeDouble(entropyDiffSum);
+        out.writeInt(entropyDiffCount);
+        out.writeDouble(sizeDiffSum);
+        out.writeInt(sizeDiffCount);
+        entropyDiffSketch.writeTo(out);
+        sizeDiffSketch.writeTo(out);
+        out.writeLong(minEventMs);
+        out.writeLong(maxEventMs);
+        out.writeInstant(lastEventTime);
+        out.writeString(firstOwnerKey);
+        out.writeStrings(changedPaths);
+        out.writeStrings(suspiciousExtPaths);
+        renameIndex.writeTo(out);
+    }
+
+    /**
+     * 함수 이름 : readFrom
+     * 기능 : writeTo로 기록한 윈도우 누적 상태를 복원한다.
+     * 매개변수 : in - 입력 스트림
+     * 반환값 : WindowAccumulator - 복원된 누적기
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static WindowAccumulator readFrom(CheckpointInput in) throws IOException {
+        WindowAccumulator w = new WindowAccumulator(in.readLong());
+        w.windowId = in.readLong();
+        w.eventCount = in.readInt();
+        w.touchCount = in.readInt();
+        w.writeCount = in.readInt();
+        w.deleteCount = in.readInt();
+        w.encryptLikeCount = in.readInt();
+        w.entropyDiffSum = in.readDouble();
+        w.entropyDiffCount = in.readInt();
+        w.sizeDiffSum = in.readDouble();
+        w.sizeDiffCount = in.readInt();
+        w.entropyDiffSketch.readFrom(in);
+        w.sizeDiffSketch.readFrom(in);
+        w.minEventMs = in.readLong();
+        w.maxEventMs = in.readLong();
+        w.lastEventTime = in.readInstant();
+        w.firstOwnerKey = in.readString();
+        in.readStringsInto(w.changedPaths);
+        in.readStringsInto(w.suspiciousExtPaths);
+        w.renameIndex = RenameIndex.readFrom(in);
+        return w;
+    }
+
+    private static long timeOrZero(FileAnalysisResult r) {
+        return (r.getEventTime() != null) ? r.getEventTime().toEpochMilli() : 0L;
+    }
+}
@@ -0,0 +1,284 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.AiService;
+import com.watchserviceagent.watchservice_agent.ai.AiWarmup;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.alerts.NotificationService;
+import com.watchserviceagent.watchservice_agent.alerts.domain.Notification;
+import com.watchserviceagent.watchservice_agent.storage.LogService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 클래스 이름 : WindowFlushPipeline
+ * 기능 : 닫힌 윈도우를 비동기로 처리한다. AI 분석은 비동기 클라이언트로 보내 여러 윈도우의 요청이 겹쳐서 진행되고
+ *        (동시 요청 한도/대기열은 ai.async.*), 결과 반영(로그 라벨 부착, 알림 저장)은 ownerKey별로 윈도우가 닫힌 순서대로 단일 스레드에서 수행한다.
+ *        집계 스레드(EventWindowAggregator)는 submit만 하고 바로 돌아가므로 AI 서버 왕복에 막히지 않는다.
+ *
+ * - 순서 보장은 윈도우의 대표 소유자(ownerKey, 첫 이벤트 기준) 단위다. 여러 소유자의 이벤트가 섞인 윈도우라도
+ *   다른 소유자의 체인과는 순서를 맞추지 않는다. 로그 라벨은 윈도우 ID로 붙으므로(한 행은 한 윈도우에만 속함)
+ *   소유자 사이 반영 순서가 바뀌어도 라벨 결과는 같고, 알림도 대표 소유자 이름으로만 저장된다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WindowFlushPipeline {
+
+    private final AiService aiService;
+    private final QuietWindowPreScreen preScreen;
+    private final LogService logService;
+    private final NotificationService notificationService;
+    private final WindowRetryQueue retryQueue;
+    private final AiWarmup warmup;
+
+    private ExecutorService publishExecutor;
+
+    // 대표 ownerKey -> 마지막으로 제출된 윈도우의 결과 반영 단계 (대표 소유자별 순서 보장용 체인)
+    private final Map<String, CompletableFuture<Void>> tailByOwner = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingWindows = new AtomicInteger();
+
+    // 대표 ownerKey -> 마지막으로 AI에 보낸 hop 윈도우의 분석 (피처가 거의 같은 다음 hop은 이 판정을 다시 쓴다)
+    private final Map<String, CompletableFuture<AiResult>> lastHopAnalysis = new ConcurrentHashMap<>();
+
+    // 대표 ownerKey -> 가장 최근 기본 윈도우 판정 라벨 (보조 스케일 알림 중복 억제용, 결과 반영 스레드에서만 접근)
+    private final Map<String, String> lastPrimaryLabel = new HashMap<>();
+
+    // 대표 ownerKey -> 마지막 hop 윈도우의 판정과 끝 시각 (겹치는 hop 알림 중복 억제용, 결과 반영 스레드에서만 접근)
+    private final Map<String, HopVerdict> lastHop = new HashMap<>();
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 결과 반영용 단일 스레드를 생성한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        publishExecutor = Executors.newSingleThreadExecutor(namedThreads("WindowFlush-Publish"));
+        log.info("[WindowFlushPipeline] init");
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 진행 중인 결과 반영을 잠시 기다린 뒤 스레드를 종료한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        publishExecutor.shutdown();
+        try {
+            if (!publishExecutor.awaitTermination(5, TimeUnit.SECONDS)) publishExecutor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            publishExecutor.shutdownNow();
+        }
+        log.info("[WindowFlushPipeline] 종료 (미처리 윈도우={})", pendingWindows.get());
+    }
+
+    /**
+     * 함수 이름 : submit
+     * 기능 : 닫힌 윈도우를 파이프라인에 제출한다. AI 분석은 즉시 비동기로 시작되고 (직전 판정 재사용 hop은 그 분석 결과를 기다린다),
+     *        결과 반영은 대표 ownerKey가 같은 이전 윈도우의 반영이 끝난 뒤에 수행된다. (다른 소유자와는 순서 무관)
+     * 매개변수 : window - 닫힌 윈도우 집계 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void submit(ClosedWindow window) {
+        int pending = pendingWindows.incrementAndGet();
+        log.debug("[WindowFlushPipeline] 윈도우 제출: start={} events={} pending={}",
+                window.getWindowStart(), window.getEventCount(), pending);
+
+        String owner = window.getOwnerKey();
+        CompletableFuture<AiResult> analysis = window.isReuseVerdict() ? lastHopAnalysis.get(owner) : null;
+        if (analysis == null) {
+            analysis = analyze(window);
+            if (window.isHop()) lastHopAnalysis.put(owner, analysis);
+        }
+        CompletableFuture<AiResult> result = analysis;
+
+        CompletableFuture<Void> tail = tailByOwner.compute(owner, (k, prev) -> {
+            CompletableFuture<Void> base = (prev != null) ? prev : CompletableFuture.completedFuture(null);
+            return base.thenCombineAsync(result, (ignored, aiResult) -> {
+                publish(window, aiResult);
+                return (Void) null;
+            }, publishExecutor).exceptionally(e -> {
+                log.error("[WindowFlushPipeline] 결과 반영 단계 예외", e);
+                return null;
+            });
+        });
+        tail.whenComplete((v, e) -> {
+            pendingWindows.decrementAndGet();
+            tailByOwner.remove(owner, tail);
+        });
+    }
+
+    /**
+     * 함수 이름 : analyze
+     * 기능 : 로컬 pre-screen으로 조용한 윈도우는 즉시 SAFE로 판정하고, 나머지는 AI 서버에 비동기로 분석을 요청한다.
+     *        audit 표본으로 뽑힌 윈도우는 로컬 판정을 그대로 쓰되 AI에도 보내 비교 결과만 기록한다.
+     *        시작 직후에는 AI 연결 데우기가 끝날 때까지(최대 ai.warmup.hold-max-ms) 요청을 잠시 미룬다.
+     * 매개변수 : window - 닫힌 윈도우
+     * 반환값 : CompletableFuture<AiResult> - 분석 결과
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private CompletableFuture<AiResult> analyze(ClosedWindow window) {
+        AiResult local = preScreen.screen(window.getPayload(),
+                window.getEntropyDiffQuantiles(), window.getSizeDiffQuantiles());
+        if (local != null) {
+            if (preScreen.shouldAudit()) {
+                aiService.requestAnalysisAsync(window.getPayload())
+                        .thenAccept(remote -> preScreen.recordAudit(window.getPayload(), local, remote))
+                        .exceptionally(e -> {
+                            log.warn("[WindowFlushPipeline] pre-screen audit 실패", e);
+                            return null;
+                        });
+            }
+            return CompletableFuture.completedFuture(local);
+        }
+
+        return warmup.ready()
+                .thenCompose(v -> aiService.requestAnalysisAsync(window.getPayload()))
+                .exceptionally(e -> {
+                    log.error("[WindowFlushPipeline] AI 분석 단계 예외", e);
+                    return AiResult.error("AI 호출 중 예외: " + e.getMessage()).toBuilder().remoteFailed(true).build();
+                });
+    }
+
+    /**
+     * 함수 이름 : getPendingWindows
+     * 기능 : 제출되었지만 아직 결과 반영이 끝나지 않은 윈도우 수를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : int - 대기 중인 윈도우 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public int getPendingWindows() {
+        return pendingWindows.get();
+    }
+
+    /**
+     * 함수 이름 : publish
+     * 기능 : 윈도우의 AI 결과를 해당 구간 로그에 부착하고 윈도우 단위 알림을 저장한다. (보조 스케일 알림은 shouldNotify 기준)
+     *        AI 서버 판정을 받지 못한 결과(remoteFailed)면 재시도 큐에 넣어 나중에 로그/알림 라벨을 바꾼다.
+     * 매개변수 : window - 닫힌 윈도우, aiResult - AI 분석 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private void publish(ClosedWindow window, AiResult aiResult) {
+        // 랜섬웨어 감지 시 경고 로그
+        if (aiResult.getIsRansomware() != null && aiResult.getIsRansomware()) {
+            log.warn(
+                    "[WindowFlushPipeline] ⚠️ 랜섬웨어 감지! windowMs={}, windowStart={}, topFamily={}, score={}, label={}, detail={}",
+                    window.getWindowMs(), window.getWindowStart(), aiResult.getTopFamily(), aiResult.getScore(), aiResult.getLabel(), aiResult.getDetail()
+            );
+        } else {
+            log.info(
+                    "[WindowFlushPipeline] AI 분석 완료. windowMs={}, windowStart={}, topFamily={}, isRansomware={}, score={}, label={}",
+                    window.getWindowMs(), window.getWindowStart(), aiResult.getTopFamily(), aiResult.getIsRansomware(), aiResult.getScore(), aiResult.getLabel()
+            );
+        }
+
+        // ✅ 같은 윈도우 ID로 저장된 이벤트 로그에 AI 결과를 부착 (소유자 수와 무관하게 1회 UPDATE, 기본 윈도우만)
+        if (window.isLabelLogs()) {
+            logService.labelWindowAsync(window.getWindowId(), aiResult);
+        }
+
+        boolean notify = shouldNotify(window, aiResult);
+        if (notify) {
+            saveNotification(window, aiResult);
+        } else {
+            log.debug("[WindowFlushPipeline] 중복 알림 생략: windowMs={}, hop={}, label={}",
+                    window.getWindowMs(), window.isHop(), aiResult.getLabel());
+        }
+
+        if (aiResult.isRemoteFailed() && (notify || window.isLabelLogs())) {
+            retryQueue.enqueue(window, aiResult);
+        }
+    }
+
+    private void saveNotification(ClosedWindow window, AiResult aiResult) {
+        List<String> affectedPaths = window.getAffectedPaths();
+
+        Notification notification = Notification.builder()
+                .ownerKey(window.getOwnerKey())
+                .windowStart(window.getWindowStart())
+                .windowEnd(window.getWindowEnd())
+                .windowMs(window.getWindowMs())
+                .createdAt(Instant.now())
+                .aiLabel(aiResult.getLabel())
+                .aiScore(aiResult.getScore())
+                .topFamily(aiResult.getTopFamily())
+                .aiDetail(aiResult.getDetail())
+                .aiSource(aiResult.getSource())
+                .affectedFilesCount(affectedPaths.size())
+                .affectedPaths(affectedPaths)
+                .hotDirectories(window.getHotDirectories())
+                .build();
+
+        try {
+            notificationService.saveNotification(notification);
+            log.debug("[WindowFlushPipeline] 알림 저장 완료: affectedFilesCount={}", affectedPaths.size());
+        } catch (Exception e) {
+            log.error("[WindowFlushPipeline] 알림 저장 실패", e);
+        }
+    }
+
+    /**
+     * 함수 이름 : shouldNotify
+     * 기능 : 윈도우 결과를 알림으로 저장할지 정한다. 같은 이벤트가 여러 윈도우에서 같은 판정으로 중복 알림되지 않도록
+     *        - tumbling 기본 윈도우는 항상 저장한다.
+     *        - hop 윈도우는 같은 소유자의 직전 hop과 겹치면서 판정이 같으면 저장하지 않는다. (판정이 바뀌거나 새 활동이면 저장)
+     *          직전 판정을 재사용한 hop은 저장하지 않는다.
+     *        - 보조 스케일은 SAFE가 아니면서 같은 소유자의 가장 최근 기본 윈도우 판정과 다를 때만 저장한다.
+     * 매개변수 : window - 닫힌 윈도우, aiResult - AI 분석 결과
+     * 반환값 : boolean - 알림을 저장해야 하면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    private boolean shouldNotify(ClosedWindow window, AiResult aiResult) {
+        String owner = window.getOwnerKey();
+        String label = aiResult.getLabel();
+        if (!window.isLabelLogs()) {
+            return label != null && !"SAFE".equals(label) && !label.equals(lastPrimaryLabel.get(owner));
+        }
+        lastPrimaryLabel.put(owner, label);
+        if (!window.isHop()) return true;
+
+        HopVerdict prev = lastHop.put(owner, new HopVerdict(label, window.getWindowEnd()));
+        if (window.isReuseVerdict()) return false;
+        boolean overlapsPrev = prev != null && !window.getWindowStart().isAfter(prev.windowEnd());
+        return !(overlapsPrev && Objects.equals(prev.label(), label));
+    }
+
+    private record HopVerdict(String label, Instant windowEnd) {}
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
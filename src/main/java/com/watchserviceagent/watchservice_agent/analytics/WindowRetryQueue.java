@@ -0,0 +1,252 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.AiService;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.analytics.WindowRetryRepository.Relabel;
+import com.watchserviceagent.watchservice_agent.analytics.WindowRetryRepository.RetryEntry;
+import com.watchserviceagent.watchservice_agent.analytics.dto.RetryQueueStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 클래스 이름 : WindowRetryQueue
+ * 기능 : AI 서버 판정을 받지 못한 윈도우(로컬 대체 판정/UNKNOWN)를 SQLite 대기열(ai_retry)에 보관했다가
+ *        서버가 회복되면 다시 분석하고, 이미 저장된 로그와 알림의 라벨을 AI 판정으로 바꾼다.
+ *
+ * - 대기열이 DB에 있으므로 재시작 후에도 이어서 재시도한다.
+ * - 재시도 간격은 initial-backoff-ms부터 실패할 때마다 두 배(max-backoff-ms 상한, ±20% jitter). max-attempts를 넘으면 버린다.
+ * - 서킷 브레이커가 열려 있으면 그 주기는 보내지 않고 시도 횟수도 늘리지 않는다.
+ * - 한 주기에 성공한 윈도우들은 WindowRetryRepository.relabel로 한 트랜잭션의 배치 UPDATE로 반영한다.
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WindowRetryQueue {
+
+    @Value("${watchservice.analytics.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${watchservice.analytics.retry.interval-ms:2000}")
+    private long intervalMs;
+
+    @Value("${watchservice.analytics.retry.batch-size:32}")
+    private int batchSize;
+
+    // 첫 재시도까지의 대기. 그 사이 같은 윈도우의 로그 insert/라벨 UPDATE(LogWriterWorker 큐)가 먼저 끝난다
+    @Value("${watchservice.analytics.retry.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${watchservice.analytics.retry.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${watchservice.analytics.retry.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${watchservice.analytics.retry.max-entries:10000}")
+    private long maxEntries;
+
+    private final AiService aiService;
+    private final WindowRetryRepository repository;
+
+    private ScheduledExecutorService scheduler;
+
+    // 통계 (enqueue는 결과 반영 스레드, 나머지는 재시도 스레드에서 갱신)
+    private long enqueued;
+    private long attempts;
+    private long relabeledWindows;
+    private long relabeledLogs;
+    private long relabeledNotifications;
+    private long dropped;
+    private Long lastRelabeledAtMs;
+    private String lastError;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 재시도 스레드를 시작한다. 이전 실행에서 남은 대기열도 이 스레드가 처리한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("[WindowRetryQueue] 비활성화");
+            return;
+        }
+        long period = Math.max(100L, intervalMs);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Ai-Retry");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, period, period, TimeUnit.MILLISECONDS);
+        log.info("[WindowRetryQueue] init: queued={} intervalMs={} backoffMs={}~{} maxAttempts={} maxEntries={}",
+                repository.count(), period, initialBackoffMs, maxBackoffMs, maxAttempts, maxEntries);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 재시도 스레드를 멈춘다. 대기열은 DB에 남아 다음 실행에서 이어서 처리된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 함수 이름 : enqueue
+     * 기능 : AI 서버 판정을 받지 못한 윈도우를 대기열에 저장한다. 로그/알림 저장 이후에 호출해야 한다.
+     * 매개변수 : window - 닫힌 윈도우, failed - 실패 당시 저장한 결과 (remoteFailed)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void enqueue(ClosedWindow window, AiResult failed) {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        try {
+            repository.insert(RetryEntry.builder()
+                    .ownerKey(window.getOwnerKey())
+                    .windowStartMs(window.getWindowStart().toEpochMilli())
+                    .windowEndMs(window.getWindowEnd().toEpochMilli())
+                    .windowMs(window.getWindowMs())
+                    .labelLogs(window.isLabelLogs())
+                    .windowId(window.getWindowId())
+                    .payload(window.getPayload())
+                    .failedLabel(failed.getLabel())
+                    .attempts(0)
+                    .nextAttemptAtMs(now + initialBackoffMs)
+                    .createdAtMs(now)
+                    .lastError(failed.getDetail())
+                    .build());
+            int trimmed = repository.trimOldest(maxEntries);
+            synchronized (this) {
+                enqueued++;
+                dropped += trimmed;
+            }
+            if (trimmed > 0) log.warn("[WindowRetryQueue] 대기열 상한 초과 -> 오래된 윈도우 {}개 폐기", trimmed);
+        } catch (Exception e) {
+            log.error("[WindowRetryQueue] 대기열 저장 실패", e);
+        }
+    }
+
+    /**
+     * 함수 이름 : drain
+     * 기능 : 재시도 시각이 된 윈도우를 AI 서버에 다시 보내고, 판정을 받은 윈도우들의 로그/알림을 한 번에 다시 라벨링한다.
+     *        차단 중이라 보내지 못하면 남은 항목은 다음 주기로 미룬다. 실패해도 예외를 던지지 않는다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    void drain() {
+        try {
+            List<RetryEntry> due = repository.findDue(System.currentTimeMillis(), Math.max(1, batchSize));
+            if (due.isEmpty()) return;
+
+            List<Relabel> done = new ArrayList<>();
+            long tried = 0;
+            for (RetryEntry entry : due) {
+                AiResult result = aiService.retryAnalysis(entry.getPayload());
+                if (result == null) break;          // 서킷 브레이커 차단 중
+                tried++;
+                if (!result.isRemoteFailed()) {
+                    done.add(new Relabel(entry, result));
+                } else {
+                    failed(entry, result.getDetail());
+                }
+            }
+
+            int[] rows = repository.relabel(done);
+            synchronized (this) {
+                attempts += tried;
+                if (!done.isEmpty()) {
+                    relabeledWindows += done.size();
+                    relabeledLogs += rows[0];
+                    relabeledNotifications += rows[1];
+                    lastRelabeledAtMs = System.currentTimeMillis();
+                }
+            }
+            if (!done.isEmpty()) {
+                log.info("[WindowRetryQueue] 재시도 판정 반영: windows={} logs={} notifications={}",
+                        done.size(), rows[0], rows[1]);
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                lastError = e.toString();
+            }
+            log.warn("[WindowRetryQueue] 재시도 주기 실패: {}", e.toString());
+        }
+    }
+
+    /** 재시도 실패: 다음 재시도 시각을 늦추거나, 시도 횟수를 넘었으면 버린다 */
+    private void failed(RetryEntry entry, String reason) {
+        int n = entry.getAttempts() + 1;
+        synchronized (this) {
+            lastError = reason;
+        }
+        if (n >= maxAttempts) {
+            repository.deleteById(entry.getId());
+            synchronized (this) {
+                dropped++;
+            }
+            log.warn("[WindowRetryQueue] 재시도 횟수 초과 -> 폐기: owner={} windowStart={} attempts={} reason={}",
+                    entry.getOwnerKey(), entry.getWindowStartMs(), n, reason);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(n, 20));
+        backoff += (long) (backoff * ThreadLocalRandom.current().nextDouble(-0.2, 0.2));
+        repository.reschedule(entry.getId(), n, System.currentTimeMillis() + backoff, reason);
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 대기 건수와 재시도/재라벨링/폐기 통계를 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : RetryQueueStatsResponse - 재시도 큐 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public RetryQueueStatsResponse getStats() {
+        long queued = repository.count();
+        synchronized (this) {
+            return RetryQueueStatsResponse.builder()
+                    .enabled(enabled)
+                    .queued(queued)
+                    .enqueued(enqueued)
+                    .attempts(attempts)
+                    .relabeledWindows(relabeledWindows)
+                    .relabeledLogs(relabeledLogs)
+                    .relabeledNotifications(relabeledNotifications)
+                    .dropped(dropped)
+                    .lastRelabeledAtMs(lastRelabeledAtMs)
+                    .lastError(lastError)
+                    .build();
+        }
+    }
+}
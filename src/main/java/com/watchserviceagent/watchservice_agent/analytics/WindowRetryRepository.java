@@ -0,0 +1,297 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 클래스 이름 : WindowRetryRepository
+ * 기능 : AI 판정에 실패한 윈도우(피처 벡터와 로그 라벨 키 window_id)를 SQLite에 보관하고,
+ *        재시도가 성공한 윈도우의 log / notification 행을 한 트랜잭션의 배치 UPDATE로 다시 라벨링한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class WindowRetryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS ai_retry (
+                id               INTEGER PRIMARY KEY AUTOINCREMENT,
+                owner_key        TEXT NOT NULL,
+                window_start     INTEGER NOT NULL,
+                window_end       INTEGER NOT NULL,
+                window_ms        INTEGER NOT NULL,
+                label_logs       INTEGER NOT NULL,
+                window_id        INTEGER,
+                payload          TEXT NOT NULL,
+                failed_label     TEXT,
+                attempts         INTEGER NOT NULL,
+                next_attempt_at  INTEGER NOT NULL,
+                created_at       INTEGER NOT NULL,
+                last_error       TEXT
+            );
+            """;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 재시도 대기 테이블을 생성한다. 애플리케이션 시작 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ai_retry_next ON ai_retry (next_attempt_at)");
+        log.info("[WindowRetryRepository] ai_retry 테이블 초기화 완료");
+    }
+
+    /**
+     * 함수 이름 : insert
+     * 기능 : 판정에 실패한 윈도우를 재시도 대기열에 저장한다.
+     * 매개변수 : entry - 저장할 항목 (id는 무시)
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void insert(RetryEntry entry) {
+        String sql = """
+                INSERT INTO ai_retry (
+                    owner_key, window_start, window_end, window_ms, label_logs,
+                    window_id, payload, failed_label, attempts, next_attempt_at, created_at, last_error
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try {
+            jdbcTemplate.update(
+                    sql,
+                    entry.getOwnerKey(),
+                    entry.getWindowStartMs(),
+                    entry.getWindowEndMs(),
+                    entry.getWindowMs(),
+                    entry.isLabelLogs() ? 1 : 0,
+                    entry.getWindowId() != 0L ? entry.getWindowId() : null,
+                    objectMapper.writeValueAsString(entry.getPayload()),
+                    entry.getFailedLabel(),
+                    entry.getAttempts(),
+                    entry.getNextAttemptAtMs(),
+                    entry.getCreatedAtMs(),
+                    entry.getLastError()
+            );
+        } catch (Exception e) {
+            log.error("[WindowRetryRepository] insert 실패", e);
+            throw new RuntimeException("재시도 항목 저장 실패", e);
+        }
+    }
+
+    /**
+     * 함수 이름 : findDue
+     * 기능 : 재시도 시각이 된 항목을 오래된 순서로 조회한다.
+     * 매개변수 : nowMs - 현재 시각, limit - 최대 개수
+     * 반환값 : List<RetryEntry> - 재시도할 항목
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<RetryEntry> findDue(long nowMs, int limit) {
+        String sql = """
+                SELECT id, owner_key, window_start, window_end, window_ms, label_logs,
+                       window_id, payload, failed_label, attempts, next_attempt_at, created_at, last_error
+                FROM ai_retry
+                WHERE next_attempt_at <= ?
+                ORDER BY next_attempt_at ASC, id ASC
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, new Object[]{nowMs, limit}, retryRowMapper());
+    }
+
+    /**
+     * 함수 이름 : count
+     * 기능 : 대기 중인 항목 수를 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : long - 항목 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ai_retry", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 함수 이름 : reschedule
+     * 기능 : 재시도에 실패한 항목의 시도 횟수와 다음 재시도 시각을 갱신한다.
+     * 매개변수 : id - 항목 ID, attempts - 누적 시도 횟수, nextAttemptAtMs - 다음 재시도 시각, lastError - 실패 사유
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void reschedule(long id, int attempts, long nextAttemptAtMs, String lastError) {
+        jdbcTemplate.update("UPDATE ai_retry SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+                attempts, nextAttemptAtMs, lastError, id);
+    }
+
+    /**
+     * 함수 이름 : deleteById
+     * 기능 : 항목을 대기열에서 제거한다. (시도 횟수 초과 등)
+     * 매개변수 : id - 항목 ID
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void deleteById(long id) {
+        jdbcTemplate.update("DELETE FROM ai_retry WHERE id = ?", id);
+    }
+
+    /**
+     * 함수 이름 : trimOldest
+     * 기능 : 대기열이 상한을 넘으면 가장 오래된 항목부터 지운다.
+     * 매개변수 : maxEntries - 남길 최대 항목 수
+     * 반환값 : int - 지운 항목 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public int trimOldest(long maxEntries) {
+        String sql = """
+                DELETE FROM ai_retry
+                WHERE id IN (
+                    SELECT id FROM ai_retry ORDER BY id DESC LIMIT -1 OFFSET ?
+                )
+                """;
+        return jdbcTemplate.update(sql, maxEntries);
+    }
+
+    /**
+     * 함수 이름 : relabel
+     * 기능 : 재시도로 AI 판정을 받은 윈도우들의 로그/알림 라벨을 바꾸고 대기열에서 지운다.
+     *        윈도우마다 따로 UPDATE하지 않고 테이블별 배치 UPDATE 한 번씩을 하나의 트랜잭션으로 실행한다.
+     *        로그는 저장 시 붙인 window_id로, 알림은 소유자 + 윈도우 시작/끝/길이로 찾고,
+     *        둘 다 실패 당시 라벨(또는 아직 라벨이 없는 행)만 바꾼다. 그 사이 다른 판정으로 바뀐 행은 덮어쓰지 않는다.
+     * 매개변수 : done - 재시도에 성공한 항목과 그 결과
+     * 반환값 : int[] - {갱신된 로그 행 수, 갱신된 알림 행 수}
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public int[] relabel(List<Relabel> done) {
+        if (done.isEmpty()) return new int[]{0, 0};
+
+        String logSql = """
+                UPDATE log
+                SET ai_label = ?, ai_score = ?, ai_detail = ?
+                WHERE window_id = ?
+                  AND (ai_label IS NULL OR ai_label = ?)
+                """;
+        String notificationSql = """
+                UPDATE notification
+                SET ai_label = ?, ai_score = ?, top_family = ?, ai_detail = ?, ai_source = ?
+                WHERE owner_key = ?
+                  AND window_start = ?
+                  AND window_end = ?
+                  AND window_ms = ?
+                  AND (ai_label IS NULL OR ai_label = ?)
+                """;
+
+        List<Object[]> logArgs = new ArrayList<>();
+        List<Object[]> notificationArgs = new ArrayList<>();
+        List<Object[]> deleteArgs = new ArrayList<>();
+        for (Relabel r : done) {
+            RetryEntry e = r.entry();
+            AiResult ai = r.result();
+            if (e.isLabelLogs() && e.getWindowId() != 0L) {
+                logArgs.add(new Object[]{ai.getLabel(), ai.getScore(), ai.getDetail(), e.getWindowId(), e.getFailedLabel()});
+            }
+            notificationArgs.add(new Object[]{ai.getLabel(), ai.getScore(), ai.getTopFamily(), ai.getDetail(), ai.getSource(),
+                    e.getOwnerKey(), e.getWindowStartMs(), e.getWindowEndMs(), e.getWindowMs(), e.getFailedLabel()});
+            deleteArgs.add(new Object[]{e.getId()});
+        }
+
+        return transactionTemplate.execute(status -> {
+            int logRows = logArgs.isEmpty() ? 0 : Arrays.stream(jdbcTemplate.batchUpdate(logSql, logArgs)).sum();
+            int notificationRows = Arrays.stream(jdbcTemplate.batchUpdate(notificationSql, notificationArgs)).sum();
+            jdbcTemplate.batchUpdate("DELETE FROM ai_retry WHERE id = ?", deleteArgs);
+            return new int[]{logRows, notificationRows};
+        });
+    }
+
+    private RowMapper<RetryEntry> retryRowMapper() {
+        return (rs, rowNum) -> {
+            try {
+                return RetryEntry.builder()
+                        .id(rs.getLong("id"))
+                        .ownerKey(rs.getString("owner_key"))
+                        .windowStartMs(rs.getLong("window_start"))
+                        .windowEndMs(rs.getLong("window_end"))
+                        .windowMs(rs.getLong("window_ms"))
+                        .labelLogs(rs.getInt("label_logs") != 0)
+                        .windowId(rs.getLong("window_id"))
+                        .payload(toPayload(objectMapper.readTree(rs.getString("payload"))))
+                        .failedLabel(rs.getString("failed_label"))
+                        .attempts(rs.getInt("attempts"))
+                        .nextAttemptAtMs(rs.getLong("next_attempt_at"))
+                        .createdAtMs(rs.getLong("created_at"))
+                        .lastError(rs.getString("last_error"))
+                        .build();
+            } catch (Exception e) {
+                throw new IllegalStateException("ai_retry 행 복원 실패: id=" + rs.getLong("id"), e);
+            }
+        };
+    }
+
+    /** AiPayload는 역직렬화 생성자가 없으므로 JSON 필드 이름으로 직접 복원한다 */
+    private static AiPayload toPayload(JsonNode n) {
+        return AiPayload.builder()
+                .fileReadCount(n.path("file_read_count").asInt())
+                .fileWriteCount(n.path("file_write_count").asInt())
+                .fileDeleteCount(n.path("file_delete_count").asInt())
+                .fileRenameCount(n.path("file_rename_count").asInt())
+                .fileEncryptLikeCount(n.path("file_encrypt_like_count").asInt())
+                .changedFilesCount(n.path("changed_files_count").asInt())
+                .randomExtensionFlag(n.path("random_extension_flag").asInt())
+                .entropyDiffMean(n.path("entropy_diff_mean").asDouble())
+                .fileSizeDiffMean(n.path("file_size_diff_mean").asDouble())
+                .build();
+    }
+
+    /**
+     * 재시도 대기 항목 1개. 알림을 찾는 키(ownerKey + 윈도우 시작/끝/길이)와 로그를 찾는 키(windowId)를 함께 보관한다.
+     */
+    @Getter
+    @Builder
+    public static class RetryEntry {
+        private final long id;
+        private final String ownerKey;
+        private final long windowStartMs;
+        private final long windowEndMs;
+        private final long windowMs;
+        private final boolean labelLogs;
+        private final long windowId;           // 로그 라벨 키 (0이면 없음: 로그는 다시 라벨링하지 않음)
+        private final AiPayload payload;
+        private final String failedLabel;      // 실패 당시 로그/알림에 붙은 라벨 (로컬 대체 판정 또는 UNKNOWN)
+        private final int attempts;
+        private final long nextAttemptAtMs;
+        private final long createdAtMs;
+        private final String lastError;
+    }
+
+    /** 재시도에 성공한 항목과 AI 서버 판정 */
+    public record Relabel(RetryEntry entry, AiResult result) {}
+}
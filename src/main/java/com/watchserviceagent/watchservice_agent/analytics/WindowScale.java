@@ -0,0 +1,164 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+
+import java.io.IOException;
+
+/**
+ * 클래스 이름 : WindowScale
+ * 기능 : 윈도우 길이 1개(예: 1초, 3초, 30초, 5분)에 대한 현재 윈도우 상태.
+ *        같은 이벤트 스트림을 여러 길이의 윈도우에 동시에 누적하기 위해 길이별로 하나씩 둔다.
+ *        보조 스케일은 마지막으로 AI에 보낸 피처를 기억해 두고, 피처가 충분히 달라졌을 때만 다시 보낸다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class WindowScale {
+
+    private long windowMs;
+    private final boolean primary;   // 기본 윈도우: 항상 AI 분석 + 로그 라벨 부착
+
+    private Long startMs;
+    private WindowAccumulator current;
+    private AiPayload lastSubmitted;
+    private long submittedCount;
+    private long suppressedCount;
+
+    WindowScale(long windowMs, boolean primary) {
+        this.windowMs = windowMs;
+        this.primary = primary;
+    }
+
+    /**
+     * 함수 이름 : isDue
+     * 기능 : 이벤트 시각 기준으로 현재 윈도우를 닫아야 하는지 판정한다.
+     * 매개변수 : eventTimeMs - 이벤트 시각(ms)
+     * 반환값 : boolean - 윈도우 길이를 넘겼으면 true
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    boolean isDue(long eventTimeMs) {
+        return startMs != null && eventTimeMs - startMs >= windowMs;
+    }
+
+    /**
+     * 함수 이름 : open
+     * 기능 : 열린 윈도우가 없으면 이벤트 시각을 시작점으로 새 윈도우를 연다.
+     * 매개변수 : eventTimeMs - 이벤트 시각(ms)
+     * 반환값 : WindowAccumulator - 현재 윈도우 누적기
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    WindowAccumulator open(long eventTimeMs) {
+        if (startMs == null) startMs = eventTimeMs;
+        if (current == null) current = new WindowAccumulator(startMs);
+        return current;
+    }
+
+    /**
+     * 함수 이름 : close
+     * 기능 : 현재 윈도우를 떼어내고 다음 이벤트에서 새 윈도우가 열리도록 상태를 비운다.
+     * 매개변수 : 없음
+     * 반환값 : WindowAccumulator - 닫힌 윈도우 (없으면 null)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    WindowAccumulator close() {
+        WindowAccumulator closed = current;
+        current = null;
+        startMs = null;
+        return closed;
+    }
+
+    boolean hasEvents() {
+        return current != null && !current.isEmpty();
+    }
+
+    /**
+     * 함수 이름 : shouldSubmit
+     * 기능 : 닫힌 윈도우를 AI에 보낼지 결정한다. 기본 윈도우는 항상 보내고,
+     *        보조 스케일은 마지막으로 보낸 피처와 비교해 의미 있게 달라졌을 때만 보낸다.
+     *        - random_extension_flag가 바뀐 경우
+     *        - 카운트 피처 중 하나가 max(minCountDelta, minChangeRatio × 큰 값) 이상 달라진 경우
+     *        - entropy_diff_mean 차이가 minEntropyDelta 이상인 경우
+     *        - file_size_diff_mean 차이가 max(minSizeDelta, minChangeRatio × 큰 절댓값) 이상인 경우
+     * 매개변수 : payload - 이번 윈도우 피처, minCountDelta / minChangeRatio / minEntropyDelta / minSizeDelta - 변화 기준
+     * 반환값 : boolean - 보내야 하면 true (이 경우 비교 기준 피처를 갱신한다)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    boolean shouldSubmit(AiPayload payload, int minCountDelta, double minChangeRatio,
+                         double minEntropyDelta, double minSizeDelta) {
+        boolean submit = primary || lastSubmitted == null
+                || changedMaterially(lastSubmitted, payload, minCountDelta, minChangeRatio, minEntropyDelta, minSizeDelta);
+        if (submit) {
+            lastSubmitted = payload;
+            submittedCount++;
+        } else {
+            suppressedCount++;
+        }
+        return submit;
+    }
+
+    static boolean changedMaterially(AiPayload prev, AiPayload cur, int minCountDelta, double minChangeRatio,
+                                             double minEntropyDelta, double minSizeDelta) {
+        if (prev.getRandomExtensionFlag() != cur.getRandomExtensionFlag()) return true;
+        if (countChanged(prev.getFileReadCount(), cur.getFileReadCount(), minCountDelta, minChangeRatio)) return true;
+        if (countChanged(prev.getFileWriteCount(), cur.getFileWriteCount(), minCountDelta, minChangeRatio)) return true;
+        if (countChanged(prev.getFileDeleteCount(), cur.getFileDeleteCount(), minCountDelta, minChangeRatio)) return true;
+        if (countChanged(prev.getFileRenameCount(), cur.getFileRenameCount(), minCountDelta, minChangeRatio)) return true;
+        if (countChanged(prev.getFileEncryptLikeCount(), cur.getFileEncryptLikeCount(), minCountDelta, minChangeRatio)) return true;
+        if (countChanged(prev.getChangedFilesCount(), cur.getChangedFilesCount(), minCountDelta, minChangeRatio)) return true;
+        if (Math.abs(cur.getEntropyDiffMean() - prev.getEntropyDiffMean()) >= minEntropyDelta) return true;
+
+        double sizeDelta = Math.abs(cur.getFileSizeDiffMean() - prev.getFileSizeDiffMean());
+        double sizeBase = Math.max(Math.abs(prev.getFileSizeDiffMean()), Math.abs(cur.getFileSizeDiffMean()));
+        return sizeDelta >= Math.max(minSizeDelta, minChangeRatio * sizeBase);
+    }
+
+    private static boolean countChanged(int prev, int cur, int minCountDelta, double minChangeRatio) {
+        int delta = Math.abs(cur - prev);
+        return delta > 0 && delta >= Math.max(minCountDelta, minChangeRatio * Math.max(prev, cur));
+    }
+
+    long getWindowMs() {
+        return windowMs;
+    }
+
+    /** 체크포인트: 현재 길이, 열린 윈도우, 마지막 제출 피처와 통계 */
+    void writeTo(CheckpointOutput out) throws IOException {
+        out.writeLong(windowMs);
+        out.writeNullableLong(startMs);
+        out.writeBoolean(current != null);
+        if (current != null) current.writeTo(out);
+        out.writePayload(lastSubmitted);
+        out.writeLong(submittedCount);
+        out.writeLong(suppressedCount);
+    }
+
+    /** 체크포인트 복원 (길이는 기록된 값을 그대로 쓴다. 적응형이면 다음 이벤트에서 다시 계산됨) */
+    void readFrom(CheckpointInput in) throws IOException {
+        windowMs = in.readLong();
+        startMs = in.readNullableLong();
+        current = in.readBoolean() ? WindowAccumulator.readFrom(in) : null;
+        lastSubmitted = in.readPayload();
+        submittedCount = in.readLong();
+        suppressedCount = in.readLong();
+    }
+
+    /** 적응형 윈도우: 열린 윈도우의 길이를 바꾼다 (다음 isDue 판정부터 적용) */
+    void resize(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    boolean isPrimary() {
+        return primary;
+    }
+
+    long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    long getSuppressedCount() {
+        return suppressedCount;
+    }
+}
@@ -0,0 +1,25 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+/**
+ * 클래스 이름 : WindowStats
+ * 기능 : 윈도우 1개에 대해 집계된 피처 값. AiPayload 생성과 로그 출력, 로컬 pre-screen에 사용한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class WindowStats {
+    int fileTouchCount;          // "읽기"가 아니라 "최근에 접근/변경으로 감지된 파일 수(세션 기준)"
+    int fileWriteCount;          // 내용 변경(크기/엔트로피 변화) 기반
+    int fileDeleteCount;
+    int fileRenameCount;
+    int fileEncryptLikeCount;
+    int changedFilesCount;
+    double entropyDiffMean;
+    double sizeDiffMean;
+
+    // 평균에 묻히는 소수의 큰 변화를 보기 위한 분포 요약 (AI payload에는 포함하지 않음)
+    DeltaQuantiles entropyDiffQuantiles = DeltaQuantiles.EMPTY;
+    DeltaQuantiles sizeDiffQuantiles = DeltaQuantiles.EMPTY;
+
+    int randomExtensionCount;    // 윈도우 내 suspicious ext (unique file 기준)
+    int randomExtensionFlag;     // randomExtMinCount 이상이면 1
+}
@@ -0,0 +1,28 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : CheckpointStatsResponse
+ * 기능 : 집계 상태 체크포인트의 저장/복원 현황과 비용(락 점유 시간, 디스크 쓰기 시간, 크기)을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class CheckpointStatsResponse {
+    private final boolean enabled;
+    private final String path;
+    private final boolean restored;          // 시작 시 체크포인트에서 복원했는지
+    private final long written;              // 저장 성공 횟수
+    private final long failed;               // 저장 실패 횟수
+    private final long skipped;              // 변경이 없어 건너뛴 주기 수
+    private final Long lastSavedAtMs;
+    private final long lastBytes;
+    private final double lastLockHoldMs;     // 집계 락을 잡고 상태를 직렬화한 시간
+    private final double lastWriteMs;        // 락 밖에서 파일을 쓰고 교체한 시간
+    private final double maxLockHoldMs;
+}
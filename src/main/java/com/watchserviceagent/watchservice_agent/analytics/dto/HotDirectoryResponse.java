@@ -0,0 +1,23 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.*;
+
+/**
+ * 클래스 이름 : HotDirectoryResponse
+ * 기능 : 최근 활동량(쓰기/rename/삭제)이 많은 상위 디렉터리 1개. 실시간 조회 응답과 알림(hot_directories JSON)에 사용한다.
+ *        값은 count-min sketch 추정치이므로 실제보다 약간 클 수 있다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class HotDirectoryResponse {
+    private String directory;
+    private double writeRate;      // 초당 쓰기(내용 변경 MODIFY + CREATE)
+    private double renameRate;     // 초당 rename-like
+    private double deleteRate;     // 초당 DELETE
+    private double totalRate;
+}
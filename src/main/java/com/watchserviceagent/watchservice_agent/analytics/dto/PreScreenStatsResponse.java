@@ -0,0 +1,25 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : PreScreenStatsResponse
+ * 기능 : 로컬 pre-screen으로 AI 호출을 건너뛴/전달한 윈도우 수와 audit 결과를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class PreScreenStatsResponse {
+    private final boolean enabled;
+    private final long skipped;          // 로컬 SAFE 판정 (AI 미호출)
+    private final long forwarded;        // AI 서버로 전달
+    private final double skipRatio;
+    private final double auditSampleRate;
+    private final long audited;          // audit 표본 중 AI 응답을 받은 수
+    private final long auditAgreed;
+    private final long auditDisagreed;
+}
@@ -0,0 +1,24 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Getter;
+
+/**
+ * 클래스 이름 : ReplayRequest
+ * 기능 : 기록된 이벤트를 집계 파이프라인에 다시 흘려보내는 재생 요청. 설정 재정의 값이 없으면 현재 설정을 쓴다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+public class ReplayRequest {
+    private String source;        // "LOG" | "TRACE"
+    private String traceFile;     // source=TRACE: 트레이스 디렉터리 안의 파일 이름 (디렉터리면 그 안의 세그먼트 전체, 예: recorder)
+    private Long fromMs;          // source=LOG: 구간 시작(포함)
+    private Long toMs;            // source=LOG: 구간 끝(포함)
+    private Long limit;           // 최대 재생 이벤트 수 (null이면 전체)
+    private String aiMode;        // "NONE" | "PRESCREEN" | "REMOTE" (기본 PRESCREEN)
+
+    // 설정 재정의 (임계값 조정 실험용)
+    private Long windowMs;
+    private Boolean hopping;
+    private Boolean adaptive;
+}
@@ -0,0 +1,40 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : ReplayResponse
+ * 기능 : 이벤트 재생 결과. 처리량(실제 경과 시간 대비 가상 시간), 스케일별 윈도우 수, 판정 분포, 재생 종료 시점의 핫 디렉터리를 담는다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class ReplayResponse {
+    private final String source;
+    private final String aiMode;
+    private final long events;                        // 재생한 이벤트 수
+    private final long windows;                       // 닫힌 윈도우 수 (모든 스케일)
+    private final Map<Long, Long> windowsByScale;     // 윈도우 길이(ms) -> 윈도우 수
+    private final Map<String, Long> labels;           // 판정 라벨 -> 윈도우 수 (NONE 모드면 비어 있음, AI 호출 실패 윈도우 제외)
+    private final Map<String, Map<String, Long>> labelsBySource;  // 판정 출처(PRESCREEN/REMOTE/FALLBACK/...) -> 라벨 -> 윈도우 수
+    private final long aiCalls;                       // REMOTE 모드에서 AI 서버 호출 수
+    private final long aiFailures;                    // 그중 AI 서버 판정을 받지 못해 로컬 대체 판정으로 대신한 수
+    private final int maxWindowEvents;
+    private final Long firstEventMs;
+    private final Long lastEventMs;
+    private final Long firstAlertMs;                  // 처음 WARNING/DANGER가 나온 윈도우의 끝 시각 (REMOTE 모드)
+    private final Map<String, Long> ruleAlerts;       // 로컬 탐지 규칙 이름 -> 발동 수
+    private final Long firstRuleAlertMs;              // 처음 로컬 규칙이 발동한 이벤트 시각
+    private final long virtualSpanMs;                 // 재생한 이벤트의 시간 폭
+    private final long elapsedMs;                     // 실제 경과 시간
+    private final double eventsPerSecond;
+    private final double speedup;                     // 가상 시간 / 실제 시간
+    private final List<HotDirectoryResponse> hotDirectories;
+}
@@ -0,0 +1,27 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : RetryQueueStatsResponse
+ * 기능 : AI 판정 실패 윈도우 재시도 큐의 대기 건수, 재시도/재라벨링/폐기 건수를 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class RetryQueueStatsResponse {
+    private final boolean enabled;
+    private final long queued;                // 현재 대기 중인 윈도우 수 (DB 기준)
+    private final long enqueued;              // 실행 이후 대기열에 넣은 윈도우 수
+    private final long attempts;              // 재시도 요청 수
+    private final long relabeledWindows;      // AI 판정을 받아 다시 라벨링한 윈도우 수
+    private final long relabeledLogs;
+    private final long relabeledNotifications;
+    private final long dropped;               // 시도 횟수 초과/대기열 상한으로 버린 윈도우 수
+    private final Long lastRelabeledAtMs;
+    private final String lastError;
+}
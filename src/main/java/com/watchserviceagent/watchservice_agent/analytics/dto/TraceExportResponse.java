@@ -0,0 +1,22 @@
+package com.watchserviceagent.watchservice_agent.analytics.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : TraceExportResponse
+ * 기능 : 로그 테이블의 watcher 이벤트를 트레이스 파일로 내보낸 결과.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class TraceExportResponse {
+    private final String traceFile;
+    private final long events;
+    private final long bytes;
+    private final double bytesPerEvent;
+    private final long elapsedMs;
+}
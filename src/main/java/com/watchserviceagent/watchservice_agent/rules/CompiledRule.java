@@ -0,0 +1,190 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : CompiledRule
+ * 기능 : 변환된 로컬 탐지 규칙 1개와 그룹별 슬라이딩 윈도우 상태.
+ *        그룹마다 최근 N(임계 개수)건의 시각을 링 버퍼로 보관하며, N번째 이전 이벤트가 within 안에 있으면 발동한다.
+ *        이벤트당 O(1)이고 개수는 근사 없이 정확하다. within 동안 이벤트가 없던 그룹은 오래된 순으로 정리한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+final class CompiledRule {
+
+    enum GroupBy { DIR, DIR_EXT, OWNER, GLOBAL }
+
+    private final String name;
+    private final String text;
+    private final int eventMask;
+    private final int threshold;
+    private final long withinMs;
+    private final GroupBy groupBy;
+    private final long cooldownMs;
+    private final String severity;
+
+    // 접근 순서 LinkedHashMap: 맨 앞이 가장 오래 이벤트가 없던 그룹
+    private final Map<Object, Group> groups = new LinkedHashMap<>(64, 0.75f, true);
+
+    // 통계
+    private long matched;
+    private long fired;
+    private long sampledNanos;
+    private long sampledEvents;
+
+    CompiledRule(String name, String text, int eventMask, int threshold, long withinMs,
+                 GroupBy groupBy, long cooldownMs, String severity) {
+        this.name = name;
+        this.text = text;
+        this.eventMask = eventMask;
+        this.threshold = threshold;
+        this.withinMs = withinMs;
+        this.groupBy = groupBy;
+        this.cooldownMs = cooldownMs;
+        this.severity = severity;
+    }
+
+    /** 같은 정의로 상태가 비어 있는 규칙을 만든다 (재생용) */
+    CompiledRule copy() {
+        return new CompiledRule(name, text, eventMask, threshold, withinMs, groupBy, cooldownMs, severity);
+    }
+
+    boolean matches(int eventBits) {
+        return (eventMask & eventBits) != 0;
+    }
+
+    /**
+     * 함수 이름 : offer
+     * 기능 : 규칙에 해당하는 이벤트 1건을 그룹 윈도우에 넣고, 임계 개수에 도달하면 알림을 만든다.
+     *        발동한 그룹은 비우고 cooldown 동안 이벤트를 세지 않는다.
+     * 매개변수 : ownerKey - 소유자, dir - 상위 폴더, ext - 새 확장자(없으면 이전 확장자), path - 파일 경로, t - 이벤트 시각(ms), maxGroups - 규칙당 그룹 상한
+     * 반환값 : RuleAlert - 발동했으면 알림, 아니면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    RuleAlert offer(String ownerKey, String dir, String ext, String path, long t, int maxGroups) {
+        matched++;
+        evictIdle(t, maxGroups);
+
+        Object key = groupKey(ownerKey, dir, ext);
+        Group g = groups.get(key);
+        if (g == null) {
+            g = new Group(Math.min(threshold, 16));
+            groups.put(key, g);
+        }
+        g.lastMs = Math.max(g.lastMs, t);
+        if (t < g.cooldownUntilMs) return null;
+
+        g.add(t, path, threshold);
+        if (g.size < threshold || t - g.oldest() > withinMs) return null;
+
+        fired++;
+        RuleAlert alert = new RuleAlert(name, severity, groupBy.name(), display(key), ownerKey,
+                threshold, g.oldest(), t, withinMs, text, g.paths());
+        g.clear();
+        g.cooldownUntilMs = t + cooldownMs;
+        return alert;
+    }
+
+    void recordSample(long nanos) {
+        sampledNanos += nanos;
+        sampledEvents++;
+    }
+
+    int groupCount() {
+        return groups.size();
+    }
+
+    private void evictIdle(long t, int maxGroups) {
+        Iterator<Group> it = groups.values().iterator();
+        while (it.hasNext()) {
+            Group eldest = it.next();
+            boolean idle = t - eldest.lastMs > Math.max(withinMs, cooldownMs);
+            if (!idle && groups.size() < maxGroups) break;
+            it.remove();
+        }
+    }
+
+    private Object groupKey(String ownerKey, String dir, String ext) {
+        String d = (dir == null) ? "" : dir;
+        return switch (groupBy) {
+            case DIR -> d;
+            case DIR_EXT -> new DirExt(d, (ext == null) ? "" : ext.toLowerCase(Locale.ROOT));
+            case OWNER -> (ownerKey == null) ? "" : ownerKey;
+            case GLOBAL -> "";
+        };
+    }
+
+    private static String display(Object key) {
+        return (key instanceof DirExt de) ? de.dir() + "/*." + de.ext() : key.toString();
+    }
+
+    private record DirExt(String dir, String ext) {}
+
+    /** 그룹 1개의 최근 이벤트 시각/경로 링 버퍼 (임계 개수까지 늘어난다) */
+    private static final class Group {
+        long[] times;
+        String[] paths;
+        int head;               // 가장 오래된 항목 위치
+        int size;
+        long lastMs = Long.MIN_VALUE;
+        long cooldownUntilMs = Long.MIN_VALUE;
+
+        Group(int capacity) {
+            times = new long[capacity];
+            paths = new String[capacity];
+        }
+
+        void add(long t, String path, int threshold) {
+            if (size == times.length && size < threshold) grow(Math.min(threshold, size * 2));
+            if (size == times.length) {
+                // 가득 찼으면 가장 오래된 항목을 덮어쓴다
+                times[head] = t;
+                paths[head] = path;
+                head = (head + 1) % times.length;
+            } else {
+                int idx = (head + size) % times.length;
+                times[idx] = t;
+                paths[idx] = path;
+                size++;
+            }
+        }
+
+        long oldest() {
+            return times[head];
+        }
+
+        List<String> paths() {
+            List<String> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) out.add(paths[(head + i) % paths.length]);
+            return out;
+        }
+
+        void clear() {
+            Arrays.fill(paths, null);
+            head = 0;
+            size = 0;
+        }
+
+        private void grow(int capacity) {
+            long[] t = new long[capacity];
+            String[] p = new String[capacity];
+            for (int i = 0; i < size; i++) {
+                t[i] = times[(head + i) % times.length];
+                p[i] = paths[(head + i) % paths.length];
+            }
+            times = t;
+            paths = p;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.alerts.NotificationService;
+import com.watchserviceagent.watchservice_agent.alerts.domain.Notification;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.rules.dto.RuleStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 클래스 이름 : LocalRuleEngine
+ * 기능 : application.yml에 정의한 로컬 탐지 규칙(RuleParser 형식)을 이벤트 스트림에 바로 적용한다.
+ *        EventWindowAggregator가 이벤트마다 판정한 결과(write/encrypt-like/의심 확장자)를 받아 규칙별 그룹 윈도우에 반영하고,
+ *        임계 개수에 도달하면 AI 왕복 없이 즉시 알림(Notification, topFamily=LocalRule)을 만든다.
+ *        알림 저장은 전용 스레드에서 하므로 감시 스레드는 규칙 평가 비용만 부담한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocalRuleEngine {
+
+    // 이벤트 분류 비트 (규칙의 이벤트 목록과 비교)
+    static final int E_CREATE = 1;
+    static final int E_MODIFY = 1 << 1;
+    static final int E_DELETE = 1 << 2;
+    static final int E_WRITE = 1 << 3;
+    static final int E_RENAME = 1 << 4;
+    static final int E_ENCRYPT = 1 << 5;
+    static final int E_RANDOM_EXT = 1 << 6;
+
+    private static final int TIMING_SAMPLE_MASK = 63;     // 64건마다 1건 규칙별 비용을 잰다
+    private static final String RULE_FAMILY = "LocalRule";
+
+    @Value("${watchservice.rules.enabled:false}")
+    private boolean enabled;
+
+    @Value("${watchservice.rules.definitions:}")
+    private String definitions;
+
+    @Value("${watchservice.rules.max-groups-per-rule:10000}")
+    private int maxGroupsPerRule;
+
+    @Value("${watchservice.rules.rename-max-gap-ms:${watchservice.analytics.rename-max-gap-ms:2000}}")
+    private long renameMaxGapMs;
+
+    @Value("${watchservice.rules.max-pending-deletes:10000}")
+    private int maxPendingDeletes;
+
+    private final NotificationService notificationService;
+
+    private List<CompiledRule> rules = List.of();
+    private boolean trackRenames;
+    private Consumer<RuleAlert> alertSink;
+    private ExecutorService alertExecutor;
+
+    // RENAME 판정용: (owner, dir, size) -> 마지막 DELETE 시각 (삽입 순서 = 시각 순서로 만료, 최대 maxPendingDeletes개)
+    private final LinkedHashMap<RecentDelete, Long> recentDeletes = new LinkedHashMap<>();
+
+    private long events;
+    private long sampledEvents;
+    private long sampledNanos;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 규칙을 변환하고 알림 저장 스레드를 만든다. 형식이 잘못된 규칙은 오류 로그를 남기고 제외한다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("[LocalRuleEngine] 비활성화");
+            return;
+        }
+        List<String> errors = new ArrayList<>();
+        setRules(RuleParser.parse(definitions, errors));
+        for (String e : errors) log.error("[LocalRuleEngine] 규칙 무시: {}", e);
+
+        alertExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "LocalRule-Alert");
+            t.setDaemon(true);
+            return t;
+        });
+        alertSink = alert -> alertExecutor.execute(() -> publish(alert));
+        log.info("[LocalRuleEngine] init: rules={} maxGroupsPerRule={} renameMaxGapMs={} maxPendingDeletes={}",
+                rules.stream().map(CompiledRule::getText).toList(), maxGroupsPerRule, renameMaxGapMs, maxPendingDeletes);
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 대기 중인 알림을 저장하고 스레드를 종료한다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    void shutdown() {
+        if (alertExecutor == null) return;
+        alertExecutor.shutdown();
+        try {
+            alertExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 함수 이름 : fork
+     * 기능 : 같은 규칙으로 상태가 비어 있는 엔진을 만든다. 알림은 DB 대신 주어진 consumer로 보낸다. (이벤트 재생용)
+     * 매개변수 : sink - 발동한 알림을 받을 콜백
+     * 반환값 : LocalRuleEngine - 새 엔진
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized LocalRuleEngine fork(Consumer<RuleAlert> sink) {
+        LocalRuleEngine f = new LocalRuleEngine(notificationService);
+        f.enabled = enabled;
+        f.definitions = definitions;
+        f.maxGroupsPerRule = maxGroupsPerRule;
+        f.renameMaxGapMs = renameMaxGapMs;
+        f.maxPendingDeletes = maxPendingDeletes;
+        f.setRules(rules.stream().map(CompiledRule::copy).toList());
+        f.alertSink = sink;
+        return f;
+    }
+
+    /**
+     * 함수 이름 : onEvent
+     * 기능 : CREATE/MODIFY/DELETE 이벤트 1건을 분류하여 해당하는 모든 규칙에 반영한다. 발동한 알림은 sink로 넘긴다.
+     * 매개변수 : r - 파일 분석 결과, eventType - 정규화된 이벤트 타입, dir - 상위 폴더, t - 이벤트 시각(ms),
+     *           contentChanged - 내용 변경 여부, encryptLike - encrypt-like 여부, suspiciousExt - 의심 확장자 여부
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized void onEvent(FileAnalysisResult r, String eventType, String dir, long t,
+                                     boolean contentChanged, boolean encryptLike, boolean suspiciousExt) {
+        if (rules.isEmpty()) return;
+        boolean timed = (events++ & TIMING_SAMPLE_MASK) == 0;
+        long t0 = timed ? System.nanoTime() : 0L;
+
+        int bits = classify(r, eventType, dir, t, contentChanged, encryptLike, suspiciousExt);
+        String ext = (r.getExtAfter() != null) ? r.getExtAfter() : r.getExtBefore();
+        for (CompiledRule rule : rules) {
+            if (!rule.matches(bits)) continue;
+            long r0 = timed ? System.nanoTime() : 0L;
+            RuleAlert alert = rule.offer(r.getOwnerKey(), dir, ext, r.getPath(), t, maxGroupsPerRule);
+            if (timed) rule.recordSample(System.nanoTime() - r0);
+            if (alert != null) alertSink.accept(alert);
+        }
+
+        if (timed) {
+            sampledNanos += System.nanoTime() - t0;
+            sampledEvents++;
+        }
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 규칙별 해당 이벤트 수, 발동 수, 그룹 수, 이벤트당 평가 비용(표본)을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : List<RuleStatsResponse> - 규칙별 통계 (정의 순서)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized List<RuleStatsResponse> getStats() {
+        double engineNanos = (sampledEvents > 0) ? (double) sampledNanos / sampledEvents : 0.0;
+        List<RuleStatsResponse> out = new ArrayList<>(rules.size());
+        for (CompiledRule rule : rules) {
+            out.add(RuleStatsResponse.builder()
+                    .name(rule.getName())
+                    .definition(rule.getText())
+                    .severity(rule.getSeverity())
+                    .matchedEvents(rule.getMatched())
+                    .fired(rule.getFired())
+                    .activeGroups(rule.groupCount())
+                    .avgRuleNanos(rule.getSampledEvents() > 0 ? (double) rule.getSampledNanos() / rule.getSampledEvents() : 0.0)
+                    .engineEvents(events)
+                    .avgEngineNanos(engineNanos)
+                    .build());
+        }
+        return out;
+    }
+
+    private void setRules(List<CompiledRule> compiled) {
+        rules = compiled;
+        trackRenames = compiled.stream().anyMatch(r -> (r.getEventMask() & E_RENAME) != 0);
+    }
+
+    private int classify(FileAnalysisResult r, String eventType, String dir, long t,
+                         boolean contentChanged, boolean encryptLike, boolean suspiciousExt) {
+        int bits = 0;
+        if ("CREATE".equals(eventType)) {
+            bits |= E_CREATE;
+            if (trackRenames && isRename(r.getOwnerKey(), dir, r.getSizeAfter(), t)) bits |= E_RENAME;
+        } else if ("MODIFY".equals(eventType)) {
+            bits |= E_MODIFY;
+            if (contentChanged) bits |= E_WRITE;
+        } else if ("DELETE".equals(eventType)) {
+            bits |= E_DELETE;
+            if (trackRenames && r.getSizeBefore() != null) {
+                // CREATE 없이 DELETE만 이어지는 대량 삭제에서도 맵이 커지지 않도록 여기서도 만료시키고 상한을 둔다
+                expireDeletes(t);
+                RecentDelete key = new RecentDelete(r.getOwnerKey(), dir, r.getSizeBefore());
+                recentDeletes.remove(key);
+                recentDeletes.put(key, t);
+                if (recentDeletes.size() > Math.max(1, maxPendingDeletes)) {
+                    Iterator<RecentDelete> eldest = recentDeletes.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (encryptLike) bits |= E_ENCRYPT;
+        if (suspiciousExt) bits |= E_RANDOM_EXT;
+        return bits;
+    }
+
+    /** 같은 소유자/폴더/크기의 DELETE가 renameMaxGapMs 안에 있었으면 rename으로 보고 그 DELETE를 소비한다 */
+    private boolean isRename(String ownerKey, String dir, Long sizeAfter, long t) {
+        expireDeletes(t);
+        if (sizeAfter == null) return false;
+        Long deletedAt = recentDeletes.remove(new RecentDelete(ownerKey, dir, sizeAfter));
+        return deletedAt != null && Math.abs(t - deletedAt) <= renameMaxGapMs;
+    }
+
+    /** renameMaxGapMs보다 오래된 DELETE를 앞(오래된 쪽)부터 지운다 */
+    private void expireDeletes(long t) {
+        Iterator<Long> it = recentDeletes.values().iterator();
+        while (it.hasNext()) {
+            if (t - it.next() <= renameMaxGapMs) break;
+            it.remove();
+        }
+    }
+
+    /** RENAME 판정을 기다리는 DELETE 수 (테스트/통계용) */
+    synchronized int pendingDeletes() {
+        return recentDeletes.size();
+    }
+
+    private void publish(RuleAlert alert) {
+        log.warn("[LocalRuleEngine] 규칙 발동: rule={} severity={} {}={} count={} withinMs={} spanMs={}",
+                alert.rule(), alert.severity(), alert.groupBy(), alert.groupKey(), alert.count(),
+                alert.withinMs(), alert.lastEventMs() - alert.firstEventMs());
+        Notification notification = Notification.builder()
+                .ownerKey(alert.ownerKey())
+                .windowStart(Instant.ofEpochMilli(alert.firstEventMs()))
+                .windowEnd(Instant.ofEpochMilli(alert.lastEventMs()))
+                .windowMs(alert.withinMs())
+                .createdAt(Instant.now())
+                .aiLabel(alert.severity())
+                .aiScore(null)
+                .topFamily(RULE_FAMILY)
+                .aiDetail("로컬 규칙 '" + alert.rule() + "' 발동: " + alert.groupBy() + "=" + alert.groupKey()
+                        + ", " + alert.count() + "건 / " + alert.withinMs() + "ms (" + alert.description() + ")")
+                .aiSource(AiResult.SOURCE_RULE)
+                .affectedFilesCount(alert.paths().size())
+                .affectedPaths(alert.paths())
+                .hotDirectories(List.of())
+                .build();
+        try {
+            notificationService.saveNotification(notification);
+        } catch (Exception e) {
+            log.error("[LocalRuleEngine] 알림 저장 실패: rule={}", alert.rule(), e);
+        }
+    }
+
+    private record RecentDelete(String ownerKey, String dir, long size) {}
+}
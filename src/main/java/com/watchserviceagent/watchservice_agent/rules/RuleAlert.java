@@ -0,0 +1,24 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : RuleAlert
+ * 기능 : 로컬 탐지 규칙 1개가 발동한 결과. 임계 개수에 도달한 그룹의 이벤트 구간과 경로를 담는다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+public record RuleAlert(
+        String rule,            // 규칙 이름
+        String severity,        // WARNING / DANGER
+        String groupBy,         // DIR / DIR_EXT / OWNER / GLOBAL
+        String groupKey,        // 그룹 값 (예: 디렉터리, 디렉터리/*.확장자)
+        String ownerKey,        // 발동시킨 마지막 이벤트의 소유자
+        int count,              // within 안에 모인 이벤트 수 (= 임계 개수)
+        long firstEventMs,
+        long lastEventMs,
+        long withinMs,
+        String description,     // 규칙 원문
+        List<String> paths      // 발동에 포함된 이벤트 경로 (도착 순서)
+) {
+}
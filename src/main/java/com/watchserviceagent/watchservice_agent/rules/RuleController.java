@@ -0,0 +1,35 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import com.watchserviceagent.watchservice_agent.rules.dto.RuleStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : RuleController
+ * 기능 : 로컬 탐지 규칙의 발동 현황을 조회하는 REST API 엔드포인트를 제공한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+@RestController
+@RequestMapping("/rules")
+@RequiredArgsConstructor
+public class RuleController {
+
+    private final LocalRuleEngine localRuleEngine;
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 규칙별 해당 이벤트 수, 발동 수, 이벤트당 평가 비용을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : List<RuleStatsResponse> - 규칙별 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/stats")
+    public List<RuleStatsResponse> getStats() {
+        return localRuleEngine.getStats();
+    }
+}
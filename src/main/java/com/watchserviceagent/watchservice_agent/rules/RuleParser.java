@@ -0,0 +1,162 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 클래스 이름 : RuleParser
+ * 기능 : 로컬 탐지 규칙 문자열을 CompiledRule로 변환한다. 규칙은 ';'로 구분하며, 형식은 다음과 같다.
+ *
+ *   이름: 이벤트[|이벤트...] count >= N within 기간 by 그룹 [cooldown 기간] [severity WARNING|DANGER]
+ *
+ * - 이벤트: CREATE, MODIFY, DELETE, WRITE(내용이 바뀐 MODIFY), RENAME(같은 폴더·같은 크기의 DELETE 직후 CREATE),
+ *           ENCRYPT(encrypt-like), RANDOM_EXT(의심 확장자), ANY
+ * - 비교: '>= N' 또는 '> N'('>= N+1'과 같음)
+ * - 기간: 숫자 + ms / s / m (예: 500ms, 10s, 1m)
+ * - 그룹: DIR(상위 폴더), DIR_EXT(상위 폴더 + 새 확장자), OWNER, GLOBAL
+ * - cooldown 기본값은 within, severity 기본값은 DANGER
+ *
+ * 예) rename-burst: RENAME count >= 20 within 10s by DIR_EXT
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class RuleParser {
+
+    private RuleParser() {
+    }
+
+    /**
+     * 함수 이름 : parse
+     * 기능 : ';'로 구분된 규칙 목록을 변환한다. 형식이 잘못된 규칙은 건너뛰고 errors에 사유를 남긴다.
+     * 매개변수 : definitions - 규칙 문자열, errors - 오류 메시지를 받을 목록
+     * 반환값 : List<CompiledRule> - 변환된 규칙 (정의 순서)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static List<CompiledRule> parse(String definitions, List<String> errors) {
+        List<CompiledRule> rules = new ArrayList<>();
+        if (definitions == null || definitions.isBlank()) return rules;
+        for (String def : definitions.split(";")) {
+            String text = def.trim();
+            if (text.isEmpty()) continue;
+            try {
+                CompiledRule rule = parseOne(text);
+                for (CompiledRule r : rules) {
+                    if (r.getName().equals(rule.getName())) throw new IllegalArgumentException("중복된 규칙 이름");
+                }
+                rules.add(rule);
+            } catch (IllegalArgumentException e) {
+                errors.add("'" + text + "': " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    private static CompiledRule parseOne(String text) {
+        int colon = text.indexOf(':');
+        if (colon <= 0) throw new IllegalArgumentException("'이름:'으로 시작해야 합니다");
+        String name = text.substring(0, colon).trim();
+        String[] tokens = text.substring(colon + 1).trim().replace("|", " | ").split("\\s+");
+
+        int i = 0;
+        int mask = 0;
+        while (i < tokens.length && !tokens[i].equalsIgnoreCase("count")) {
+            if (!tokens[i].equals("|")) mask |= eventBit(tokens[i]);
+            i++;
+        }
+        if (mask == 0) throw new IllegalArgumentException("이벤트 종류가 없습니다");
+
+        expect(tokens, i++, "count");
+        String op = token(tokens, i++);
+        int threshold = parseInt(token(tokens, i++));
+        if (op.equals(">")) threshold++;
+        else if (!op.equals(">=")) throw new IllegalArgumentException("비교는 '>=' 또는 '>'만 지원합니다: " + op);
+        if (threshold < 1 || threshold > 100_000) throw new IllegalArgumentException("개수는 1~100000이어야 합니다");
+
+        expect(tokens, i++, "within");
+        long withinMs = parseDuration(token(tokens, i++));
+        expect(tokens, i++, "by");
+        CompiledRule.GroupBy groupBy = parseGroupBy(token(tokens, i++));
+
+        long cooldownMs = withinMs;
+        String severity = "DANGER";
+        while (i < tokens.length) {
+            String key = tokens[i++].toLowerCase(Locale.ROOT);
+            if (key.equals("cooldown")) {
+                cooldownMs = parseDuration(token(tokens, i++));
+            } else if (key.equals("severity")) {
+                severity = token(tokens, i++).toUpperCase(Locale.ROOT);
+                if (!severity.equals("WARNING") && !severity.equals("DANGER")) {
+                    throw new IllegalArgumentException("severity는 WARNING 또는 DANGER여야 합니다");
+                }
+            } else {
+                throw new IllegalArgumentException("알 수 없는 옵션: " + key);
+            }
+        }
+        return new CompiledRule(name, text, mask, threshold, withinMs, groupBy, cooldownMs, severity);
+    }
+
+    private static int eventBit(String token) {
+        return switch (token.toUpperCase(Locale.ROOT)) {
+            case "CREATE" -> LocalRuleEngine.E_CREATE;
+            case "MODIFY" -> LocalRuleEngine.E_MODIFY;
+            case "DELETE" -> LocalRuleEngine.E_DELETE;
+            case "WRITE" -> LocalRuleEngine.E_WRITE;
+            case "RENAME" -> LocalRuleEngine.E_RENAME;
+            case "ENCRYPT" -> LocalRuleEngine.E_ENCRYPT;
+            case "RANDOM_EXT" -> LocalRuleEngine.E_RANDOM_EXT;
+            case "ANY" -> LocalRuleEngine.E_CREATE | LocalRuleEngine.E_MODIFY | LocalRuleEngine.E_DELETE;
+            default -> throw new IllegalArgumentException("알 수 없는 이벤트: " + token);
+        };
+    }
+
+    private static CompiledRule.GroupBy parseGroupBy(String token) {
+        try {
+            return CompiledRule.GroupBy.valueOf(token.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("그룹은 DIR, DIR_EXT, OWNER, GLOBAL 중 하나여야 합니다: " + token);
+        }
+    }
+
+    private static long parseDuration(String token) {
+        String t = token.toLowerCase(Locale.ROOT);
+        long unit;
+        String digits;
+        if (t.endsWith("ms")) {
+            unit = 1L;
+            digits = t.substring(0, t.length() - 2);
+        } else if (t.endsWith("s")) {
+            unit = 1000L;
+            digits = t.substring(0, t.length() - 1);
+        } else if (t.endsWith("m")) {
+            unit = 60_000L;
+            digits = t.substring(0, t.length() - 1);
+        } else {
+            throw new IllegalArgumentException("기간에는 단위(ms/s/m)가 필요합니다: " + token);
+        }
+        long v = parseInt(digits) * unit;
+        if (v <= 0) throw new IllegalArgumentException("기간은 0보다 커야 합니다: " + token);
+        return v;
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("숫자가 아닙니다: " + s);
+        }
+    }
+
+    private static void expect(String[] tokens, int i, String keyword) {
+        if (!token(tokens, i).equalsIgnoreCase(keyword)) {
+            throw new IllegalArgumentException("'" + keyword + "'가 필요합니다: " + tokens[i]);
+        }
+    }
+
+    private static String token(String[] tokens, int i) {
+        if (i >= tokens.length) throw new IllegalArgumentException("규칙이 끝까지 작성되지 않았습니다");
+        return tokens[i];
+    }
+}
@@ -0,0 +1,26 @@
+package com.watchserviceagent.watchservice_agent.rules.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 클래스 이름 : RuleStatsResponse
+ * 기능 : 로컬 탐지 규칙 1개의 발동 현황과 이벤트당 평가 비용을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class RuleStatsResponse {
+    private final String name;
+    private final String definition;         // 규칙 원문
+    private final String severity;
+    private final long matchedEvents;        // 규칙의 이벤트 종류에 해당한 이벤트 수
+    private final long fired;                // 발동 횟수
+    private final int activeGroups;          // 현재 윈도우를 유지 중인 그룹 수
+    private final double avgRuleNanos;       // 해당 이벤트 1건당 이 규칙의 평가 비용 (64건마다 1건 표본)
+    private final long engineEvents;         // 엔진이 받은 전체 이벤트 수
+    private final double avgEngineNanos;     // 이벤트 1건당 엔진 전체 비용 (분류 + 모든 규칙)
+}
@@ -1,5 +1,6 @@
 package com.watchserviceagent.watchservice_agent.storage;
 
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
 import com.watchserviceagent.watchservice_agent.storage.domain.Log;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * 클래스 이름 : LogRepository
@@ -73,6 +75,11 @@ public class LogRepository {
         tryAddColumn("exists_before", "INTEGER");
         tryAddColumn("size_diff", "INTEGER");
         tryAddColumn("entropy_diff", "REAL");
+        tryAddColumn("window_id", "INTEGER");
+        // 구간 조회(owner_key + collected_at 범위)용 인덱스
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_log_owner_collected ON log (owner_key, collected_at)");
+        // 윈도우 라벨 UPDATE(window_id)용 인덱스
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_log_window ON log (window_id)");
         log.info("[LogRepository] log 테이블 초기화 완료");
     }
 
@@ -124,8 +131,9 @@ public class LogRepository {
                     ai_label,
                     ai_score,
                     ai_detail,
+                    window_id,
                     collected_at
-                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 """;
 
         jdbcTemplate.update(
@@ -150,10 +158,84 @@ public class LogRepository {
                 logEntity.getAiLabel(),
                 logEntity.getAiScore(),
                 logEntity.getAiDetail(),
+                logEntity.getWindowId(),
                 logEntity.getCollectedAt().toEpochMilli()
         );
     }
 
+    /**
+     * 함수 이름 : updateAiLabelForWindow
+     * 기능 : insert 시 윈도우 ID가 붙은 이벤트 로그 중 아직 라벨이 없는 행에 AI 결과를 일괄 부착한다.
+     *        시각 범위가 아니라 ID로 찾으므로 이벤트 시각이 역행하거나 구간이 겹치는 다른 윈도우의 행은 건드리지 않는다.
+     * 매개변수 : windowId - 윈도우 ID, aiLabel - 라벨, aiScore - 위험도, aiDetail - 상세 메시지
+     * 반환값 : int - 갱신된 행 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public int updateAiLabelForWindow(long windowId, String aiLabel, Double aiScore, String aiDetail) {
+        String sql = """
+                UPDATE log
+                SET ai_label = ?, ai_score = ?, ai_detail = ?
+                WHERE window_id = ?
+                  AND ai_label IS NULL
+                """;
+        return jdbcTemplate.update(sql, aiLabel, aiScore, aiDetail, windowId);
+    }
+
+    /**
+     * 함수 이름 : streamWatcherEvents
+     * 기능 : 구간 안의 watcher 이벤트(CREATE/MODIFY/DELETE) 로그를 저장 순서대로 한 행씩 FileAnalysisResult로 복원해 넘긴다.
+     *        결과를 목록으로 모으지 않으므로 며칠치 로그도 메모리 부담 없이 재생/내보내기할 수 있다.
+     * 매개변수 : ownerKey - 소유자 키, fromEpochMs / toEpochMs - 구간(포함, null이면 제한 없음), consumer - 행마다 호출할 콜백
+     * 반환값 : long - 넘긴 행 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public long streamWatcherEvents(String ownerKey, Long fromEpochMs, Long toEpochMs, Consumer<FileAnalysisResult> consumer) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT owner_key, event_type, path, exists_flag, exists_before,
+                       size_before, size_after, entropy_before, entropy_after, ext_before, ext_after, collected_at
+                FROM log
+                WHERE owner_key = ?
+                  AND UPPER(TRIM(event_type)) IN ('CREATE', 'MODIFY', 'DELETE')
+                """);
+        List<Object> params = new ArrayList<>();
+        params.add(ownerKey);
+        if (fromEpochMs != null) {
+            sql.append(" AND collected_at >= ?");
+            params.add(fromEpochMs);
+        }
+        if (toEpochMs != null) {
+            sql.append(" AND collected_at <= ?");
+            params.add(toEpochMs);
+        }
+        sql.append(" ORDER BY collected_at ASC, id ASC");
+
+        long[] rows = {0};
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Number sizeBefore = (Number) rs.getObject("size_before");
+            Number sizeAfter = (Number) rs.getObject("size_after");
+            Number entropyBefore = (Number) rs.getObject("entropy_before");
+            Number entropyAfter = (Number) rs.getObject("entropy_after");
+            consumer.accept(FileAnalysisResult.builder()
+                    .ownerKey(rs.getString("owner_key"))
+                    .eventType(rs.getString("event_type"))
+                    .path(rs.getString("path"))
+                    .eventTime(Instant.ofEpochMilli(rs.getLong("collected_at")))
+                    .existsBefore(rs.getInt("exists_before") != 0)
+                    .existsAfter(rs.getInt("exists_flag") != 0)
+                    .sizeBefore(sizeBefore == null ? null : sizeBefore.longValue())
+                    .sizeAfter(sizeAfter == null ? null : sizeAfter.longValue())
+                    .entropyBefore(entropyBefore == null ? null : entropyBefore.doubleValue())
+                    .entropyAfter(entropyAfter == null ? null : entropyAfter.doubleValue())
+                    .extBefore(rs.getString("ext_before"))
+                    .extAfter(rs.getString("ext_after"))
+                    .build());
+            rows[0]++;
+        }, params.toArray());
+        return rows[0];
+    }
+
     public List<Log> findRecentLogsByOwner(String ownerKey, int limit) {
         String sql = """
                 SELECT
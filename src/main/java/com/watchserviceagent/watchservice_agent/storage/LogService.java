@@ -1,5 +1,6 @@
 package com.watchserviceagent.watchservice_agent.storage;
 
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
 import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
 import com.watchserviceagent.watchservice_agent.common.util.SessionIdManager;
 import com.watchserviceagent.watchservice_agent.storage.domain.Log;
@@ -16,6 +17,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 클래스 이름 : LogService
@@ -39,14 +41,41 @@ public class LogService {
     /**
      * 함수 이름 : saveAsync
      * 기능 : 파일 분석 결과를 비동기로 로그 저장 큐에 추가한다.
-     * 매개변수 : result - 파일 분석 결과
+     * 매개변수 : result - 파일 분석 결과, collectedAtMs - 이벤트 시각(집계기가 윈도우 배정에 쓴 값),
+     *           windowId - 속한 기본 윈도우 ID (윈도우 집계 대상이 아니면 null)
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
-    public void saveAsync(FileAnalysisResult result) {
+    public void saveAsync(FileAnalysisResult result, long collectedAtMs, Long windowId) {
         if (result == null) return;
-        logWriterWorker.enqueue(result);
+        logWriterWorker.enqueue(result, collectedAtMs, windowId);
+    }
+
+    /**
+     * 함수 이름 : streamWatcherEvents
+     * 기능 : 현재 세션의 구간 내 watcher 이벤트 로그를 저장 순서대로 FileAnalysisResult로 복원해 넘긴다. (이벤트 재생/트레이스 내보내기용)
+     * 매개변수 : fromEpochMs / toEpochMs - 구간(포함, null이면 제한 없음), consumer - 이벤트마다 호출할 콜백
+     * 반환값 : long - 넘긴 이벤트 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public long streamWatcherEvents(Long fromEpochMs, Long toEpochMs, Consumer<FileAnalysisResult> consumer) {
+        return logRepository.streamWatcherEvents(sessionIdManager.getSessionId(), fromEpochMs, toEpochMs, consumer);
+    }
+
+    /**
+     * 함수 이름 : labelWindowAsync
+     * 기능 : 윈도우 ID로 저장된 이벤트 로그(소유자 무관)에 AI 결과를 부착하도록 저장 큐에 추가한다.
+     *        이벤트 insert와 같은 큐를 사용하므로 해당 윈도우 이벤트들이 먼저 저장된 뒤 UPDATE가 수행된다.
+     * 매개변수 : windowId - 윈도우 ID, aiResult - AI 분석 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void labelWindowAsync(long windowId, AiResult aiResult) {
+        if (aiResult == null) return;
+        logWriterWorker.enqueueWindowLabel(windowId, aiResult);
     }
 
     /**
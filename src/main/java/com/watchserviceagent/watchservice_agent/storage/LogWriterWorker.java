@@ -1,5 +1,6 @@
 package com.watchserviceagent.watchservice_agent.storage;
 
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
 import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
 import com.watchserviceagent.watchservice_agent.storage.domain.Log;
 import jakarta.annotation.PostConstruct;
@@ -15,6 +16,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 /**
  * 클래스 이름 : LogWriterWorker
  * 기능 : Collector/Analytics에서 생성된 FileAnalysisResult를 비동기로 큐에 넣어 SQLite에 저장하는 워커 스레드를 관리한다.
+ *        윈도우 단위 AI 라벨 UPDATE도 같은 큐로 처리하여 insert 이후에 실행되도록 순서를 보장한다.
  * 작성 날짜 : 2025/12/17
  * 작성자 : 시스템
  */
@@ -25,7 +27,7 @@ public class LogWriterWorker {
 
     private final LogRepository logRepository;
 
-    private final BlockingQueue<FileAnalysisResult> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
 
     private Thread workerThread;
     private volatile boolean running = true;
@@ -71,15 +73,35 @@ public class LogWriterWorker {
     /**
      * 함수 이름 : enqueue
      * 기능 : FileAnalysisResult를 비동기 저장 큐에 추가한다.
-     * 매개변수 : result - 저장할 파일 분석 결과
+     * 매개변수 : result - 저장할 파일 분석 결과, collectedAtMs - 집계기가 정한 이벤트 시각, windowId - 속한 기본 윈도우 ID (없으면 null)
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
-    public void enqueue(FileAnalysisResult result) {
+    public void enqueue(FileAnalysisResult result, long collectedAtMs, Long windowId) {
         if (result == null) return;
+        put(() -> logRepository.insertLog(mapToLog(result, collectedAtMs, windowId)));
+    }
+
+    /**
+     * 함수 이름 : enqueueWindowLabel
+     * 기능 : 윈도우 로그에 AI 결과를 부착하는 UPDATE 작업을 저장 큐에 추가한다.
+     * 매개변수 : windowId - 윈도우 ID, aiResult - AI 분석 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void enqueueWindowLabel(long windowId, AiResult aiResult) {
+        put(() -> {
+            int updated = logRepository.updateAiLabelForWindow(
+                    windowId, aiResult.getLabel(), aiResult.getScore(), aiResult.getDetail());
+            log.debug("[LogWriterWorker] 윈도우 라벨 부착: windowId={}, label={}, rows={}", windowId, aiResult.getLabel(), updated);
+        });
+    }
+
+    private void put(Runnable task) {
         try {
-            queue.put(result);
+            queue.put(task);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.warn("[LogWriterWorker] enqueue 중 인터럽트 발생", e);
@@ -88,7 +110,7 @@ public class LogWriterWorker {
 
     /**
      * 함수 이름 : runWorker
-     * 기능 : 워커 스레드의 메인 루프. 큐에서 FileAnalysisResult를 꺼내어 DB에 저장한다.
+     * 기능 : 워커 스레드의 메인 루프. 큐에서 저장 작업(insert / 윈도우 라벨 UPDATE)을 꺼내어 순서대로 실행한다.
      * 매개변수 : 없음
      * 반환값 : 없음
      * 작성 날짜 : 2025/12/17
@@ -97,9 +119,8 @@ public class LogWriterWorker {
     private void runWorker() {
         while (running && !Thread.currentThread().isInterrupted()) {
             try {
-                FileAnalysisResult result = queue.take();
-                Log logEntity = mapToLog(result);
-                logRepository.insertLog(logEntity);
+                Runnable task = queue.take();
+                task.run();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.info("[LogWriterWorker] 워커 스레드 인터럽트, 종료 준비");
@@ -113,16 +134,14 @@ public class LogWriterWorker {
     /**
      * 함수 이름 : mapToLog
      * 기능 : FileAnalysisResult를 Log 엔티티로 변환한다. AI 분석 결과도 포함한다.
-     * 매개변수 : r - 파일 분석 결과
+     *        collected_at은 집계기가 윈도우 배정에 쓴 시각을 그대로 쓴다. (이벤트 시각이 없을 때 여기서 다시 now를 찍으면 어긋남)
+     * 매개변수 : r - 파일 분석 결과, collectedAtMs - 이벤트 시각, windowId - 속한 기본 윈도우 ID (없으면 null)
      * 반환값 : Log - 로그 엔티티
      * 작성 날짜 : 2025/12/17
      * 작성자 : 시스템
      */
-    private Log mapToLog(FileAnalysisResult r) {
-        Instant collectedAt = r.getEventTime();
-        if (collectedAt == null) {
-            collectedAt = Instant.now();
-        }
+    private Log mapToLog(FileAnalysisResult r, long collectedAtMs, Long windowId) {
+        Instant collectedAt = Instant.ofEpochMilli(collectedAtMs);
 
         Long sizeAfter = r.getSizeAfter();
         Double entropyAfter = r.getEntropyAfter();
@@ -159,6 +178,7 @@ public class LogWriterWorker {
                 .aiLabel(r.getAiLabel())
                 .aiScore(r.getAiScore())
                 .aiDetail(r.getAiDetail())
+                .windowId(windowId)
 
                 .collectedAt(collectedAt)
                 .build();
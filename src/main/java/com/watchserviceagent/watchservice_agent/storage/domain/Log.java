@@ -44,5 +44,8 @@ public class Log {
     private final Double aiScore;
     private final String aiDetail;
 
+    // 이벤트가 속한 기본 윈도우 ID (윈도우 flush 시 이 값으로 AI 라벨 UPDATE, 윈도우 집계 대상이 아니면 null)
+    private final Long windowId;
+
     private final Instant collectedAt;
 }
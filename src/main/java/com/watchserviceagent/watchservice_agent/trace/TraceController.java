@@ -0,0 +1,33 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.trace.dto.TraceRecorderStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 클래스 이름 : TraceController
+ * 기능 : 상시 이벤트 트레이스 기록기의 상태를 조회하는 REST API 엔드포인트를 제공한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+@RestController
+@RequestMapping("/trace")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final TraceRecorder traceRecorder;
+
+    /**
+     * 함수 이름 : getRecorderStats
+     * 기능 : 기록 건수/크기/보관 중인 세그먼트/이벤트당 기록 비용을 조회한다.
+     * 매개변수 : 없음
+     * 반환값 : TraceRecorderStatsResponse - 기록기 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @GetMapping("/recorder/stats")
+    public TraceRecorderStatsResponse getRecorderStats() {
+        return traceRecorder.getStats();
+    }
+}
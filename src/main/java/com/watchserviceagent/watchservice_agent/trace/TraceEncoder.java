@@ -0,0 +1,116 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.watchserviceagent.watchservice_agent.trace.TraceFormat.*;
+
+/**
+ * 클래스 이름 : TraceEncoder
+ * 기능 : FileAnalysisResult를 트레이스 레코드로 인코딩한다. 세그먼트 단위 문자열 사전과 직전 이벤트 시각을 보관한다.
+ *        encode 결과는 내부 버퍼를 재사용하므로 다음 encode 전에 복사해야 한다.
+ *        세그먼트가 가득 차서 새 세그먼트로 넘어갈 때는 reset 후 같은 이벤트를 다시 인코딩한다. (사전이 세그먼트마다 독립)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+public final class TraceEncoder {
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private long prevMs;
+
+    /**
+     * 함수 이름 : reset
+     * 기능 : 새 세그먼트를 시작한다. 사전을 비우고 시각 차의 기준을 헤더 기준 시각으로 맞춘다.
+     * 매개변수 : baseMs - 세그먼트 헤더의 기준 시각
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void reset(long baseMs) {
+        dictionary.clear();
+        prevMs = baseMs;
+    }
+
+    /**
+     * 함수 이름 : encode
+     * 기능 : 이벤트 1건을 (처음 나온 문자열의 STRING 레코드 + EVENT 레코드)로 인코딩한다.
+     * 매개변수 : r - 파일 분석 결과
+     * 반환값 : ByteBuffer - 읽기 상태(flip)의 내부 버퍼
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public ByteBuffer encode(FileAnalysisResult r) {
+        String owner = r.getOwnerKey();
+        String type = r.getEventType();
+        String path = r.getPath();
+        String extBefore = r.getExtBefore();
+        String extAfter = r.getExtAfter();
+        ensure(64 + utf8Bound(owner) + utf8Bound(type) + utf8Bound(path) + utf8Bound(extBefore) + utf8Bound(extAfter));
+        scratch.clear();
+
+        int ownerRef = ref(owner);
+        int typeRef = ref(type);
+        int pathRef = ref(path);
+        int extBeforeRef = ref(extBefore);
+        int extAfterRef = ref(extAfter);
+
+        int flags = 0;
+        if (r.isExistsBefore()) flags |= F_EXISTS_BEFORE;
+        if (r.isExistsAfter()) flags |= F_EXISTS_AFTER;
+        if (r.getEventTime() != null) flags |= F_TIME;
+        if (r.getSizeBefore() != null) flags |= F_SIZE_BEFORE;
+        if (r.getSizeAfter() != null) flags |= F_SIZE_AFTER;
+        if (r.getEntropyBefore() != null) flags |= F_ENTROPY_BEFORE;
+        if (r.getEntropyAfter() != null) flags |= F_ENTROPY_AFTER;
+        if (extBeforeRef != 0) flags |= F_EXT_BEFORE;
+        if (extAfterRef != 0) flags |= F_EXT_AFTER;
+
+        scratch.put(TAG_EVENT);
+        long ms = prevMs;
+        if (r.getEventTime() != null) {
+            ms = r.getEventTime().toEpochMilli();
+        }
+        putVarLong(scratch, zigzag(ms - prevMs));
+        prevMs = ms;
+        putVarLong(scratch, flags);
+        putVarLong(scratch, ownerRef);
+        putVarLong(scratch, typeRef);
+        putVarLong(scratch, pathRef);
+        if (r.getSizeBefore() != null) putVarLong(scratch, zigzag(r.getSizeBefore()));
+        if (r.getSizeAfter() != null) putVarLong(scratch, zigzag(r.getSizeAfter()));
+        if (r.getEntropyBefore() != null) scratch.putDouble(r.getEntropyBefore());
+        if (r.getEntropyAfter() != null) scratch.putDouble(r.getEntropyAfter());
+        if (extBeforeRef != 0) putVarLong(scratch, extBeforeRef);
+        if (extAfterRef != 0) putVarLong(scratch, extAfterRef);
+
+        scratch.flip();
+        return scratch;
+    }
+
+    /** 사전 참조 번호(+1). 처음 나온 문자열은 STRING 레코드를 먼저 쓴다 */
+    private int ref(String s) {
+        if (s == null) return 0;
+        Integer id = dictionary.get(s);
+        if (id != null) return id + 1;
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        scratch.put(TAG_STRING);
+        putVarLong(scratch, b.length);
+        scratch.put(b);
+        id = dictionary.size();
+        dictionary.put(s, id);
+        return id + 1;
+    }
+
+    private void ensure(int bytes) {
+        if (scratch.capacity() < bytes) scratch = ByteBuffer.allocate(Math.max(bytes, scratch.capacity() * 2));
+    }
+
+    private static int utf8Bound(String s) {
+        return (s == null) ? 0 : 8 + s.length() * 3;
+    }
+}
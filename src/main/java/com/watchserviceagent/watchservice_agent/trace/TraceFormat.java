@@ -0,0 +1,73 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 클래스 이름 : TraceFormat
+ * 기능 : 이벤트 트레이스(FileAnalysisResult 스트림) 바이너리 형식의 상수와 varint 인코딩 도우미.
+ *
+ * 세그먼트(파일) 1개 = 헤더 + 레코드 목록. 상시 기록기(TraceRecorder)는 세그먼트를 *.wstrace 파일로 순환시킨다
+ * - 헤더: magic(int "WSTR"), version(byte), 기준 시각 ms(long)
+ * - 레코드: tag(byte) 뒤에 본문
+ *   0 = END (이후 내용 무시. 미리 0으로 채운 세그먼트의 빈 영역도 END로 읽힌다)
+ *   1 = STRING: 길이(varint) + UTF-8. 세그먼트 안에서 다음 사전 번호가 된다
+ *   2 = EVENT : 시각 차(zigzag varint, 직전 이벤트 대비 ms), flags(varint), owner/type/path 참조(varint, 사전 번호 + 1, 0 = null),
+ *               flags에 따라 sizeBefore/sizeAfter(zigzag varint), entropyBefore/entropyAfter(double), extBefore/extAfter 참조
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+public final class TraceFormat {
+
+    public static final int MAGIC = 0x57535452;   // "WSTR"
+    public static final byte VERSION = 1;
+    public static final int HEADER_BYTES = 4 + 1 + 8;
+    public static final String SEGMENT_SUFFIX = ".wstrace";
+
+    static final byte TAG_END = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_EVENT = 2;
+
+    static final int F_EXISTS_BEFORE = 1;
+    static final int F_EXISTS_AFTER = 1 << 1;
+    static final int F_TIME = 1 << 2;
+    static final int F_SIZE_BEFORE = 1 << 3;
+    static final int F_SIZE_AFTER = 1 << 4;
+    static final int F_ENTROPY_BEFORE = 1 << 5;
+    static final int F_ENTROPY_AFTER = 1 << 6;
+    static final int F_EXT_BEFORE = 1 << 7;
+    static final int F_EXT_AFTER = 1 << 8;
+
+    private TraceFormat() {
+    }
+
+    static void writeHeader(ByteBuffer dst, long baseMs) {
+        dst.putInt(MAGIC).put(VERSION).putLong(baseMs);
+    }
+
+    static void putVarLong(ByteBuffer dst, long v) {
+        while ((v & ~0x7FL) != 0) {
+            dst.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        dst.put((byte) v);
+    }
+
+    static long getVarLong(ByteBuffer src) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = src.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IllegalStateException("varint too long");
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
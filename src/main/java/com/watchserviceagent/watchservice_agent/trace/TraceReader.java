@@ -0,0 +1,172 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.watchserviceagent.watchservice_agent.trace.TraceFormat.*;
+
+/**
+ * 클래스 이름 : TraceReader
+ * 기능 : 트레이스 세그먼트를 읽어 FileAnalysisResult로 복원한다. 파일은 읽기 전용으로 메모리 매핑한다.
+ *        END 태그, 파일 끝, 중간에 잘린 레코드(기록 중 종료)는 모두 세그먼트 끝으로 본다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+public final class TraceReader {
+
+    private final ByteBuffer src;
+    private final List<String> dictionary = new ArrayList<>();
+    private long prevMs;
+    private boolean ended;
+
+    public TraceReader(ByteBuffer segment) throws IOException {
+        this.src = segment;
+        if (src.remaining() < HEADER_BYTES || src.getInt() != MAGIC) throw new IOException("not a trace segment");
+        byte version = src.get();
+        if (version != VERSION) throw new IOException("unsupported trace version: " + version);
+        this.prevMs = src.getLong();
+    }
+
+    /**
+     * 함수 이름 : open
+     * 기능 : 트레이스 파일을 읽기 전용으로 매핑하여 리더를 만든다.
+     * 매개변수 : path - 트레이스 파일 경로
+     * 반환값 : TraceReader - 리더
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public static TraceReader open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TraceReader(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /**
+     * 함수 이름 : listSegments
+     * 기능 : 디렉터리 안의 세그먼트 파일(*.wstrace)을 이름 순(= 기록 순)으로 반환한다.
+     * 매개변수 : dir - 세그먼트 디렉터리
+     * 반환값 : List<Path> - 세그먼트 경로 목록 (디렉터리가 없으면 빈 목록)
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public static List<Path> listSegments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX) && Files.isRegularFile(p))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * 함수 이름 : readAll
+     * 기능 : 여러 세그먼트를 순서대로 읽어 이벤트를 consumer에 넘긴다. 헤더가 깨진 세그먼트는 건너뛴다.
+     * 매개변수 : segments - 세그먼트 경로 목록, consumer - 이벤트 처리 콜백
+     * 반환값 : long - 읽은 이벤트 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public static long readAll(List<Path> segments, Consumer<FileAnalysisResult> consumer) {
+        return readAll(segments, consumer, Long.MAX_VALUE);
+    }
+
+    /**
+     * 함수 이름 : readAll
+     * 기능 : readAll과 같되 limit건을 읽으면 멈춘다. 남은 세그먼트는 매핑하지 않는다. (이벤트 재생의 limit용)
+     * 매개변수 : segments - 세그먼트 경로 목록, consumer - 이벤트 처리 콜백, limit - 최대 이벤트 수
+     * 반환값 : long - 읽은 이벤트 수
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public static long readAll(List<Path> segments, Consumer<FileAnalysisResult> consumer, long limit) {
+        long n = 0;
+        for (Path p : segments) {
+            if (n >= limit) break;
+            TraceReader reader;
+            try {
+                reader = open(p);
+            } catch (IOException e) {
+                continue;                 // 지워졌거나 헤더를 쓰기 전에 끊긴 세그먼트
+            }
+            for (FileAnalysisResult r; n < limit && (r = reader.next()) != null; n++) consumer.accept(r);
+        }
+        return n;
+    }
+
+    /**
+     * 함수 이름 : next
+     * 기능 : 다음 이벤트를 읽는다.
+     * 매개변수 : 없음
+     * 반환값 : FileAnalysisResult - 이벤트, 세그먼트 끝이면 null
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public FileAnalysisResult next() {
+        if (ended) return null;
+        try {
+            while (src.hasRemaining()) {
+                byte tag = src.get();
+                if (tag == TAG_STRING) {
+                    byte[] b = new byte[(int) getVarLong(src)];
+                    src.get(b);
+                    dictionary.add(new String(b, StandardCharsets.UTF_8));
+                } else if (tag == TAG_EVENT) {
+                    return readEvent();
+                } else {
+                    break;                // END 또는 알 수 없는 태그
+                }
+            }
+        } catch (BufferUnderflowException | IllegalStateException | IndexOutOfBoundsException e) {
+            // 기록 도중 잘린 마지막 레코드
+        }
+        ended = true;
+        return null;
+    }
+
+    private FileAnalysisResult readEvent() {
+        long ms = prevMs + unzigzag(getVarLong(src));
+        prevMs = ms;
+        int flags = (int) getVarLong(src);
+        String owner = lookup(getVarLong(src));
+        String type = lookup(getVarLong(src));
+        String path = lookup(getVarLong(src));
+        Long sizeBefore = ((flags & F_SIZE_BEFORE) != 0) ? unzigzag(getVarLong(src)) : null;
+        Long sizeAfter = ((flags & F_SIZE_AFTER) != 0) ? unzigzag(getVarLong(src)) : null;
+        Double entropyBefore = ((flags & F_ENTROPY_BEFORE) != 0) ? src.getDouble() : null;
+        Double entropyAfter = ((flags & F_ENTROPY_AFTER) != 0) ? src.getDouble() : null;
+        String extBefore = ((flags & F_EXT_BEFORE) != 0) ? lookup(getVarLong(src)) : null;
+        String extAfter = ((flags & F_EXT_AFTER) != 0) ? lookup(getVarLong(src)) : null;
+
+        return FileAnalysisResult.builder()
+                .ownerKey(owner)
+                .eventType(type)
+                .path(path)
+                .eventTime(((flags & F_TIME) != 0) ? Instant.ofEpochMilli(ms) : null)
+                .existsBefore((flags & F_EXISTS_BEFORE) != 0)
+                .existsAfter((flags & F_EXISTS_AFTER) != 0)
+                .sizeBefore(sizeBefore)
+                .sizeAfter(sizeAfter)
+                .entropyBefore(entropyBefore)
+                .entropyAfter(entropyAfter)
+                .extBefore(extBefore)
+                .extAfter(extAfter)
+                .build();
+    }
+
+    private String lookup(long ref) {
+        return (ref == 0) ? null : dictionary.get((int) ref - 1);
+    }
+}
@@ -0,0 +1,233 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.trace.dto.TraceRecorderStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 클래스 이름 : TraceRecorder
+ * 기능 : Collector가 만든 FileAnalysisResult를 집계기에 넘기기 전에 트레이스 세그먼트에 그대로 기록한다. (운영 환경 상시 캡처)
+ *        log 테이블은 윈도우 처리 후의 행만 남고 이벤트 시각 간격이 사라지므로, 성능 문제 재현에는 이 기록을 /replay 입력으로 쓴다.
+ *
+ * - 세그먼트는 segment-bytes 크기로 미리 늘린 파일을 READ_WRITE로 메모리 매핑하여 쓴다. 이벤트당 시스템 호출이 없다.
+ * - 쓰지 않은 영역은 0이고 0은 END 태그이므로, 프로세스가 죽어도 마지막으로 쓴 레코드까지 그대로 읽힌다.
+ * - 세그먼트가 가득 차면 다음 세그먼트로 넘어가며(사전/시각 기준 초기화), max-segments를 넘는 오래된 세그먼트는 지운다.
+ * - 기록 실패는 감시 루프에 영향을 주지 않는다. (실패 시 기록만 멈추고 카운트)
+ *
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Component
+@Slf4j
+public class TraceRecorder {
+
+    private static final String SEGMENT_PREFIX = "rec-";
+    private static final int TIMING_SAMPLE_MASK = 63;        // 64건마다 1건 기록 비용을 잰다
+
+    @Value("${watchservice.trace.recorder.enabled:false}")
+    private boolean enabled;
+
+    @Value("${watchservice.trace.recorder.dir:trace/recorder}")
+    private String dirValue;
+
+    @Value("${watchservice.trace.recorder.segment-bytes:16777216}")
+    private long segmentBytes;
+
+    @Value("${watchservice.trace.recorder.max-segments:8}")
+    private int maxSegments;
+
+    private Path dir;
+    private final TraceEncoder encoder = new TraceEncoder();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private Path segmentPath;
+    private boolean stopped;
+
+    // 통계 (record와 같은 락 아래에서 갱신)
+    private long events;
+    private long bytes;
+    private long segmentsOpened;
+    private long dropped;
+    private long sampledEvents;
+    private long sampledNanos;
+
+    /**
+     * 함수 이름 : init
+     * 기능 : 세그먼트 디렉터리를 준비한다. 첫 세그먼트는 첫 이벤트가 들어올 때 연다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PostConstruct
+    void init() {
+        dir = Paths.get(dirValue);
+        segmentBytes = Math.max(TraceFormat.HEADER_BYTES + 4096L, Math.min(segmentBytes, Integer.MAX_VALUE));
+        maxSegments = Math.max(1, maxSegments);
+        if (!enabled) {
+            log.info("[TraceRecorder] 비활성화");
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            log.warn("[TraceRecorder] 디렉터리 생성 실패, 기록하지 않음: dir={}", dir.toAbsolutePath(), e);
+            stopped = true;
+            return;
+        }
+        log.info("[TraceRecorder] init: dir={} segmentBytes={} maxSegments={}", dir.toAbsolutePath(), segmentBytes, maxSegments);
+    }
+
+    /**
+     * 함수 이름 : record
+     * 기능 : 이벤트 1건을 현재 세그먼트에 기록한다. 남은 공간이 부족하면 새 세그먼트를 열고 같은 이벤트를 다시 인코딩한다.
+     * 매개변수 : r - 파일 분석 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized void record(FileAnalysisResult r) {
+        if (!enabled || stopped || r == null) return;
+        boolean timed = (events & TIMING_SAMPLE_MASK) == 0;
+        long t0 = timed ? System.nanoTime() : 0L;
+        try {
+            ByteBuffer rec = (segment != null) ? encoder.encode(r) : null;
+            if (rec == null || rec.remaining() > segment.remaining()) {
+                rotate(r);
+                rec = encoder.encode(r);
+                if (rec.remaining() > segment.remaining()) {
+                    dropped++;                  // 세그먼트 하나보다 큰 레코드
+                    return;
+                }
+            }
+            bytes += rec.remaining();
+            segment.put(rec);
+            events++;
+        } catch (IOException | RuntimeException e) {
+            dropped++;
+            stopped = true;
+            log.warn("[TraceRecorder] 기록 실패, 이후 기록 중단: segment={}", segmentPath, e);
+            return;
+        }
+        if (timed) {
+            sampledNanos += System.nanoTime() - t0;
+            sampledEvents++;
+        }
+    }
+
+    /**
+     * 함수 이름 : listSegments
+     * 기능 : 보관 중인 세그먼트를 오래된 순으로 반환한다. 각 세그먼트는 TraceReader.open으로 읽는다.
+     * 매개변수 : 없음
+     * 반환값 : List<Path> - 세그먼트 경로 목록
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public List<Path> listSegments() throws IOException {
+        return TraceReader.listSegments(dir);
+    }
+
+    /**
+     * 함수 이름 : getStats
+     * 기능 : 기록 건수/크기/세그먼트/이벤트당 기록 비용(표본)을 반환한다.
+     * 매개변수 : 없음
+     * 반환값 : TraceRecorderStatsResponse - 통계
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public synchronized TraceRecorderStatsResponse getStats() {
+        List<String> names;
+        try {
+            names = listSegments().stream().map(p -> p.getFileName().toString()).toList();
+        } catch (IOException e) {
+            names = List.of();
+        }
+        return TraceRecorderStatsResponse.builder()
+                .enabled(enabled)
+                .recording(enabled && !stopped)
+                .dir(dir.toAbsolutePath().toString())
+                .events(events)
+                .bytes(bytes)
+                .bytesPerEvent(events > 0 ? (double) bytes / events : 0.0)
+                .dropped(dropped)
+                .segmentsOpened(segmentsOpened)
+                .currentSegment(segmentPath != null ? segmentPath.getFileName().toString() : null)
+                .currentSegmentUsed(segment != null ? segment.position() : 0L)
+                .segmentBytes(segmentBytes)
+                .segments(names)
+                .avgRecordNanos(sampledEvents > 0 ? (double) sampledNanos / sampledEvents : 0.0)
+                .build();
+    }
+
+    /**
+     * 함수 이름 : shutdown
+     * 기능 : 현재 세그먼트를 디스크에 반영하고, 쓰지 않은 뒷부분을 잘라낸다. 애플리케이션 종료 시 자동 호출된다.
+     * 매개변수 : 없음
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    @PreDestroy
+    synchronized void shutdown() {
+        closeSegment();
+        stopped = true;
+    }
+
+    private void rotate(FileAnalysisResult first) throws IOException {
+        closeSegment();
+
+        long baseMs = (first.getEventTime() != null) ? first.getEventTime().toEpochMilli() : System.currentTimeMillis();
+        segmentPath = dir.resolve(String.format("%s%013d-%06d%s",
+                SEGMENT_PREFIX, System.currentTimeMillis(), segmentsOpened, TraceFormat.SEGMENT_SUFFIX));
+        channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);   // 파일이 0으로 채워진 크기로 늘어난다
+        TraceFormat.writeHeader(segment, baseMs);
+        bytes += TraceFormat.HEADER_BYTES;
+        encoder.reset(baseMs);
+        segmentsOpened++;
+
+        List<Path> all = listSegments();
+        for (int i = 0; i < all.size() - maxSegments; i++) {
+            try {
+                Files.deleteIfExists(all.get(i));
+            } catch (IOException e) {
+                log.warn("[TraceRecorder] 오래된 세그먼트 삭제 실패: {}", all.get(i), e);
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) return;
+        try {
+            segment.force();
+            long used = segment.position();
+            segment = null;
+            try {
+                channel.truncate(used);
+            } catch (IOException e) {
+                // 매핑이 남아 있으면 잘라낼 수 없는 OS도 있다. 뒷부분은 0(END)이므로 읽기에는 문제 없음
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.warn("[TraceRecorder] 세그먼트 닫기 실패: {}", segmentPath, e);
+        } finally {
+            channel = null;
+            segment = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 클래스 이름 : TraceWriter
+ * 기능 : 이벤트 스트림을 트레이스 파일 1개(단일 세그먼트)로 순차 기록한다. 로그 테이블 내보내기 등 일괄 기록에 사용한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+public final class TraceWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final TraceEncoder encoder = new TraceEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+    private boolean started;
+    private long events;
+    private long bytes;
+
+    public TraceWriter(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * 함수 이름 : write
+     * 기능 : 이벤트 1건을 기록한다. 첫 이벤트 시각이 세그먼트 기준 시각이 된다.
+     * 매개변수 : r - 파일 분석 결과
+     * 반환값 : 없음
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    public void write(FileAnalysisResult r) throws IOException {
+        if (!started) {
+            long baseMs = (r.getEventTime() != null) ? r.getEventTime().toEpochMilli() : 0L;
+            TraceFormat.writeHeader(buffer, baseMs);
+            encoder.reset(baseMs);
+            started = true;
+        }
+        ByteBuffer record = encoder.encode(r);
+        if (record.remaining() > buffer.remaining()) flush();
+        if (record.remaining() > buffer.remaining()) {
+            drain(record);                // 버퍼보다 큰 레코드 (아주 긴 경로)
+        } else {
+            buffer.put(record);
+        }
+        events++;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    /** 지금까지 파일에 쓴 바이트 수 (close 이후에는 전체 크기) */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!started) TraceFormat.writeHeader(buffer, 0L);
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(TraceFormat.TAG_END);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        drain(buffer);
+        buffer.clear();
+    }
+
+    private void drain(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) bytes += channel.write(src);
+    }
+}
@@ -0,0 +1,32 @@
+package com.watchserviceagent.watchservice_agent.trace.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 클래스 이름 : TraceRecorderStatsResponse
+ * 기능 : 상시 이벤트 트레이스 기록기의 기록 현황(건수, 크기, 세그먼트)과 이벤트당 기록 비용을 담는 응답 DTO.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Getter
+@Builder
+@ToString
+public class TraceRecorderStatsResponse {
+    private final boolean enabled;
+    private final boolean recording;         // 실패로 멈추지 않고 기록 중인지
+    private final String dir;
+    private final long events;               // 이번 실행에서 기록한 이벤트 수
+    private final long bytes;                // 이번 실행에서 쓴 바이트 수 (세그먼트 헤더 포함)
+    private final double bytesPerEvent;
+    private final long dropped;              // 기록하지 못한 이벤트 수
+    private final long segmentsOpened;
+    private final String currentSegment;
+    private final long currentSegmentUsed;
+    private final long segmentBytes;
+    private final List<String> segments;     // 보관 중인 세그먼트 (오래된 순)
+    private final double avgRecordNanos;     // 이벤트당 기록 비용 (64건마다 1건 표본)
+}
@@ -4,6 +4,7 @@ import com.watchserviceagent.watchservice_agent.analytics.EventWindowAggregator;
 import com.watchserviceagent.watchservice_agent.collector.FileCollectorService;
 import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
 import com.watchserviceagent.watchservice_agent.common.util.SessionIdManager;
+import com.watchserviceagent.watchservice_agent.trace.TraceRecorder;
 import com.watchserviceagent.watchservice_agent.watcher.dto.WatcherEventRecord;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +30,7 @@ public class WatcherService {
     private final SessionIdManager sessionIdManager;
     private final FileCollectorService fileCollectorService;
     private final EventWindowAggregator eventWindowAggregator;
+    private final TraceRecorder traceRecorder;
 
     private WatchService watchService;
     private Thread watcherThread;
@@ -234,6 +236,9 @@ public class WatcherService {
 
                     FileAnalysisResult analysisResult = fileCollectorService.analyze(record);
 
+                    // 재현용 상시 트레이스 (집계 전 입력 그대로)
+                    traceRecorder.record(analysisResult);
+
                     // ✅ 윈도우 집계+AI+로그 저장
                     eventWindowAggregator.onFileAnalysisResult(analysisResult);
 
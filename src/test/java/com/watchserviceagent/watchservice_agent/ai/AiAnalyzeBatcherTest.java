@@ -0,0 +1,127 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBatchStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : AiAnalyzeBatcherTest
+ * 기능 : 마이크로 배치가 응답을 요청 순서대로 돌려주는지, batch 미지원(404)과 응답 개수 불일치 때 단건으로 다시 보내는지,
+ *        그 밖의 실패는 배치 전체를 실패로 돌려주는지 로컬 스텁 서버로 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AiAnalyzeBatcherTest {
+
+    private static final int BATCH = 4;
+
+    private StubAiServer server;
+    private AiAsyncHttpClient client;
+    private AiAnalyzeBatcher batcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubAiServer();
+        client = StubAiServer.asyncClient(16, 5000);
+        batcher = new AiAnalyzeBatcher(client);
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "analyzeUrl", server.analyzeUrl());
+        ReflectionTestUtils.setField(batcher, "batchUrl", server.batchUrl());
+        ReflectionTestUtils.setField(batcher, "maxItems", BATCH);
+        ReflectionTestUtils.setField(batcher, "schedulerEnabled", false);
+        ReflectionTestUtils.setField(batcher, "schedulerMaxInFlight", 16);
+        ReflectionTestUtils.setField(batcher, "maxDelayMs", 60_000L);     // 가득 찼을 때만 보낸다
+        ReflectionTestUtils.setField(batcher, "unsupportedRecheckMs", 300_000L);
+        batcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+        client.shutdown();
+        server.close();
+    }
+
+    @Test
+    void fullBatchIsSentOnceAndResultsKeepOrder() throws Exception {
+        assertLabelsInOrder(submit(0));
+        assertEquals(1, server.batchCalls.get());
+        assertEquals(0, server.analyzeCalls.get());
+
+        AiBatchStatsResponse stats = batcher.getStats();
+        assertEquals(1, stats.getBatches());
+        assertEquals(BATCH, stats.getBatchedItems());
+        assertTrue(stats.isBatchSupported());
+    }
+
+    @Test
+    void unsupportedBatchFallsBackToSinglesAndStaysSingle() throws Exception {
+        server.batchStatus = 404;
+        assertLabelsInOrder(submit(0));
+        assertEquals(1, server.batchCalls.get());
+        assertEquals(BATCH, server.analyzeCalls.get());
+
+        AiBatchStatsResponse stats = batcher.getStats();
+        assertEquals(BATCH, stats.getFallbackItems());
+        assertFalse(stats.isBatchSupported());
+        assertTrue(stats.getBatchRecheckAtMs() > System.currentTimeMillis());
+
+        // recheck 시각 전에는 batch URL을 다시 부르지 않는다
+        assertLabelsInOrder(submit(100));
+        assertEquals(1, server.batchCalls.get());
+        assertEquals(2 * BATCH, server.analyzeCalls.get());
+        assertEquals(BATCH, batcher.getStats().getSingleCalls());
+    }
+
+    @Test
+    void countMismatchFallsBackToSingles() throws Exception {
+        server.batchDropItems = 1;
+        assertLabelsInOrder(submit(0));
+        assertEquals(1, server.batchCalls.get());
+        assertEquals(BATCH, server.analyzeCalls.get());
+
+        AiBatchStatsResponse stats = batcher.getStats();
+        assertEquals(BATCH, stats.getFallbackItems());
+        assertTrue(stats.isBatchSupported());     // 개수 불일치는 미지원으로 보지 않는다
+    }
+
+    @Test
+    void serverErrorFailsWholeBatchWithoutSingles() {
+        server.batchStatus = 500;
+        for (CompletableFuture<AiResponse> f : submit(0)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+            AiAsyncHttpClient.HttpStatusException status =
+                    assertInstanceOf(AiAsyncHttpClient.HttpStatusException.class, e.getCause());
+            assertEquals(500, status.getStatusCode());
+        }
+        assertEquals(0, server.analyzeCalls.get());
+        assertEquals(BATCH, batcher.getStats().getFailedItems());
+    }
+
+    private List<CompletableFuture<AiResponse>> submit(int firstReadCount) {
+        List<CompletableFuture<AiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            futures.add(batcher.analyze(AiPayload.builder().fileReadCount(firstReadCount + i).build()));
+        }
+        return futures;
+    }
+
+    private static void assertLabelsInOrder(List<CompletableFuture<AiResponse>> futures) throws Exception {
+        int first = Integer.parseInt(futures.get(0).get(5, TimeUnit.SECONDS).getLabel().substring(1));
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("R" + (first + i), futures.get(i).get(5, TimeUnit.SECONDS).getLabel());
+        }
+    }
+}
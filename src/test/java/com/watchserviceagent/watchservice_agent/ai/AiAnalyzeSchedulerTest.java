@@ -0,0 +1,177 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiSchedulerStatsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : AiAnalyzeSchedulerTest
+ * 기능 : 위험도 스케줄러가 자리가 날 때 위험도 → 변경 파일 수 → 도착 순으로 보내는지,
+ *        대기열이 가득 차면 가장 낮은 순위를 밀어내는지, 같은 피처 요청을 합치는지 검증한다.
+ *        AI 호출은 테스트가 직접 완료하는 CompletableFuture로 대신한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AiAnalyzeSchedulerTest {
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final Map<String, CompletableFuture<AiResponse>> calls = new ConcurrentHashMap<>();
+    private AiAnalyzeScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    private AiAnalyzeScheduler scheduler(boolean enabled, int maxInFlight, int maxQueued) {
+        LocalFallbackClassifier classifier = new LocalFallbackClassifier();
+        ReflectionTestUtils.setField(classifier, "warningScore", 0.40);
+        ReflectionTestUtils.setField(classifier, "dangerScore", 0.70);
+        scheduler = new AiAnalyzeScheduler(classifier, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "enabled", enabled);
+        ReflectionTestUtils.setField(scheduler, "maxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(scheduler, "maxQueued", maxQueued);
+        scheduler.init();
+        return scheduler;
+    }
+
+    private static AiPayload safe(int changed) {
+        return AiPayload.builder().changedFilesCount(changed).build();
+    }
+
+    private static AiPayload warning() {
+        return AiPayload.builder().fileEncryptLikeCount(1).changedFilesCount(10).build();   // 0.435
+    }
+
+    private static AiPayload danger() {
+        return AiPayload.builder().fileEncryptLikeCount(5).changedFilesCount(5).build();    // 0.90
+    }
+
+    /** 시작되면 이름을 기록하고, 테스트가 complete(name)할 때까지 끝나지 않는 호출 */
+    private Supplier<CompletableFuture<AiResponse>> call(String name) {
+        return () -> {
+            CompletableFuture<AiResponse> f = new CompletableFuture<>();
+            calls.put(name, f);
+            started.add(name);
+            return f;
+        };
+    }
+
+    private void complete(String name) {
+        calls.get(name).complete(new AiResponse());
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (started.size() < count && System.currentTimeMillis() < deadline) Thread.sleep(2);
+        assertEquals(count, started.size(), "started=" + started);
+    }
+
+    @Test
+    void releasesInRiskThenChangedFilesThenArrivalOrder() throws Exception {
+        scheduler(true, 1, 16);
+        scheduler.submit(safe(1), call("blocker"));
+        scheduler.submit(safe(1), call("safe-1"));
+        scheduler.submit(safe(9), call("safe-9"));
+        scheduler.submit(warning(), call("warning"));
+        scheduler.submit(AiPayload.builder().changedFilesCount(9).fileWriteCount(1).build(), call("safe-9b"));
+        scheduler.submit(danger(), call("danger"));
+        assertEquals(List.of("blocker"), started);
+        assertEquals(5, scheduler.getStats().getQueued());
+
+        String[] expected = {"danger", "warning", "safe-9", "safe-9b", "safe-1"};
+        String running = "blocker";
+        for (int i = 0; i < expected.length; i++) {
+            complete(running);
+            awaitStarted(i + 2);
+            running = expected[i];
+            assertEquals(running, started.get(i + 1));
+        }
+        complete(running);
+        assertEquals(0, scheduler.getStats().getQueued());
+    }
+
+    @Test
+    void fullQueueEvictsLowestPriority() throws Exception {
+        scheduler(true, 1, 2);
+        scheduler.submit(safe(1), call("blocker"));
+        CompletableFuture<AiResponse> a = scheduler.submit(safe(3), call("a"));
+        CompletableFuture<AiResponse> b = scheduler.submit(safe(2), call("b"));
+
+        CompletableFuture<AiResponse> d = scheduler.submit(danger(), call("danger"));
+        assertRejected(b);                                   // 가장 낮은 순위가 밀려남
+        assertFalse(a.isDone());
+
+        CompletableFuture<AiResponse> c = scheduler.submit(safe(1), call("c"));
+        assertRejected(c);                                   // 새 요청이 가장 낮으면 바로 거절
+
+        complete("blocker");
+        awaitStarted(2);
+        assertEquals("danger", started.get(1));
+        complete("danger");
+        assertNotNull(d.get(5, TimeUnit.SECONDS));
+        awaitStarted(3);
+        assertEquals("a", started.get(2));
+        complete("a");
+
+        AiSchedulerStatsResponse stats = scheduler.getStats();
+        AiSchedulerStatsResponse.SeverityStats safeStats = stats.getSeverities().stream()
+                .filter(s -> "SAFE".equals(s.getSeverity())).findFirst().orElseThrow();
+        assertEquals(2, safeStats.getDropped());
+        assertEquals(2, safeStats.getStarted());
+    }
+
+    @Test
+    void identicalQueuedRequestsAreCoalesced() throws Exception {
+        scheduler(true, 1, 16);
+        AtomicInteger warningCalls = new AtomicInteger();
+        scheduler.submit(safe(1), call("blocker"));
+        CompletableFuture<AiResponse> first = scheduler.submit(warning(), () -> {
+            warningCalls.incrementAndGet();
+            return call("warning").get();
+        });
+        CompletableFuture<AiResponse> second = scheduler.submit(warning(), () -> {
+            warningCalls.incrementAndGet();
+            return call("warning-dup").get();
+        });
+        assertEquals(1, scheduler.getStats().getQueued());
+
+        complete("blocker");
+        awaitStarted(2);
+        AiResponse response = new AiResponse();
+        calls.get("warning").complete(response);
+        assertSame(response, first.get(5, TimeUnit.SECONDS));
+        assertSame(response, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, warningCalls.get());
+    }
+
+    @Test
+    void disabledSchedulerCallsDirectly() {
+        scheduler(false, 1, 1);
+        for (int i = 0; i < 5; i++) scheduler.submit(safe(i), call("c" + i));
+        assertEquals(5, started.size());
+    }
+
+    private static void assertRejected(CompletableFuture<AiResponse> f) {
+        assertTrue(f.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
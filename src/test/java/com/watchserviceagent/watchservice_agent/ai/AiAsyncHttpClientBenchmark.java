@@ -0,0 +1,74 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiAsyncStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 클래스 이름 : AiAsyncHttpClientBenchmark
+ * 기능 : 비동기 AI 클라이언트로 로컬 스텁 서버에 요청 묶음을 한꺼번에 보냈을 때의 처리량과 요청별 지연(대기열 포함)을
+ *        서버 응답 지연(0/5/20ms)과 동시 요청 한도별로 잰다. 한도 1은 예전처럼 한 건씩 차례로 보내는 경우에 해당한다. (./gradlew benchmark)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class AiAsyncHttpClientBenchmark {
+
+    private static final int[] LATENCIES_MS = {0, 5, 20};
+    private static final int[] MAX_IN_FLIGHT = {1, 4, 16, 64};
+
+    @Test
+    void throughputByLatencyAndInFlightLimit() throws Exception {
+        try (StubAiServer server = new StubAiServer()) {
+            run(server, 0, 16, 2_000, false);                // 워밍업
+            for (int latency : LATENCIES_MS) {
+                // 한도 1에서도 2초 안팎에 끝나도록 건수를 정한다
+                int requests = (latency == 0) ? 2_000 : Math.max(100, 2_000 / latency);
+                for (int maxInFlight : MAX_IN_FLIGHT) run(server, latency, maxInFlight, requests, true);
+            }
+        }
+    }
+
+    private static void run(StubAiServer server, int latencyMs, int maxInFlight, int requests, boolean print)
+            throws Exception {
+        server.latencyMs = latencyMs;
+        AiAsyncHttpClient client = StubAiServer.asyncClient(maxInFlight, 30_000);
+        try {
+            long[] done = new long[requests];
+            @SuppressWarnings("unchecked")
+            CompletableFuture<AiResponse>[] futures = new CompletableFuture[requests];
+            long t0 = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int idx = i;
+                futures[i] = client.postJson(AiHttpClient.Endpoint.ANALYZE, server.analyzeUrl(),
+                        AiPayload.builder().fileReadCount(i).build(), AiResponse.class);
+                futures[i].thenRun(() -> done[idx] = System.nanoTime());
+            }
+            CompletableFuture.allOf(futures).get(120, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - t0;
+            for (int i = 0; i < requests; i++) assertEquals("R" + i, futures[i].get().getLabel());
+            if (!print) return;
+
+            // 모든 요청을 t0에 넣었으므로 완료 시각 - t0 = 대기열 + 전송 지연
+            double[] latencies = new double[requests];
+            for (int i = 0; i < requests; i++) latencies[i] = (done[i] - t0) / 1e6;
+            Arrays.sort(latencies);
+            AiAsyncStatsResponse stats = client.getStats().stream()
+                    .filter(s -> "ANALYZE".equals(s.getEndpoint())).findFirst().orElseThrow();
+            System.out.printf("[AiAsyncHttpClientBenchmark] serverLatency=%dms maxInFlight=%d requests=%d throughput=%.0f req/s"
+                            + " endToEnd p50=%.1f ms p99=%.1f ms call p50=%.1f ms%n",
+                    latencyMs, maxInFlight, requests, requests / (elapsed / 1e9),
+                    latencies[requests / 2], latencies[(int) (requests * 0.99)], stats.getSuccessP50Ms());
+        } finally {
+            client.shutdown();
+        }
+    }
+}
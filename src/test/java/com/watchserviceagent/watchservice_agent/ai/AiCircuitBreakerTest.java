@@ -0,0 +1,122 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.AiCircuitBreaker.State;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiBreakerStatsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : AiCircuitBreakerTest
+ * 기능 : 서킷 브레이커의 CLOSED → OPEN → HALF_OPEN → CLOSED/OPEN 상태 전이, probe 수 제한, open 시간 배증을 검증한다.
+ *        OPEN 시간 경과는 openUntilMs를 앞당겨 흉내 낸다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AiCircuitBreakerTest {
+
+    private static AiCircuitBreaker breaker(boolean enabled, int threshold, long openMs, long maxOpenMs, int probes) {
+        AiCircuitBreaker b = new AiCircuitBreaker(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(b, "enabled", enabled);
+        ReflectionTestUtils.setField(b, "failureThreshold", threshold);
+        ReflectionTestUtils.setField(b, "openMs", openMs);
+        ReflectionTestUtils.setField(b, "maxOpenMs", maxOpenMs);
+        ReflectionTestUtils.setField(b, "halfOpenMaxProbes", probes);
+        b.init();
+        return b;
+    }
+
+    private static void elapseOpen(AiCircuitBreaker b) {
+        ReflectionTestUtils.setField(b, "openUntilMs", 0L);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        AiCircuitBreaker b = breaker(true, 3, 10_000, 120_000, 1);
+        b.onFailure("timeout");
+        b.onFailure("timeout");
+        b.onSuccess();                          // 연속 실패 초기화
+        b.onFailure("timeout");
+        b.onFailure("timeout");
+        assertEquals(State.CLOSED, b.getState());
+        assertTrue(b.tryAcquire());
+
+        b.onFailure("http 503");
+        assertEquals(State.OPEN, b.getState());
+        assertFalse(b.tryAcquire());
+        assertFalse(b.tryAcquire());
+
+        AiBreakerStatsResponse stats = b.getStats(Map.of());
+        assertEquals(1, stats.getOpened());
+        assertEquals(2, stats.getShortCircuited());
+        assertEquals("http 503", stats.getLastFailure());
+        assertTrue(stats.getOpenUntilMs() > System.currentTimeMillis());
+    }
+
+    @Test
+    void halfOpenProbeSuccessCloses() {
+        AiCircuitBreaker b = breaker(true, 1, 10_000, 120_000, 1);
+        b.onFailure("timeout");
+        elapseOpen(b);
+
+        assertTrue(b.tryAcquire());             // probe
+        assertEquals(State.HALF_OPEN, b.getState());
+        assertFalse(b.tryAcquire());            // probe 자리 1개뿐
+        b.onSuccess();
+
+        assertEquals(State.CLOSED, b.getState());
+        assertTrue(b.tryAcquire());
+        assertEquals(10_000, b.getStats(Map.of()).getCurrentOpenMs());
+        assertEquals(1, b.getStats(Map.of()).getProbes());
+    }
+
+    @Test
+    void halfOpenProbeFailureReopensWithDoubledTimeCappedAtMax() {
+        AiCircuitBreaker b = breaker(true, 1, 10_000, 30_000, 1);
+        b.onFailure("timeout");
+        assertEquals(10_000, b.getStats(Map.of()).getCurrentOpenMs());
+
+        long[] expected = {20_000, 30_000, 30_000};
+        for (long openMs : expected) {
+            elapseOpen(b);
+            assertTrue(b.tryAcquire());
+            b.onFailure("timeout");
+            assertEquals(State.OPEN, b.getState());
+            assertEquals(openMs, b.getStats(Map.of()).getCurrentOpenMs());
+            assertFalse(b.tryAcquire());
+        }
+
+        // 성공하면 open 시간은 초기값으로, 다음 장애는 다시 threshold부터
+        elapseOpen(b);
+        assertTrue(b.tryAcquire());
+        b.onSuccess();
+        b.onFailure("timeout");
+        assertEquals(10_000, b.getStats(Map.of()).getCurrentOpenMs());
+    }
+
+    @Test
+    void ignoredProbeReturnsItsSlot() {
+        AiCircuitBreaker b = breaker(true, 1, 10_000, 120_000, 2);
+        b.onFailure("timeout");
+        elapseOpen(b);
+
+        assertTrue(b.tryAcquire());
+        assertTrue(b.tryAcquire());
+        assertFalse(b.tryAcquire());
+        b.onIgnored();                          // 로컬 대기열 초과 등 서버와 무관한 종료
+        assertTrue(b.tryAcquire());
+        assertEquals(State.HALF_OPEN, b.getState());
+    }
+
+    @Test
+    void disabledBreakerNeverBlocks() {
+        AiCircuitBreaker b = breaker(false, 1, 10_000, 120_000, 1);
+        for (int i = 0; i < 10; i++) b.onFailure("timeout");
+        assertEquals(State.CLOSED, b.getState());
+        assertTrue(b.tryAcquire());
+    }
+}
@@ -0,0 +1,92 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : AiResultCacheTest
+ * 기능 : 분석 결과 캐시의 피처 양자화(카운트 구간, entropy/size 반올림 단위), TTL 만료, LRU 축출을 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AiResultCacheTest {
+
+    private static final AiResult DANGER = AiResult.builder().label("DANGER").score(0.9).source(AiResult.SOURCE_REMOTE).build();
+
+    private static AiPayload.AiPayloadBuilder payload() {
+        return AiPayload.builder()
+                .fileReadCount(10).fileWriteCount(20).fileDeleteCount(3).fileRenameCount(4)
+                .fileEncryptLikeCount(5).changedFilesCount(30).randomExtensionFlag(1)
+                .entropyDiffMean(0.50).fileSizeDiffMean(1000.0);
+    }
+
+    @Test
+    void countsShareKeyWithinStep() {
+        AiResultCache cache = new AiResultCache(100, 60_000, 5, 0.05, 256);
+        cache.put(payload().build(), DANGER, 0);
+
+        // 10..14 → 같은 구간(2), 15 → 다음 구간
+        assertSame(DANGER, cache.get(payload().fileReadCount(14).build(), 1));
+        assertNull(cache.get(payload().fileReadCount(15).build(), 1));
+        assertNull(cache.get(payload().fileReadCount(9).build(), 1));
+        assertNull(cache.get(payload().randomExtensionFlag(0).build(), 1));
+    }
+
+    @Test
+    void entropyAndSizeAreRoundedToStep() {
+        AiResultCache cache = new AiResultCache(100, 60_000, 1, 0.05, 256);
+        cache.put(payload().build(), DANGER, 0);
+
+        // 0.50 ± 0.025 미만은 같은 버킷, 1000 ± 128 미만도 같은 버킷
+        assertSame(DANGER, cache.get(payload().entropyDiffMean(0.52).fileSizeDiffMean(1100.0).build(), 1));
+        assertSame(DANGER, cache.get(payload().entropyDiffMean(0.48).fileSizeDiffMean(900.0).build(), 1));
+        assertNull(cache.get(payload().entropyDiffMean(0.58).build(), 1));
+        assertNull(cache.get(payload().fileSizeDiffMean(1300.0).build(), 1));
+        assertNull(cache.get(payload().fileWriteCount(21).build(), 1));
+    }
+
+    @Test
+    void nonPositiveStepMeansExactMatch() {
+        AiResultCache cache = new AiResultCache(100, 60_000, 1, 0, 0);
+        cache.put(payload().build(), DANGER, 0);
+
+        assertSame(DANGER, cache.get(payload().build(), 1));
+        assertNull(cache.get(payload().entropyDiffMean(0.5000001).build(), 1));
+        assertNull(cache.get(payload().fileSizeDiffMean(1000.5).build(), 1));
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        AiResultCache cache = new AiResultCache(100, 1000, 1, 0.05, 256);
+        cache.put(payload().build(), DANGER, 5000);
+
+        assertSame(DANGER, cache.get(payload().build(), 5999));
+        assertNull(cache.get(payload().build(), 6000));
+        assertNull(cache.get(payload().build(), 6001));
+
+        AiCacheStatsResponse stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getExpirations());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        AiResultCache cache = new AiResultCache(2, 60_000, 1, 0.05, 256);
+        cache.put(payload().fileReadCount(1).build(), DANGER, 0);
+        cache.put(payload().fileReadCount(2).build(), DANGER, 0);
+        cache.get(payload().fileReadCount(1).build(), 1);               // 1이 최근 사용
+        cache.put(payload().fileReadCount(3).build(), DANGER, 2);       // 2 축출
+
+        assertNotNull(cache.get(payload().fileReadCount(1).build(), 3));
+        assertNull(cache.get(payload().fileReadCount(2).build(), 3));
+        assertNotNull(cache.get(payload().fileReadCount(3).build(), 3));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+}
@@ -0,0 +1,219 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiFamilyCacheStatsResponse;
+import com.watchserviceagent.watchservice_agent.ai.dto.FamilyPredictResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : FamilyResultCacheTest
+ * 기능 : 패밀리 분류 결과 캐시의 키 정규화, TTL, 동기/비동기 single-flight, 실패 응답 비캐시를 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class FamilyResultCacheTest {
+
+    private static FamilyPredictResponse ok(String family) {
+        return FamilyPredictResponse.builder()
+                .topk(List.of(new FamilyPredictResponse.Item(family, 0.9)))
+                .topFamily(family)
+                .build();
+    }
+
+    private static FamilyPredictResponse failed() {
+        return FamilyPredictResponse.builder()
+                .topk(Collections.emptyList())
+                .message("Family 서버 호출 실패")
+                .build();
+    }
+
+    @Test
+    void keyIgnoresMapOrderButNotTopk() {
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("x", 1);
+        a.put("y", 2);
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("y", 2);
+        b.put("x", 1);
+
+        assertEquals(FamilyResultCache.keyOf(a, 3), FamilyResultCache.keyOf(b, 3));
+        assertNotEquals(FamilyResultCache.keyOf(a, 3), FamilyResultCache.keyOf(a, 5));
+    }
+
+    @Test
+    void cachesSuccessfulResponseUntilTtl() throws Exception {
+        FamilyResultCache cache = new FamilyResultCache(10, 50);
+        AtomicInteger calls = new AtomicInteger();
+
+        FamilyPredictResponse first = cache.get("k", () -> { calls.incrementAndGet(); return ok("LockBit"); });
+        FamilyPredictResponse second = cache.get("k", () -> { calls.incrementAndGet(); return ok("LockBit"); });
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+
+        Thread.sleep(80);
+        cache.get("k", () -> { calls.incrementAndGet(); return ok("LockBit"); });
+        assertEquals(2, calls.get());
+
+        AiFamilyCacheStatsResponse stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getExpirations());
+    }
+
+    @Test
+    void doesNotCacheFailedResponse() {
+        FamilyResultCache cache = new FamilyResultCache(10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("k", () -> { calls.incrementAndGet(); return failed(); });
+        cache.get("k", () -> { calls.incrementAndGet(); return failed(); });
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        FamilyResultCache cache = new FamilyResultCache(2, 60_000);
+        cache.get("a", () -> ok("A"));
+        cache.get("b", () -> ok("B"));
+        cache.get("a", () -> ok("A"));          // a가 최근 사용
+        cache.get("c", () -> ok("C"));          // b 축출
+
+        AtomicInteger calls = new AtomicInteger();
+        cache.get("a", () -> { calls.incrementAndGet(); return ok("A"); });
+        cache.get("b", () -> { calls.incrementAndGet(); return ok("B"); });
+        assertEquals(1, calls.get());
+        assertTrue(cache.stats().getEvictions() >= 1);
+    }
+
+    @Test
+    void concurrentSyncRequestsShareOneCall() throws Exception {
+        FamilyResultCache cache = new FamilyResultCache(10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<FamilyPredictResponse>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get("k", () -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                await(release);
+                return ok("Conti");
+            })));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < threads; i++) {
+                results.add(pool.submit(() -> cache.get("k", () -> { calls.incrementAndGet(); return ok("Conti"); })));
+            }
+            waitForCoalesced(cache, threads - 1);
+            release.countDown();
+
+            FamilyPredictResponse leader = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<FamilyPredictResponse> f : results) {
+                assertSame(leader, f.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(threads - 1, cache.stats().getCoalesced());
+            assertEquals(0, cache.stats().getInFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncRequestsShareInFlightFutureWithSyncAndAsyncCallers() throws Exception {
+        FamilyResultCache cache = new FamilyResultCache(10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<FamilyPredictResponse> remote = new CompletableFuture<>();
+
+        CompletableFuture<FamilyPredictResponse> a = cache.getAsync("k", () -> { calls.incrementAndGet(); return remote; });
+        CompletableFuture<FamilyPredictResponse> b = cache.getAsync("k", () -> { calls.incrementAndGet(); return remote; });
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<FamilyPredictResponse> sync = pool.submit(() -> cache.get("k", () -> { calls.incrementAndGet(); return ok("X"); }));
+            waitForCoalesced(cache, 2);
+            assertFalse(a.isDone());
+
+            FamilyPredictResponse res = ok("BlackCat");
+            remote.complete(res);
+
+            assertSame(res, a.get(5, TimeUnit.SECONDS));
+            assertSame(res, b.get(5, TimeUnit.SECONDS));
+            assertSame(res, sync.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+
+        // 완료 후에는 캐시 hit으로 바로 완료
+        CompletableFuture<FamilyPredictResponse> c = cache.getAsync("k", () -> { calls.incrementAndGet(); return remote; });
+        assertTrue(c.isDone());
+        assertEquals(1, calls.get());
+        assertEquals(0, cache.stats().getInFlight());
+    }
+
+    @Test
+    void asyncFailureIsSharedButNotCached() throws Exception {
+        FamilyResultCache cache = new FamilyResultCache(10, 60_000);
+        CompletableFuture<FamilyPredictResponse> remote = new CompletableFuture<>();
+        CompletableFuture<FamilyPredictResponse> a = cache.getAsync("k", () -> remote);
+        CompletableFuture<FamilyPredictResponse> b = cache.getAsync("k", () -> remote);
+
+        remote.completeExceptionally(new IllegalStateException("down"));
+        assertTrue(a.isCompletedExceptionally());
+        assertTrue(b.isCompletedExceptionally());
+
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<FamilyPredictResponse> retry = cache.getAsync("k", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(ok("Akira"));
+        });
+        assertEquals("Akira", retry.get(5, TimeUnit.SECONDS).getTopFamily());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void callerCannotCompleteSharedFuture() throws Exception {
+        FamilyResultCache cache = new FamilyResultCache(10, 60_000);
+        CompletableFuture<FamilyPredictResponse> remote = new CompletableFuture<>();
+        CompletableFuture<FamilyPredictResponse> a = cache.getAsync("k", () -> remote);
+        CompletableFuture<FamilyPredictResponse> b = cache.getAsync("k", () -> remote);
+
+        a.complete(failed());
+        FamilyPredictResponse res = ok("Play");
+        remote.complete(res);
+        assertSame(res, b.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void waitForCoalesced(FamilyResultCache cache, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.stats().getCoalesced() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, cache.stats().getCoalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 클래스 이름 : LocalModelEngineBenchmark
+ * 기능 : 내장 추론 엔진의 판정 1건당 시간(ns)과 할당량(bytes)을 잰다. (./gradlew benchmark)
+ *        트리 앙상블 120개(깊이 5, 3클래스) 모델로 classify(AiResult 생성)와 riskScore 경로(predict만)를 비교한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class LocalModelEngineBenchmark {
+
+    private static final int WARMUP = 300_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    void classifyCostPerCall() throws Exception {
+        LocalModelEngine.Model model = LocalModelEngine.Model.parse(new ObjectMapper().readTree(treeModel(120, 5, 3)));
+        AiPayload[] payloads = payloads(1024);
+        double[] scratch = model.scratch.get();
+
+        double sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += model.classify(payloads[i & 1023]).getScore();
+            model.predict(payloads[i & 1023], scratch);
+        }
+
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            AiResult r = model.classify(payloads[i & 1023]);
+            sink += r.getScore();
+        }
+        long classifyNanos = System.nanoTime() - t0;
+        long classifyBytes = allocatedBytes() - bytes0;
+
+        bytes0 = allocatedBytes();
+        t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += model.predict(payloads[i & 1023], scratch);
+        }
+        long predictNanos = System.nanoTime() - t0;
+        long predictBytes = allocatedBytes() - bytes0;
+
+        System.out.printf("[LocalModelEngineBenchmark] classify: %.1f ns/op, %.1f bytes/op%n",
+                (double) classifyNanos / ITERATIONS, (double) classifyBytes / ITERATIONS);
+        System.out.printf("[LocalModelEngineBenchmark] predict (riskScore 경로): %.1f ns/op, %.1f bytes/op (sink=%s)%n",
+                (double) predictNanos / ITERATIONS, (double) predictBytes / ITERATIONS, sink);
+        assertTrue(predictBytes / ITERATIONS < 8, "predict는 할당이 없어야 함");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** 무작위 분할 트리 앙상블 모델 JSON (전위 순서 노드, 완전 이진 트리) */
+    static String treeModel(int trees, int depth, int classes) {
+        ObjectMapper om = new ObjectMapper();
+        Random rnd = new Random(42);
+        ObjectNode root = om.createObjectNode();
+        root.put("type", "tree_ensemble");
+        ArrayNode cls = root.putArray("classes");
+        cls.add("Benign");
+        for (int c = 1; c < classes; c++) cls.add("Family" + c);
+        ArrayNode treeArray = root.putArray("trees");
+        for (int t = 0; t < trees; t++) {
+            ObjectNode tree = treeArray.addObject();
+            tree.put("class", t % classes);
+            ArrayNode nodes = tree.putArray("nodes");
+            addNode(nodes, depth, rnd);
+        }
+        return root.toString();
+    }
+
+    private static int addNode(ArrayNode nodes, int depth, Random rnd) {
+        int id = nodes.size();
+        ObjectNode node = nodes.addObject();
+        if (depth == 0) {
+            node.put("v", rnd.nextGaussian() * 0.3);
+            return id;
+        }
+        int f = rnd.nextInt(LocalModelEngine.Model.FEATURE_COUNT);
+        node.put("f", f);
+        node.put("t", threshold(f, rnd));
+        node.put("l", addNode(nodes, depth - 1, rnd));
+        node.put("r", addNode(nodes, depth - 1, rnd));
+        return id;
+    }
+
+    private static double threshold(int feature, Random rnd) {
+        return switch (feature) {
+            case 6 -> 0.5;
+            case 7 -> rnd.nextDouble();
+            case 8 -> rnd.nextInt(20_000) - 10_000;
+            default -> rnd.nextInt(50);
+        };
+    }
+
+    static AiPayload[] payloads(int n) {
+        Random rnd = new Random(7);
+        AiPayload[] out = new AiPayload[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = AiPayload.builder()
+                    .fileReadCount(rnd.nextInt(60))
+                    .fileWriteCount(rnd.nextInt(60))
+                    .fileDeleteCount(rnd.nextInt(30))
+                    .fileRenameCount(rnd.nextInt(30))
+                    .fileEncryptLikeCount(rnd.nextInt(40))
+                    .changedFilesCount(rnd.nextInt(80))
+                    .randomExtensionFlag(rnd.nextInt(2))
+                    .entropyDiffMean(rnd.nextDouble())
+                    .fileSizeDiffMean(rnd.nextInt(20_000) - 10_000)
+                    .build();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,168 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : LocalModelEngineTest
+ * 기능 : 내장 추론 엔진이 손으로 계산할 수 있는 작은 모델(트리/선형)과 무작위 트리 앙상블에서
+ *        모델 파일을 그대로 해석한 결과와 같은 확률/클래스를 내는지, 잘못된 모델 파일을 거부하는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class LocalModelEngineTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * 트리 2개(Benign/LockBit/Conti). 노드 번호는 파일 안에서 일부러 전위 순서가 아니게 적었다.
+     * tree0(class 1): encrypt_like < 2 ? -1.0 : (random_ext < 0.5 ? 1.0 : 2.0)
+     * tree1(class 2): rename < 10 ? -0.5 : 1.5
+     */
+    private static final String SMALL_TREES = """
+            {"type": "tree_ensemble", "classes": ["Benign", "LockBit", "Conti"], "base_score": [0.5, 0.0, 0.0],
+             "trees": [
+               {"class": 1, "nodes": [
+                  {"f": 4, "t": 2, "l": 3, "r": 1},
+                  {"f": 6, "t": 0.5, "l": 4, "r": 2},
+                  {"v": 2.0},
+                  {"v": -1.0},
+                  {"v": 1.0}]},
+               {"class": 2, "nodes": [
+                  {"f": 3, "t": 10, "l": 2, "r": 1},
+                  {"v": 1.5},
+                  {"v": -0.5}]}
+             ]}""";
+
+    @Test
+    void smallTreeEnsembleMatchesHandComputedSoftmax() throws Exception {
+        LocalModelEngine.Model model = parse(SMALL_TREES);
+        assertEquals(2, model.treeCount());
+        assertEquals(8, model.nodeCount());
+
+        // 조용한 윈도우: margin [0.5, -1.0, -0.5] -> Benign
+        assertPrediction(model, AiPayload.builder().build(), 0, softmax(0.5, -1.0, -0.5));
+        // encrypt-like 3건 + 랜덤 확장자: [0.5, 2.0, -0.5] -> LockBit
+        assertPrediction(model, AiPayload.builder().fileEncryptLikeCount(3).randomExtensionFlag(1).build(),
+                1, softmax(0.5, 2.0, -0.5));
+        // rename 폭주만: [0.5, -1.0, 1.5] -> Conti
+        assertPrediction(model, AiPayload.builder().fileRenameCount(12).build(), 2, softmax(0.5, -1.0, 1.5));
+        // 경계값은 오른쪽(>=)으로 간다: encrypt 2, ext 0 -> [0.5, 1.0, -0.5]
+        assertPrediction(model, AiPayload.builder().fileEncryptLikeCount(2).build(), 1, softmax(0.5, 1.0, -0.5));
+
+        AiResult r = model.classify(AiPayload.builder().fileEncryptLikeCount(3).randomExtensionFlag(1).build());
+        assertEquals("LockBit", r.getTopFamily());
+        assertEquals("local_model top_family=LockBit", r.getDetail());
+        assertEquals(AiResult.SOURCE_LOCAL_MODEL, r.getSource());
+        assertTrue(r.getIsRansomware());
+        assertEquals("SAFE", model.classify(AiPayload.builder().build()).getLabel());
+    }
+
+    @Test
+    void binaryLinearModelUsesSigmoidAndFeatureOrder() throws Exception {
+        // 파일의 피처 순서를 뒤섞어도 이름으로 AiPayload 순서에 맞춘다
+        String json = """
+                {"type": "linear", "classes": ["Benign", "Ransomware"],
+                 "features": ["entropy_diff_mean", "file_read_count", "file_write_count", "file_delete_count",
+                              "file_rename_count", "file_encrypt_like_count", "changed_files_count",
+                              "random_extension_flag", "file_size_diff_mean"],
+                 "weights": [[4.0, 0, 0, 0, 0.1, 0.5, 0, 1.0, 0]],
+                 "bias": -3.0}""";
+        LocalModelEngine.Model model = parse(json);
+
+        AiPayload quiet = AiPayload.builder().fileRenameCount(5).entropyDiffMean(0.1).build();
+        double m = -3.0 + 4.0 * 0.1 + 0.1 * 5;
+        assertPrediction(model, quiet, 0, new double[]{1 - sigmoid(m), sigmoid(m)});
+
+        AiPayload encrypting = AiPayload.builder().fileEncryptLikeCount(4).randomExtensionFlag(1).entropyDiffMean(0.6).build();
+        m = -3.0 + 4.0 * 0.6 + 0.5 * 4 + 1.0;
+        assertPrediction(model, encrypting, 1, new double[]{1 - sigmoid(m), sigmoid(m)});
+        assertEquals("DANGER", model.classify(encrypting).getLabel());
+    }
+
+    @Test
+    void randomEnsembleMatchesDirectTreeWalk() throws Exception {
+        String json = LocalModelEngineBenchmark.treeModel(60, 6, 4);
+        JsonNode root = MAPPER.readTree(json);
+        LocalModelEngine.Model model = LocalModelEngine.Model.parse(root);
+        for (AiPayload p : LocalModelEngineBenchmark.payloads(2000)) {
+            double[] expected = reference(root, p);
+            int top = 0;
+            for (int k = 1; k < expected.length; k++) if (expected[k] > expected[top]) top = k;
+            assertPrediction(model, p, top, expected);
+        }
+    }
+
+    @Test
+    void rejectsMalformedModels() {
+        // 노드 공유(순환)
+        assertThrows(IllegalArgumentException.class, () -> parse("""
+                {"type": "tree_ensemble", "classes": ["Benign", "X"],
+                 "trees": [{"nodes": [{"f": 0, "t": 1, "l": 0, "r": 1}, {"v": 1}]}]}"""));
+        // 피처 범위
+        assertThrows(IllegalArgumentException.class, () -> parse("""
+                {"type": "tree_ensemble", "classes": ["Benign", "X"],
+                 "trees": [{"nodes": [{"f": 9, "t": 1, "l": 1, "r": 2}, {"v": 1}, {"v": 2}]}]}"""));
+        // 알 수 없는 피처 이름
+        assertThrows(IllegalArgumentException.class, () -> parse("""
+                {"type": "linear", "classes": ["Benign", "X"], "features": ["a","b","c","d","e","f","g","h","i"],
+                 "weights": [[0,0,0,0,0,0,0,0,0]]}"""));
+        // 출력 수와 클래스 수 불일치
+        assertThrows(IllegalArgumentException.class, () -> parse("""
+                {"type": "linear", "classes": ["Benign", "X", "Y"], "weights": [[0,0,0,0,0,0,0,0,0]]}"""));
+        assertThrows(IllegalArgumentException.class, () -> parse("""
+                {"type": "svm", "classes": ["Benign", "X"]}"""));
+    }
+
+    private static LocalModelEngine.Model parse(String json) throws Exception {
+        return LocalModelEngine.Model.parse(MAPPER.readTree(json));
+    }
+
+    private static void assertPrediction(LocalModelEngine.Model model, AiPayload p, int expectedTop, double[] expectedProbs) {
+        double[] s = model.scratch.get();
+        int top = model.predict(p, s);
+        assertEquals(expectedTop, top, "top class for " + p);
+        for (int k = 0; k < expectedProbs.length; k++) {
+            assertEquals(expectedProbs[k], s[LocalModelEngine.Model.FEATURE_COUNT + k], 1e-12, "class " + k + " for " + p);
+        }
+    }
+
+    /** 모델 파일을 평탄화 없이 그대로 따라가는 기준 구현 (다중 클래스 softmax) */
+    private static double[] reference(JsonNode root, AiPayload p) {
+        double[] x = {p.getFileReadCount(), p.getFileWriteCount(), p.getFileDeleteCount(), p.getFileRenameCount(),
+                p.getFileEncryptLikeCount(), p.getChangedFilesCount(), p.getRandomExtensionFlag(),
+                p.getEntropyDiffMean(), p.getFileSizeDiffMean()};
+        double[] margin = new double[root.get("classes").size()];
+        for (JsonNode tree : root.get("trees")) {
+            JsonNode nodes = tree.get("nodes");
+            JsonNode n = nodes.get(0);
+            while (!n.has("v")) {
+                n = nodes.get(x[n.get("f").asInt()] < n.get("t").asDouble() ? n.get("l").asInt() : n.get("r").asInt());
+            }
+            margin[tree.get("class").asInt()] += n.get("v").asDouble();
+        }
+        return softmax(margin);
+    }
+
+    private static double[] softmax(double... margin) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double m : margin) max = Math.max(max, m);
+        double sum = 0;
+        double[] out = new double[margin.length];
+        for (int k = 0; k < margin.length; k++) {
+            out[k] = Math.exp(margin[k] - max);
+            sum += out[k];
+        }
+        for (int k = 0; k < margin.length; k++) out[k] /= sum;
+        return out;
+    }
+
+    private static double sigmoid(double m) {
+        return 1.0 / (1.0 + Math.exp(-m));
+    }
+}
@@ -0,0 +1,121 @@
+package com.watchserviceagent.watchservice_agent.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 클래스 이름 : StubAiServer
+ * 기능 : 테스트/벤치마크용 로컬 AI 서버 (JDK HttpServer).
+ *        /api/analyze는 요청의 file_read_count를 label "R<값>"으로 돌려주고, /api/analyze/batch는 items 순서대로 같은 응답을 돌려준다.
+ *        응답 지연, batch 상태 코드, batch 응답에서 빼먹을 항목 수를 바꿀 수 있다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class StubAiServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // 헤더/본문을 따로 쓰는 JDK HttpServer는 Nagle + delayed ACK 때문에 응답마다 ~40ms가 붙는다 (첫 서버 생성 전에 설정해야 한다)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    final AtomicInteger analyzeCalls = new AtomicInteger();
+    final AtomicInteger batchCalls = new AtomicInteger();
+    volatile long latencyMs;
+    volatile int batchStatus = 200;
+    volatile int batchDropItems;
+
+    StubAiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/api/analyze", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String analyzeUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/analyze";
+    }
+
+    String batchUrl() {
+        return analyzeUrl() + "/batch";
+    }
+
+    /** 이 서버를 부를 비동기 클라이언트 (엔드포인트별 동시 요청 한도 maxInFlight) */
+    static AiAsyncHttpClient asyncClient(int maxInFlight, long totalDeadlineMs) {
+        AiAsyncHttpClient client = new AiAsyncHttpClient(MAPPER, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(client, "totalDeadlineMs", totalDeadlineMs);
+        ReflectionTestUtils.setField(client, "analyzeMaxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(client, "familyMaxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(client, "shadowMaxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(client, "maxQueued", 100_000);
+        client.init();
+        return client;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+            if (latencyMs > 0) Thread.sleep(latencyMs);
+
+            if (exchange.getRequestURI().getPath().endsWith("/batch")) {
+                batchCalls.incrementAndGet();
+                if (batchStatus != 200) {
+                    exchange.sendResponseHeaders(batchStatus, -1);
+                    return;
+                }
+                ObjectNode out = MAPPER.createObjectNode();
+                ArrayNode results = out.putArray("results");
+                JsonNode items = body.get("items");
+                for (int i = 0; i < items.size() - batchDropItems; i++) results.add(result(items.get(i)));
+                send(exchange, out);
+            } else {
+                analyzeCalls.incrementAndGet();
+                send(exchange, result(body));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ObjectNode result(JsonNode payload) {
+        ObjectNode r = MAPPER.createObjectNode();
+        r.put("status", "ok");
+        r.put("label", "R" + payload.path("file_read_count").asInt());
+        r.put("score", 0.5);
+        return r;
+    }
+
+    private static void send(HttpExchange exchange, JsonNode json) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(json);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
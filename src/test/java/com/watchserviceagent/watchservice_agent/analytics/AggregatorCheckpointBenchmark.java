@@ -0,0 +1,64 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 클래스 이름 : AggregatorCheckpointBenchmark
+ * 기능 : 집계 상태 크기(touch 세션 수, 열린 윈도우의 고유 경로 수)별로 체크포인트 직렬화 시간(= 집계 락 보유 시간),
+ *        바이트 수, 복원 시간을 잰다. 디스크 쓰기는 락 밖이므로 포함하지 않는다. (./gradlew benchmark)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class AggregatorCheckpointBenchmark {
+
+    private static final long START_MS = 1_700_000_000_000L;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void checkpointCostByStateSize() throws Exception {
+        for (int files : new int[]{1_000, 10_000, 100_000}) {
+            for (boolean hopping : new boolean[]{false, true}) {
+                TestAggregator agg = new TestAggregator(Map.of("hoppingEnabled", hopping, "extraWindowMsCsv", "10000"));
+                // 모든 파일을 한 윈도우 안에서 한 번씩 수정: 세션 files개 + 열린 윈도우의 고유 경로 files개
+                agg.feedAll(touches(files));
+
+                byte[] bytes = null;
+                long writeNanos = Long.MAX_VALUE;
+                for (int r = 0; r < ROUNDS; r++) {
+                    CheckpointOutput out = new CheckpointOutput();
+                    long t0 = System.nanoTime();
+                    agg.aggregator.writeCheckpoint(out);
+                    bytes = out.toByteArray();
+                    writeNanos = Math.min(writeNanos, System.nanoTime() - t0);
+                }
+
+                long restoreNanos = Long.MAX_VALUE;
+                for (int r = 0; r < ROUNDS / 4; r++) {
+                    TestAggregator fresh = new TestAggregator(Map.of("hoppingEnabled", hopping, "extraWindowMsCsv", "10000"));
+                    long t0 = System.nanoTime();
+                    fresh.aggregator.restoreCheckpoint(new CheckpointInput(bytes, 0, bytes.length));
+                    restoreNanos = Math.min(restoreNanos, System.nanoTime() - t0);
+                }
+
+                System.out.printf("[AggregatorCheckpointBenchmark] files=%d hopping=%s bytes=%d (%.1f B/file) lockHold=%.2f ms restore=%.2f ms%n",
+                        files, hopping, bytes.length, (double) bytes.length / files, writeNanos / 1e6, restoreNanos / 1e6);
+            }
+        }
+    }
+
+    private static List<FileAnalysisResult> touches(int files) {
+        FileAnalysisResult[] out = new FileAnalysisResult[files];
+        for (int i = 0; i < files; i++) {
+            String path = "C:\\Users\\a\\Documents\\project" + (i % 64) + "\\file" + i + ".docx";
+            out[i] = TestEvents.event("owner-a", "MODIFY", path, START_MS + (i % 1000),
+                    10_000L, 10_000L + (i % 7), 4.0, 4.1, "docx", "docx");
+        }
+        return List.of(out);
+    }
+}
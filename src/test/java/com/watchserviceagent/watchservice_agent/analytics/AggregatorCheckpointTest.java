@@ -0,0 +1,174 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : AggregatorCheckpointTest
+ * 기능 : 집계 상태를 이벤트 열 중간에 체크포인트로 저장하고 새 집계기에 복원한 뒤 나머지 이벤트를 넣으면,
+ *        중단 없이 처리한 집계기와 같은 윈도우와 핫 디렉터리를 내는지 검증한다. 파일 단위 저장/검증도 확인한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class AggregatorCheckpointTest {
+
+    private static final long START_MS = 1_700_000_000_000L;
+
+    @Test
+    void restoredAggregatorContinuesLikeUninterrupted() throws Exception {
+        List<Map<String, Object>> configs = List.of(
+                Map.of(),
+                Map.of("hoppingEnabled", true),
+                Map.of("extraWindowMsCsv", "1000, 10000"),
+                Map.of("adaptiveEnabled", true, "adaptiveTargetEvents", 40),
+                Map.of("touchSessionTimeoutMs", 1500L));
+        for (int c = 0; c < configs.size(); c++) {
+            for (long seed = 1; seed <= 5; seed++) {
+                List<FileAnalysisResult> events = TestEvents.mixed(seed, 2000, START_MS);
+                int split = 500 + (int) (seed * 211);
+                assertResumes(configs.get(c), events, split, "config#" + c + " seed=" + seed);
+            }
+        }
+    }
+
+    @Test
+    void checkpointFileIsRestoredAtStartup(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("aggregator.ckpt");
+        List<FileAnalysisResult> events = TestEvents.mixed(42, 1000, START_MS);
+
+        TestAggregator before = new TestAggregator();
+        before.feedAll(events.subList(0, 600));
+        AggregatorCheckpoint saver = checkpoint(before, file, 300_000L);
+        saver.checkpoint();
+        saver.checkpoint();                                  // 변경 없음 -> 건너뜀
+        assertEquals(1, saver.getStats().getWritten());
+        assertEquals(1, saver.getStats().getSkipped());
+        assertTrue(Files.size(file) > 0);
+        assertFalse(Files.exists(dir.resolve("aggregator.ckpt.tmp")));
+
+        TestAggregator after = new TestAggregator();
+        AggregatorCheckpoint loader = checkpoint(after, file, 300_000L);
+        loader.init();
+        try {
+            assertTrue(loader.getStats().isRestored());
+        } finally {
+            ReflectionTestUtils.invokeMethod(loader, "shutdown");
+        }
+
+        TestAggregator uninterrupted = new TestAggregator();
+        uninterrupted.feedAll(events);
+        uninterrupted.flush();
+        after.feedAll(events.subList(600, events.size()));
+        after.flush();
+        List<ClosedWindow> resumed = new ArrayList<>(before.windows);
+        resumed.addAll(after.windows);
+        assertSameWindows(uninterrupted.windows, resumed, "file");
+    }
+
+    @Test
+    void corruptOrStaleCheckpointIsIgnored(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("aggregator.ckpt");
+        TestAggregator before = new TestAggregator();
+        before.feedAll(TestEvents.mixed(7, 500, START_MS));
+        checkpoint(before, file, 300_000L).checkpoint();
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertNotRestored(file, 300_000L);
+
+        checkpoint(before, file, 300_000L).checkpoint();
+        Thread.sleep(20);
+        assertNotRestored(file, 5L);                         // max-age 초과
+    }
+
+    private static void assertNotRestored(Path file, long maxAgeMs) {
+        TestAggregator fresh = new TestAggregator();
+        long version = fresh.aggregator.getStateVersion();
+        AggregatorCheckpoint loader = checkpoint(fresh, file, maxAgeMs);
+        loader.init();
+        try {
+            assertFalse(loader.getStats().isRestored());
+            assertEquals(version, fresh.aggregator.getStateVersion());
+        } finally {
+            ReflectionTestUtils.invokeMethod(loader, "shutdown");
+        }
+    }
+
+    private static AggregatorCheckpoint checkpoint(TestAggregator agg, Path file, long maxAgeMs) {
+        AggregatorCheckpoint checkpoint = new AggregatorCheckpoint(agg.aggregator);
+        ReflectionTestUtils.setField(checkpoint, "enabled", true);
+        ReflectionTestUtils.setField(checkpoint, "pathValue", file.toString());
+        ReflectionTestUtils.setField(checkpoint, "intervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(checkpoint, "maxAgeMs", maxAgeMs);
+        ReflectionTestUtils.setField(checkpoint, "path", file);
+        return checkpoint;
+    }
+
+    private static void assertResumes(Map<String, Object> overrides, List<FileAnalysisResult> events, int split,
+                                      String label) throws Exception {
+        TestAggregator uninterrupted = new TestAggregator(overrides);
+        uninterrupted.feedAll(events);
+        uninterrupted.flush();
+
+        TestAggregator crashed = new TestAggregator(overrides);
+        crashed.feedAll(events.subList(0, split));
+        CheckpointOutput out = new CheckpointOutput();
+        crashed.aggregator.writeCheckpoint(out);
+        byte[] bytes = out.toByteArray();
+
+        TestAggregator restarted = new TestAggregator(overrides);
+        restarted.aggregator.restoreCheckpoint(new CheckpointInput(bytes, 0, bytes.length));
+        restarted.feedAll(events.subList(split, events.size()));
+        restarted.flush();
+
+        List<ClosedWindow> resumed = new ArrayList<>(crashed.windows);
+        resumed.addAll(restarted.windows);
+        assertSameWindows(uninterrupted.windows, resumed, label);
+        assertSameHotDirectories(uninterrupted, restarted, label);
+    }
+
+    private static void assertSameWindows(List<ClosedWindow> expected, List<ClosedWindow> actual, String label) {
+        assertEquals(expected.size(), actual.size(), label + " window count");
+        for (int i = 0; i < expected.size(); i++) {
+            ClosedWindow e = expected.get(i);
+            ClosedWindow a = actual.get(i);
+            String at = label + " window#" + i;
+            assertEquals(e.getWindowMs(), a.getWindowMs(), at + " scale");
+            assertEquals(e.getWindowStart(), a.getWindowStart(), at + " start");
+            assertEquals(e.getEventCount(), a.getEventCount(), at + " events");
+            WindowAccumulatorTest.assertPayloadEquals(e.getPayload(), a.getPayload(), at);
+            assertEquals(e.getAffectedPaths(), a.getAffectedPaths(), at + " affectedPaths");
+        }
+    }
+
+    private static void assertSameHotDirectories(TestAggregator expected, TestAggregator actual, String label) {
+        Map<String, Double> e = rates(expected);
+        Map<String, Double> a = rates(actual);
+        assertEquals(e.keySet(), a.keySet(), label + " hot directories");
+        for (Map.Entry<String, Double> entry : e.entrySet()) {
+            double rate = entry.getValue();
+            assertEquals(rate, a.get(entry.getKey()), Math.abs(rate) * 1e-9, label + " " + entry.getKey());
+        }
+    }
+
+    private static Map<String, Double> rates(TestAggregator agg) {
+        Map<String, Double> out = new HashMap<>();
+        for (HotDirectoryResponse r : agg.aggregator.getHotDirectories().top(100, Long.MIN_VALUE)) {
+            out.put(r.getDirectory(), r.getTotalRate());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,266 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.util.*;
+
+/**
+ * 클래스 이름 : BaselineWindowAggregation
+ * 기능 : 증분 집계 도입 전의 윈도우 집계(이벤트를 버퍼에 모았다가 flush 시 전체를 다시 훑고, rename은 DELETE×CREATE 전수 점수 비교)를
+ *        그대로 옮긴 기준 구현. WindowAccumulator/WindowScale/RenameIndex 결과를 이것과 비교한다. (테스트 전용)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class BaselineWindowAggregation {
+
+    /** 기준 구현이 닫은 윈도우 1개 */
+    record Window(long startMs, int eventCount, AiPayload payload, List<String> affectedPaths) {}
+
+    private final long windowMs;
+    private final long touchSessionTimeoutMs;
+    private final long renameMaxGapMs;
+    private final double encryptEntropyDiffThreshold;
+    private final long encryptMinSizeBytes;
+    private final double eps;
+    private final int randomExtMinCount;
+    private final int randomExtMinLength;
+    private final Set<String> randomExtWhitelist = new HashSet<>();
+
+    private Long currentWindowStartMs;
+    private final List<FileAnalysisResult> currentEvents = new ArrayList<>();
+    private final Map<String, Long> lastTouchTimeByFile = new HashMap<>();
+    final List<Window> windows = new ArrayList<>();
+
+    BaselineWindowAggregation(Map<String, Object> config) {
+        this.windowMs = (Long) config.get("windowMs");
+        this.touchSessionTimeoutMs = (Long) config.get("touchSessionTimeoutMs");
+        this.renameMaxGapMs = (Long) config.get("renameMaxGapMs");
+        this.encryptEntropyDiffThreshold = (Double) config.get("encryptEntropyDiffThreshold");
+        this.encryptMinSizeBytes = (Long) config.get("encryptMinSizeBytes");
+        this.eps = (Double) config.get("eps");
+        this.randomExtMinCount = (Integer) config.get("randomExtMinCount");
+        this.randomExtMinLength = (Integer) config.get("randomExtMinLength");
+        for (String s : String.valueOf(config.get("randomExtWhitelistCsv")).split(",")) {
+            String v = s.trim().toLowerCase(Locale.ROOT);
+            if (!v.isBlank()) randomExtWhitelist.add(v);
+        }
+    }
+
+    void onFileAnalysisResult(FileAnalysisResult result) {
+        String type = normalizeType(result.getEventType());
+        if (!"CREATE".equals(type) && !"MODIFY".equals(type) && !"DELETE".equals(type)) return;
+
+        long eventTimeMs = result.getEventTime().toEpochMilli();
+        if (currentWindowStartMs == null) {
+            currentWindowStartMs = eventTimeMs;
+        } else if (eventTimeMs - currentWindowStartMs >= windowMs) {
+            flushWindow();
+            currentWindowStartMs = eventTimeMs;
+        }
+        currentEvents.add(result);
+    }
+
+    void flushIfNeeded() {
+        if (!currentEvents.isEmpty()) {
+            flushWindow();
+            currentWindowStartMs = null;
+        }
+    }
+
+    private void flushWindow() {
+        if (currentEvents.isEmpty()) return;
+        AiPayload payload = computeWindowStats(currentEvents, lastTouchTimeByFile);
+        List<String> affectedPaths = currentEvents.stream()
+                .map(FileAnalysisResult::getPath)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        windows.add(new Window(currentWindowStartMs, currentEvents.size(), payload, affectedPaths));
+        currentEvents.clear();
+    }
+
+    private AiPayload computeWindowStats(List<FileAnalysisResult> events, Map<String, Long> sessionState) {
+        int touchCount = 0;
+        int writeCount = 0;
+        int deleteCount = 0;
+        int encryptLikeCount = 0;
+
+        Set<String> changedFileSet = new HashSet<>();
+        Set<String> suspiciousExtFileSet = new HashSet<>();
+
+        double entropyDiffSum = 0.0;
+        double sizeDiffSum = 0.0;
+        int entropyDiffCount = 0;
+        int sizeDiffCount = 0;
+
+        for (FileAnalysisResult r : events) {
+            String eventType = normalizeType(r.getEventType());
+            String path = r.getPath();
+            String ownerKey = r.getOwnerKey();
+
+            if (path != null) changedFileSet.add(path);
+
+            Long sizeBefore = r.getSizeBefore();
+            Long sizeAfter = r.getSizeAfter();
+            Double entropyBefore = r.getEntropyBefore();
+            Double entropyAfter = r.getEntropyAfter();
+
+            long sizeDiff = 0L;
+            boolean hasSizePair = (sizeBefore != null && sizeAfter != null);
+            if (hasSizePair) {
+                sizeDiff = sizeAfter - sizeBefore;
+                sizeDiffSum += sizeDiff;
+                sizeDiffCount++;
+            }
+
+            double entropyDiff = 0.0;
+            boolean hasEntropyPair = (entropyBefore != null && entropyAfter != null);
+            if (hasEntropyPair) {
+                entropyDiff = entropyAfter - entropyBefore;
+                entropyDiffSum += entropyDiff;
+                entropyDiffCount++;
+            }
+
+            if ("MODIFY".equals(eventType)) {
+                long ts = r.getEventTime().toEpochMilli();
+                String key = safe(ownerKey) + "|" + safe(path);
+                Long lastTouch = sessionState.get(key);
+                boolean isNewTouch = (lastTouch == null) || (ts - lastTouch > touchSessionTimeoutMs);
+                if (isNewTouch) {
+                    touchCount++;
+                    sessionState.put(key, ts);
+                }
+                boolean contentChanged = (hasSizePair && sizeDiff != 0L)
+                        || (hasEntropyPair && Math.abs(entropyDiff) > eps);
+                if (contentChanged) writeCount++;
+            }
+
+            if ("DELETE".equals(eventType)) deleteCount++;
+
+            if (path != null) {
+                if (isSuspiciousExt(r.getExtBefore()) || isSuspiciousExt(r.getExtAfter())) {
+                    suspiciousExtFileSet.add(path);
+                }
+            }
+
+            boolean extChanged = (r.getExtBefore() != null && r.getExtAfter() != null
+                    && !r.getExtBefore().equalsIgnoreCase(r.getExtAfter()));
+            boolean sizeChanged = (hasSizePair && sizeDiff != 0L);
+            long approxSize = (sizeAfter != null) ? sizeAfter : (sizeBefore != null ? sizeBefore : 0L);
+            boolean bigEnough = approxSize >= encryptMinSizeBytes;
+            boolean entropyUp = (hasEntropyPair && entropyDiff >= encryptEntropyDiffThreshold);
+            if (bigEnough && entropyUp && (sizeChanged || extChanged)) encryptLikeCount++;
+        }
+
+        int renameCount = detectRenameLikeCountByScore(events, renameMaxGapMs);
+        deleteCount = Math.max(0, deleteCount - renameCount);
+        writeCount += renameCount;
+
+        int changedFilesCount = Math.max(0, changedFileSet.size() - renameCount);
+        int randomExtFlag = (suspiciousExtFileSet.size() >= Math.max(1, randomExtMinCount)) ? 1 : 0;
+
+        return AiPayload.builder()
+                .fileReadCount(touchCount)
+                .fileWriteCount(writeCount)
+                .fileDeleteCount(deleteCount)
+                .fileRenameCount(renameCount)
+                .fileEncryptLikeCount(encryptLikeCount)
+                .changedFilesCount(changedFilesCount)
+                .randomExtensionFlag(randomExtFlag)
+                .entropyDiffMean((entropyDiffCount > 0) ? (entropyDiffSum / entropyDiffCount) : 0.0)
+                .fileSizeDiffMean((sizeDiffCount > 0) ? (sizeDiffSum / sizeDiffCount) : 0.0)
+                .build();
+    }
+
+    /** 기존 DELETE×CREATE 전수 점수 비교 (size 동일 +2 / ±1% +1, ext 동일 +1, 3점 이상) */
+    static int detectRenameLikeCountByScore(List<FileAnalysisResult> events, long renameMaxGapMs) {
+        List<FileAnalysisResult> deletes = new ArrayList<>();
+        List<FileAnalysisResult> creates = new ArrayList<>();
+        for (FileAnalysisResult r : events) {
+            String t = normalizeType(r.getEventType());
+            if ("DELETE".equals(t)) deletes.add(r);
+            else if ("CREATE".equals(t)) creates.add(r);
+        }
+        if (deletes.isEmpty() || creates.isEmpty()) return 0;
+
+        int renameCount = 0;
+        boolean[] usedCreate = new boolean[creates.size()];
+        for (FileAnalysisResult del : deletes) {
+            String ownerKey = del.getOwnerKey();
+            String delPath = del.getPath();
+            if (delPath == null) continue;
+
+            Long delSize = del.getSizeBefore();
+            String delExt = del.getExtBefore();
+            String delParent = getParentDir(delPath);
+            long delMs = (del.getEventTime() != null) ? del.getEventTime().toEpochMilli() : 0L;
+
+            int bestIdx = -1;
+            int bestScore = -1;
+            for (int i = 0; i < creates.size(); i++) {
+                if (usedCreate[i]) continue;
+                FileAnalysisResult crt = creates.get(i);
+                if (!Objects.equals(ownerKey, crt.getOwnerKey())) continue;
+                String crtPath = crt.getPath();
+                if (crtPath == null) continue;
+                if (!Objects.equals(delParent, getParentDir(crtPath))) continue;
+
+                long crtMs = (crt.getEventTime() != null) ? crt.getEventTime().toEpochMilli() : 0L;
+                if (Math.abs(crtMs - delMs) > renameMaxGapMs) continue;
+
+                int score = 0;
+                Long crtSize = crt.getSizeAfter();
+                if (delSize != null && crtSize != null) {
+                    if (delSize.equals(crtSize)) score += 2;
+                    else {
+                        long denom = Math.max(1L, delSize);
+                        double ratio = Math.abs(crtSize - delSize) / (double) denom;
+                        if (ratio <= 0.01) score += 1;
+                    }
+                }
+                String crtExt = crt.getExtAfter();
+                if (delExt != null && crtExt != null && delExt.equalsIgnoreCase(crtExt)) score += 1;
+
+                if (score >= 3 && score > bestScore) {
+                    bestScore = score;
+                    bestIdx = i;
+                }
+            }
+            if (bestIdx >= 0) {
+                usedCreate[bestIdx] = true;
+                renameCount++;
+            }
+        }
+        return renameCount;
+    }
+
+    private boolean isSuspiciousExt(String ext) {
+        if (ext == null || ext.isBlank()) return false;
+        String lower = ext.trim().toLowerCase(Locale.ROOT);
+        if (randomExtWhitelist.contains(lower)) return false;
+        if (lower.length() < Math.max(1, randomExtMinLength)) return false;
+        for (char c : lower.toCharArray()) {
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) return false;
+        }
+        return true;
+    }
+
+    private static String getParentDir(String path) {
+        if (path == null) return null;
+        int slash = path.lastIndexOf('/');
+        int backslash = path.lastIndexOf('\\');
+        int idx = Math.max(slash, backslash);
+        if (idx < 0) return "";
+        return path.substring(0, idx);
+    }
+
+    private static String normalizeType(String eventType) {
+        if (eventType == null) return "UNKNOWN";
+        return eventType.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String safe(String s) {
+        return (s == null) ? "" : s;
+    }
+}
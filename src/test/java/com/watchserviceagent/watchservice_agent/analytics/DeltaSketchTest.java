@@ -0,0 +1,128 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : DeltaSketchTest
+ * 기능 : 로그 버킷 분위수 스케치가 정확한 분위수 대비 상대 오차 2% 이내를 지키는지,
+ *        pane 합/차와 체크포인트 복원 후에도 같은 결과를 내는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class DeltaSketchTest {
+
+    private static final double RELATIVE_ACCURACY = 0.02;
+    private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.0};
+
+    @Test
+    void entropyQuantilesWithinRelativeError() {
+        for (long seed = 1; seed <= 50; seed++) {
+            Random rnd = new Random(seed);
+            double[] values = new double[1 + rnd.nextInt(5000)];
+            for (int i = 0; i < values.length; i++) {
+                // 대부분 작은 변화, 일부는 암호화 수준의 큰 상승, 가끔 정확히 0
+                double v = rnd.nextInt(10) == 0 ? 0.0 : rnd.nextGaussian() * 0.2;
+                if (rnd.nextInt(8) == 0) v = 2 + rnd.nextDouble() * 5.9;
+                values[i] = v;
+            }
+            assertQuantilesWithinError(DeltaSketch.ENTROPY, 1.0e-4, values, "seed=" + seed);
+        }
+    }
+
+    @Test
+    void sizeQuantilesWithinRelativeError() {
+        for (long seed = 1; seed <= 50; seed++) {
+            Random rnd = new Random(seed);
+            double[] values = new double[1 + rnd.nextInt(5000)];
+            for (int i = 0; i < values.length; i++) {
+                // 부호 있는 log-uniform 크기 변화 (1B ~ 1GiB)
+                double magnitude = Math.floor(Math.exp(rnd.nextDouble() * Math.log(1L << 30)));
+                values[i] = rnd.nextBoolean() ? magnitude : -magnitude;
+            }
+            assertQuantilesWithinError(DeltaSketch.SIZE, 1.0, values, "seed=" + seed);
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClampedAndNaNIgnored() {
+        DeltaSketch sketch = new DeltaSketch(DeltaSketch.ENTROPY);
+        sketch.add(1.0e-6);
+        sketch.add(-1.0e-6);
+        sketch.add(Double.NaN);
+        assertEquals(2, sketch.count());
+        assertEquals(0.0, sketch.quantile(0.5));
+
+        sketch.add(100.0);
+        assertTrue(sketch.max() <= 8.0 * (1 + RELATIVE_ACCURACY));
+        assertTrue(sketch.max() >= 8.0 * (1 - RELATIVE_ACCURACY));
+        assertEquals(DeltaQuantiles.EMPTY, new DeltaSketch(DeltaSketch.SIZE).summarize());
+    }
+
+    @Test
+    void paneSumAndSubtractMatchDirectSketch() {
+        Random rnd = new Random(11);
+        DeltaSketch[] panes = new DeltaSketch[4];
+        for (int p = 0; p < panes.length; p++) {
+            panes[p] = new DeltaSketch(DeltaSketch.SIZE);
+            for (int i = 0; i < 500; i++) panes[p].add(rnd.nextGaussian() * 10_000);
+        }
+
+        DeltaSketch sum = new DeltaSketch(DeltaSketch.SIZE);
+        for (DeltaSketch p : panes) sum.addAll(p);
+        sum.subtract(panes[0]);
+
+        DeltaSketch direct = new DeltaSketch(DeltaSketch.SIZE);
+        for (int p = 1; p < panes.length; p++) direct.addAll(panes[p]);
+        assertSameSketch(direct, sum);
+
+        for (int p = 1; p < panes.length; p++) sum.subtract(panes[p]);
+        assertEquals(0, sum.count());
+        assertEquals(DeltaQuantiles.EMPTY, sum.summarize());
+    }
+
+    @Test
+    void checkpointRoundTrip() throws Exception {
+        Random rnd = new Random(5);
+        DeltaSketch sketch = new DeltaSketch(DeltaSketch.ENTROPY);
+        for (int i = 0; i < 2000; i++) sketch.add(rnd.nextGaussian());
+
+        CheckpointOutput out = new CheckpointOutput();
+        sketch.writeTo(out);
+        byte[] bytes = out.toByteArray();
+        DeltaSketch restored = new DeltaSketch(DeltaSketch.ENTROPY);
+        restored.readFrom(new CheckpointInput(bytes, 0, bytes.length));
+        assertSameSketch(sketch, restored);
+    }
+
+    /** 스케치 분위수가 같은 rank 정의의 정확한 분위수 대비 상대 오차 이내인지 (|x| < min은 0으로 본다) */
+    private static void assertQuantilesWithinError(DeltaSketch.Layout layout, double minMagnitude, double[] values, String label) {
+        DeltaSketch sketch = new DeltaSketch(layout);
+        for (double v : values) sketch.add(v);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            String at = label + " n=" + values.length + " q=" + q;
+            if (Math.abs(exact) < minMagnitude) {
+                assertEquals(0.0, estimate, at);
+            } else {
+                assertEquals(exact, estimate, Math.abs(exact) * RELATIVE_ACCURACY * (1 + 1e-9), at);
+            }
+        }
+        assertEquals(values.length, sketch.count());
+    }
+
+    private static void assertSameSketch(DeltaSketch expected, DeltaSketch actual) {
+        assertEquals(expected.count(), actual.count());
+        for (double q : QUANTILES) assertEquals(expected.quantile(q), actual.quantile(q), "q=" + q);
+        assertEquals(expected.min(), actual.min());
+        assertEquals(expected.max(), actual.max());
+    }
+}
@@ -0,0 +1,242 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.AiService;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.analytics.dto.HotDirectoryResponse;
+import com.watchserviceagent.watchservice_agent.analytics.dto.ReplayRequest;
+import com.watchserviceagent.watchservice_agent.analytics.dto.ReplayResponse;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.storage.LogService;
+import com.watchserviceagent.watchservice_agent.trace.TraceWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : EventReplayServiceTest
+ * 기능 : 트레이스 파일/세그먼트 디렉터리/로그 소스를 가상 시계로 재생한 결과가 같은 이벤트를 TestAggregator에 직접 넣은 결과
+ *        (스케일별 윈도우 수, pre-screen 판정 분포, 핫 디렉터리)와 같은지, limit에서 멈추는지,
+ *        REMOTE 모드가 AI 호출 실패 판정을 labels에서 빼는지, 트레이스 디렉터리 밖 경로를 거부하는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class EventReplayServiceTest {
+
+    private static final long START_MS = 1_700_000_000_000L;
+
+    @TempDir
+    Path traceDir;
+
+    @Test
+    void traceReplayMatchesDirectFeed() throws Exception {
+        List<Map<String, Object>> configs = List.of(
+                Map.of(),
+                Map.of("hoppingEnabled", true),
+                Map.of("extraWindowMsCsv", "1000, 10000"),
+                Map.of("adaptiveEnabled", true, "adaptiveTargetEvents", 40));
+        for (int c = 0; c < configs.size(); c++) {
+            List<FileAnalysisResult> events = TestEvents.mixed(c + 1, 3000, START_MS);
+            writeTrace(traceDir.resolve("day" + c + ".wstrace"), events);
+
+            EventReplayService service = service(new TestAggregator(configs.get(c)), List.of(), null);
+            ReplayResponse actual = service.replay(request("TRACE", "day" + c + ".wstrace", "PRESCREEN", null));
+            assertMatchesDirectFeed(configs.get(c), events, actual, "config#" + c);
+        }
+    }
+
+    @Test
+    void limitStopsReplayInFileAndSegmentDirectory() throws Exception {
+        List<FileAnalysisResult> events = TestEvents.mixed(11, 3000, START_MS);
+        writeTrace(traceDir.resolve("day.wstrace"), events);
+        Path segments = traceDir.resolve("recorder");
+        writeTrace(segments.resolve("000001.wstrace"), events.subList(0, 1000));
+        writeTrace(segments.resolve("000002.wstrace"), events.subList(1000, 2000));
+        writeTrace(segments.resolve("000003.wstrace"), events.subList(2000, 3000));
+
+        EventReplayService service = service(new TestAggregator(), List.of(), null);
+        ReplayResponse file = service.replay(request("TRACE", "day.wstrace", "PRESCREEN", 700L));
+        assertMatchesDirectFeed(Map.of(), events.subList(0, 700), file, "file limit");
+
+        ReplayResponse dir = service.replay(request("TRACE", "recorder", "PRESCREEN", 1500L));
+        assertMatchesDirectFeed(Map.of(), events.subList(0, 1500), dir, "segment limit");
+
+        ReplayResponse all = service.replay(request("TRACE", "recorder", "PRESCREEN", null));
+        assertMatchesDirectFeed(Map.of(), events, all, "segments");
+    }
+
+    @Test
+    void logSourceReplaysRequestedRange() throws Exception {
+        List<FileAnalysisResult> events = TestEvents.mixed(5, 2000, START_MS);
+        long fromMs = events.get(300).getEventTime().toEpochMilli();
+        long toMs = events.get(1500).getEventTime().toEpochMilli();
+        List<FileAnalysisResult> inRange = events.stream().filter(r -> {
+            long t = r.getEventTime().toEpochMilli();
+            return t >= fromMs && t <= toMs;
+        }).toList();
+
+        EventReplayService service = service(new TestAggregator(), events, null);
+        ReplayRequest req = request("LOG", null, "NONE", null);
+        ReflectionTestUtils.setField(req, "fromMs", fromMs);
+        ReflectionTestUtils.setField(req, "toMs", toMs);
+        ReplayResponse actual = service.replay(req);
+
+        TestAggregator expected = direct(Map.of(), inRange);
+        assertEquals(inRange.size(), actual.getEvents());
+        assertEquals(expected.windows.size(), actual.getWindows());
+        assertEquals(scales(expected), actual.getWindowsByScale());
+        assertTrue(actual.getLabels().isEmpty());                  // NONE: 판정 없음
+        assertEquals(Long.valueOf(fromMs), actual.getFirstEventMs());
+        assertEquals(Long.valueOf(inRange.get(inRange.size() - 1).getEventTime().toEpochMilli()), actual.getLastEventMs());
+    }
+
+    @Test
+    void remoteFailuresAreNotCountedAsVerdicts() throws Exception {
+        List<FileAnalysisResult> events = TestEvents.mixed(3, 1500, START_MS);
+        writeTrace(traceDir.resolve("day.wstrace"), events);
+        int[] calls = {0};
+        // 홀수 번째 호출은 서버 판정, 짝수 번째는 서버 장애로 로컬 대체 판정
+        AiService ai = new AiService(null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public AiResult analyzeForReplay(AiPayload payload) {
+                boolean failed = calls[0]++ % 2 == 1;
+                return AiResult.builder()
+                        .label("DANGER")
+                        .source(failed ? AiResult.SOURCE_FALLBACK : AiResult.SOURCE_REMOTE)
+                        .remoteFailed(failed)
+                        .build();
+            }
+        };
+
+        ReplayResponse r = service(new TestAggregator(), List.of(), ai).replay(request("TRACE", "day.wstrace", "REMOTE", null));
+        long remote = (calls[0] + 1) / 2;
+        long failed = calls[0] / 2;
+        assertTrue(calls[0] > 1);
+        assertEquals(calls[0], r.getAiCalls());
+        assertEquals(failed, r.getAiFailures());
+        assertEquals(Long.valueOf(remote), r.getLabels().get("DANGER"));
+        assertEquals(Map.of("DANGER", remote), r.getLabelsBySource().get(AiResult.SOURCE_REMOTE));
+        assertEquals(Map.of("DANGER", failed), r.getLabelsBySource().get(AiResult.SOURCE_FALLBACK));
+        assertEquals(Long.valueOf(r.getWindows() - calls[0]), r.getLabels().get("SAFE"));
+        assertEquals(r.getLabels().get("SAFE"), r.getLabelsBySource().get(AiResult.SOURCE_PRESCREEN).get("SAFE"));
+    }
+
+    @Test
+    void rejectsPathsOutsideTraceDirectory() throws Exception {
+        EventReplayService service = service(new TestAggregator(), List.of(), null);
+        Path outside = traceDir.getParent().resolve("outside.wstrace");
+        for (String name : new String[]{"../outside.wstrace", "sub/../../outside.wstrace", outside.toString(), ".", " "}) {
+            assertThrows(IllegalArgumentException.class, () -> service.replay(request("TRACE", name, "NONE", null)), name);
+            assertThrows(IllegalArgumentException.class, () -> service.exportTrace(name, null, null), name);
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.replay(request("FILE", "day.wstrace", "NONE", null)));
+        assertThrows(IllegalArgumentException.class, () -> service.replay(request("TRACE", "day.wstrace", "ALL", null)));
+
+        // 거부된 요청 뒤에도 다음 재생이 가능하다
+        writeTrace(traceDir.resolve("ok.wstrace"), TestEvents.mixed(1, 100, START_MS));
+        assertEquals(100, service.replay(request("TRACE", "ok.wstrace", "NONE", null)).getEvents());
+    }
+
+    private void assertMatchesDirectFeed(Map<String, Object> overrides, List<FileAnalysisResult> events,
+                                         ReplayResponse actual, String label) {
+        TestAggregator expected = direct(overrides, events);
+        assertEquals(events.size(), actual.getEvents(), label + " events");
+        assertEquals(expected.windows.size(), actual.getWindows(), label + " windows");
+        assertEquals(scales(expected), actual.getWindowsByScale(), label + " windowsByScale");
+        assertEquals(expected.windows.stream().mapToInt(ClosedWindow::getEventCount).max().orElse(0),
+                actual.getMaxWindowEvents(), label + " maxWindowEvents");
+
+        QuietWindowPreScreen preScreen = preScreen();
+        Map<String, Long> labels = new TreeMap<>();
+        for (ClosedWindow w : expected.windows) {
+            AiResult local = preScreen.evaluate(w.getPayload(), w.getEntropyDiffQuantiles(), w.getSizeDiffQuantiles());
+            labels.merge(local != null ? local.getLabel() : "FORWARDED", 1L, Long::sum);
+        }
+        assertEquals(labels, actual.getLabels(), label + " labels");
+
+        long first = events.get(0).getEventTime().toEpochMilli();
+        long last = events.get(events.size() - 1).getEventTime().toEpochMilli();
+        assertEquals(Long.valueOf(first), actual.getFirstEventMs(), label + " first");
+        assertEquals(Long.valueOf(last), actual.getLastEventMs(), label + " last");
+        assertEquals(last - first, actual.getVirtualSpanMs(), label + " span");
+
+        List<HotDirectoryResponse> hot = expected.aggregator.getHotDirectories().top(10, expected.now);
+        assertEquals(hot.size(), actual.getHotDirectories().size(), label + " hot directories");
+        for (int i = 0; i < hot.size(); i++) {
+            HotDirectoryResponse e = hot.get(i);
+            HotDirectoryResponse a = actual.getHotDirectories().get(i);
+            assertEquals(e.getDirectory(), a.getDirectory(), label + " hot#" + i);
+            assertEquals(e.getTotalRate(), a.getTotalRate(), Math.abs(e.getTotalRate()) * 1e-9, label + " hot#" + i);
+        }
+    }
+
+    private static TestAggregator direct(Map<String, Object> overrides, List<FileAnalysisResult> events) {
+        TestAggregator agg = new TestAggregator(overrides);
+        agg.feedAll(events);
+        agg.flush();
+        return agg;
+    }
+
+    private static Map<Long, Long> scales(TestAggregator agg) {
+        Map<Long, Long> out = new TreeMap<>();
+        for (ClosedWindow w : agg.windows) out.merge(w.getWindowMs(), 1L, Long::sum);
+        return out;
+    }
+
+    private EventReplayService service(TestAggregator live, List<FileAnalysisResult> logEvents, AiService ai) {
+        LogService logs = new LogService(null, null, null) {
+            @Override
+            public long streamWatcherEvents(Long fromEpochMs, Long toEpochMs, Consumer<FileAnalysisResult> consumer) {
+                long n = 0;
+                for (FileAnalysisResult r : logEvents) {
+                    long t = r.getEventTime().toEpochMilli();
+                    if ((fromEpochMs != null && t < fromEpochMs) || (toEpochMs != null && t > toEpochMs)) continue;
+                    consumer.accept(r);
+                    n++;
+                }
+                return n;
+            }
+        };
+        EventReplayService service = new EventReplayService(live.aggregator, preScreen(), ai, logs);
+        ReflectionTestUtils.setField(service, "traceDir", traceDir.toString());
+        return service;
+    }
+
+    private static QuietWindowPreScreen preScreen() {
+        QuietWindowPreScreen p = new QuietWindowPreScreen();
+        ReflectionTestUtils.setField(p, "enabled", true);
+        ReflectionTestUtils.setField(p, "maxChangedFiles", 3);
+        ReflectionTestUtils.setField(p, "maxReadCount", 3);
+        ReflectionTestUtils.setField(p, "maxWriteCount", 3);
+        ReflectionTestUtils.setField(p, "maxDeleteCount", 1);
+        ReflectionTestUtils.setField(p, "maxAbsEntropyDiffMean", 0.05);
+        ReflectionTestUtils.setField(p, "maxAbsSizeDiffMean", 65536.0);
+        ReflectionTestUtils.setField(p, "maxAbsEntropyDiff", 0.30);
+        ReflectionTestUtils.setField(p, "maxAbsSizeDiff", 1048576.0);
+        return p;
+    }
+
+    private static ReplayRequest request(String source, String traceFile, String aiMode, Long limit) {
+        ReplayRequest req = new ReplayRequest();
+        ReflectionTestUtils.setField(req, "source", source);
+        ReflectionTestUtils.setField(req, "traceFile", traceFile);
+        ReflectionTestUtils.setField(req, "aiMode", aiMode);
+        ReflectionTestUtils.setField(req, "limit", limit);
+        return req;
+    }
+
+    private static void writeTrace(Path path, List<FileAnalysisResult> events) throws IOException {
+        try (TraceWriter writer = new TraceWriter(path)) {
+            for (FileAnalysisResult r : events) writer.write(r);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : HoppingWindowTest
+ * 기능 : pane 링 버퍼의 hop 스냅샷이 [end-W, end) 구간 이벤트를 처음부터 다시 훑어 계산한 값과 같은지 무작위 이벤트 열로 비교한다.
+ *        rename은 pane 안에서만 매칭하므로 pane별 전수 비교의 합과 같아야 하고, 윈도우 전체 전수 비교와는
+ *        pane 경계를 사이에 둔 쌍만큼만 (적게) 달라질 수 있다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class HoppingWindowTest {
+
+    private static final long START_MS = 1_700_000_000_000L;
+    private static final long RENAME_MAX_GAP_MS = 2000L;
+    private static final long TOUCH_TIMEOUT_MS = 1500L;
+    private static final int RANDOM_EXT_MIN_COUNT = 2;
+    private static final Set<String> SUSPICIOUS_EXTS = Set.of("locked", "x9f2k");
+
+    /** add에 넘긴 이벤트 1건과 판정값 */
+    private record Fed(FileAnalysisResult r, String type, long timeMs,
+                       boolean newTouch, boolean contentChanged, boolean encryptLike, boolean suspiciousExt) {}
+
+    @Test
+    void hopSnapshotsMatchBruteForce() {
+        int snapshots = 0, renames = 0, boundaryRenames = 0, flagged = 0;
+        for (long[] shape : new long[][]{{3000L, 1000L}, {5000L, 500L}, {2000L, 2000L}}) {
+            for (long seed = 1; seed <= 10; seed++) {
+                String label = "W=" + shape[0] + " H=" + shape[1] + " seed=" + seed;
+                int[] counts = assertMatchesBruteForce(shape[0], shape[1], TestEvents.mixed(seed, 2000, START_MS), label);
+                snapshots += counts[0];
+                renames += counts[1];
+                boundaryRenames += counts[2];
+                flagged += counts[3];
+            }
+        }
+        // 이벤트 열이 rename(경계 포함)과 랜덤 확장자 플래그 경로를 실제로 거쳤는지 확인
+        assertTrue(snapshots > 0 && renames > 0 && boundaryRenames > 0 && flagged > 0,
+                "snapshots=" + snapshots + " renames=" + renames + " boundaryRenames=" + boundaryRenames + " flagged=" + flagged);
+    }
+
+    @Test
+    void expiredPaneDoesNotChangeEarlierSnapshotPaths() {
+        HoppingWindow hw = new HoppingWindow(2000L, 1000L);
+        add(hw, TestEvents.event("owner-a", "CREATE", "/home/b/work/a.txt", START_MS, null, 10L, null, 1.0, null, "txt"));
+        HoppingWindow.Snapshot first = single(hw.advance(START_MS + 1000, RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null));
+        add(hw, TestEvents.event("owner-a", "CREATE", "/home/b/work/b.txt", START_MS + 1000, null, 10L, null, 1.0, null, "txt"));
+        HoppingWindow.Snapshot second = single(hw.advance(START_MS + 2000, RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null));
+        add(hw, TestEvents.event("owner-a", "CREATE", "/home/b/work/c.txt", START_MS + 2000, null, 10L, null, 1.0, null, "txt"));
+        hw.advance(START_MS + 5000, RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null);   // 모든 pane 만료 후 재사용
+
+        assertEquals(List.of("/home/b/work/a.txt"), first.affectedPaths());
+        assertEquals(List.of("/home/b/work/a.txt", "/home/b/work/b.txt"), second.affectedPaths());
+    }
+
+    /** 반환값: {스냅샷 수, rename 수, 경계 때문에 놓친 rename 수, 랜덤 확장자 플래그 수} */
+    private static int[] assertMatchesBruteForce(long windowMs, long hopMs, List<FileAnalysisResult> events, String label) {
+        HoppingWindow hw = new HoppingWindow(windowMs, hopMs);
+        List<Fed> fed = new ArrayList<>();
+        Map<String, Long> touchSessions = new HashMap<>();
+        List<Long> emittedEnds = new ArrayList<>();
+        int[] counts = new int[4];
+
+        for (FileAnalysisResult r : events) {
+            long t = r.getEventTime().toEpochMilli();
+            for (HoppingWindow.Snapshot s : hw.advance(t, RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null)) {
+                assertSnapshot(fed, s, windowMs, hopMs, label, counts);
+                emittedEnds.add(s.endBoundaryMs);
+            }
+            Fed f = judge(r, t, touchSessions);
+            hw.add(r, f.type(), t, f.newTouch(), f.contentChanged(), f.encryptLike(), f.suspiciousExt());
+            fed.add(f);
+        }
+        HoppingWindow.Snapshot last = hw.drain(RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null);
+        assertNotNull(last, label + " drain");
+        assertSnapshot(fed, last, windowMs, hopMs, label, counts);
+        emittedEnds.add(last.endBoundaryMs);
+
+        // 최근 pane에 이벤트가 있었던 hop 경계마다 정확히 1번씩 평가한다
+        TreeSet<Long> expectedEnds = new TreeSet<>();
+        for (Fed f : fed) expectedEnds.add((Math.floorDiv(f.timeMs(), hopMs) + 1) * hopMs);
+        assertEquals(new ArrayList<>(expectedEnds), emittedEnds, label + " hop boundaries");
+        return counts;
+    }
+
+    private static void assertSnapshot(List<Fed> fed, HoppingWindow.Snapshot s, long windowMs, long hopMs,
+                                       String label, int[] counts) {
+        long end = s.endBoundaryMs;
+        String at = label + " end=" + (end - START_MS);
+        List<Fed> in = fed.stream().filter(f -> f.timeMs() >= end - windowMs && f.timeMs() < end).toList();
+        assertFalse(in.isEmpty(), at + " empty window");
+
+        // rename: pane 안에서만 매칭 (pane별 전수 비교의 합), 윈도우 전체 전수 비교보다 많을 수 없다
+        int paneRenames = 0;
+        for (long paneStart = end - windowMs; paneStart < end; paneStart += hopMs) {
+            long from = paneStart;
+            paneRenames += BaselineWindowAggregation.detectRenameLikeCountByScore(
+                    in.stream().filter(f -> f.timeMs() >= from && f.timeMs() < from + hopMs).map(Fed::r).toList(),
+                    RENAME_MAX_GAP_MS);
+        }
+        int windowRenames = BaselineWindowAggregation.detectRenameLikeCountByScore(in.stream().map(Fed::r).toList(), RENAME_MAX_GAP_MS);
+        assertEquals(paneRenames, s.stats.fileRenameCount, at + " rename (per pane)");
+        assertTrue(paneRenames <= windowRenames, at + " rename (window) " + paneRenames + " > " + windowRenames);
+
+        int touches = 0, writes = 0, deletes = 0, encryptLike = 0;
+        double entropySum = 0.0, sizeSum = 0.0;
+        int entropyN = 0, sizeN = 0;
+        DeltaSketch entropySketch = new DeltaSketch(DeltaSketch.ENTROPY);
+        DeltaSketch sizeSketch = new DeltaSketch(DeltaSketch.SIZE);
+        Set<String> paths = new LinkedHashSet<>();
+        Set<String> suspicious = new HashSet<>();
+        for (Fed f : in) {
+            if (f.newTouch()) touches++;
+            if (f.contentChanged()) writes++;
+            if ("DELETE".equals(f.type())) deletes++;
+            if (f.encryptLike()) encryptLike++;
+            if (f.r().getEntropyDiff() != null) {
+                entropySum += f.r().getEntropyDiff();
+                entropyN++;
+                entropySketch.add(f.r().getEntropyDiff());
+            }
+            if (f.r().getSizeDiff() != null) {
+                sizeSum += f.r().getSizeDiff();
+                sizeN++;
+                sizeSketch.add(f.r().getSizeDiff());
+            }
+            paths.add(f.r().getPath());
+            if (f.suspiciousExt()) suspicious.add(f.r().getPath());
+        }
+
+        WindowStats st = s.stats;
+        assertEquals(in.size(), s.eventCount, at + " events");
+        assertEquals(touches, st.fileTouchCount, at + " touch");
+        assertEquals(writes + paneRenames, st.fileWriteCount, at + " write");
+        assertEquals(Math.max(0, deletes - paneRenames), st.fileDeleteCount, at + " delete");
+        assertEquals(encryptLike, st.fileEncryptLikeCount, at + " encryptLike");
+        assertEquals(Math.max(0, paths.size() - paneRenames), st.changedFilesCount, at + " changedFiles");
+        assertEquals(entropyN > 0 ? entropySum / entropyN : 0.0, st.entropyDiffMean, 1e-9, at + " entropyDiffMean");
+        assertEquals(sizeN > 0 ? sizeSum / sizeN : 0.0, st.sizeDiffMean, 1e-6, at + " sizeDiffMean");
+        assertQuantilesEqual(entropySketch.summarize(), st.entropyDiffQuantiles, at + " entropyDiff");
+        assertQuantilesEqual(sizeSketch.summarize(), st.sizeDiffQuantiles, at + " sizeDiff");
+        assertEquals(suspicious.size(), st.randomExtensionCount, at + " randomExtCount");
+        assertEquals(suspicious.size() >= RANDOM_EXT_MIN_COUNT ? 1 : 0, st.randomExtensionFlag, at + " randomExtFlag");
+
+        assertEquals(in.get(0).timeMs(), s.minEventMs, at + " min");
+        assertEquals(in.get(in.size() - 1).timeMs(), s.maxEventMs, at + " max");
+        assertEquals(in.get(0).r().getOwnerKey(), s.firstOwnerKey, at + " owner");
+        assertEquals(in.get(in.size() - 1).r().getEventTime(), s.lastEventTime, at + " lastEventTime");
+        assertEquals(new ArrayList<>(paths), s.affectedPaths(), at + " affectedPaths");
+
+        counts[0]++;
+        counts[1] += paneRenames;
+        counts[2] += windowRenames - paneRenames;
+        counts[3] += st.randomExtensionFlag;
+    }
+
+    private static void assertQuantilesEqual(DeltaQuantiles e, DeltaQuantiles a, String at) {
+        assertEquals(e.p50, a.p50, 0.0, at + " p50");
+        assertEquals(e.p90, a.p90, 0.0, at + " p90");
+        assertEquals(e.min, a.min, 0.0, at + " min");
+        assertEquals(e.max, a.max, 0.0, at + " max");
+    }
+
+    /** EventWindowAggregator.accumulate와 같은 방식의 이벤트별 판정 (touch 세션은 짧게) */
+    private static Fed judge(FileAnalysisResult r, long t, Map<String, Long> touchSessions) {
+        String type = r.getEventType();
+        Long sizeDiff = r.getSizeDiff();
+        Double entropyDiff = r.getEntropyDiff();
+        boolean newTouch = false;
+        boolean contentChanged = false;
+        if ("MODIFY".equals(type)) {
+            Long last = touchSessions.get(r.getOwnerKey() + "|" + r.getPath());
+            newTouch = last == null || t - last > TOUCH_TIMEOUT_MS;
+            if (newTouch) touchSessions.put(r.getOwnerKey() + "|" + r.getPath(), t);
+            contentChanged = (sizeDiff != null && sizeDiff != 0L) || (entropyDiff != null && Math.abs(entropyDiff) > 1e-6);
+        }
+        boolean extChanged = r.getExtBefore() != null && r.getExtAfter() != null
+                && !r.getExtBefore().equalsIgnoreCase(r.getExtAfter());
+        long approxSize = (r.getSizeAfter() != null) ? r.getSizeAfter() : (r.getSizeBefore() != null ? r.getSizeBefore() : 0L);
+        boolean encryptLike = approxSize >= 4096L && entropyDiff != null && entropyDiff >= 0.30
+                && ((sizeDiff != null && sizeDiff != 0L) || extChanged);
+        boolean suspiciousExt = isSuspicious(r.getExtBefore()) || isSuspicious(r.getExtAfter());
+        return new Fed(r, type, t, newTouch, contentChanged, encryptLike, suspiciousExt);
+    }
+
+    private static boolean isSuspicious(String ext) {
+        return ext != null && SUSPICIOUS_EXTS.contains(ext.toLowerCase(Locale.ROOT));
+    }
+
+    private static void add(HoppingWindow hw, FileAnalysisResult r) {
+        long t = r.getEventTime().toEpochMilli();
+        hw.advance(t, RENAME_MAX_GAP_MS, RANDOM_EXT_MIN_COUNT, null);
+        hw.add(r, r.getEventType(), t, false, false, false, false);
+    }
+
+    private static HoppingWindow.Snapshot single(List<HoppingWindow.Snapshot> snapshots) {
+        assertEquals(1, snapshots.size());
+        return snapshots.get(0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.analytics.dto.PreScreenStatsResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : QuietWindowPreScreenTest
+ * 기능 : 조용한 윈도우 판정의 각 기준이 경계값(같으면 SAFE)과 바로 바깥(AI로 전달)에서 기대대로 동작하는지,
+ *        touch 세션 수가 변경 파일 수 기준과 따로 적용되는지, 분포 최댓값 기준이 음수 쪽 변화도 보는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class QuietWindowPreScreenTest {
+
+    @Test
+    void countThresholdsAreInclusive() {
+        QuietWindowPreScreen p = preScreen();
+        assertQuiet(p, b -> b);
+        assertBoundary(p, "changed_files_count", b -> b.changedFilesCount(3), b -> b.changedFilesCount(4));
+        assertBoundary(p, "file_read_count", b -> b.fileReadCount(3), b -> b.fileReadCount(4));
+        assertBoundary(p, "file_write_count", b -> b.fileWriteCount(3), b -> b.fileWriteCount(4));
+        assertBoundary(p, "file_delete_count", b -> b.fileDeleteCount(1), b -> b.fileDeleteCount(2));
+    }
+
+    @Test
+    void anyRenameEncryptOrRandomExtensionIsForwarded() {
+        QuietWindowPreScreen p = preScreen();
+        assertForwarded(p, b -> b.fileRenameCount(1));
+        assertForwarded(p, b -> b.fileEncryptLikeCount(1));
+        assertForwarded(p, b -> b.randomExtensionFlag(1));
+    }
+
+    @Test
+    void meanThresholdsApplyToBothSigns() {
+        QuietWindowPreScreen p = preScreen();
+        assertBoundary(p, "entropy_diff_mean +", b -> b.entropyDiffMean(0.05), b -> b.entropyDiffMean(0.0501));
+        assertBoundary(p, "entropy_diff_mean -", b -> b.entropyDiffMean(-0.05), b -> b.entropyDiffMean(-0.0501));
+        assertBoundary(p, "file_size_diff_mean +", b -> b.fileSizeDiffMean(65536), b -> b.fileSizeDiffMean(65537));
+        assertBoundary(p, "file_size_diff_mean -", b -> b.fileSizeDiffMean(-65536), b -> b.fileSizeDiffMean(-65537));
+    }
+
+    @Test
+    void readCountHasItsOwnThreshold() {
+        QuietWindowPreScreen p = preScreen();
+        ReflectionTestUtils.setField(p, "maxChangedFiles", 1);
+        ReflectionTestUtils.setField(p, "maxReadCount", 5);
+        // 파일 1개를 세션이 끊길 때마다 다시 연 윈도우: 변경 파일 1개, touch 세션 5건
+        assertQuiet(p, b -> b.changedFilesCount(1).fileReadCount(5));
+        assertForwarded(p, b -> b.changedFilesCount(1).fileReadCount(6));
+        assertForwarded(p, b -> b.changedFilesCount(2).fileReadCount(1));
+    }
+
+    @Test
+    void spreadGuardUsesLargestAbsoluteChange() {
+        QuietWindowPreScreen p = preScreen();
+        AiPayload quiet = AiPayload.builder().build();
+        DeltaQuantiles small = new DeltaQuantiles(0.0, 0.0, 0.0, 0.0);
+
+        // 평균은 0이어도 파일 하나의 변화가 기준을 넘으면 전달한다 (min 쪽 음수 변화 포함)
+        assertNotNull(p.evaluate(quiet, q(-0.30, 0.30), small));
+        assertNull(p.evaluate(quiet, q(0.0, 0.31), small));
+        assertNull(p.evaluate(quiet, q(-0.31, 0.0), small));
+        assertNotNull(p.evaluate(quiet, small, q(-1_048_576, 1_048_576)));
+        assertNull(p.evaluate(quiet, small, q(0.0, 1_048_577)));
+        assertNull(p.evaluate(quiet, small, q(-1_048_577, 0.0)));
+
+        // 분포 요약이 없거나 비어 있으면 평균 기준만 본다
+        assertNotNull(p.evaluate(quiet, null, null));
+        assertNotNull(p.evaluate(quiet, DeltaQuantiles.EMPTY, DeltaQuantiles.EMPTY));
+    }
+
+    @Test
+    void safeResultAndStats() {
+        QuietWindowPreScreen p = preScreen();
+        AiResult local = p.screen(AiPayload.builder().changedFilesCount(2).build(), null, null);
+        assertEquals("SAFE", local.getLabel());
+        assertEquals(AiResult.SOURCE_PRESCREEN, local.getSource());
+        assertFalse(local.getIsRansomware());
+        assertNull(p.screen(AiPayload.builder().fileDeleteCount(5).build(), null, null));
+        assertNull(p.screen(AiPayload.builder().fileRenameCount(1).build(), null, null));
+
+        PreScreenStatsResponse stats = p.getStats();
+        assertEquals(1, stats.getSkipped());
+        assertEquals(2, stats.getForwarded());
+        assertEquals(1.0 / 3, stats.getSkipRatio(), 1e-12);
+
+        ReflectionTestUtils.setField(p, "enabled", false);
+        assertNull(p.evaluate(AiPayload.builder().build(), null, null));
+    }
+
+    private static void assertBoundary(QuietWindowPreScreen p, String what,
+                                       UnaryOperator<AiPayload.AiPayloadBuilder> atLimit,
+                                       UnaryOperator<AiPayload.AiPayloadBuilder> beyond) {
+        assertNotNull(p.evaluate(atLimit.apply(AiPayload.builder()).build(), null, null), what + " at limit");
+        assertNull(p.evaluate(beyond.apply(AiPayload.builder()).build(), null, null), what + " beyond limit");
+    }
+
+    private static void assertQuiet(QuietWindowPreScreen p, UnaryOperator<AiPayload.AiPayloadBuilder> payload) {
+        assertNotNull(p.evaluate(payload.apply(AiPayload.builder()).build(), null, null));
+    }
+
+    private static void assertForwarded(QuietWindowPreScreen p, UnaryOperator<AiPayload.AiPayloadBuilder> payload) {
+        assertNull(p.evaluate(payload.apply(AiPayload.builder()).build(), null, null));
+    }
+
+    private static DeltaQuantiles q(double min, double max) {
+        return new DeltaQuantiles(0.0, 0.0, min, max);
+    }
+
+    /** application.yml 기본값 */
+    private static QuietWindowPreScreen preScreen() {
+        QuietWindowPreScreen p = new QuietWindowPreScreen();
+        ReflectionTestUtils.setField(p, "enabled", true);
+        ReflectionTestUtils.setField(p, "maxChangedFiles", 3);
+        ReflectionTestUtils.setField(p, "maxReadCount", 3);
+        ReflectionTestUtils.setField(p, "maxWriteCount", 3);
+        ReflectionTestUtils.setField(p, "maxDeleteCount", 1);
+        ReflectionTestUtils.setField(p, "maxAbsEntropyDiffMean", 0.05);
+        ReflectionTestUtils.setField(p, "maxAbsSizeDiffMean", 65536.0);
+        ReflectionTestUtils.setField(p, "maxAbsEntropyDiff", 0.30);
+        ReflectionTestUtils.setField(p, "maxAbsSizeDiff", 1048576.0);
+        return p;
+    }
+}
@@ -0,0 +1,72 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 클래스 이름 : RenameIndexBenchmark
+ * 기능 : 한 윈도우 안의 rename 폭주(DELETE/CREATE 쌍)에서 버킷 인덱스 매칭과 기존 전수 점수 비교의 flush 비용을 잰다.
+ *        윈도우 전체를 집계기에 넣었을 때의 이벤트당 비용도 함께 출력한다. (./gradlew benchmark)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class RenameIndexBenchmark {
+
+    private static final long GAP_MS = 2000L;
+    private static final long START_MS = 1_700_000_000_000L;
+
+    @Test
+    void renameStormFlushCost() {
+        for (int pairs : new int[]{1_000, 4_000, 16_000}) {
+            // 모든 쌍이 같은 시각이라 한 윈도우에 들어간다
+            List<FileAnalysisResult> events = TestEvents.renameStorm(pairs, START_MS, 0);
+
+            RenameIndex index = null;
+            long indexNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long t0 = System.nanoTime();
+                index = build(events);
+                assertEquals(pairs, index.countRenames(GAP_MS, null));
+                indexNanos = Math.min(indexNanos, System.nanoTime() - t0);
+            }
+
+            long pairwiseNanos = Long.MAX_VALUE;
+            int pairwiseRounds = (pairs <= 4_000) ? 3 : 1;
+            for (int round = 0; round < pairwiseRounds; round++) {
+                long t0 = System.nanoTime();
+                assertEquals(pairs, BaselineWindowAggregation.detectRenameLikeCountByScore(events, GAP_MS));
+                pairwiseNanos = Math.min(pairwiseNanos, System.nanoTime() - t0);
+            }
+
+            TestAggregator agg = new TestAggregator();
+            long t0 = System.nanoTime();
+            agg.feedAll(events);
+            agg.flush();
+            long aggregatorNanos = System.nanoTime() - t0;
+            assertEquals(pairs, agg.windows.get(0).getPayload().getFileRenameCount());
+
+            System.out.printf("[RenameIndexBenchmark] pairs=%d index=%.2f ms pairwise=%.2f ms (x%.0f) aggregator=%.0f ns/event%n",
+                    pairs, indexNanos / 1e6, pairwiseNanos / 1e6, (double) pairwiseNanos / indexNanos,
+                    (double) aggregatorNanos / events.size());
+        }
+    }
+
+    private static RenameIndex build(List<FileAnalysisResult> events) {
+        RenameIndex index = new RenameIndex();
+        for (FileAnalysisResult r : events) {
+            long ms = r.getEventTime().toEpochMilli();
+            if ("DELETE".equals(r.getEventType())) {
+                index.addDelete(r.getOwnerKey(), r.getPath(), r.getSizeBefore(), r.getExtBefore(), ms);
+            } else {
+                index.addCreate(r.getOwnerKey(), r.getPath(), r.getSizeAfter(), r.getExtAfter(), ms);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,115 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : RenameIndexTest
+ * 기능 : 버킷 인덱스 rename 매칭이 기존 DELETE×CREATE 전수 점수 비교와 같은 개수를 내는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class RenameIndexTest {
+
+    private static final long GAP_MS = 2000L;
+    private static final String[] DIRS = {"C:\\Users\\a\\Documents", "C:\\Users\\a\\Desktop", "/home/b/work"};
+    private static final String[] EXTS = {"docx", "DOCX", "Docx", "pdf", "locked", null};
+    private static final Long[] SIZES = {4096L, 4100L, 8192L, 0L, null};
+
+    @Test
+    void matchesPairwiseScoringOnRandomWindows() {
+        int total = 0;
+        for (long seed = 1; seed <= 300; seed++) {
+            List<FileAnalysisResult> events = randomWindow(new Random(seed), 80, seed % 3 == 0);
+            int expected = BaselineWindowAggregation.detectRenameLikeCountByScore(events, GAP_MS);
+            assertEquals(expected, index(events).countRenames(GAP_MS, null), "seed=" + seed);
+            total += expected;
+        }
+        assertTrue(total > 0);
+    }
+
+    @Test
+    void nearSizeAloneIsNotARename() {
+        // ±1% 근사 크기(+1) + ext 동일(+1)은 2점이라 기준 3에 못 미친다
+        RenameIndex index = new RenameIndex();
+        index.addDelete("o", "/d/a.docx", 10_000L, "docx", 0);
+        index.addCreate("o", "/d/b.docx", 10_050L, "docx", 10);
+        assertEquals(0, index.countRenames(GAP_MS, null));
+    }
+
+    @Test
+    void requiresSameOwnerParentAndGap() {
+        RenameIndex index = new RenameIndex();
+        index.addDelete("o", "/d/a.docx", 10L, "docx", 0);
+        index.addCreate("p", "/d/b.docx", 10L, "docx", 0);          // 다른 소유자
+        index.addCreate("o", "/d/sub/b.docx", 10L, "docx", 0);      // 다른 폴더
+        index.addCreate("o", "/d/c.docx", 10L, "docx", GAP_MS + 1); // gap 초과
+        assertEquals(0, index.countRenames(GAP_MS, null));
+
+        index.addCreate("o", "/d/e.DOCX", 10L, "DOCX", GAP_MS);
+        assertEquals(1, index.countRenames(GAP_MS, null));
+    }
+
+    @Test
+    void eachCreateIsUsedOnceAndCountIsRepeatable() {
+        RenameIndex index = new RenameIndex();
+        index.addDelete("o", "/d/a.txt", 10L, "txt", 100);
+        index.addDelete("o", "/d/b.txt", 10L, "txt", 100);
+        index.addCreate("o", "/d/c.txt", 10L, "txt", 150);
+
+        List<String> dirs = new ArrayList<>();
+        assertEquals(1, index.countRenames(GAP_MS, dirs::add));
+        assertEquals(List.of("/d"), dirs);
+        assertEquals(1, index.countRenames(GAP_MS, null));
+    }
+
+    @Test
+    void outOfOrderCreatesAreStillScanned() {
+        // 시각이 역행한 CREATE가 있으면 조기 종료 없이 버킷 전체를 본다
+        RenameIndex index = new RenameIndex();
+        index.addCreate("o", "/d/x.txt", 10L, "txt", 10_000);
+        index.addCreate("o", "/d/y.txt", 10L, "txt", 100);
+        index.addDelete("o", "/d/a.txt", 10L, "txt", 0);
+        assertEquals(1, index.countRenames(GAP_MS, null));
+    }
+
+    private static RenameIndex index(List<FileAnalysisResult> events) {
+        RenameIndex index = new RenameIndex();
+        for (FileAnalysisResult r : events) {
+            long ms = r.getEventTime().toEpochMilli();
+            if ("DELETE".equals(r.getEventType())) {
+                index.addDelete(r.getOwnerKey(), r.getPath(), r.getSizeBefore(), r.getExtBefore(), ms);
+            } else {
+                index.addCreate(r.getOwnerKey(), r.getPath(), r.getSizeAfter(), r.getExtAfter(), ms);
+            }
+        }
+        return index;
+    }
+
+    /** 같은 윈도우 안의 DELETE/CREATE 열. shuffled면 시각이 도착 순서와 어긋난다. */
+    private static List<FileAnalysisResult> randomWindow(Random rnd, int count, boolean shuffled) {
+        List<FileAnalysisResult> out = new ArrayList<>(count);
+        long t = 0;
+        for (int i = 0; i < count; i++) {
+            t += rnd.nextInt(200);
+            long ms = shuffled ? rnd.nextInt(6000) : t;
+            String owner = rnd.nextInt(4) == 0 ? "owner-b" : "owner-a";
+            String dir = DIRS[rnd.nextInt(DIRS.length)];
+            String ext = EXTS[rnd.nextInt(EXTS.length)];
+            Long size = SIZES[rnd.nextInt(SIZES.length)];
+            String path = rnd.nextInt(30) == 0 ? null : dir + "/f" + i + "." + ext;
+            if (rnd.nextBoolean()) {
+                out.add(TestEvents.event(owner, "DELETE", path, ms, size, null, null, null, ext, null));
+            } else {
+                out.add(TestEvents.event(owner, "CREATE", path, ms, null, size, null, null, null, ext));
+            }
+        }
+        return out;
+    }
+}
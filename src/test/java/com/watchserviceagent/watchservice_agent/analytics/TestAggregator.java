@@ -0,0 +1,104 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.rules.LocalRuleEngine;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 클래스 이름 : TestAggregator
+ * 기능 : 테스트/벤치마크용 EventWindowAggregator. @Value 기본값으로 설정을 채우고(일부 재정의 가능),
+ *        닫힌 윈도우와 이벤트별 윈도우 ID를 DB나 flush 파이프라인 대신 메모리에 모은다. 시계는 now 필드다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class TestAggregator implements AggregatorSink {
+
+    final EventWindowAggregator aggregator;
+    final List<ClosedWindow> windows = new ArrayList<>();
+    final List<Long> eventWindowIds = new ArrayList<>();
+    long now;
+
+    TestAggregator() {
+        this(Map.of());
+    }
+
+    TestAggregator(Map<String, Object> overrides) {
+        HotDirectoryTracker hotDirectories = new HotDirectoryTracker();
+        ReflectionTestUtils.setField(hotDirectories, "topK", 20);
+        ReflectionTestUtils.setField(hotDirectories, "width", 1024);
+        ReflectionTestUtils.setField(hotDirectories, "depth", 4);
+        ReflectionTestUtils.setField(hotDirectories, "halfLifeMs", 60_000L);
+        ReflectionTestUtils.setField(hotDirectories, "notificationLimit", 5);
+        hotDirectories.init();
+
+        aggregator = new EventWindowAggregator(null, null, null, hotDirectories, new LocalRuleEngine(null));
+        Map<String, Object> config = defaults();
+        config.putAll(overrides);
+        config.forEach((field, value) -> ReflectionTestUtils.setField(aggregator, field, value));
+        ReflectionTestUtils.setField(aggregator, "sink", this);
+        ReflectionTestUtils.setField(aggregator, "clock", (LongSupplier) () -> now);
+        ReflectionTestUtils.setField(aggregator, "logWindows", false);
+        aggregator.init();
+    }
+
+    /** EventWindowAggregator의 @Value 기본값 */
+    static Map<String, Object> defaults() {
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("windowMs", 3000L);
+        c.put("touchSessionTimeoutMs", 300_000L);
+        c.put("renameMaxGapMs", 2000L);
+        c.put("encryptEntropyDiffThreshold", 0.30);
+        c.put("encryptMinSizeBytes", 4096L);
+        c.put("eps", 1.0E-6);
+        c.put("randomExtMinCount", 2);
+        c.put("randomExtMinLength", 4);
+        c.put("randomExtWhitelistCsv", "txt,log,doc,docx,xls,xlsx,pdf,png,jpg,jpeg,gif,zip,rar,7z");
+        c.put("hoppingEnabled", false);
+        c.put("hopMs", 1000L);
+        c.put("adaptiveEnabled", false);
+        c.put("adaptiveTargetEvents", 300);
+        c.put("adaptiveMinWindowMs", 1000L);
+        c.put("adaptiveMaxWindowMs", 30_000L);
+        c.put("adaptiveRateHalfLifeMs", 5000L);
+        c.put("extraWindowMsCsv", "");
+        c.put("scaleMinCountDelta", 2);
+        c.put("scaleMinChangeRatio", 0.25);
+        c.put("scaleMinEntropyDelta", 0.05);
+        c.put("scaleMinSizeDelta", 4096.0);
+        return c;
+    }
+
+    void feed(FileAnalysisResult r) {
+        if (r.getEventTime() != null) now = Math.max(now, r.getEventTime().toEpochMilli());
+        aggregator.onFileAnalysisResult(r);
+    }
+
+    void feedAll(List<FileAnalysisResult> events) {
+        for (FileAnalysisResult r : events) feed(r);
+    }
+
+    void flush() {
+        aggregator.flushIfNeeded();
+    }
+
+    /** 길이가 windowMs인 스케일의 닫힌 윈도우 (닫힌 순서) */
+    List<ClosedWindow> windowsOf(long windowMs) {
+        return windows.stream().filter(w -> w.getWindowMs() == windowMs).toList();
+    }
+
+    @Override
+    public void onEvent(FileAnalysisResult result, long eventTimeMs, Long windowId) {
+        eventWindowIds.add(windowId);
+    }
+
+    @Override
+    public void onWindow(ClosedWindow window) {
+        windows.add(window);
+    }
+}
@@ -0,0 +1,114 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 클래스 이름 : TestEvents
+ * 기능 : 테스트/벤치마크용 감시 이벤트 생성기. 시드가 같으면 같은 이벤트 열을 만든다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+final class TestEvents {
+
+    private static final String[] OWNERS = {"owner-a", "owner-b"};
+    private static final String[] DIRS = {"C:\\Users\\a\\Documents", "C:\\Users\\a\\Desktop", "/home/b/work", "/home/b/work/sub"};
+    private static final String[] EXTS = {"txt", "docx", "pdf", "locked", "x9f2k", "enc", "ab"};
+    private static final long[] SIZES = {0L, 120L, 4096L, 5000L, 5040L, 8192L, 65_536L};
+
+    private TestEvents() {
+    }
+
+    /**
+     * 함수 이름 : mixed
+     * 기능 : CREATE/MODIFY/DELETE와 rename(같은 폴더 DELETE 직후 CREATE), 암호화 유사 MODIFY가 섞인 이벤트 열을 만든다.
+     *        시간 간격은 대부분 0~400ms이고 가끔 수 초씩 비어 윈도우 경계와 touch 세션 만료가 생긴다.
+     * 매개변수 : seed - 난수 시드, count - 이벤트 수, startMs - 첫 이벤트 시각
+     * 반환값 : List<FileAnalysisResult> - 시각 오름차순 이벤트
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static List<FileAnalysisResult> mixed(long seed, int count, long startMs) {
+        Random rnd = new Random(seed);
+        List<FileAnalysisResult> out = new ArrayList<>(count);
+        long t = startMs;
+        while (out.size() < count) {
+            t += (rnd.nextInt(20) == 0) ? 2000 + rnd.nextInt(6000) : rnd.nextInt(400);
+            String owner = OWNERS[rnd.nextInt(OWNERS.length)];
+            String dir = DIRS[rnd.nextInt(DIRS.length)];
+            String ext = EXTS[rnd.nextInt(EXTS.length)];
+            String path = dir + sep(dir) + "f" + rnd.nextInt(40) + "." + ext;
+            long size = SIZES[rnd.nextInt(SIZES.length)];
+            int kind = rnd.nextInt(10);
+            if (kind < 4) {
+                double before = rnd.nextInt(4) == 0 ? Double.NaN : rnd.nextDouble() * 6;
+                double after = rnd.nextInt(3) == 0 ? before + 1.5 : before;
+                long sizeAfter = rnd.nextBoolean() ? size : size + rnd.nextInt(64);
+                String extAfter = rnd.nextInt(6) == 0 ? "locked" : ext;
+                out.add(event(owner, "MODIFY", path, t, size, sizeAfter,
+                        Double.isNaN(before) ? null : before, Double.isNaN(before) ? null : after, ext, extAfter));
+            } else if (kind < 6) {
+                out.add(event(owner, "CREATE", path, t, null, size, null, rnd.nextDouble() * 8, null, ext));
+            } else if (kind < 8) {
+                out.add(event(owner, "DELETE", path, t, size, null, rnd.nextDouble() * 8, null, ext, null));
+            } else {
+                // rename: DELETE 후 gap 안에(가끔 밖에) 같은 폴더에 CREATE
+                out.add(event(owner, "DELETE", path, t, size, null, null, null, ext, null));
+                if (out.size() >= count) break;
+                t += (rnd.nextInt(8) == 0) ? 2500 : rnd.nextInt(300);
+                String newExt = rnd.nextInt(3) == 0 ? EXTS[rnd.nextInt(EXTS.length)] : ext.toUpperCase();
+                long newSize = rnd.nextInt(4) == 0 ? size + size / 200 : size;
+                out.add(event(owner, "CREATE", dir + sep(dir) + "r" + rnd.nextInt(1000) + "." + newExt, t,
+                        null, newSize, null, null, null, newExt));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 함수 이름 : renameStorm
+     * 기능 : 한 폴더에서 같은 크기/확장자 파일을 대량으로 rename하는 이벤트 열 (DELETE 직후 CREATE 쌍)을 만든다.
+     * 매개변수 : pairs - rename 쌍 수, startMs - 첫 이벤트 시각, stepMs - 쌍 사이 간격
+     * 반환값 : List<FileAnalysisResult> - 시각 오름차순 이벤트
+     * 작성 날짜 : 2025/12/17
+     * 작성자 : 시스템
+     */
+    static List<FileAnalysisResult> renameStorm(int pairs, long startMs, long stepMs) {
+        List<FileAnalysisResult> out = new ArrayList<>(pairs * 2);
+        String dir = "C:\\Users\\a\\Documents";
+        for (int i = 0; i < pairs; i++) {
+            long t = startMs + i * stepMs;
+            long size = 4096L * (1 + i % 4);
+            out.add(event("owner-a", "DELETE", dir + "\\doc" + i + ".docx", t, size, null, 4.0, null, "docx", null));
+            out.add(event("owner-a", "CREATE", dir + "\\doc" + i + ".docx.locked", t, null, size, null, 7.9, null, "docx"));
+        }
+        return out;
+    }
+
+    static FileAnalysisResult event(String owner, String type, String path, long timeMs,
+                                    Long sizeBefore, Long sizeAfter, Double entropyBefore, Double entropyAfter,
+                                    String extBefore, String extAfter) {
+        return FileAnalysisResult.builder()
+                .ownerKey(owner)
+                .eventType(type)
+                .path(path)
+                .eventTime(Instant.ofEpochMilli(timeMs))
+                .existsBefore(!"CREATE".equals(type))
+                .existsAfter(!"DELETE".equals(type))
+                .sizeBefore(sizeBefore)
+                .sizeAfter(sizeAfter)
+                .entropyBefore(entropyBefore)
+                .entropyAfter(entropyAfter)
+                .extBefore(extBefore)
+                .extAfter(extAfter)
+                .build();
+    }
+
+    private static String sep(String dir) {
+        return dir.startsWith("/") ? "/" : "\\";
+    }
+}
@@ -0,0 +1,99 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : TouchSessionTableTest
+ * 기능 : touch 세션 테이블이 기존 "ownerKey|path → 마지막 세션 시작" HashMap과 같은 판정을 내고,
+ *        만료로 메모리를 돌려주며, 체크포인트 후에도 같은 판정을 이어가는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class TouchSessionTableTest {
+
+    @Test
+    void matchesHashMapSessionsOnRandomTouches() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            long timeout = 500 + rnd.nextInt(5000);
+            TouchSessionTable table = new TouchSessionTable(timeout);
+            Map<String, Long> reference = new HashMap<>();
+
+            long now = 0;
+            for (int i = 0; i < 20_000; i++) {
+                now += rnd.nextInt(8) == 0 ? rnd.nextInt((int) timeout * 2) : rnd.nextInt(50);
+                String owner = rnd.nextInt(5) == 0 ? null : "owner-" + rnd.nextInt(3);
+                String path = "/d" + rnd.nextInt(8) + "/f" + rnd.nextInt(300);
+                assertEquals(referenceTouch(reference, owner, path, now, timeout), table.touch(owner, path, now),
+                        "seed=" + seed + " i=" + i);
+            }
+        }
+    }
+
+    @Test
+    void expiredSessionsAreDropped() {
+        TouchSessionTable table = new TouchSessionTable(1000);
+        for (int i = 0; i < 5000; i++) table.touch("o", "/d/f" + i, i % 100);
+        assertEquals(5000, table.size());
+
+        // 세션 시작 후 timeout이 지나고 만료 버킷 1칸만큼 더 흐르면 모두 정리된다
+        table.expire(100 + 1000 + 1000 / 16 + 1);
+        assertEquals(0, table.size());
+        assertTrue(table.touch("o", "/d/f1", 2000));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void renewedSessionSurvivesExpiryOfItsOldBucket() {
+        TouchSessionTable table = new TouchSessionTable(1000);
+        assertTrue(table.touch("o", "/a", 0));
+        assertTrue(table.touch("o", "/a", 1500));      // 새 세션 (이전 버킷에도 남아 있음)
+        table.expire(2000);                             // 0ms 버킷 정리
+        assertEquals(1, table.size());
+        assertFalse(table.touch("o", "/a", 2400));     // 1500ms 세션은 아직 유효
+    }
+
+    @Test
+    void checkpointRoundTripKeepsSessions() throws Exception {
+        Random rnd = new Random(3);
+        long timeout = 2000;
+        TouchSessionTable table = new TouchSessionTable(timeout);
+        Map<String, Long> reference = new HashMap<>();
+        long now = 0;
+        for (int i = 0; i < 3000; i++) {
+            now += rnd.nextInt(20);
+            String path = "/d/f" + rnd.nextInt(500);
+            assertEquals(referenceTouch(reference, "o", path, now, timeout), table.touch("o", path, now));
+        }
+
+        CheckpointOutput out = new CheckpointOutput();
+        table.writeTo(out);
+        byte[] bytes = out.toByteArray();
+        TouchSessionTable restored = new TouchSessionTable(timeout);
+        restored.readFrom(new CheckpointInput(bytes, 0, bytes.length));
+        assertEquals(table.size(), restored.size());
+
+        for (int i = 0; i < 3000; i++) {
+            now += rnd.nextInt(20);
+            String path = "/d/f" + rnd.nextInt(500);
+            assertEquals(referenceTouch(reference, "o", path, now, timeout), restored.touch("o", path, now), "i=" + i);
+        }
+    }
+
+    /** 기존 집계기의 세션 판정 */
+    private static boolean referenceTouch(Map<String, Long> sessions, String owner, String path, long now, long timeout) {
+        String key = (owner == null ? "" : owner) + "|" + path;
+        Long last = sessions.get(key);
+        if (last == null || now - last > timeout) {
+            sessions.put(key, now);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,144 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : WindowAccumulatorTest
+ * 기능 : 증분 윈도우 집계(WindowAccumulator + WindowScale, 보조 스케일 포함)가 기존 버퍼링 집계(BaselineWindowAggregation)와
+ *        같은 윈도우 경계, 이벤트 수, 9개 피처, 영향 경로를 내는지 무작위 이벤트 열로 비교한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class WindowAccumulatorTest {
+
+    private static final long START_MS = 1_700_000_000_000L;
+
+    @Test
+    void primaryWindowsMatchBaseline() {
+        int renames = 0, encryptLike = 0, touches = 0, flagged = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            List<FileAnalysisResult> events = TestEvents.mixed(seed, 3000, START_MS);
+            for (ClosedWindow w : assertSameWindows(Map.of(), 3000L, events, "seed=" + seed)) {
+                renames += w.getPayload().getFileRenameCount();
+                encryptLike += w.getPayload().getFileEncryptLikeCount();
+                touches += w.getPayload().getFileReadCount();
+                flagged += w.getPayload().getRandomExtensionFlag();
+            }
+        }
+        // 이벤트 열이 모든 피처 경로를 실제로 거쳤는지 확인
+        assertTrue(renames > 0 && encryptLike > 0 && touches > 0 && flagged > 0,
+                "renames=" + renames + " encryptLike=" + encryptLike + " touches=" + touches + " flagged=" + flagged);
+    }
+
+    @Test
+    void touchSessionExpiryMatchesBaseline() {
+        // 세션 만료가 자주 일어나도록 timeout을 이벤트 간격 수준으로 줄인다
+        for (long seed = 100; seed < 110; seed++) {
+            List<FileAnalysisResult> events = TestEvents.mixed(seed, 3000, START_MS);
+            assertSameWindows(Map.of("touchSessionTimeoutMs", 1500L), 3000L, events, "seed=" + seed);
+        }
+    }
+
+    @Test
+    void renameStormMatchesPairwiseScoring() {
+        List<FileAnalysisResult> events = TestEvents.renameStorm(2000, START_MS, 1);
+        List<ClosedWindow> windows = assertSameWindows(Map.of(), 3000L, events, "storm");
+        assertEquals(2000, windows.stream().mapToInt(w -> w.getPayload().getFileRenameCount()).sum());
+    }
+
+    @Test
+    void extraScalesMatchBaselineAtTheirOwnLength() {
+        // 변화 기준을 0으로 두면 보조 스케일도 모든 윈도우를 제출하므로 길이별 기준 구현과 1:1로 비교할 수 있다
+        Map<String, Object> overrides = Map.of(
+                "extraWindowMsCsv", "1000, 10000",
+                "scaleMinCountDelta", 0,
+                "scaleMinChangeRatio", 0.0,
+                "scaleMinEntropyDelta", 0.0,
+                "scaleMinSizeDelta", 0.0);
+        for (long seed = 7; seed < 12; seed++) {
+            List<FileAnalysisResult> events = TestEvents.mixed(seed, 2000, START_MS);
+            TestAggregator agg = new TestAggregator(overrides);
+            agg.feedAll(events);
+            agg.flush();
+
+            for (long windowMs : new long[]{3000L, 1000L, 10_000L}) {
+                Map<String, Object> config = TestAggregator.defaults();
+                config.put("windowMs", windowMs);
+                BaselineWindowAggregation baseline = run(config, events);
+                assertWindowsEqual(baseline.windows, agg.windowsOf(windowMs), "seed=" + seed + " scale=" + windowMs);
+            }
+        }
+    }
+
+    @Test
+    void extraScaleSuppressesUnchangedWindowsButPrimaryDoesNot() {
+        // 같은 패턴이 반복되면 보조 스케일은 첫 윈도우만 제출한다
+        TestAggregator agg = new TestAggregator(Map.of("extraWindowMsCsv", "6000"));
+        long t = START_MS;
+        for (int burst = 0; burst < 10; burst++) {
+            for (int i = 0; i < 5; i++) {
+                agg.feed(TestEvents.event("owner-a", "CREATE", "/home/b/work/b" + burst + "_" + i + ".txt", t + i * 10,
+                        null, 200L, null, 3.1, null, "txt"));
+            }
+            t += 6000;
+        }
+        agg.flush();
+
+        assertEquals(10, agg.windowsOf(3000L).size());
+        assertEquals(1, agg.windowsOf(6000L).size());
+    }
+
+    private static List<ClosedWindow> assertSameWindows(Map<String, Object> overrides, long windowMs,
+                                                        List<FileAnalysisResult> events, String label) {
+        Map<String, Object> config = TestAggregator.defaults();
+        config.putAll(overrides);
+        BaselineWindowAggregation baseline = run(config, events);
+
+        TestAggregator agg = new TestAggregator(overrides);
+        agg.feedAll(events);
+        agg.flush();
+
+        List<ClosedWindow> actual = agg.windowsOf(windowMs);
+        assertWindowsEqual(baseline.windows, actual, label);
+        return actual;
+    }
+
+    private static BaselineWindowAggregation run(Map<String, Object> config, List<FileAnalysisResult> events) {
+        BaselineWindowAggregation baseline = new BaselineWindowAggregation(config);
+        for (FileAnalysisResult r : events) baseline.onFileAnalysisResult(r);
+        baseline.flushIfNeeded();
+        return baseline;
+    }
+
+    private static void assertWindowsEqual(List<BaselineWindowAggregation.Window> expected, List<ClosedWindow> actual, String label) {
+        assertEquals(expected.size(), actual.size(), label + " window count");
+        for (int i = 0; i < expected.size(); i++) {
+            BaselineWindowAggregation.Window e = expected.get(i);
+            ClosedWindow a = actual.get(i);
+            String at = label + " window#" + i;
+            assertEquals(e.startMs(), a.getWindowStart().toEpochMilli(), at + " start");
+            assertEquals(e.eventCount(), a.getEventCount(), at + " events");
+            assertPayloadEquals(e.payload(), a.getPayload(), at);
+            assertEquals(e.affectedPaths(), a.getAffectedPaths(), at + " affectedPaths");
+        }
+    }
+
+    static void assertPayloadEquals(AiPayload e, AiPayload a, String at) {
+        assertEquals(e.getFileReadCount(), a.getFileReadCount(), at + " file_read_count");
+        assertEquals(e.getFileWriteCount(), a.getFileWriteCount(), at + " file_write_count");
+        assertEquals(e.getFileDeleteCount(), a.getFileDeleteCount(), at + " file_delete_count");
+        assertEquals(e.getFileRenameCount(), a.getFileRenameCount(), at + " file_rename_count");
+        assertEquals(e.getFileEncryptLikeCount(), a.getFileEncryptLikeCount(), at + " file_encrypt_like_count");
+        assertEquals(e.getChangedFilesCount(), a.getChangedFilesCount(), at + " changed_files_count");
+        assertEquals(e.getRandomExtensionFlag(), a.getRandomExtensionFlag(), at + " random_extension_flag");
+        assertEquals(e.getEntropyDiffMean(), a.getEntropyDiffMean(), 1e-9, at + " entropy_diff_mean");
+        assertEquals(e.getFileSizeDiffMean(), a.getFileSizeDiffMean(), 1e-9, at + " file_size_diff_mean");
+    }
+}
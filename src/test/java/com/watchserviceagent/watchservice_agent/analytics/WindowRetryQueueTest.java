@@ -0,0 +1,272 @@
+package com.watchserviceagent.watchservice_agent.analytics;
+
+import com.watchserviceagent.watchservice_agent.ai.AiService;
+import com.watchserviceagent.watchservice_agent.ai.domain.AiResult;
+import com.watchserviceagent.watchservice_agent.ai.dto.AiPayload;
+import com.watchserviceagent.watchservice_agent.alerts.NotificationRepository;
+import com.watchserviceagent.watchservice_agent.analytics.WindowRetryRepository.Relabel;
+import com.watchserviceagent.watchservice_agent.analytics.WindowRetryRepository.RetryEntry;
+import com.watchserviceagent.watchservice_agent.analytics.dto.RetryQueueStatsResponse;
+import com.watchserviceagent.watchservice_agent.storage.LogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : WindowRetryQueueTest
+ * 기능 : SQLite 파일 DB 위에서 AI 판정 재시도 대기열을 검증한다. 실패 시 backoff가 두 배씩(상한, ±20%) 늘고 max-attempts에서 버리는지,
+ *        서킷 브레이커가 열려 있으면 그 주기를 건너뛰고 시도 횟수를 늘리지 않는지, 상한을 넘으면 오래된 항목부터 지우는지,
+ *        다시 라벨링이 실패 당시 라벨(또는 라벨 없음)인 로그만 바꾸고 한 트랜잭션으로 반영되는지 확인한다.
+ *        AI 호출은 테스트가 정한 결과를 차례로 돌려주는 AiService로 대신한다. (null = 차단 중)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class WindowRetryQueueTest {
+
+    private static final long WINDOW_START_MS = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbc;
+    private WindowRetryRepository repository;
+    private final Deque<AiResult> results = new ArrayDeque<>();
+    private int aiCalls;
+    private WindowRetryQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        SQLiteDataSource ds = new SQLiteDataSource();
+        ds.setUrl("jdbc:sqlite:" + dir.resolve("retry.db"));
+        jdbc = new JdbcTemplate(ds);
+        new LogRepository(jdbc).init();
+        new NotificationRepository(jdbc).init();
+        repository = new WindowRetryRepository(jdbc, new TransactionTemplate(new DataSourceTransactionManager(ds)));
+        repository.init();
+
+        AiService ai = new AiService(null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public AiResult retryAnalysis(AiPayload payload) {
+                aiCalls++;
+                return results.isEmpty() ? null : results.poll();
+            }
+        };
+        queue = new WindowRetryQueue(ai, repository);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "batchSize", 32);
+        ReflectionTestUtils.setField(queue, "initialBackoffMs", 0L);      // enqueue 직후 바로 재시도 대상
+        ReflectionTestUtils.setField(queue, "maxBackoffMs", 3_000L);
+        ReflectionTestUtils.setField(queue, "maxAttempts", 4);
+        ReflectionTestUtils.setField(queue, "maxEntries", 100L);
+    }
+
+    @Test
+    void failedRetryBacksOffThenDropsAfterMaxAttempts() {
+        ReflectionTestUtils.setField(queue, "initialBackoffMs", 1_000L);
+        repository.insert(entry(1, "WARNING", true));
+
+        // n번째 실패 후 대기 = min(max, initial * 2^n) ± 20%
+        long[] expected = {2_000L, 3_000L, 3_000L};
+        for (int n = 1; n <= 3; n++) {
+            results.add(failure("timeout#" + n));
+            long before = System.currentTimeMillis();
+            queue.drain();
+            long after = System.currentTimeMillis();
+
+            RetryEntry e = single();
+            assertEquals(n, e.getAttempts());
+            assertEquals("timeout#" + n, e.getLastError());
+            assertTrue(e.getNextAttemptAtMs() >= before + (long) (expected[n - 1] * 0.8), "attempt " + n);
+            assertTrue(e.getNextAttemptAtMs() <= after + (long) (expected[n - 1] * 1.2), "attempt " + n);
+
+            queue.drain();                                       // 아직 재시도 시각 전: 보내지 않는다
+            assertEquals(n, aiCalls);
+            makeDue();
+        }
+
+        results.add(failure("timeout#4"));
+        queue.drain();
+        assertEquals(0, repository.count());
+        RetryQueueStatsResponse stats = queue.getStats();
+        assertEquals(4, stats.getAttempts());
+        assertEquals(1, stats.getDropped());
+        assertEquals(0, stats.getRelabeledWindows());
+    }
+
+    @Test
+    void openBreakerSkipsCycleWithoutCountingAttempts() {
+        for (int i = 1; i <= 3; i++) {
+            insertLog(i, "WARNING");
+            queue.enqueue(window(i), failedResult("WARNING"));
+        }
+        List<RetryEntry> before = repository.findDue(Long.MAX_VALUE, 10);
+
+        queue.drain();                                           // 차단 중: 첫 항목에서 멈춤
+        assertEquals(1, aiCalls);
+        assertEquals(3, repository.count());
+        List<RetryEntry> after = repository.findDue(Long.MAX_VALUE, 10);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, after.get(i).getAttempts());
+            assertEquals(before.get(i).getNextAttemptAtMs(), after.get(i).getNextAttemptAtMs());
+        }
+        assertEquals(0, queue.getStats().getAttempts());
+
+        // 회복: 첫 항목만 판정을 받고 다시 차단
+        results.add(remote("DANGER"));
+        queue.drain();
+        assertEquals(2, repository.count());
+        assertEquals("DANGER", logLabel(1));
+        assertEquals("WARNING", logLabel(2));
+        RetryQueueStatsResponse stats = queue.getStats();
+        assertEquals(1, stats.getAttempts());
+        assertEquals(1, stats.getRelabeledWindows());
+        assertEquals(1, stats.getRelabeledLogs());
+        for (RetryEntry e : repository.findDue(Long.MAX_VALUE, 10)) assertEquals(0, e.getAttempts());
+    }
+
+    @Test
+    void fullQueueTrimsOldestEntries() {
+        ReflectionTestUtils.setField(queue, "maxEntries", 3L);
+        for (int i = 1; i <= 5; i++) queue.enqueue(window(i), failedResult("UNKNOWN"));
+
+        assertEquals(3, repository.count());
+        List<Long> ids = repository.findDue(Long.MAX_VALUE, 10).stream().map(RetryEntry::getWindowId).sorted().toList();
+        assertEquals(List.of(3L, 4L, 5L), ids);
+        RetryQueueStatsResponse stats = queue.getStats();
+        assertEquals(5, stats.getEnqueued());
+        assertEquals(2, stats.getDropped());
+    }
+
+    @Test
+    void relabelChangesOnlyFailedOrUnlabeledRows() {
+        insertLog(7, null);
+        insertLog(7, "WARNING");
+        insertLog(7, "SAFE");                                    // 실패 라벨이 아닌 행은 그대로
+        insertLog(8, "WARNING");                                 // 다른 윈도우
+        insertNotification(7, "WARNING");
+        insertNotification(8, "WARNING");
+        insertNotification(9, "DANGER");                         // 실패 라벨이 아닌 알림은 그대로
+        repository.insert(entry(7, "WARNING", true));
+        repository.insert(entry(8, "WARNING", false));
+        repository.insert(entry(9, "WARNING", true));
+        List<RetryEntry> due = repository.findDue(Long.MAX_VALUE, 10);
+
+        int[] rows = repository.relabel(List.of(new Relabel(due.get(0), remote("DANGER")),
+                new Relabel(due.get(1), remote("SAFE")), new Relabel(due.get(2), remote("SAFE"))));
+        assertArrayEquals(new int[]{2, 2}, rows);
+        assertEquals(List.of("DANGER", "DANGER", "SAFE"), logLabels(7));
+        assertEquals(List.of("WARNING"), logLabels(8));           // labelLogs=false: 알림만 바꾼다
+        assertEquals("DANGER", notificationLabel(7));
+        assertEquals("SAFE", notificationLabel(8));
+        assertEquals("DANGER", notificationLabel(9));
+        assertEquals(AiResult.SOURCE_REMOTE,
+                jdbc.queryForObject("SELECT ai_source FROM notification WHERE window_start = ?", String.class, WINDOW_START_MS + 7_000));
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void relabelIsOneTransaction() {
+        insertLog(7, "WARNING");
+        repository.insert(entry(7, "WARNING", true));
+        RetryEntry e = single();
+        jdbc.execute("DROP TABLE notification");                 // 알림 UPDATE가 실패하게 만든다
+
+        assertThrows(RuntimeException.class, () -> repository.relabel(List.of(new Relabel(e, remote("DANGER")))));
+        assertEquals("WARNING", logLabel(7));                    // 로그 UPDATE도 되돌려진다
+        assertEquals(1, repository.count());
+    }
+
+    private RetryEntry single() {
+        List<RetryEntry> all = repository.findDue(Long.MAX_VALUE, 10);
+        assertEquals(1, all.size());
+        return all.get(0);
+    }
+
+    private void makeDue() {
+        jdbc.update("UPDATE ai_retry SET next_attempt_at = 0");
+    }
+
+    private static ClosedWindow window(long windowId) {
+        return ClosedWindow.builder()
+                .ownerKey("owner-a")
+                .windowStart(Instant.ofEpochMilli(WINDOW_START_MS + windowId * 1_000))
+                .windowEnd(Instant.ofEpochMilli(WINDOW_START_MS + windowId * 1_000 + 3_000))
+                .windowMs(3_000L)
+                .labelLogs(true)
+                .windowId(windowId)
+                .payload(AiPayload.builder().fileWriteCount((int) windowId).build())
+                .build();
+    }
+
+    private static RetryEntry entry(long windowId, String failedLabel, boolean labelLogs) {
+        ClosedWindow w = window(windowId);
+        return RetryEntry.builder()
+                .ownerKey(w.getOwnerKey())
+                .windowStartMs(w.getWindowStart().toEpochMilli())
+                .windowEndMs(w.getWindowEnd().toEpochMilli())
+                .windowMs(w.getWindowMs())
+                .labelLogs(labelLogs)
+                .windowId(windowId)
+                .payload(w.getPayload())
+                .failedLabel(failedLabel)
+                .nextAttemptAtMs(0L)
+                .createdAtMs(0L)
+                .build();
+    }
+
+    private static AiResult failedResult(String label) {
+        return AiResult.builder().label(label).source(AiResult.SOURCE_FALLBACK).remoteFailed(true).build();
+    }
+
+    private static AiResult failure(String reason) {
+        return AiResult.error(reason).toBuilder().remoteFailed(true).build();
+    }
+
+    private static AiResult remote(String label) {
+        return AiResult.builder().label(label).score(0.9).topFamily("LockBit").detail("retry").source(AiResult.SOURCE_REMOTE).build();
+    }
+
+    private void insertLog(long windowId, String label) {
+        jdbc.update("""
+                INSERT INTO log (owner_key, event_type, path, exists_flag, size, last_modified_time, collected_at, ai_label, window_id)
+                VALUES ('owner-a', 'MODIFY', ?, 1, 0, 0, 0, ?, ?)
+                """, "C:\\w" + windowId + "\\f.docx", label, windowId);
+    }
+
+    private void insertNotification(long windowId, String label) {
+        ClosedWindow w = window(windowId);
+        jdbc.update("""
+                INSERT INTO notification (owner_key, window_start, window_end, window_ms, created_at, ai_label,
+                                          affected_files_count, affected_paths)
+                VALUES (?, ?, ?, ?, 0, ?, 0, '[]')
+                """, w.getOwnerKey(), w.getWindowStart().toEpochMilli(), w.getWindowEnd().toEpochMilli(), w.getWindowMs(), label);
+    }
+
+    private List<String> logLabels(long windowId) {
+        return jdbc.queryForList("SELECT ai_label FROM log WHERE window_id = ? ORDER BY id", String.class, windowId);
+    }
+
+    private String logLabel(long windowId) {
+        List<String> labels = logLabels(windowId);
+        assertEquals(1, labels.size());
+        return labels.get(0);
+    }
+
+    private String notificationLabel(long windowId) {
+        return jdbc.queryForObject("SELECT ai_label FROM notification WHERE window_start = ?", String.class,
+                WINDOW_START_MS + windowId * 1_000);
+    }
+}
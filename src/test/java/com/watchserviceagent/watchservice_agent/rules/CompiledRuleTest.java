@@ -0,0 +1,117 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : CompiledRuleTest
+ * 기능 : 그룹 슬라이딩 윈도우가 within 안에 임계 개수가 모이는 순간(경계 포함)에만 발동하는지,
+ *        발동 후 cooldown 동안 이벤트를 세지 않는지, DIR_EXT가 RENAME을 폴더 + 새 확장자(대소문자 무시)로 묶는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class CompiledRuleTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final int MAX_GROUPS = 10_000;
+
+    @Test
+    void firesExactlyAtThresholdWithinTheWindow() {
+        CompiledRule rule = rule("w: WRITE count >= 3 within 1s by DIR cooldown 1ms");
+        assertNull(offer(rule, "/d", "a", T0));
+        assertNull(offer(rule, "/d", "b", T0 + 500));
+        RuleAlert alert = offer(rule, "/d", "c", T0 + 1000);      // 3번째 이벤트, 첫 이벤트와 정확히 within 차이
+        assertNotNull(alert);
+        assertEquals(3, alert.count());
+        assertEquals(T0, alert.firstEventMs());
+        assertEquals(T0 + 1000, alert.lastEventMs());
+        assertEquals(List.of("/d/a", "/d/b", "/d/c"), alert.paths());
+        assertEquals("/d", alert.groupKey());
+        assertEquals(1, rule.getFired());
+    }
+
+    @Test
+    void doesNotFireOneMillisecondBeyondWithin() {
+        CompiledRule rule = rule("w: WRITE count >= 3 within 1s by DIR");
+        assertNull(offer(rule, "/d", "a", T0));
+        assertNull(offer(rule, "/d", "b", T0 + 500));
+        assertNull(offer(rule, "/d", "c", T0 + 1001));           // 첫 이벤트가 1001ms 전
+        RuleAlert alert = offer(rule, "/d", "d", T0 + 1499);      // 가장 오래된 것이 밀려나 b..d가 999ms 안
+        assertNotNull(alert);
+        assertEquals(T0 + 500, alert.firstEventMs());
+        assertEquals(List.of("/d/b", "/d/c", "/d/d"), alert.paths());
+        assertEquals(4, rule.getMatched());
+    }
+
+    @Test
+    void otherGroupsDoNotCount() {
+        CompiledRule rule = rule("w: WRITE count >= 2 within 1s by DIR");
+        assertNull(offer(rule, "/d1", "a", T0));
+        assertNull(offer(rule, "/d2", "b", T0 + 1));
+        assertNotNull(offer(rule, "/d1", "c", T0 + 2));
+        assertEquals(2, rule.groupCount());
+    }
+
+    @Test
+    void cooldownSuppressesCountingUntilItEnds() {
+        CompiledRule rule = rule("w: WRITE count >= 2 within 1s by DIR cooldown 5s");
+        assertNull(offer(rule, "/d", "a", T0));
+        assertNotNull(offer(rule, "/d", "b", T0 + 10));
+        for (int i = 0; i < 20; i++) {
+            assertNull(offer(rule, "/d", "s" + i, T0 + 100 + i * 200L), "cooldown #" + i);
+        }
+        assertNull(offer(rule, "/d", "x", T0 + 5_010));          // cooldown이 끝나는 시각부터 다시 센다
+        RuleAlert again = offer(rule, "/d", "y", T0 + 5_020);
+        assertNotNull(again);
+        assertEquals(List.of("/d/x", "/d/y"), again.paths());     // cooldown 중 이벤트는 포함하지 않는다
+        assertEquals(2, rule.getFired());
+    }
+
+    @Test
+    void dirExtGroupsRenamesByFolderAndNewExtension() {
+        CompiledRule rule = rule("r: RENAME count >= 3 within 10s by DIR_EXT");
+        List<RuleAlert> alerts = new ArrayList<>();
+        long t = T0;
+        // 같은 폴더에서 .locked로 바뀐 rename 3건(대소문자 섞임), 다른 확장자/다른 폴더는 따로 센다
+        add(alerts, rule.offer("owner-a", "/d", "locked", "/d/a.locked", t++, MAX_GROUPS));
+        add(alerts, rule.offer("owner-a", "/d", "docx", "/d/b.docx", t++, MAX_GROUPS));
+        add(alerts, rule.offer("owner-a", "/e", "locked", "/e/c.locked", t++, MAX_GROUPS));
+        add(alerts, rule.offer("owner-b", "/d", "LOCKED", "/d/d.LOCKED", t++, MAX_GROUPS));
+        add(alerts, rule.offer("owner-a", "/d", null, "/d/e", t++, MAX_GROUPS));
+        add(alerts, rule.offer("owner-a", "/d", "Locked", "/d/f.Locked", t++, MAX_GROUPS));
+
+        assertEquals(1, alerts.size());
+        RuleAlert alert = alerts.get(0);
+        assertEquals("DIR_EXT", alert.groupBy());
+        assertEquals("/d/*.locked", alert.groupKey());
+        assertEquals(List.of("/d/a.locked", "/d/d.LOCKED", "/d/f.Locked"), alert.paths());
+        assertEquals(4, rule.groupCount());                        // /d.locked, /d.docx, /e.locked, /d.(없음)
+    }
+
+    @Test
+    void dirExtMatchesOnlyRenameEvents() {
+        CompiledRule rule = rule("r: RENAME count >= 3 within 10s by DIR_EXT");
+        assertTrue(rule.matches(LocalRuleEngine.E_CREATE | LocalRuleEngine.E_RENAME));
+        assertFalse(rule.matches(LocalRuleEngine.E_CREATE));
+        assertFalse(rule.matches(LocalRuleEngine.E_DELETE | LocalRuleEngine.E_WRITE));
+    }
+
+    private static CompiledRule rule(String definition) {
+        List<String> errors = new ArrayList<>();
+        List<CompiledRule> rules = RuleParser.parse(definition, errors);
+        assertEquals(List.of(), errors);
+        return rules.get(0);
+    }
+
+    private static RuleAlert offer(CompiledRule rule, String dir, String name, long t) {
+        return rule.offer("owner-a", dir, "txt", dir + "/" + name, t, MAX_GROUPS);
+    }
+
+    private static void add(List<RuleAlert> alerts, RuleAlert alert) {
+        if (alert != null) alerts.add(alert);
+    }
+}
@@ -0,0 +1,151 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.rules.dto.RuleStatsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 클래스 이름 : LocalRuleEngineBenchmark
+ * 기능 : 로컬 규칙 엔진의 이벤트당 평가 비용을 규칙별(기본 규칙 4개 각각)과 전체 규칙 기준으로 잰다.
+ *        이벤트 열은 64개 폴더에 걸친 쓰기/삭제/rename(같은 크기 DELETE 직후 CREATE)/encrypt-like/의심 확장자가 섞인 형태다. (./gradlew benchmark)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class LocalRuleEngineBenchmark {
+
+    // application.yml 기본 규칙
+    private static final String[] RULES = {
+            "rename-same-ext: RENAME count >= 20 within 10s by DIR_EXT",
+            "encrypt-burst: ENCRYPT count >= 10 within 5s by OWNER",
+            "random-ext-burst: RANDOM_EXT count >= 30 within 10s by DIR severity WARNING",
+            "mass-delete: DELETE count >= 200 within 10s by DIR severity WARNING"
+    };
+
+    private static final int EVENTS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void costPerRule() {
+        Stream stream = new Stream(4096);
+        for (String rule : RULES) run(rule, stream);
+        run(String.join(";", RULES), stream);
+    }
+
+    private static void run(String definitions, Stream stream) {
+        long best = Long.MAX_VALUE;
+        AtomicLong alerts = new AtomicLong();
+        List<RuleStatsResponse> stats = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            alerts.set(0);
+            LocalRuleEngine engine = engine(definitions, alerts);
+            long t0 = System.nanoTime();
+            stream.feed(engine, EVENTS);
+            best = Math.min(best, System.nanoTime() - t0);
+            stats = engine.getStats();
+        }
+        for (RuleStatsResponse s : stats) {
+            System.out.printf("[LocalRuleEngineBenchmark] rule=%s matched=%d fired=%d groups=%d sampled=%.1f ns/matched-event%n",
+                    s.getName(), s.getMatchedEvents(), s.getFired(), s.getActiveGroups(), s.getAvgRuleNanos());
+        }
+        System.out.printf("[LocalRuleEngineBenchmark] rules=%d engine=%.1f ns/event (alerts=%d)%n",
+                stats.size(), (double) best / EVENTS, alerts.get());
+    }
+
+    /** 알림을 DB 대신 카운터로 보내는 엔진 (fork는 규칙 상태가 비어 있는 사본을 만든다) */
+    private static LocalRuleEngine engine(String definitions, AtomicLong alerts) {
+        LocalRuleEngine template = new LocalRuleEngine(null);
+        ReflectionTestUtils.setField(template, "enabled", true);
+        ReflectionTestUtils.setField(template, "definitions", definitions);
+        ReflectionTestUtils.setField(template, "maxGroupsPerRule", 10_000);
+        ReflectionTestUtils.setField(template, "renameMaxGapMs", 2_000L);
+        ReflectionTestUtils.setField(template, "maxPendingDeletes", 10_000);
+        template.init();
+        LocalRuleEngine engine = template.fork(a -> alerts.incrementAndGet());
+        ReflectionTestUtils.invokeMethod(template, "shutdown");
+        return engine;
+    }
+
+    /** EventWindowAggregator가 onEvent에 넘기는 인자를 미리 만들어 둔 이벤트 열 */
+    private static final class Stream {
+        final FileAnalysisResult[] results;
+        final String[] types;
+        final String[] dirs;
+        final boolean[] contentChanged;
+        final boolean[] encryptLike;
+        final boolean[] suspiciousExt;
+
+        Stream(int n) {
+            results = new FileAnalysisResult[n];
+            types = new String[n];
+            dirs = new String[n];
+            contentChanged = new boolean[n];
+            encryptLike = new boolean[n];
+            suspiciousExt = new boolean[n];
+            Random rnd = new Random(1);
+            for (int i = 0; i < n; i++) {
+                String dir = "C:\\Users\\a\\Documents\\project" + rnd.nextInt(64);
+                long size = 4096L + rnd.nextInt(100_000);
+                int kind = rnd.nextInt(10);
+                if (kind < 2 && i + 1 < n) {
+                    // rename: 같은 폴더, 같은 크기의 DELETE -> CREATE (확장자 변경)
+                    set(i, "DELETE", dir, event(dir + "\\file" + i + ".docx", "DELETE", size, null, "docx", null),
+                            false, false, false);
+                    i++;
+                    boolean random = rnd.nextInt(4) == 0;
+                    set(i, "CREATE", dir, event(dir + "\\file" + i + ".locked", "CREATE", null, size, null, "locked"),
+                            false, rnd.nextInt(3) == 0, random);
+                } else if (kind < 3) {
+                    set(i, "DELETE", dir, event(dir + "\\old" + i + ".tmp", "DELETE", size, null, "tmp", null),
+                            false, false, false);
+                } else {
+                    boolean encrypt = rnd.nextInt(20) == 0;
+                    set(i, "MODIFY", dir, event(dir + "\\file" + rnd.nextInt(2000) + ".docx", "MODIFY", size, size + 16, "docx", "docx"),
+                            rnd.nextInt(10) < 7, encrypt, false);
+                }
+            }
+        }
+
+        private void set(int i, String type, String dir, FileAnalysisResult r,
+                         boolean changed, boolean encrypt, boolean suspicious) {
+            results[i] = r;
+            types[i] = type;
+            dirs[i] = dir;
+            contentChanged[i] = changed;
+            encryptLike[i] = encrypt;
+            suspiciousExt[i] = suspicious;
+        }
+
+        /** 1ms 간격으로 count건을 넣는다 (이벤트 열을 순환하되 시각은 계속 증가) */
+        void feed(LocalRuleEngine engine, int count) {
+            int mask = results.length - 1;
+            for (int i = 0; i < count; i++) {
+                int k = i & mask;
+                engine.onEvent(results[k], types[k], dirs[k], i, contentChanged[k], encryptLike[k], suspiciousExt[k]);
+            }
+        }
+
+        private static FileAnalysisResult event(String path, String type, Long sizeBefore, Long sizeAfter,
+                                                String extBefore, String extAfter) {
+            return FileAnalysisResult.builder()
+                    .ownerKey("owner-a")
+                    .eventType(type)
+                    .path(path)
+                    .eventTime(Instant.EPOCH)
+                    .existsBefore(sizeBefore != null)
+                    .existsAfter(sizeAfter != null)
+                    .sizeBefore(sizeBefore)
+                    .sizeAfter(sizeAfter)
+                    .extBefore(extBefore)
+                    .extAfter(extAfter)
+                    .build();
+        }
+    }
+}
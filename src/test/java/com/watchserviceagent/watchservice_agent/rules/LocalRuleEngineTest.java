@@ -0,0 +1,89 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : LocalRuleEngineTest
+ * 기능 : RENAME 판정용 최근 DELETE 목록이 CREATE 없이 DELETE만 이어져도 renameMaxGapMs로 만료되고 상한을 넘지 않는지,
+ *        만료/상한 이후에도 gap 안의 DELETE 직후 CREATE는 RENAME으로 세는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class LocalRuleEngineTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final String DIR = "/home/b/work";
+
+    @Test
+    void deleteOnlyStreamExpiresPendingDeletes() {
+        List<RuleAlert> alerts = new ArrayList<>();
+        LocalRuleEngine engine = engine("renames: RENAME count >= 2 within 10s by DIR", 1000, alerts);
+
+        // 서로 다른 크기의 DELETE만 100ms 간격으로 100건: gap(2s) 안의 20건 남짓만 남아야 한다
+        for (int i = 0; i < 100; i++) delete(engine, "d" + i + ".txt", 1000L + i, T0 + i * 100L);
+        assertEquals(21, engine.pendingDeletes());
+
+        create(engine, "r98.txt", 1098L, T0 + 9_950L);     // 최근 DELETE와는 여전히 rename으로 묶인다
+        create(engine, "r99.txt", 1099L, T0 + 9_960L);
+        create(engine, "r0.txt", 1000L, T0 + 9_970L);      // 만료된 DELETE는 다시 살아나지 않는다
+        assertEquals(1, alerts.size());
+        assertEquals(List.of(DIR + "/r98.txt", DIR + "/r99.txt"), alerts.get(0).paths());
+    }
+
+    @Test
+    void pendingDeletesAreCappedOldestFirst() {
+        List<RuleAlert> alerts = new ArrayList<>();
+        LocalRuleEngine engine = engine("renames: RENAME count >= 1 within 10s by DIR", 5, alerts);
+
+        for (int i = 0; i < 50; i++) delete(engine, "d" + i + ".txt", 1000L + i, T0 + i);
+        assertEquals(5, engine.pendingDeletes());
+
+        create(engine, "old.txt", 1000L, T0 + 60);          // 상한 때문에 밀려난 DELETE
+        assertTrue(alerts.isEmpty());
+        create(engine, "new.txt", 1049L, T0 + 61);          // 가장 최근 DELETE
+        assertEquals(1, alerts.size());
+        assertEquals(4, engine.pendingDeletes());
+    }
+
+    private static LocalRuleEngine engine(String definitions, int maxPendingDeletes, List<RuleAlert> alerts) {
+        LocalRuleEngine template = new LocalRuleEngine(null);
+        ReflectionTestUtils.setField(template, "enabled", true);
+        ReflectionTestUtils.setField(template, "definitions", definitions);
+        ReflectionTestUtils.setField(template, "maxGroupsPerRule", 10_000);
+        ReflectionTestUtils.setField(template, "renameMaxGapMs", 2_000L);
+        ReflectionTestUtils.setField(template, "maxPendingDeletes", maxPendingDeletes);
+        template.init();
+        LocalRuleEngine engine = template.fork(alerts::add);
+        ReflectionTestUtils.invokeMethod(template, "shutdown");
+        return engine;
+    }
+
+    private static void delete(LocalRuleEngine engine, String name, long size, long t) {
+        engine.onEvent(event("DELETE", name, size, null, t), "DELETE", DIR, t, false, false, false);
+    }
+
+    private static void create(LocalRuleEngine engine, String name, long size, long t) {
+        engine.onEvent(event("CREATE", name, null, size, t), "CREATE", DIR, t, false, false, false);
+    }
+
+    private static FileAnalysisResult event(String type, String name, Long sizeBefore, Long sizeAfter, long t) {
+        return FileAnalysisResult.builder()
+                .ownerKey("owner-a")
+                .eventType(type)
+                .path(DIR + "/" + name)
+                .eventTime(Instant.ofEpochMilli(t))
+                .sizeBefore(sizeBefore)
+                .sizeAfter(sizeAfter)
+                .extBefore((sizeBefore != null) ? "txt" : null)
+                .extAfter((sizeAfter != null) ? "txt" : null)
+                .build();
+    }
+}
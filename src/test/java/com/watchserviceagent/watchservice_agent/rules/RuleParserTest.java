@@ -0,0 +1,107 @@
+package com.watchserviceagent.watchservice_agent.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : RuleParserTest
+ * 기능 : 규칙 문자열 변환(비교 연산자, 기간 단위, 이벤트/그룹/옵션, 기본값)과
+ *        잘못된 규칙이 원문과 문제 토큰을 담은 오류로 보고되고 나머지 규칙은 그대로 변환되는지 검증한다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class RuleParserTest {
+
+    @Test
+    void greaterThanIsOneMoreThanGreaterOrEqual() {
+        assertEquals(5, single("a: CREATE count >= 5 within 1s by DIR").getThreshold());
+        assertEquals(6, single("a: CREATE count > 5 within 1s by DIR").getThreshold());
+        assertEquals(1, single("a: CREATE count > 0 within 1s by DIR").getThreshold());
+    }
+
+    @Test
+    void durationUnits() {
+        assertEquals(500L, single("a: CREATE count >= 1 within 500ms by DIR").getWithinMs());
+        assertEquals(10_000L, single("a: CREATE count >= 1 within 10s by DIR").getWithinMs());
+        assertEquals(120_000L, single("a: CREATE count >= 1 within 2m by DIR").getWithinMs());
+        assertEquals(3_000L, single("a: CREATE count >= 1 within 3S by DIR").getWithinMs());
+        assertEquals(60_000L, single("a: CREATE count >= 1 within 1s by DIR cooldown 1m").getCooldownMs());
+    }
+
+    @Test
+    void defaultsAndOptions() {
+        CompiledRule r = single("rename-same-ext: RENAME|encrypt count >= 20 within 10s by dir_ext");
+        assertEquals("rename-same-ext", r.getName());
+        assertEquals(LocalRuleEngine.E_RENAME | LocalRuleEngine.E_ENCRYPT, r.getEventMask());
+        assertEquals(CompiledRule.GroupBy.DIR_EXT, r.getGroupBy());
+        assertEquals(10_000L, r.getCooldownMs());          // cooldown 기본값 = within
+        assertEquals("DANGER", r.getSeverity());
+
+        CompiledRule any = single("b: ANY count >= 2 within 1s by GLOBAL cooldown 250ms severity warning");
+        assertEquals(LocalRuleEngine.E_CREATE | LocalRuleEngine.E_MODIFY | LocalRuleEngine.E_DELETE, any.getEventMask());
+        assertEquals(250L, any.getCooldownMs());
+        assertEquals("WARNING", any.getSeverity());
+    }
+
+    @Test
+    void duplicateNamesKeepTheFirstRule() {
+        List<String> errors = new ArrayList<>();
+        List<CompiledRule> rules = RuleParser.parse(
+                "a: CREATE count >= 1 within 1s by DIR; a: DELETE count >= 2 within 1s by DIR; b: DELETE count >= 3 within 1s by DIR",
+                errors);
+        assertEquals(List.of("a", "b"), rules.stream().map(CompiledRule::getName).toList());
+        assertEquals(LocalRuleEngine.E_CREATE, rules.get(0).getEventMask());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("a: DELETE count >= 2") && errors.get(0).contains("중복"), errors.get(0));
+    }
+
+    @Test
+    void badTokensAreReportedWithTheRule() {
+        String[][] cases = {
+                {"a: FOO count >= 1 within 1s by DIR", "FOO"},
+                {"a: CREATE count == 1 within 1s by DIR", "=="},
+                {"a: CREATE count >= many within 1s by DIR", "many"},
+                {"a: CREATE count >= 0 within 1s by DIR", "1~100000"},
+                {"a: CREATE count >= 1 within 10 by DIR", "10"},
+                {"a: CREATE count >= 1 within 0s by DIR", "0s"},
+                {"a: CREATE count >= 1 within 5h by DIR", "5h"},
+                {"a: CREATE count >= 1 within 1s by FOLDER", "FOLDER"},
+                {"a: CREATE count >= 1 within 1s by DIR severity LOW", "severity"},
+                {"a: CREATE count >= 1 within 1s by DIR retries 3", "retries"},
+                {"a: CREATE total >= 1 within 1s by DIR", "total"},
+                {"a: CREATE count >= 1 during 1s by DIR", "during"},
+                {"a: CREATE count >= 1 within 1s", "끝까지"},
+                {"a: count >= 1 within 1s by DIR", "이벤트"},
+                {"CREATE count >= 1 within 1s by DIR", "이름"},
+        };
+        for (String[] c : cases) {
+            List<String> errors = new ArrayList<>();
+            List<CompiledRule> rules = RuleParser.parse(c[0] + "; ok: DELETE count >= 1 within 1s by DIR", errors);
+            assertEquals(List.of("ok"), rules.stream().map(CompiledRule::getName).toList(), c[0]);
+            assertEquals(1, errors.size(), c[0]);
+            assertTrue(errors.get(0).startsWith("'" + c[0] + "'"), errors.get(0));
+            assertTrue(errors.get(0).contains(c[1]), c[0] + " -> " + errors.get(0));
+        }
+    }
+
+    @Test
+    void blankDefinitionsAndEmptySegmentsAreIgnored() {
+        List<String> errors = new ArrayList<>();
+        assertTrue(RuleParser.parse(null, errors).isEmpty());
+        assertTrue(RuleParser.parse("  ", errors).isEmpty());
+        assertEquals(1, RuleParser.parse(" ; a: CREATE count >= 1 within 1s by DIR ;; ", errors).size());
+        assertTrue(errors.isEmpty());
+    }
+
+    private static CompiledRule single(String definition) {
+        List<String> errors = new ArrayList<>();
+        List<CompiledRule> rules = RuleParser.parse(definition, errors);
+        assertEquals(List.of(), errors);
+        assertEquals(1, rules.size());
+        return rules.get(0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import com.watchserviceagent.watchservice_agent.trace.dto.TraceRecorderStatsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 클래스 이름 : TraceRecorderBenchmark
+ * 기능 : 상시 트레이스 기록기의 이벤트 1건당 기록 시간(ns), 할당량, 기록 바이트 수를 잰다.
+ *        세그먼트 회전이 여러 번 일어나도록 세그먼트를 작게 잡고, 끝나면 기록을 다시 읽어 건수를 확인한다. (./gradlew benchmark)
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+@Tag("benchmark")
+class TraceRecorderBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int EVENTS = 2_000_000;
+
+    @Test
+    void recordCostPerEvent(@TempDir Path dir) throws Exception {
+        FileAnalysisResult[] events = events(4096);
+
+        TraceRecorder warm = recorder(dir.resolve("warmup"), 4);
+        for (int i = 0; i < WARMUP; i++) warm.record(events[i & 4095]);
+        warm.shutdown();
+
+        // 회전 후 남는 세그먼트가 기록 전체를 담도록 max-segments를 넉넉히 둔다
+        TraceRecorder recorder = recorder(dir.resolve("run"), 64);
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) recorder.record(events[i & 4095]);
+        long nanos = System.nanoTime() - t0;
+        long allocated = allocatedBytes() - bytes0;
+        TraceRecorderStatsResponse stats = recorder.getStats();
+        recorder.shutdown();
+
+        long readBack = TraceReader.readAll(recorder.listSegments(), r -> { });
+        assertEquals(EVENTS, stats.getEvents());
+        assertEquals(EVENTS, readBack);
+
+        System.out.printf("[TraceRecorderBenchmark] record: %.1f ns/event, %.1f bytes/event on disk, %.1f bytes/event allocated, segments=%d (sampled avg %.1f ns)%n",
+                (double) nanos / EVENTS, stats.getBytesPerEvent(), (double) allocated / EVENTS,
+                stats.getSegmentsOpened(), stats.getAvgRecordNanos());
+    }
+
+    private static TraceRecorder recorder(Path dir, int maxSegments) {
+        TraceRecorder recorder = new TraceRecorder();
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "dirValue", dir.toString());
+        ReflectionTestUtils.setField(recorder, "segmentBytes", 4L * 1024 * 1024);
+        ReflectionTestUtils.setField(recorder, "maxSegments", maxSegments);
+        recorder.init();
+        return recorder;
+    }
+
+    /** 폴더 64개, 파일 2000개에 걸친 MODIFY/CREATE/DELETE 이벤트 (시각은 1~20ms 간격) */
+    private static FileAnalysisResult[] events(int n) {
+        Random rnd = new Random(1);
+        String[] types = {"MODIFY", "MODIFY", "CREATE", "DELETE"};
+        FileAnalysisResult[] out = new FileAnalysisResult[n];
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            t += 1 + rnd.nextInt(20);
+            String type = types[rnd.nextInt(types.length)];
+            String path = "C:\\Users\\a\\Documents\\project" + rnd.nextInt(64) + "\\file" + rnd.nextInt(2000) + ".docx";
+            out[i] = FileAnalysisResult.builder()
+                    .ownerKey("owner-a")
+                    .eventType(type)
+                    .path(path)
+                    .eventTime(Instant.ofEpochMilli(t))
+                    .existsBefore(!"CREATE".equals(type))
+                    .existsAfter(!"DELETE".equals(type))
+                    .sizeBefore("CREATE".equals(type) ? null : 4096L + rnd.nextInt(1000))
+                    .sizeAfter("DELETE".equals(type) ? null : 4096L + rnd.nextInt(1000))
+                    .entropyBefore("CREATE".equals(type) ? null : rnd.nextDouble() * 8)
+                    .entropyAfter("DELETE".equals(type) ? null : rnd.nextDouble() * 8)
+                    .extBefore("CREATE".equals(type) ? null : "docx")
+                    .extAfter("DELETE".equals(type) ? null : "docx")
+                    .build();
+        }
+        return out;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
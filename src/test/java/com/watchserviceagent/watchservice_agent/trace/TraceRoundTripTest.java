@@ -0,0 +1,199 @@
+package com.watchserviceagent.watchservice_agent.trace;
+
+import com.watchserviceagent.watchservice_agent.collector.dto.FileAnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 클래스 이름 : TraceRoundTripTest
+ * 기능 : TraceEncoder/TraceWriter/TraceRecorder로 기록한 이벤트를 TraceReader가 FileAnalysisResult의 모든 필드까지 그대로 복원하는지 검증한다.
+ *        null 크기/엔트로피/확장자/시각, 역행하는 시각, 세그먼트 회전 시 사전 초기화, 기록 도중 잘린 마지막 레코드를 다룬다.
+ *        AI 필드(aiLabel 등)는 트레이스에 없으므로 입력에서도 비워 두고 복원 결과가 null인지 본다.
+ * 작성 날짜 : 2025/12/17
+ * 작성자 : 시스템
+ */
+class TraceRoundTripTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void writerRoundTripKeepsEveryField(@TempDir Path dir) throws Exception {
+        List<FileAnalysisResult> events = randomEvents(7, 5_000);
+        Path file = dir.resolve("all.wstrace");
+        try (TraceWriter writer = new TraceWriter(file)) {
+            for (FileAnalysisResult r : events) writer.write(r);
+        }
+        assertSameEvents(events, readAll(TraceReader.open(file)), "writer");
+    }
+
+    @Test
+    void nullsNegativeDeltasAndEdgeValues() throws Exception {
+        List<FileAnalysisResult> events = List.of(
+                event("owner-a", "CREATE", "/w/a.txt", T0, true, null, 10L, null, 3.5, null, "txt"),
+                event("owner-a", "MODIFY", "/w/a.txt", T0 - 5_000, false, 10L, 0L, 3.5, 7.99, "txt", "txt"),    // 시각 역행
+                event(null, null, null, null, false, null, null, null, null, null, null),                    // 모두 null (시각 없음)
+                event("owner-b", "DELETE", "/w/b", T0 - 86_400_000L, true, -1L, null, -0.0, null, "", null),  // 빈 확장자, 음수 크기, -0.0
+                event("소유자", "MODIFY", "/홈/문서/보고서.hwp", T0 + 3_600_000L, true,
+                        Long.MAX_VALUE, Long.MIN_VALUE, Double.NaN, Double.MAX_VALUE, "hwp", "LOCKED"),
+                event("owner-a", "MODIFY", "/w/a.txt", 0L, true, 0L, 0L, 0.0, 0.0, "txt", "txt"));      // epoch 0
+        TraceEncoder encoder = new TraceEncoder();
+        assertSameEvents(events, readAll(new TraceReader(segment(encoder, T0, events))), "edge values");
+
+        // 기준 시각보다 앞선 첫 이벤트 (음수 시각 차로 시작)
+        assertSameEvents(events, readAll(new TraceReader(segment(encoder, T0 + 10_000_000L, events))), "base after first event");
+    }
+
+    @Test
+    void recorderRotationResetsDictionaryPerSegment(@TempDir Path dir) throws Exception {
+        TraceRecorder recorder = new TraceRecorder();
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "dirValue", dir.toString());
+        ReflectionTestUtils.setField(recorder, "segmentBytes", 1L);          // 최소 크기(헤더 + 4KB)로 맞춰진다
+        ReflectionTestUtils.setField(recorder, "maxSegments", 1_000);
+        recorder.init();
+
+        List<FileAnalysisResult> events = randomEvents(11, 2_000);
+        for (FileAnalysisResult r : events) recorder.record(r);
+        recorder.shutdown();
+
+        List<Path> segments = recorder.listSegments();
+        assertTrue(segments.size() > 10, "segments=" + segments.size());
+        assertEquals(events.size(), recorder.getStats().getEvents());
+
+        List<FileAnalysisResult> all = new ArrayList<>();
+        assertEquals(events.size(), TraceReader.readAll(segments, all::add));
+        assertSameEvents(events, all, "recorder");
+
+        // 세그먼트마다 사전을 처음부터 다시 쓰므로 각 세그먼트를 단독으로 읽어도 문자열이 모두 풀린다
+        int offset = 0;
+        for (Path p : segments) {
+            byte[] bytes = Files.readAllBytes(p);
+            assertEquals(TraceFormat.TAG_STRING, bytes[TraceFormat.HEADER_BYTES], p + " first record");
+            List<FileAnalysisResult> alone = readAll(TraceReader.open(p));
+            assertFalse(alone.isEmpty(), p.toString());
+            assertSameEvents(events.subList(offset, offset + alone.size()), alone, p.getFileName().toString());
+            offset += alone.size();
+        }
+        assertEquals(events.size(), offset);
+    }
+
+    @Test
+    void truncatedLastRecordEndsTheSegment() throws Exception {
+        List<FileAnalysisResult> events = new ArrayList<>(randomEvents(3, 50));
+        // 마지막 이벤트는 새 문자열(STRING 레코드)부터 시작하도록 처음 보는 경로를 쓴다
+        events.add(event("owner-a", "CREATE", "/w/new-path-only-in-last-record.bin", T0 + 999_999, true,
+                null, 4096L, null, 7.9, null, "bin"));
+
+        TraceEncoder encoder = new TraceEncoder();
+        ByteBuffer out = ByteBuffer.allocate(1 << 20);
+        TraceFormat.writeHeader(out, T0);
+        encoder.reset(T0);
+        for (int i = 0; i < events.size() - 1; i++) out.put(encoder.encode(events.get(i)));
+        int lastStart = out.position();
+        out.put(encoder.encode(events.get(events.size() - 1)));
+        int lastEnd = out.position();                    // END 없이 파일이 끝난 경우 (기록 중 종료)
+        byte[] bytes = Arrays.copyOf(out.array(), lastEnd);
+
+        assertSameEvents(events, readAll(new TraceReader(ByteBuffer.wrap(bytes))), "complete");
+        List<FileAnalysisResult> head = events.subList(0, events.size() - 1);
+        for (int cut = lastStart; cut < lastEnd; cut++) {
+            TraceReader reader = new TraceReader(ByteBuffer.wrap(bytes, 0, cut).slice());
+            assertSameEvents(head, readAll(reader), "cut=" + (cut - lastStart) + "/" + (lastEnd - lastStart));
+            assertNull(reader.next(), "cut=" + cut + " stays ended");
+        }
+    }
+
+    private static ByteBuffer segment(TraceEncoder encoder, long baseMs, List<FileAnalysisResult> events) {
+        ByteBuffer out = ByteBuffer.allocate(1 << 16);
+        TraceFormat.writeHeader(out, baseMs);
+        encoder.reset(baseMs);
+        for (FileAnalysisResult r : events) out.put(encoder.encode(r));
+        out.put(TraceFormat.TAG_END);
+        out.flip();
+        return out;
+    }
+
+    private static List<FileAnalysisResult> readAll(TraceReader reader) {
+        List<FileAnalysisResult> out = new ArrayList<>();
+        for (FileAnalysisResult r; (r = reader.next()) != null; ) out.add(r);
+        return out;
+    }
+
+    /** FileAnalysisResult에 선언된 모든 인스턴스 필드와 파생 값(크기/엔트로피 변화량)을 비교한다 */
+    private static void assertSameEvents(List<FileAnalysisResult> expected, List<FileAnalysisResult> actual, String label) {
+        assertEquals(expected.size(), actual.size(), label + " count");
+        Field[] fields = Arrays.stream(FileAnalysisResult.class.getDeclaredFields())
+                .filter(f -> !Modifier.isStatic(f.getModifiers()))
+                .toArray(Field[]::new);
+        for (int i = 0; i < expected.size(); i++) {
+            FileAnalysisResult e = expected.get(i);
+            FileAnalysisResult a = actual.get(i);
+            for (Field f : fields) {
+                assertEquals(ReflectionTestUtils.getField(e, f.getName()), ReflectionTestUtils.getField(a, f.getName()),
+                        label + " #" + i + " " + f.getName());
+            }
+            assertEquals(e.getSizeDiff(), a.getSizeDiff(), label + " #" + i + " sizeDiff");
+            assertEquals(e.getEntropyDiff(), a.getEntropyDiff(), label + " #" + i + " entropyDiff");
+        }
+    }
+
+    /** 문자열이 자주 반복되고 각 선택 필드가 가끔 null이며 시각이 가끔 역행/누락되는 이벤트 열 */
+    private static List<FileAnalysisResult> randomEvents(long seed, int count) {
+        Random rnd = new Random(seed);
+        String[] owners = {"owner-a", "owner-b", "owner-c"};
+        String[] types = {"CREATE", "MODIFY", "DELETE"};
+        String[] exts = {"txt", "docx", "locked", "x9f2k", "한글"};
+        List<FileAnalysisResult> out = new ArrayList<>(count);
+        long t = T0;
+        for (int i = 0; i < count; i++) {
+            t += (rnd.nextInt(10) == 0) ? -rnd.nextInt(5_000) : rnd.nextInt(1_000);
+            String path = "/home/u/dir" + rnd.nextInt(20) + "/file-" + rnd.nextInt(300) + "." + exts[rnd.nextInt(exts.length)];
+            out.add(event(
+                    rnd.nextInt(50) == 0 ? null : owners[rnd.nextInt(owners.length)],
+                    types[rnd.nextInt(types.length)],
+                    rnd.nextInt(100) == 0 ? null : path,
+                    rnd.nextInt(30) == 0 ? null : t,
+                    rnd.nextBoolean(),
+                    rnd.nextInt(4) == 0 ? null : (long) rnd.nextInt(1 << 20),
+                    rnd.nextInt(4) == 0 ? null : rnd.nextLong() >> rnd.nextInt(64),
+                    rnd.nextInt(3) == 0 ? null : rnd.nextDouble() * 8,
+                    rnd.nextInt(3) == 0 ? null : rnd.nextDouble() * 8,
+                    rnd.nextInt(3) == 0 ? null : exts[rnd.nextInt(exts.length)],
+                    rnd.nextInt(3) == 0 ? null : exts[rnd.nextInt(exts.length)]));
+        }
+        return out;
+    }
+
+    private static FileAnalysisResult event(String owner, String type, String path, Long timeMs, boolean existsBefore,
+                                            Long sizeBefore, Long sizeAfter, Double entropyBefore, Double entropyAfter,
+                                            String extBefore, String extAfter) {
+        return FileAnalysisResult.builder()
+                .ownerKey(owner)
+                .eventType(type)
+                .path(path)
+                .eventTime((timeMs != null) ? Instant.ofEpochMilli(timeMs) : null)
+                .existsBefore(existsBefore)
+                .existsAfter(!existsBefore || sizeAfter != null)
+                .sizeBefore(sizeBefore)
+                .sizeAfter(sizeAfter)
+                .entropyBefore(entropyBefore)
+                .entropyAfter(entropyAfter)
+                .extBefore(extBefore)
+                .extAfter(extAfter)
+                .build();
+    }
+}